@@ -0,0 +1,132 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.repositories;
+
+import com.myhome.MyHomeServiceApplication;
+import com.myhome.domain.BaseEntity;
+import com.myhome.domain.CommunityHouse;
+import com.myhome.domain.Payment;
+import com.myhome.domain.User;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+import javax.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * measures the bulk creation of users, houses and payments. Run it on the commit before
+ * and after a change to identifier generation or batching settings and compare the
+ * logged times per entity.
+ */
+@Slf4j
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = MyHomeServiceApplication.class)
+class BulkCreationBenchmarkIntegrationTest {
+
+  private static final int ENTITY_COUNT = 2000;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+  @Autowired
+  private EntityManager entityManager;
+  @Autowired
+  private UserRepository userRepository;
+  @Autowired
+  private CommunityHouseRepository communityHouseRepository;
+  @Autowired
+  private PaymentRepository paymentRepository;
+
+  /**
+   * creates users in bulk and checks that every user got a distinct identifier.
+   */
+  @Test
+  void shouldCreateUsersInBulk() {
+    List<User> users = createInBulk("users", userRepository, index -> new User()
+        .withUserId("benchmark-user-" + index)
+        .withName("benchmark-user")
+        .withEmail("benchmark-user-" + index + "@mail.com")
+        .withEncryptedPassword("password"));
+
+    assertHaveDistinctIds(users);
+  }
+
+  /**
+   * creates houses in bulk and checks that every house got a distinct identifier.
+   */
+  @Test
+  void shouldCreateHousesInBulk() {
+    List<CommunityHouse> houses = createInBulk("houses", communityHouseRepository, index -> {
+      CommunityHouse house = new CommunityHouse();
+      house.setHouseId("benchmark-house-" + index);
+      house.setName("benchmark-house");
+      return house;
+    });
+
+    assertHaveDistinctIds(houses);
+  }
+
+  /**
+   * creates payments in bulk and checks that every payment got a distinct identifier.
+   */
+  @Test
+  void shouldCreatePaymentsInBulk() {
+    List<Payment> payments = createInBulk("payments", paymentRepository, index -> new Payment(
+        "benchmark-payment-" + index, BigDecimal.TEN, "benchmark", "benchmark payment",
+        false, LocalDate.now(), null, null));
+
+    assertHaveDistinctIds(payments);
+  }
+
+  private <T extends BaseEntity> List<T> createInBulk(String name,
+      CrudRepository<T, Long> repository, IntFunction<T> factory) {
+    List<T> entities = IntStream.range(0, ENTITY_COUNT)
+        .mapToObj(factory)
+        .collect(Collectors.toList());
+    long start = System.nanoTime();
+    List<T> saved = transactionTemplate.execute(status -> {
+      List<T> result = StreamSupport.stream(repository.saveAll(entities).spliterator(), false)
+          .collect(Collectors.toList());
+      entityManager.flush();
+      return result;
+    });
+    long elapsedMicros = (System.nanoTime() - start) / 1000;
+    log.info("Created {} {} in {} ms ({} us per entity)", ENTITY_COUNT, name,
+        elapsedMicros / 1000, elapsedMicros / ENTITY_COUNT);
+    return saved;
+  }
+
+  private void assertHaveDistinctIds(List<? extends BaseEntity> entities) {
+    assertThat(entities)
+        .extracting(BaseEntity::getId)
+        .doesNotContainNull()
+        .doesNotHaveDuplicates()
+        .hasSize(ENTITY_COUNT);
+  }
+}
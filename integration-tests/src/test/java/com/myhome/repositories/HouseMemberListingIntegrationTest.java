@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.repositories;
+
+import com.myhome.MyHomeServiceApplication;
+import com.myhome.domain.HouseMember;
+import com.myhome.domain.HouseMemberDocument;
+import com.myhome.repositories.projections.HouseMemberSummary;
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * guards the number of statements issued when house members are listed or loaded, so
+ * that neither their documents nor their houses are fetched one member at a time.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = MyHomeServiceApplication.class)
+class HouseMemberListingIntegrationTest {
+
+  private static final String HOUSE_ID = "default-house-id-for-testing";
+  private static final String USER_ID = "default-user-id-for-testing";
+  private static final String MEMBER_ID = "d296cfc2-35ed-4a72-8e29-a235a69165c5";
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+  @Autowired
+  private HouseMemberRepository houseMemberRepository;
+
+  private Statistics statistics;
+
+  /**
+   * empties the second-level cache and resets the Hibernate statistics before every test.
+   */
+  @BeforeEach
+  void init() {
+    SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    sessionFactory.getCache().evictAllRegions();
+    statistics = sessionFactory.getStatistics();
+    statistics.clear();
+  }
+
+  @Test
+  void shouldListMembersOfHouseWithSingleStatement() {
+    // when
+    List<HouseMemberSummary> members = transactionTemplate.execute(status ->
+        houseMemberRepository.findSummariesByHouseId(HOUSE_ID, PageRequest.of(0, 200)));
+
+    // then
+    assertThat(members).isNotEmpty();
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    assertThat(statistics.getEntityLoadCount()).isZero();
+  }
+
+  @Test
+  void shouldListMembersOfHousesOfAdminWithSingleStatement() {
+    // when
+    transactionTemplate.execute(status ->
+        houseMemberRepository.findSummariesByAdminUserId(USER_ID, PageRequest.of(0, 200)));
+
+    // then
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    assertThat(statistics.getEntityLoadCount()).isZero();
+  }
+
+  @Test
+  void shouldNotLoadDocumentWithMember() {
+    // when
+    Optional<HouseMember> member = transactionTemplate.execute(status ->
+        houseMemberRepository.findByMemberId(MEMBER_ID));
+
+    // then
+    assertThat(member).isPresent();
+    assertThat(statistics.getEntityStatistics(HouseMemberDocument.class.getName())
+        .getLoadCount()).isZero();
+  }
+}
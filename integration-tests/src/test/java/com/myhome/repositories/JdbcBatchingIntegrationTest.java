@@ -0,0 +1,151 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.repositories;
+
+import com.myhome.MyHomeServiceApplication;
+import com.myhome.domain.Amenity;
+import com.myhome.domain.CommunityHouse;
+import com.myhome.domain.Payment;
+import com.myhome.domain.User;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * counts the JDBC statements prepared by Hibernate under the production persistence
+ * profile, so that a change disabling insert or update batching fails the build instead
+ * of silently multiplying database round trips.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(
+    classes = MyHomeServiceApplication.class,
+    properties = "spring.jpa.properties.hibernate.generate_statistics=true"
+)
+@ActiveProfiles("prod")
+class JdbcBatchingIntegrationTest {
+
+  private static final int ENTITY_COUNT = 200;
+  private static final int BATCH_SIZE = 50;
+  private static final int BATCHES = ENTITY_COUNT / BATCH_SIZE;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+  @Autowired
+  private EntityManager entityManager;
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+  @Autowired
+  private AmenityRepository amenityRepository;
+
+  private Statistics statistics;
+
+  /**
+   * resets the Hibernate statistics before every test.
+   */
+  @BeforeEach
+  void init() {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  /**
+   * persists users, houses and payments interleaved in one transaction and expects them
+   * to be grouped per table and inserted in batches, plus one sequence call per block of
+   * identifiers.
+   */
+  @Test
+  void shouldBatchInterleavedInserts() {
+    // given
+    List<Object> entities = new ArrayList<>();
+    IntStream.range(0, ENTITY_COUNT).forEach(index -> {
+      entities.add(new User()
+          .withUserId("batch-user-" + index)
+          .withName("batch-user")
+          .withEmail("batch-user-" + index + "@mail.com")
+          .withEncryptedPassword("password"));
+      CommunityHouse house = new CommunityHouse();
+      house.setHouseId("batch-house-" + index);
+      house.setName("batch-house");
+      entities.add(house);
+      entities.add(new Payment("batch-payment-" + index, BigDecimal.TEN, "batch",
+          "batch payment", false, LocalDate.now(), null, null));
+    });
+
+    // when
+    transactionTemplate.execute(status -> {
+      entities.forEach(entityManager::persist);
+      entityManager.flush();
+      return null;
+    });
+
+    // then
+    assertThat(statistics.getEntityInsertCount()).isEqualTo(3L * ENTITY_COUNT);
+    // per table: one statement per batch and one sequence call per identifier block,
+    // plus one extra sequence call a pooled-lo optimizer may make on its first use
+    assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3L * (2 * BATCHES + 1));
+  }
+
+  /**
+   * updates versioned amenities in one transaction and expects the updates to be sent
+   * in batches despite their version check.
+   */
+  @Test
+  void shouldBatchVersionedUpdates() {
+    // given
+    List<Long> amenityIds = transactionTemplate.execute(status ->
+        amenityRepository.saveAll(IntStream.range(0, ENTITY_COUNT)
+            .mapToObj(index -> new Amenity()
+                .withAmenityId("batch-amenity-" + index)
+                .withName("batch-amenity")
+                .withDescription("batch amenity")
+                .withPrice(BigDecimal.ONE))
+            .collect(Collectors.toList()))
+            .stream()
+            .map(Amenity::getId)
+            .collect(Collectors.toList()));
+    statistics.clear();
+
+    // when
+    transactionTemplate.execute(status -> {
+      amenityRepository.findAllById(amenityIds)
+          .forEach(amenity -> amenity.setPrice(BigDecimal.TEN));
+      return null;
+    });
+
+    // then
+    assertThat(statistics.getEntityUpdateCount()).isEqualTo(ENTITY_COUNT);
+    // one select loading the amenities and one statement per update batch
+    assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(1L + BATCHES);
+  }
+}
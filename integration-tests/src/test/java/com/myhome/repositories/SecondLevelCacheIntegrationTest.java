@@ -0,0 +1,136 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.repositories;
+
+import com.myhome.MyHomeServiceApplication;
+import com.myhome.domain.Community;
+import com.myhome.domain.HouseMember;
+import java.util.Optional;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * verifies that reference entities looked up by their public identifier are served from
+ * the second-level and natural-id caches once loaded, without touching the database.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = MyHomeServiceApplication.class)
+class SecondLevelCacheIntegrationTest {
+
+  private static final String COMMUNITY_ID = "d8ef3522-1193-4ec2-bc10-7f79a69d8040";
+  private static final String MEMBER_ID = "d296cfc2-35ed-4a72-8e29-a235a69165c5";
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+  @Autowired
+  private CommunityRepository communityRepository;
+  @Autowired
+  private HouseMemberRepository houseMemberRepository;
+
+  private SessionFactory sessionFactory;
+  private Statistics statistics;
+
+  /**
+   * empties the second-level cache and resets the Hibernate statistics before every test.
+   */
+  @BeforeEach
+  void init() {
+    sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    sessionFactory.getCache().evictAllRegions();
+    statistics = sessionFactory.getStatistics();
+    statistics.clear();
+  }
+
+  /**
+   * loads the same community by its community ID in two transactions and expects the
+   * second lookup to be resolved from the caches.
+   */
+  @Test
+  void shouldServeRepeatedNaturalIdLookupFromCache() {
+    // given
+    Optional<Community> first = transactionTemplate.execute(status ->
+        communityRepository.findByCommunityId(COMMUNITY_ID));
+    long statementsAfterFirstLookup = statistics.getPrepareStatementCount();
+
+    // when
+    Optional<Community> second = transactionTemplate.execute(status ->
+        communityRepository.findByCommunityId(COMMUNITY_ID));
+
+    // then
+    assertThat(first).isPresent();
+    assertThat(second).isPresent();
+    assertThat(second.get().getId()).isEqualTo(first.get().getId());
+    assertThat(statementsAfterFirstLookup).isPositive();
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsAfterFirstLookup);
+    assertThat(statistics.getNaturalIdCacheHitCount()).isPositive();
+    assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+  }
+
+  /**
+   * expects a lookup of an unknown community ID to find nothing, and a repeated lookup
+   * to still find nothing instead of a stale cache entry.
+   */
+  @Test
+  void shouldNotCacheMissingNaturalId() {
+    // when
+    Optional<Community> first = transactionTemplate.execute(status ->
+        communityRepository.findByCommunityId("unknown-community-id"));
+    Optional<Community> second = transactionTemplate.execute(status ->
+        communityRepository.findByCommunityId("unknown-community-id"));
+
+    // then
+    assertThat(first).isEmpty();
+    assertThat(second).isEmpty();
+    assertThat(statistics.getNaturalIdCacheHitCount()).isZero();
+  }
+
+  /**
+   * resolves the same house member by its member ID in two transactions and expects only
+   * the first resolution to query the member ID, as members cache just their natural id.
+   */
+  @Test
+  void shouldResolveRepeatedMemberIdFromNaturalIdCache() {
+    // given
+    Optional<HouseMember> first = transactionTemplate.execute(status ->
+        houseMemberRepository.findByMemberId(MEMBER_ID));
+    long resolutionsAfterFirstLookup = statistics.getNaturalIdQueryExecutionCount();
+
+    // when
+    Optional<HouseMember> second = transactionTemplate.execute(status ->
+        houseMemberRepository.findByMemberId(MEMBER_ID));
+
+    // then
+    assertThat(first).isPresent();
+    assertThat(second).isPresent();
+    assertThat(second.get().getId()).isEqualTo(first.get().getId());
+    assertThat(resolutionsAfterFirstLookup).isEqualTo(1L);
+    assertThat(statistics.getNaturalIdQueryExecutionCount()).isEqualTo(1L);
+    assertThat(statistics.getNaturalIdCacheHitCount()).isPositive();
+  }
+}
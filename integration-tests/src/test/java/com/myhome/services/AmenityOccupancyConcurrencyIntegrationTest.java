@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services;
+
+import com.myhome.MyHomeServiceApplication;
+import com.myhome.domain.Amenity;
+import com.myhome.domain.AmenityBookingItem;
+import com.myhome.domain.AmenityOccupancy;
+import com.myhome.domain.OccupancyGranularity;
+import com.myhome.repositories.AmenityRepository;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * records the first bookings of an occupancy bucket from several threads at once, each
+ * in its own transaction, so that a race between creating the bucket and incrementing it
+ * fails the build instead of failing valid bookings.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = MyHomeServiceApplication.class)
+class AmenityOccupancyConcurrencyIntegrationTest {
+
+  // kept below the connection pool size, as every booking may hold two connections
+  private static final int CONCURRENT_BOOKINGS = 4;
+  private static final int BOOKED_MINUTES = 30;
+
+  @Autowired
+  private AmenityOccupancyService amenityOccupancyService;
+  @Autowired
+  private AmenityRepository amenityRepository;
+
+  @Test
+  void shouldCountConcurrentFirstBookingsOfBucket() throws Exception {
+    // given
+    Amenity amenity = amenityRepository.save(new Amenity()
+        .withAmenityId("occupancy-amenity-" + UUID.randomUUID())
+        .withName("occupancy-amenity")
+        .withDescription("occupancy amenity")
+        .withPrice(BigDecimal.ONE));
+    LocalDateTime bookingStart = LocalDateTime.of(2030, 1, 1, 10, 0);
+    CyclicBarrier start = new CyclicBarrier(CONCURRENT_BOOKINGS);
+    ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_BOOKINGS);
+
+    // when
+    try {
+      List<Future<?>> bookings = new ArrayList<>();
+      for (int i = 0; i < CONCURRENT_BOOKINGS; i++) {
+        bookings.add(executor.submit(() -> {
+          start.await();
+          amenityOccupancyService.recordBookings(Collections.singletonList(
+              new AmenityBookingItem()
+                  .withAmenity(amenity)
+                  .withBookingStartDate(bookingStart)
+                  .withBookingEndDate(bookingStart.plusMinutes(BOOKED_MINUTES))));
+          return null;
+        }));
+      }
+      for (Future<?> booking : bookings) {
+        booking.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // then
+    List<AmenityOccupancy> hourly = amenityOccupancyService.getOccupancy(amenity.getAmenityId(),
+        OccupancyGranularity.HOUR, bookingStart, bookingStart.plusHours(1));
+    assertThat(hourly).hasSize(1);
+    assertThat(hourly.get(0).getBookingCount()).isEqualTo(CONCURRENT_BOOKINGS);
+    assertThat(hourly.get(0).getBookedMinutes()).isEqualTo(CONCURRENT_BOOKINGS * BOOKED_MINUTES);
+  }
+}
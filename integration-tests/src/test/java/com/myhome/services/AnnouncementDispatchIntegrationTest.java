@@ -0,0 +1,126 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services;
+
+import com.myhome.MyHomeServiceApplication;
+import com.myhome.configuration.properties.mail.MailProperties;
+import com.myhome.domain.Announcement;
+import com.myhome.domain.AnnouncementStatus;
+import com.myhome.domain.Community;
+import com.myhome.domain.User;
+import com.myhome.repositories.AnnouncementRepository;
+import com.myhome.repositories.CommunityRepository;
+import com.myhome.repositories.UserRepository;
+import com.myhome.services.mail.AnnouncementDispatcher;
+import helpers.LocalSmtpServer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * sends a stored announcement to the admins of its community through the real
+ * repositories and a local SMTP server, so the dispatcher is exercised outside of any
+ * session, as it runs on the scheduler.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = MyHomeServiceApplication.class)
+class AnnouncementDispatchIntegrationTest {
+
+  private static final int BATCH_SIZE = 10;
+
+  @Autowired
+  private AnnouncementRepository announcementRepository;
+  @Autowired
+  private CommunityRepository communityRepository;
+  @Autowired
+  private UserRepository userRepository;
+
+  @Test
+  void shouldSendAnnouncementToAdminsOfCommunity() throws Exception {
+    // given
+    String suffix = UUID.randomUUID().toString();
+    HashSet<User> admins = new HashSet<>();
+    admins.add(saveConfirmedUser("first-admin-" + suffix));
+    admins.add(saveConfirmedUser("second-admin-" + suffix));
+    Community community = communityRepository.save(new Community()
+        .withCommunityId("announced-community-" + suffix)
+        .withName("announced-community")
+        .withDistrict("announced-district")
+        .withAdmins(admins));
+    LocalDateTime now = LocalDateTime.now();
+    Announcement announcement = announcementRepository.save(new Announcement()
+        .withAnnouncementId("announcement-" + suffix)
+        .withCommunity(community)
+        .withSubject("'My home' announcement: Water outage")
+        .withHtmlBody("<p>No water on Monday</p>")
+        .withStatus(AnnouncementStatus.SENDING)
+        .withRecipientCount(admins.size())
+        .withNextBatchAt(now.minusMinutes(1))
+        .withCreatedAt(now)
+        .withUpdatedAt(now));
+
+    // when
+    int sent;
+    LocalSmtpServer smtpServer = new LocalSmtpServer();
+    try {
+      sent = createDispatcher(smtpServer.getPort()).dispatchNextBatch();
+    } finally {
+      smtpServer.close();
+    }
+
+    // then
+    assertThat(sent).isEqualTo(2);
+    assertThat(smtpServer.getDeliveredRecipients()).containsExactlyInAnyOrder(
+        "first-admin-" + suffix + "@myhome.test", "second-admin-" + suffix + "@myhome.test");
+    Announcement stored = announcementRepository.findById(announcement.getId()).get();
+    assertThat(stored.getStatus()).isEqualTo(AnnouncementStatus.COMPLETED);
+    assertThat(stored.getSentMails()).isEqualTo(2);
+    assertThat(stored.getFailedMails()).isZero();
+  }
+
+  private User saveConfirmedUser(String name) {
+    return userRepository.save(new User()
+        .withName(name)
+        .withUserId(name)
+        .withEmail(name + "@myhome.test")
+        .withEmailConfirmed(true)
+        .withEncryptedPassword("encrypted-password")
+        .withCommunities(new HashSet<>())
+        .withUserTokens(new HashSet<>()));
+  }
+
+  private AnnouncementDispatcher createDispatcher(int port) {
+    JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+    mailSender.setHost("localhost");
+    mailSender.setPort(port);
+    mailSender.setProtocol("smtp");
+    MailProperties mailProperties = new MailProperties();
+    mailProperties.setUsername("announcements@myhome.test");
+    return new AnnouncementDispatcher(announcementRepository, userRepository, mailSender,
+        mailProperties, BATCH_SIZE, Integer.MAX_VALUE, Duration.ofMinutes(10), 2,
+        Duration.ofSeconds(30), Duration.ofMinutes(1));
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myhome.MyHomeServiceApplication;
+import com.myhome.services.exports.CommunitySnapshotFormat;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * exports a seeded community in both formats and checks that the streaming queries read
+ * all of its records.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = MyHomeServiceApplication.class)
+class CommunityExportIntegrationTest {
+
+  private static final String COMMUNITY_ID = "d8ef3522-1193-4ec2-bc10-7f79a69d8040";
+
+  @Autowired
+  private CommunityExportService communityExportService;
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Test
+  void shouldExportSameRecordsAsJsonAndNdjson() throws Exception {
+    // given
+    ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+    ByteArrayOutputStream json = new ByteArrayOutputStream();
+
+    // when
+    boolean exportedNdjson = communityExportService.exportCommunity(COMMUNITY_ID,
+        CommunitySnapshotFormat.NDJSON, ndjson);
+    boolean exportedJson = communityExportService.exportCommunity(COMMUNITY_ID,
+        CommunitySnapshotFormat.JSON, json);
+
+    // then
+    assertThat(exportedNdjson).isTrue();
+    assertThat(exportedJson).isTrue();
+    List<JsonNode> records = Arrays.stream(
+        new String(ndjson.toByteArray(), StandardCharsets.UTF_8).split("\n"))
+        .map(this::readTree)
+        .collect(Collectors.toList());
+    assertThat(records.get(0).get("type").asText()).isEqualTo("community");
+    assertThat(records.get(0).get("communityId").asText()).isEqualTo(COMMUNITY_ID);
+    Map<String, Long> recordsByType = records.stream()
+        .collect(Collectors.groupingBy(record -> record.get("type").asText(),
+            Collectors.counting()));
+    assertThat(recordsByType.get("house")).isPositive();
+    assertThat(recordsByType.get("member")).isPositive();
+    assertThat(recordsByType.get("admin")).isPositive();
+
+    JsonNode snapshot = objectMapper.readTree(json.toByteArray());
+    assertThat(snapshot.get("community").get("communityId").asText()).isEqualTo(COMMUNITY_ID);
+    Function<String, Long> sizeOf = section -> (long) snapshot.get(section).size();
+    assertThat(sizeOf.apply("houses")).isEqualTo(recordsByType.get("house"));
+    assertThat(sizeOf.apply("members")).isEqualTo(recordsByType.get("member"));
+    assertThat(sizeOf.apply("amenities")).isEqualTo(recordsByType.getOrDefault("amenity", 0L));
+    assertThat(sizeOf.apply("admins")).isEqualTo(recordsByType.get("admin"));
+    assertThat(sizeOf.apply("payments")).isEqualTo(recordsByType.getOrDefault("payment", 0L));
+  }
+
+  @Test
+  void shouldNotExportUnknownCommunity() throws Exception {
+    // given
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    // when
+    boolean exported = communityExportService.exportCommunity("unknown-community-id",
+        CommunitySnapshotFormat.NDJSON, output);
+
+    // then
+    assertThat(exported).isFalse();
+    assertThat(output.size()).isZero();
+  }
+
+  private JsonNode readTree(String line) {
+    try {
+      return objectMapper.readTree(line);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.configuration;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.util.IdGenerator;
+
+/**
+ * compares the throughput of the public identifier generators when many threads create
+ * identifiers at once, as during bulk imports. {@link UUID#randomUUID()} serializes all
+ * threads on one shared {@link java.security.SecureRandom}, the time ordered generator
+ * keeps all of its state per thread.
+ */
+@State(Scope.Benchmark)
+@Threads(8)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class IdGeneratorBenchmark {
+
+  private final IdGenerator timeOrderedIdGenerator = new TimeOrderedIdGenerator();
+
+  @Benchmark
+  public String randomUuid() {
+    return UUID.randomUUID().toString();
+  }
+
+  @Benchmark
+  public String timeOrderedId() {
+    return timeOrderedIdGenerator.generateId().toString();
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.images;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * compares the allocations of transcoding a 12 megapixel photo the way uploads were
+ * processed before, decoding it at full resolution and encoding it at a fixed quality,
+ * with {@link DocumentImageTranscoder}. Run with the `gc` profiler enabled in the build,
+ * `gc.alloc.rate.norm` reports the bytes allocated per transcoded image.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DocumentImageTranscoderBenchmark {
+
+  private static final int PHOTO_WIDTH = 4000;
+  private static final int PHOTO_HEIGHT = 3000;
+
+  private final DocumentImageTranscoder documentImageTranscoder =
+      new DocumentImageTranscoder(2048, 0.3f, 0.85f, 480 * 1024);
+
+  private byte[] photo;
+
+  @Setup
+  public void createPhoto() throws IOException {
+    BufferedImage image =
+        new BufferedImage(PHOTO_WIDTH, PHOTO_HEIGHT, BufferedImage.TYPE_INT_RGB);
+    Graphics2D graphics = image.createGraphics();
+    graphics.setPaint(new GradientPaint(0, 0, Color.ORANGE, PHOTO_WIDTH, PHOTO_HEIGHT,
+        Color.BLUE));
+    graphics.fillRect(0, 0, PHOTO_WIDTH, PHOTO_HEIGHT);
+    graphics.dispose();
+    try (ByteArrayOutputStream output = new ByteArrayOutputStream()) {
+      ImageIO.write(image, "jpg", output);
+      photo = output.toByteArray();
+    }
+  }
+
+  @Benchmark
+  public byte[] fullResolutionDecode() throws IOException {
+    BufferedImage image = ImageIO.read(new ByteArrayInputStream(photo));
+    try (ByteArrayOutputStream output = new ByteArrayOutputStream()) {
+      ImageIO.write(image, "jpg", output);
+      return output.toByteArray();
+    }
+  }
+
+  @Benchmark
+  public Optional<TranscodedImage> subsampledTranscode() throws IOException {
+    return documentImageTranscoder.transcode(new ByteArrayInputStream(photo));
+  }
+}
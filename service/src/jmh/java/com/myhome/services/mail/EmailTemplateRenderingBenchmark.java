@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.mail;
+
+import com.myhome.configuration.EmailTemplateConfig;
+import com.myhome.configuration.properties.mail.EmailTemplateLocalizationProperties;
+import com.myhome.configuration.properties.mail.EmailTemplateProperties;
+import com.myhome.configuration.properties.mail.MailTemplatesNames;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.context.support.ResourceBundleMessageSource;
+
+/**
+ * measures how many password recovery mails are rendered per second, with the settings
+ * of development, which parse the template and reload the resource bundles for every
+ * mail, and with the cached settings of the prod profile. Run with `./gradlew
+ * :service:jmh`, the `gc` profiler reports the bytes allocated per rendered mail.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EmailTemplateRenderingBenchmark {
+
+  @Param({"false", "true"})
+  private boolean cached;
+
+  private EmailTemplateCatalog emailTemplateCatalog;
+
+  private Map<String, Object> templateModel;
+
+  @Setup
+  public void createCatalog() {
+    EmailTemplateProperties templateProperties = new EmailTemplateProperties();
+    templateProperties.setPath("templates/mail");
+    templateProperties.setFormat(".html");
+    templateProperties.setEncoding("UTF-8");
+    templateProperties.setMode("HTML");
+    templateProperties.setCache(cached);
+    EmailTemplateLocalizationProperties localizationProperties =
+        new EmailTemplateLocalizationProperties();
+    localizationProperties.setPath("locales/mails");
+    localizationProperties.setEncoding("UTF-8");
+    localizationProperties.setCacheSeconds(cached ? -1 : 0);
+    localizationProperties.setLocales(Arrays.asList(Locale.ENGLISH, new Locale("ru")));
+
+    EmailTemplateConfig emailTemplateConfig =
+        new EmailTemplateConfig(templateProperties, localizationProperties);
+    ResourceBundleMessageSource messageSource = emailTemplateConfig.emailMessageSource();
+    emailTemplateCatalog = new EmailTemplateCatalog(
+        emailTemplateConfig.thymeleafTemplateEngine(messageSource), messageSource,
+        templateProperties, localizationProperties);
+
+    templateModel = new HashMap<>();
+    templateModel.put("username", "Test User");
+    templateModel.put("recoverCode", "123456");
+  }
+
+  @Benchmark
+  public String renderPasswordRecoverMail() {
+    return emailTemplateCatalog.getSubject(MailTemplatesNames.PASSWORD_RESET, Locale.US)
+        + emailTemplateCatalog.render(MailTemplatesNames.PASSWORD_RESET, Locale.US,
+        templateModel);
+  }
+}
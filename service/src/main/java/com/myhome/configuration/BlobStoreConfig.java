@@ -0,0 +1,44 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.configuration;
+
+import com.myhome.services.blobs.BlobStore;
+import com.myhome.services.blobs.FileSystemBlobStore;
+import java.io.IOException;
+import java.nio.file.Paths;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * provides the store keeping the content of uploaded documents. Declaring another
+ * {@link BlobStore} bean marked {@code @Primary} makes it take precedence over the local
+ * file system store. Scheduling is enabled
+ * for collecting content no document refers to any more, see
+ * {@link com.myhome.services.blobs.DocumentBlobRegistry}.
+ */
+@Configuration
+@EnableScheduling
+public class BlobStoreConfig {
+
+  @Bean
+  public BlobStore blobStore(@Value("${files.blobStoreRoot}") String blobStoreRoot)
+      throws IOException {
+    return new FileSystemBlobStore(Paths.get(blobStoreRoot));
+  }
+}
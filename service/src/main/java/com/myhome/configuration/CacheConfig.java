@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.configuration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * enables the application read caches declared in `spring.cache.cache-names` and
+ * publishes a hit ratio gauge for each of them next to the standard cache metrics.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+  public static final String AMENITY_CATALOG_CACHE = "amenityCatalog";
+  public static final String AMENITY_DETAILS_CACHE = "amenityDetails";
+  public static final String AMENITY_PRICE_TABLE_CACHE = "amenityPriceTables";
+
+  /**
+   * registers a `cache.hit.ratio` gauge tagged with the cache name for every Caffeine
+   * backed cache, computed from the statistics Caffeine records for the cache.
+   * 
+   * @param cacheManager cache manager holding the caches to report on.
+   * 
+   * @returns a binder which registers the gauges once a meter registry is available.
+   */
+  @Bean
+  public MeterBinder cacheHitRatioMetrics(CacheManager cacheManager) {
+    return registry -> cacheManager.getCacheNames().forEach(cacheName -> {
+      Cache cache = cacheManager.getCache(cacheName);
+      if (cache instanceof CaffeineCache) {
+        Gauge.builder("cache.hit.ratio", ((CaffeineCache) cache).getNativeCache(),
+            nativeCache -> nativeCache.stats().hitRate())
+            .tag("cache", cacheName)
+            .description("Ratio of cache lookups which were served from the cache")
+            .register(registry);
+      }
+    });
+  }
+}
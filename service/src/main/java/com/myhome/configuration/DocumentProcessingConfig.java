@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.configuration;
+
+import com.myhome.services.images.DocumentImageTranscoder;
+import java.util.concurrent.ThreadPoolExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * provides the bounded worker pool processing uploaded house member documents, so image
+ * decoding and encoding never occupies request threads, and the transcoder the workers
+ * use. Uploads arriving while all workers are busy and the queue is full are rejected
+ * instead of queueing without limit. Documents uploaded in a batch are stored by a
+ * separate pool, so storing them never waits behind transcoding.
+ */
+@Configuration
+public class DocumentProcessingConfig {
+
+  public static final String DOCUMENT_PROCESSING_EXECUTOR = "documentProcessingExecutor";
+  public static final String DOCUMENT_UPLOAD_EXECUTOR = "documentUploadExecutor";
+
+  @Bean(name = DOCUMENT_PROCESSING_EXECUTOR)
+  public ThreadPoolTaskExecutor documentProcessingExecutor(
+      @Value("${files.processing.poolSize}") int poolSize,
+      @Value("${files.processing.queueCapacity}") int queueCapacity) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(poolSize);
+    executor.setMaxPoolSize(poolSize);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix("document-processing-");
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    executor.setAwaitTerminationSeconds(30);
+    return executor;
+  }
+
+  /**
+   * creates the pool storing the documents of a batch upload in parallel. A batch never
+   * queues more documents than it may contain, and the request thread stores documents
+   * itself once the pool is saturated by concurrent batches.
+   */
+  @Bean(name = DOCUMENT_UPLOAD_EXECUTOR)
+  public ThreadPoolTaskExecutor documentUploadExecutor(
+      @Value("${files.batch.parallelism}") int parallelism,
+      @Value("${files.batch.maxFiles}") int maxFiles) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(parallelism);
+    executor.setMaxPoolSize(parallelism);
+    executor.setQueueCapacity(maxFiles);
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.setThreadNamePrefix("document-upload-");
+    return executor;
+  }
+
+  @Bean
+  public DocumentImageTranscoder documentImageTranscoder(
+      @Value("${files.image.maxDimension}") int maxDimension,
+      @Value("${files.image.minQuality}") float minQuality,
+      @Value("${files.image.maxQuality}") float maxQuality,
+      @Value("${files.maxSizeKBytes}") int maxSizeKBytes) {
+    return new DocumentImageTranscoder(maxDimension, minQuality, maxQuality,
+        DataSize.ofKilobytes(maxSizeKBytes).toBytes());
+  }
+
+  /**
+   * keeps the executor Spring Boot provides for async request processing, which it backs
+   * off from as soon as any other executor is declared.
+   *
+   * @param builder builder configured from the `spring.task.execution` properties.
+   *
+   * @returns the application task executor.
+   */
+  @Lazy
+  @Primary
+  @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+      "taskExecutor"})
+  public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+    return builder.build();
+  }
+}
@@ -76,13 +76,16 @@ public class EmailTemplateConfig {
    * The `thymeleafTemplateEngine` function creates a new instance of `SpringTemplateEngine`,
    * sets the `templateResolver` to a `ThymeleafTemplateResolver`, and then sets the
    * `messageSource` to an `EmailMessageSource`. This allows for the use of Thymeleaf
-   * templates in combination with email-related message resources.
+   * templates in combination with email-related message resources. Expressions of the
+   * templates are compiled to bytecode by the SpEL compiler once they ran a few times,
+   * falling back to interpretation for expressions it cannot compile.
    */
   @Bean
   public SpringTemplateEngine thymeleafTemplateEngine(ResourceBundleMessageSource emailMessageSource) {
     SpringTemplateEngine templateEngine = new SpringTemplateEngine();
     templateEngine.setTemplateResolver(thymeleafTemplateResolver());
     templateEngine.setTemplateEngineMessageSource(emailMessageSource);
+    templateEngine.setEnableSpringELCompiler(true);
     return templateEngine;
   }
 
@@ -16,39 +16,101 @@
 
 package com.myhome.configuration;
 
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
 import javax.servlet.MultipartConfigElement;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.servlet.MultipartConfigFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.util.unit.DataSize;
 
 /**
- * TODO
+ * configures how multipart uploads are received. Parts larger than the spill threshold
+ * are written by the servlet container to a dedicated directory instead of being held
+ * in heap, and files left there by requests which never completed are deleted
+ * periodically.
  */
+@Slf4j
 @Configuration
 public class FileUploadConfig {
 
   @Value("${files.maxSizeKBytes}")
   private int maxSizeKBytes;
+  @Value("${files.batch.maxFiles}")
+  private int maxBatchFiles;
+  @Value("${imports.maxSizeMBytes}")
+  private int maxImportSizeMBytes;
+  @Value("${files.multipart.fileSizeThresholdKBytes}")
+  private int fileSizeThresholdKBytes;
+  @Value("${files.multipart.location}")
+  private String location;
+  @Value("${files.multipart.staleAfter}")
+  private Duration staleAfter;
 
   /**
    * creates a `MultipartConfig` object, allowing for configuration of maximum file and
-   * request sizes in kilobytes.
-   * 
+   * request sizes, the spill threshold and the directory parts are spilled to.
+   *
    * @returns a `MultipartConfig` object configured with maximum file and request sizes
-   * in kilobytes.
-   * 
-   * 	- The MultipartConfigFactory object created is set to have a maximum file size
-   * of `maxSizeKBytes` kilobytes.
-   * 	- The maximum request size for multipart form data is also set to `maxSizeKBytes`
-   * kilobytes.
+   * large enough for the largest accepted upload.
+   *
+   * 	- The maximum file size is the larger of `maxSizeKBytes` kilobytes for documents
+   * and `maxImportSizeMBytes` megabytes for resident imports, the maximum request size
+   * also covers a batch of `maxBatchFiles` documents.
+   * 	- Uploaded documents are checked against the smaller document limit by the document
+   * controller, which rejects larger ones in the same way.
+   * 	- Parts up to `fileSizeThresholdKBytes` kilobytes are kept in memory, larger ones
+   * are written to `location`, which is created if it does not exist. The location is
+   * made absolute, as the servlet container resolves relative locations against its
+   * own temporary directory.
    */
   @Bean
-  public MultipartConfigElement multipartConfigElement() {
+  public MultipartConfigElement multipartConfigElement() throws IOException {
+    long maxDocumentSize = DataSize.ofKilobytes(maxSizeKBytes).toBytes();
+    long maxImportSize = DataSize.ofMegabytes(maxImportSizeMBytes).toBytes();
     MultipartConfigFactory factory = new MultipartConfigFactory();
-    factory.setMaxFileSize(DataSize.ofKilobytes(maxSizeKBytes));
-    factory.setMaxRequestSize(DataSize.ofKilobytes(maxSizeKBytes));
+    factory.setMaxFileSize(DataSize.ofBytes(Math.max(maxDocumentSize, maxImportSize)));
+    factory.setMaxRequestSize(
+        DataSize.ofBytes(Math.max(maxDocumentSize * maxBatchFiles, maxImportSize)));
+    factory.setFileSizeThreshold(DataSize.ofKilobytes(fileSizeThresholdKBytes));
+    factory.setLocation(Files.createDirectories(multipartLocation()).toString());
     return factory.createMultipartConfig();
   }
+
+  /**
+   * deletes files in the multipart location which are older than `staleAfter`. Parts
+   * of completed requests are deleted by Spring MVC, so only parts of requests which
+   * were aborted, or which were received before the application stopped, are left.
+   */
+  @Scheduled(fixedDelayString = "${files.multipart.cleanupInterval}")
+  public void deleteStaleMultipartFiles() {
+    FileTime cutoff = FileTime.from(Instant.now().minus(staleAfter));
+    int deleted = 0;
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(multipartLocation())) {
+      for (Path file : files) {
+        if (Files.isRegularFile(file) && Files.getLastModifiedTime(file).compareTo(cutoff) < 0
+            && Files.deleteIfExists(file)) {
+          deleted++;
+        }
+      }
+    } catch (IOException e) {
+      log.warn("Could not delete stale multipart files", e);
+    }
+    if (deleted > 0) {
+      log.info("Deleted {} stale multipart files", deleted);
+    }
+  }
+
+  private Path multipartLocation() {
+    return Paths.get(location).toAbsolutePath();
+  }
 }
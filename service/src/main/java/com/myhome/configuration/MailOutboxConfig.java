@@ -0,0 +1,46 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * provides the bounded worker pool sending the mails of the outbox. Every worker sends
+ * its share of a batch over a single SMTP connection, so the number of workers bounds
+ * the number of connections opened to the mail server at once.
+ */
+@Configuration
+public class MailOutboxConfig {
+
+  public static final String MAIL_DISPATCH_EXECUTOR = "mailDispatchExecutor";
+
+  @Bean(name = MAIL_DISPATCH_EXECUTOR)
+  public ThreadPoolTaskExecutor mailDispatchExecutor(
+      @Value("${email.outbox.workers}") int workers) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(workers);
+    executor.setMaxPoolSize(workers);
+    executor.setQueueCapacity(workers);
+    executor.setThreadNamePrefix("mail-dispatch-");
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    executor.setAwaitTerminationSeconds(30);
+    return executor;
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.configuration;
+
+import java.util.Properties;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * sequence based identifier generator shared by all entities. Every entity gets its own
+ * sequence, named after the entity with a `_seq` suffix, and identifiers are handed out
+ * from blocks reserved with a single sequence call by the pooled-lo optimizer. The block
+ * size is read from the `myhome.id.allocation_size` JPA property, so it can be tuned per
+ * environment without changing the mapping.
+ */
+public class PooledSequenceIdGenerator extends SequenceStyleGenerator {
+
+  public static final String ALLOCATION_SIZE_SETTING = "myhome.id.allocation_size";
+  public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+  @Override
+  public void configure(Type type, Properties params, ServiceRegistry serviceRegistry)
+      throws MappingException {
+    Integer allocationSize = serviceRegistry.getService(ConfigurationService.class)
+        .getSetting(ALLOCATION_SIZE_SETTING, StandardConverters.INTEGER, DEFAULT_ALLOCATION_SIZE);
+    params.setProperty(CONFIG_PREFER_SEQUENCE_PER_ENTITY, "true");
+    params.setProperty(INCREMENT_PARAM, String.valueOf(allocationSize));
+    params.setProperty(OPT_PARAM, "pooled-lo");
+    super.configure(type, params, serviceRegistry);
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.configuration;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+import org.springframework.util.IdGenerator;
+
+/**
+ * generates version 7 UUIDs for the public identifiers of entities. The first 48 bits
+ * hold the creation time in milliseconds since the epoch, followed by a 12 bit counter
+ * and 62 random bits. Identifiers created one after another therefore sort close to each
+ * other, so inserts append to the end of the unique indexes on the identifier columns
+ * instead of touching random index pages.
+ *
+ * <p>Every thread keeps its own timestamp and counter and draws its random bits from
+ * {@link ThreadLocalRandom}, so parallel writers never contend on a shared lock or on the
+ * shared {@link java.security.SecureRandom} behind {@link UUID#randomUUID()}. Identifiers
+ * created by one thread are strictly increasing, even within the same millisecond or when
+ * the clock goes backwards. These identifiers are unique but predictable enough to not be
+ * used as secrets, security tokens keep using random UUIDs.
+ */
+public class TimeOrderedIdGenerator implements IdGenerator {
+
+  private static final int COUNTER_BITS = 12;
+  private static final int MAX_COUNTER = (1 << COUNTER_BITS) - 1;
+  // counters start in the lower half of their range, leaving room for at least 2048
+  // identifiers per millisecond before the timestamp has to be advanced
+  private static final int COUNTER_SEED_BOUND = 1 << (COUNTER_BITS - 1);
+
+  private final LongSupplier clock;
+  private final ThreadLocal<ThreadState> threadState = ThreadLocal.withInitial(ThreadState::new);
+
+  public TimeOrderedIdGenerator() {
+    this(System::currentTimeMillis);
+  }
+
+  TimeOrderedIdGenerator(LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  /**
+   * creates a new time ordered UUID, greater than every UUID created before by the
+   * calling thread.
+   *
+   * @returns a version 7 UUID.
+   */
+  @Override
+  public UUID generateId() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    ThreadState state = threadState.get();
+    long now = clock.getAsLong();
+    if (now > state.lastMillis) {
+      state.lastMillis = now;
+      state.counter = random.nextInt(COUNTER_SEED_BOUND);
+    } else if (state.counter < MAX_COUNTER) {
+      state.counter++;
+    } else {
+      // counter exhausted within one millisecond, borrow the next one
+      state.lastMillis++;
+      state.counter = random.nextInt(COUNTER_SEED_BOUND);
+    }
+    return of(state.lastMillis, state.counter, random.nextLong());
+  }
+
+  /**
+   * builds a version 7 UUID from a timestamp, a counter and random bits, overwriting the
+   * version and variant bits.
+   *
+   * @param epochMillis creation time in milliseconds since the epoch, only the lower
+   * 48 bits are used.
+   *
+   * @param counter sequence number within the millisecond, only the lower 12 bits are used.
+   *
+   * @param randomBits random bits filling the lower half of the UUID.
+   *
+   * @returns the assembled version 7 UUID.
+   */
+  static UUID of(long epochMillis, long counter, long randomBits) {
+    long mostSignificantBits = (epochMillis << 16)
+        | 0x7000L
+        | (counter & MAX_COUNTER);
+    long leastSignificantBits = (randomBits & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+    return new UUID(mostSignificantBits, leastSignificantBits);
+  }
+
+  private static final class ThreadState {
+    private long lastMillis = Long.MIN_VALUE;
+    private int counter;
+  }
+}
@@ -1,6 +1,10 @@
 package com.myhome.configuration.properties.mail;
 
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
@@ -16,6 +20,8 @@ import org.springframework.stereotype.Component;
  * 	- cacheSeconds (int): in the EmailTemplateLocalizationProperties class represents
  * the number of seconds that email templates are cached before being re-fetched from
  * their location.
+ * 	- locales (List<Locale>): locales emails are localized for. Other requested locales
+ * are mapped to the supported locale of the same language, or to the first one.
  */
 @Data
 @Component
@@ -24,4 +30,5 @@ public class EmailTemplateLocalizationProperties {
   private String path;
   private String encoding;
   private int cacheSeconds;
+  private List<Locale> locales = new ArrayList<>(Collections.singletonList(Locale.ENGLISH));
 }
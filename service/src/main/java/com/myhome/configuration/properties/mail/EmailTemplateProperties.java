@@ -17,6 +17,8 @@ import org.springframework.stereotype.Component;
  * email templates in Spring Boot applications.
  * 	- cache (boolean): in EmailTemplateProperties represents a boolean value indicating
  * whether email templates should be cached for later use.
+ * 	- preload (boolean): whether every email template is parsed and rendered for every
+ * supported locale at startup, so the first mails are not slowed down by it.
  */
 @Data
 @Component
@@ -27,4 +29,5 @@ public class EmailTemplateProperties {
   private String encoding;
   private String mode;
   private boolean cache;
+  private boolean preload;
 }
@@ -1,13 +1,16 @@
 package com.myhome.configuration.properties.mail;
 
 public enum MailTemplatesNames {
-  PASSWORD_RESET("passwordRecoverCode"),
-  PASSWORD_CHANGED("passwordChanged"),
-  ACCOUNT_CREATED("accountCreated"),
-  ACCOUNT_CONFIRMED("accountConfirmed");
+  PASSWORD_RESET("passwordRecoverCode", "locale.EmailSubject.passwordRecover"),
+  PASSWORD_CHANGED("passwordChanged", "locale.EmailSubject.passwordChanged"),
+  ACCOUNT_CREATED("accountCreated", "locale.EmailSubject.accountCreated"),
+  ACCOUNT_CONFIRMED("accountConfirmed", "locale.EmailSubject.accountConfirmed"),
+  ANNOUNCEMENT("announcement", "locale.EmailSubject.announcement");
 
   public final String filename;
-  MailTemplatesNames(String fileName) {
+  public final String subjectKey;
+  MailTemplatesNames(String fileName, String subjectKey) {
     this.filename = fileName;
+    this.subjectKey = subjectKey;
   }
 }
@@ -2,7 +2,6 @@ package com.myhome.controllers;
 
 import com.myhome.api.AmenitiesApi;
 import com.myhome.controllers.mapper.AmenityApiMapper;
-import com.myhome.domain.Amenity;
 import com.myhome.model.AddAmenityRequest;
 import com.myhome.model.AddAmenityResponse;
 import com.myhome.model.AmenityDto;
@@ -30,8 +29,7 @@ public class AmenityController implements AmenitiesApi {
   @Override
   public ResponseEntity<GetAmenityDetailsResponse> getAmenityDetails(
       @PathVariable String amenityId) {
-    return amenitySDJpaService.getAmenityDetails(amenityId)
-        .map(amenityApiMapper::amenityToAmenityDetailsResponse)
+    return amenitySDJpaService.findAmenityDetails(amenityId)
         .map(ResponseEntity::ok)
         .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
   }
@@ -39,9 +37,7 @@ public class AmenityController implements AmenitiesApi {
   @Override
   public ResponseEntity<Set<GetAmenityDetailsResponse>> listAllAmenities(
       @PathVariable String communityId) {
-    Set<Amenity> amenities = amenitySDJpaService.listAllAmenities(communityId);
-    Set<GetAmenityDetailsResponse> response =
-        amenityApiMapper.amenitiesSetToAmenityDetailsResponseSet(amenities);
+    Set<GetAmenityDetailsResponse> response = amenitySDJpaService.listAmenityCatalog(communityId);
     return ResponseEntity.ok(response);
   }
 
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.controllers;
+
+import com.myhome.api.AnnouncementsApi;
+import com.myhome.domain.Announcement;
+import com.myhome.model.AnnouncementResponse;
+import com.myhome.model.AnnouncementStatus;
+import com.myhome.model.CreateAnnouncementRequest;
+import com.myhome.services.AnnouncementService;
+import java.net.URI;
+import javax.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller accepting announcements mailed to the admins of a community, and
+ * reporting the progress of their delivery. Only admins of the community may use it,
+ * which is checked by the `CommunityAuthorizationFilter`.
+ */
+@RestController
+@Slf4j
+@RequiredArgsConstructor
+public class AnnouncementController implements AnnouncementsApi {
+
+  private final AnnouncementService announcementService;
+
+  /**
+   * accepts an announcement to the admins of a community, which is sent in the background.
+   * 
+   * @param communityId ID of the announced community.
+   * 
+   * @param request subject and message of the announcement.
+   * 
+   * @returns a `202 Accepted` response with the progress of the announcement, which is
+   * reported at the URL in the `Location` header, or `404 Not Found` if the community
+   * does not exist.
+   */
+  @Override
+  public ResponseEntity<AnnouncementResponse> announceToCommunity(
+      @PathVariable String communityId, @Valid @RequestBody CreateAnnouncementRequest request) {
+    log.trace("Received request to announce to community with id[{}]", communityId);
+    return announcementService.announceToCommunity(communityId, request.getSubject(),
+        request.getMessage())
+        .map(this::toAcceptedResponse)
+        .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+  }
+
+  /**
+   * returns the progress of an announcement, which is updated with every sent batch.
+   * 
+   * @param communityId ID of the community the announcement belongs to.
+   * 
+   * @param announcementId ID of the announcement.
+   * 
+   * @returns a `200 OK` response with the progress of the announcement, or
+   * `404 Not Found` if the community has no such announcement.
+   */
+  @Override
+  public ResponseEntity<AnnouncementResponse> getAnnouncement(
+      @PathVariable String communityId, @PathVariable String announcementId) {
+    log.trace("Received request to get announcement with id[{}] of community with id[{}]",
+        announcementId, communityId);
+    return announcementService.getAnnouncement(communityId, announcementId)
+        .map(this::toAnnouncementResponse)
+        .map(ResponseEntity::ok)
+        .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+  }
+
+  private ResponseEntity<AnnouncementResponse> toAcceptedResponse(Announcement announcement) {
+    return ResponseEntity.accepted()
+        .location(URI.create(String.format("/communities/%s/announcements/%s",
+            announcement.getCommunity().getCommunityId(), announcement.getAnnouncementId())))
+        .body(toAnnouncementResponse(announcement));
+  }
+
+  private AnnouncementResponse toAnnouncementResponse(Announcement announcement) {
+    return new AnnouncementResponse()
+        .announcementId(announcement.getAnnouncementId())
+        .communityId(announcement.getCommunity().getCommunityId())
+        .status(AnnouncementStatus.valueOf(announcement.getStatus().name()))
+        .recipients(announcement.getRecipientCount())
+        .sentMails(announcement.getSentMails())
+        .failedMails(announcement.getFailedMails())
+        .failureReason(announcement.getFailureReason());
+  }
+}
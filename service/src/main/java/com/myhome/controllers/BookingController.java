@@ -1,12 +1,34 @@
 package com.myhome.controllers;
 
 import com.myhome.api.BookingsApi;
+import com.myhome.domain.AmenityOccupancy;
+import com.myhome.domain.OccupancyGranularity;
+import com.myhome.model.AmenityOccupancyDto;
+import com.myhome.model.AmenityOccupancyGranularity;
+import com.myhome.model.AmenityQuoteRequest;
+import com.myhome.model.AmenityQuoteResponse;
+import com.myhome.model.BookingSlot;
+import com.myhome.model.CancelAmenityBookingsResponse;
+import com.myhome.model.CreateAmenityBookingRequest;
+import com.myhome.model.CreateAmenityBookingResponse;
+import com.myhome.model.GetAmenityOccupancyResponse;
+import com.myhome.services.AmenityOccupancyService;
+import com.myhome.services.AmenityPricingService;
 import com.myhome.services.BookingService;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -18,6 +40,35 @@ import org.springframework.web.bind.annotation.RestController;
 public class BookingController implements BookingsApi {
 
   private final BookingService bookingSDJpaService;
+  private final AmenityOccupancyService amenityOccupancyService;
+  private final AmenityPricingService amenityPricingService;
+
+  /**
+   * books an amenity for the requested period, returning the ID of the created booking.
+   * 
+   * @param amenityId ID of the amenity to book.
+   * 
+   * @param request period the amenity is booked for.
+   * 
+   * @returns a `ResponseEntity` with status `CREATED` and the ID of the booking,
+   * `BAD_REQUEST` if the period does not end after it starts, or `NOT_FOUND` if the
+   * amenity does not exist.
+   */
+  @Override
+  public ResponseEntity<CreateAmenityBookingResponse> createAmenityBooking(
+      @PathVariable String amenityId,
+      @Valid @RequestBody CreateAmenityBookingRequest request) {
+    if (!request.getBookingStartDate().isBefore(request.getBookingEndDate())) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+    }
+    return bookingSDJpaService.createBooking(amenityId,
+        toLocalDateTime(request.getBookingStartDate()),
+        toLocalDateTime(request.getBookingEndDate()))
+        .map(booking -> new CreateAmenityBookingResponse()
+            .bookingId(booking.getAmenityBookingItemId()))
+        .map(response -> ResponseEntity.status(HttpStatus.CREATED).body(response))
+        .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+  }
 
   /**
    * deletes a booking based on its amenity ID and ID, returning a HTTP response code
@@ -55,4 +106,130 @@ public class BookingController implements BookingsApi {
       return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
     }
   }
+
+  /**
+   * cancels all bookings of an amenity which overlap the requested period, returning
+   * the number of cancelled bookings.
+   * 
+   * @param amenityId ID of the amenity whose bookings are cancelled.
+   * 
+   * @param startDate inclusive start of the cancellation period.
+   * 
+   * @param endDate exclusive end of the cancellation period.
+   * 
+   * @returns a `ResponseEntity` with status `OK` and the number of cancelled bookings,
+   * or `BAD_REQUEST` if the period does not end after it starts.
+   */
+  @Override
+  public ResponseEntity<CancelAmenityBookingsResponse> cancelAmenityBookings(
+      @PathVariable String amenityId,
+      @RequestParam OffsetDateTime startDate,
+      @RequestParam OffsetDateTime endDate) {
+    if (!startDate.isBefore(endDate)) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+    }
+    int cancelledBookings = bookingSDJpaService.cancelAmenityBookings(amenityId,
+        toLocalDateTime(startDate), toLocalDateTime(endDate));
+    return ResponseEntity.ok(
+        new CancelAmenityBookingsResponse().cancelledBookings(cancelledBookings));
+  }
+
+  /**
+   * quotes the price of booking an amenity for each of the requested slots, using the
+   * cached price table of the amenity so that no slot requires a database read.
+   * 
+   * @param amenityId ID of the amenity to quote.
+   * 
+   * @param request slots to quote. They are priced for community members if the
+   * authenticated user is a member of the community of the amenity.
+   * 
+   * @returns a `ResponseEntity` with status `OK` holding the price of every slot and
+   * their total, `BAD_REQUEST` if any slot does not end after it starts, or
+   * `NOT_FOUND` if the amenity does not exist.
+   */
+  @Override
+  public ResponseEntity<AmenityQuoteResponse> quoteAmenityBookings(
+      @PathVariable String amenityId,
+      @Valid @RequestBody AmenityQuoteRequest request) {
+    boolean hasInvalidSlot = request.getSlots().stream()
+        .anyMatch(slot -> !slot.getStartDate().isBefore(slot.getEndDate()));
+    if (hasInvalidSlot) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+    }
+    return amenityPricingService.getPriceTable(amenityId)
+        .map(priceTable -> {
+          boolean member = amenityPricingService.isCurrentUserMember(amenityId);
+          AmenityQuoteResponse response = new AmenityQuoteResponse().totalPrice(BigDecimal.ZERO);
+          for (BookingSlot slot : request.getSlots()) {
+            BigDecimal price = priceTable.quote(toLocalDateTime(slot.getStartDate()),
+                toLocalDateTime(slot.getEndDate()), member);
+            response.addSlotsItem(new BookingSlot()
+                .startDate(slot.getStartDate())
+                .endDate(slot.getEndDate())
+                .price(price));
+            response.totalPrice(response.getTotalPrice().add(price));
+          }
+          return ResponseEntity.ok(response);
+        })
+        .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+  }
+
+  /**
+   * returns the pre-aggregated hourly or daily occupancy of an amenity within the
+   * requested period, read from the occupancy rollups instead of the bookings.
+   * 
+   * @param amenityId ID of the amenity whose occupancy is requested.
+   * 
+   * @param granularity size of the returned occupancy buckets.
+   * 
+   * @param startDate inclusive start of the period.
+   * 
+   * @param endDate exclusive end of the period.
+   * 
+   * @returns a `ResponseEntity` with status `OK` and the occupied buckets of the
+   * amenity, or `BAD_REQUEST` if the period does not end after it starts.
+   */
+  @Override
+  public ResponseEntity<GetAmenityOccupancyResponse> getAmenityOccupancy(
+      @PathVariable String amenityId,
+      @RequestParam AmenityOccupancyGranularity granularity,
+      @RequestParam OffsetDateTime startDate,
+      @RequestParam OffsetDateTime endDate) {
+    if (!startDate.isBefore(endDate)) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+    }
+    List<AmenityOccupancyDto> occupancy = amenityOccupancyService.getOccupancy(amenityId,
+        OccupancyGranularity.valueOf(granularity.name()),
+        toLocalDateTime(startDate), toLocalDateTime(endDate))
+        .stream()
+        .map(this::toAmenityOccupancyDto)
+        .collect(Collectors.toList());
+    return ResponseEntity.ok(new GetAmenityOccupancyResponse().occupancy(occupancy));
+  }
+
+  /**
+   * converts a request timestamp to the server local time used for stored bookings.
+   * 
+   * @param dateTime timestamp with offset received in the request.
+   * 
+   * @returns the same instant expressed as a server local date-time.
+   */
+  private LocalDateTime toLocalDateTime(OffsetDateTime dateTime) {
+    return dateTime.atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+  }
+
+  /**
+   * maps an occupancy bucket to its API representation.
+   * 
+   * @param occupancy occupancy bucket of an amenity.
+   * 
+   * @returns the API representation of the bucket, with its start expressed in the
+   * server time zone.
+   */
+  private AmenityOccupancyDto toAmenityOccupancyDto(AmenityOccupancy occupancy) {
+    return new AmenityOccupancyDto()
+        .bucketStart(occupancy.getBucketStart().atZone(ZoneId.systemDefault()).toOffsetDateTime())
+        .bookingCount(occupancy.getBookingCount())
+        .bookedMinutes(occupancy.getBookedMinutes());
+  }
 }
@@ -26,6 +26,7 @@ import com.myhome.model.AddCommunityAdminRequest;
 import com.myhome.model.AddCommunityAdminResponse;
 import com.myhome.model.AddCommunityHouseRequest;
 import com.myhome.model.AddCommunityHouseResponse;
+import com.myhome.model.CommunityExportFormat;
 import com.myhome.model.CommunityHouseName;
 import com.myhome.model.CreateCommunityRequest;
 import com.myhome.model.CreateCommunityResponse;
@@ -33,7 +34,9 @@ import com.myhome.model.GetCommunityDetailsResponse;
 import com.myhome.model.GetCommunityDetailsResponseCommunity;
 import com.myhome.model.GetHouseDetailsResponse;
 import com.myhome.model.ListCommunityAdminsResponse;
+import com.myhome.services.CommunityExportService;
 import com.myhome.services.CommunityService;
+import com.myhome.services.exports.CommunitySnapshotFormat;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Optional;
@@ -45,10 +48,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * REST Controller which provides endpoints for managing community
@@ -60,8 +66,11 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 @Slf4j
 public class CommunityController implements CommunitiesApi {
+  private static final MediaType APPLICATION_NDJSON = MediaType.valueOf("application/x-ndjson");
+
   private final CommunityService communityService;
   private final CommunityApiMapper communityApiMapper;
+  private final CommunityExportService communityExportService;
 
   /**
    * receives a request to create a new community, maps it to a `CreateCommunityRequestDto`,
@@ -538,4 +547,36 @@ public class CommunityController implements CommunitiesApi {
       return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
     }
   }
+
+  /**
+   * exports a community with all its houses, members, amenities, admins and payments.
+   * The snapshot is written by the `communityExportService` on an async request thread
+   * while it is read from the database, so it is sent in chunks and is never held in
+   * memory as a whole.
+   * 
+   * @param communityId ID of the community to export.
+   * 
+   * @param format format of the snapshot, a single JSON document if not given.
+   * 
+   * @returns a `200 OK` response streaming the snapshot, or `404 Not Found` if the
+   * community does not exist.
+   */
+  @Override
+  public ResponseEntity<StreamingResponseBody> exportCommunity(@PathVariable String communityId,
+      @RequestParam(required = false) CommunityExportFormat format) {
+    log.trace("Received request to export community with id[{}]", communityId);
+    if (!communityService.getCommunityDetailsById(communityId).isPresent()) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+    }
+    CommunitySnapshotFormat snapshotFormat = format == null
+        ? CommunitySnapshotFormat.JSON
+        : CommunitySnapshotFormat.valueOf(format.name());
+    StreamingResponseBody snapshot = output ->
+        communityExportService.exportCommunity(communityId, snapshotFormat, output);
+    return ResponseEntity.ok()
+        .contentType(snapshotFormat == CommunitySnapshotFormat.NDJSON
+            ? APPLICATION_NDJSON
+            : MediaType.APPLICATION_JSON)
+        .body(snapshot);
+  }
 }
@@ -179,7 +179,7 @@ public class HouseController implements HousesApi {
 
     return houseService.getHouseMembersById(houseId, pageable)
         .map(HashSet::new)
-        .map(houseMemberMapper::houseMemberSetToRestApiResponseHouseMemberSet)
+        .map(houseMemberMapper::houseMemberSummarySetToRestApiResponseHouseMemberSet)
         .map(houseMembers -> new ListHouseMembersResponse().members(houseMembers))
         .map(ResponseEntity::ok)
         .orElse(ResponseEntity.notFound().build());
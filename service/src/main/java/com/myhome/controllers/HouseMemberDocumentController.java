@@ -18,19 +18,32 @@ package com.myhome.controllers;
 
 import com.myhome.api.DocumentsApi;
 import com.myhome.domain.HouseMemberDocument;
+import com.myhome.domain.HouseMemberDocumentUpload;
+import com.myhome.model.DocumentBatchUploadResponse;
+import com.myhome.model.DocumentSize;
+import com.myhome.model.DocumentUploadResponse;
+import com.myhome.model.DocumentUploadStatus;
+import com.myhome.model.MemberDocumentUploadResponse;
 import com.myhome.services.HouseMemberDocumentService;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
 import org.springframework.http.CacheControl;
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.multipart.MultipartFile;
 
 /**
@@ -45,11 +58,19 @@ import org.springframework.web.multipart.MultipartFile;
 public class HouseMemberDocumentController implements DocumentsApi {
 
   private final HouseMemberDocumentService houseMemberDocumentService;
+  @Value("${files.maxSizeKBytes}")
+  private int maxDocumentSizeKBytes;
+  @Value("${files.batch.maxFiles}")
+  private int maxBatchFiles;
 
   /**
-   * retrieves a House Member Document based on the provided member ID and returns it
-   * as a byte array in the response entity, along with appropriate headers to set the
-   * content type and filename.
+   * retrieves a House Member Document based on the provided member ID and streams it
+   * in the requested size in the response entity, along with appropriate headers to set
+   * the content type and filename. The content hash of the requested size is its strong
+   * ETag, so Spring MVC answers
+   * requests whose `If-None-Match` matches it with `304 Not Modified` without opening
+   * the content, and serves `Range` requests as `206 Partial Content` from the streamed
+   * resource. The length is left to the message converters, as it depends on the range.
    * 
    * @param memberId ID of the member whose house member document is being requested.
    * 
@@ -61,22 +82,24 @@ public class HouseMemberDocumentController implements DocumentsApi {
    * 	- `memberId`: This is the input parameter passed to the `findHouseMemberDocument`
    * method, which represents the ID of the house member for whom the document is being
    * retrieved.
+   * 
+   * @param size size of the document to stream, the full document if it is not given.
+   * Documents without thumbnails are served in full for every size.
    * 	- `document`: This is an instance of the `HouseMemberDocument` class, which
    * contains information about the house member document, including its content and filename.
-   * 	- `content`: This is a field of the `document` object that represents the actual
-   * content of the document, which is returned in the response entity.
+   * 	- `content`: This is a resource streaming the content of the document from the
+   * blob store, which is returned in the response entity.
    * 	- `headers`: This is an instance of `HttpHeaders`, which contains metadata about
-   * the response entity, such as its cache control and content type.
+   * the response entity, such as its cache control, ETag and content type.
    * 	- `ContentDisposition`: This is an instance of `ContentDisposition`, which contains
    * information about how the response entity should be handled by the client, including
    * its filename and whether it should be displayed inline or not.
    * 
-   * @returns a response entity containing the requested house member document as a
-   * byte array.
+   * @returns a response entity streaming the requested house member document.
    * 
    * 	- The `HttpHeaders` object represents the HTTP headers for the response, which
    * include cache control and content type information.
-   * 	- The `byte[]` variable represents the document content, which is a JPEG image
+   * 	- The `Resource` variable represents the document content, which is a JPEG image
    * in this case.
    * 	- The `ContentDisposition` object represents the content disposition of the
    * response, which includes the filename of the document.
@@ -85,18 +108,23 @@ public class HouseMemberDocumentController implements DocumentsApi {
    * code is `OK`, indicating that the request was successful.
    */
   @Override
-  public ResponseEntity<byte[]> getHouseMemberDocument(@PathVariable String memberId) {
+  public ResponseEntity<Resource> getHouseMemberDocument(@PathVariable String memberId,
+      @RequestParam(required = false) DocumentSize size) {
     log.trace("Received request to get house member documents");
+    com.myhome.domain.DocumentSize documentSize = size != null
+        ? com.myhome.domain.DocumentSize.valueOf(size.name())
+        : com.myhome.domain.DocumentSize.FULL;
     Optional<HouseMemberDocument> houseMemberDocumentOptional =
         houseMemberDocumentService.findHouseMemberDocument(memberId);
 
     return houseMemberDocumentOptional.map(document -> {
 
       HttpHeaders headers = new HttpHeaders();
-      byte[] content = document.getDocumentContent();
+      Resource content = houseMemberDocumentService.getDocumentContent(document, documentSize);
 
-      headers.setCacheControl(CacheControl.noCache().getHeaderValue());
-      headers.setContentType(MediaType.IMAGE_JPEG);
+      headers.setCacheControl(CacheControl.noCache().cachePrivate().getHeaderValue());
+      headers.setETag("\"" + document.getContent(documentSize).getContentHash() + "\"");
+      headers.setContentType(MediaType.parseMediaType(document.getContentType()));
 
       ContentDisposition contentDisposition = ContentDisposition
           .builder("inline")
@@ -110,9 +138,8 @@ public class HouseMemberDocumentController implements DocumentsApi {
   }
 
   /**
-   * receives a request to add a member document, creates a new house member document
-   * using the received file, and returns a response entity indicating whether the
-   * operation was successful or not.
+   * receives a request to add a member document and accepts the received file for
+   * processing in the background, which turns it into the document of the member.
    * 
    * @param memberId unique identifier of the member whose document is being uploaded.
    * 
@@ -129,34 +156,35 @@ public class HouseMemberDocumentController implements DocumentsApi {
    * a trace message indicating that the function has received a request to upload a
    * house member document.
    * 
-   * @returns a response entity with a status code of NO_CONTENT or NOT_FOUND, depending
-   * on whether the document was successfully uploaded or not.
+   * @returns a response entity with a status code of ACCEPTED and the upload, whose
+   * progress is reported at the URL in the `Location` header, CONFLICT if the file could
+   * not be read, or NOT_FOUND if the member does not exist.
    * 
    * 	- `ResponseEntity`: This is an entity representing a response message, which can
    * have a status code and a body. The status code indicates the result of the operation,
-   * while the body contains additional information, such as the uploaded document.
+   * while the body contains the status of the upload.
    * 	- `HttpStatus`: This is an enum representing the HTTP status code of the response.
-   * In this case, it can be either `NO_CONTENT` or `NOT_FOUND`.
+   * In this case, it can be either `ACCEPTED`, `CONFLICT` or `NOT_FOUND`.
    * 	- `build()`: This is a method that creates a new `ResponseEntity` object based
    * on the input parameters. It returns a new entity with the specified status code
    * and body.
    */
   @Override
-  public ResponseEntity uploadHouseMemberDocument(
+  public ResponseEntity<DocumentUploadResponse> uploadHouseMemberDocument(
       @PathVariable String memberId, @RequestParam("memberDocument") MultipartFile memberDocument) {
     log.trace("Received request to add house member documents");
+    checkDocumentSize(memberDocument);
 
-    Optional<HouseMemberDocument> houseMemberDocumentOptional =
-        houseMemberDocumentService.createHouseMemberDocument(memberDocument, memberId);
-    return houseMemberDocumentOptional
-        .map(document -> ResponseEntity.status(HttpStatus.NO_CONTENT).build())
+    return houseMemberDocumentService.createHouseMemberDocument(memberDocument, memberId)
+        .map(upload -> toAcceptedResponse(memberId, upload))
         .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
   }
 
   /**
-   * updates an existing house member document with the provided `memberId` and
-   * `memberDocument`. If successful, it returns a `ResponseEntity` with status code
-   * `NO_CONTENT`. Otherwise, it returns a `ResponseEntity` with status code `NOT_FOUND`.
+   * accepts a file replacing the house member document of the provided `memberId` for
+   * processing in the background. If the member exists, it returns a `ResponseEntity`
+   * with status code `ACCEPTED`. Otherwise, it returns a `ResponseEntity` with status
+   * code `NOT_FOUND`.
    * 
    * @param memberId unique identifier of the house member whose document is being updated.
    * 
@@ -171,22 +199,80 @@ public class HouseMemberDocumentController implements DocumentsApi {
    * 	- `memberId`: The unique identifier for a house member.
    * 	- `memberDocument`: A MultipartFile containing the updated house member document.
    * 
-   * @returns a response entity with a status of NO_CONTENT or NOT_FOUND, depending on
-   * whether the update was successful or not.
+   * @returns a response entity with a status of ACCEPTED and the upload, CONFLICT if
+   * the file could not be read, or NOT_FOUND if the member does not exist.
    * 
-   * 	- `map`: This method maps the updated house member document to a `ResponseEntity`
-   * object with a status code of `HttpStatus.NO_CONTENT`.
+   * 	- `map`: This method maps the accepted upload to a `ResponseEntity` object with a
+   * status code of `HttpStatus.ACCEPTED`.
    * 	- `orElseGet`: This method provides an alternative way to return a `ResponseEntity`
    * object with a status code of `HttpStatus.NOT_FOUND` if the `map` method returns `Optional.empty()`.
    */
   @Override
-  public ResponseEntity updateHouseMemberDocument(
+  public ResponseEntity<DocumentUploadResponse> updateHouseMemberDocument(
       @PathVariable String memberId, @RequestParam("memberDocument") MultipartFile memberDocument) {
     log.trace("Received request to update house member documents");
-    Optional<HouseMemberDocument> houseMemberDocumentOptional =
-        houseMemberDocumentService.updateHouseMemberDocument(memberDocument, memberId);
-    return houseMemberDocumentOptional
-        .map(document -> ResponseEntity.status(HttpStatus.NO_CONTENT).build())
+    checkDocumentSize(memberDocument);
+    return houseMemberDocumentService.updateHouseMemberDocument(memberDocument, memberId)
+        .map(upload -> toAcceptedResponse(memberId, upload))
+        .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+  }
+
+  /**
+   * receives the documents of many members at once and accepts them for processing in
+   * the background. The documents are stored in parallel, so a batch is accepted in
+   * about the time of its largest document instead of the sum of all of them.
+   *
+   * @param memberIds IDs of the members, one for every document, in the order of the
+   * documents.
+   *
+   * @param memberDocuments uploaded documents, each of them limited like a single upload.
+   *
+   * @returns a response entity with a status code of ACCEPTED and the upload of every
+   * document, which is failed if its file could not be read or queued, or without an
+   * upload if its member does not exist, or BAD_REQUEST if the number of member IDs and
+   * documents differ or the batch has too many documents.
+   */
+  @Override
+  public ResponseEntity<DocumentBatchUploadResponse> uploadHouseMemberDocuments(
+      @RequestParam("memberIds") List<String> memberIds,
+      @RequestParam("memberDocuments") List<MultipartFile> memberDocuments) {
+    log.trace("Received request to add {} house member documents", memberDocuments.size());
+    if (memberIds.size() != memberDocuments.size() || memberDocuments.size() > maxBatchFiles) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+    }
+    memberDocuments.forEach(this::checkDocumentSize);
+
+    List<Optional<HouseMemberDocumentUpload>> uploads =
+        houseMemberDocumentService.createHouseMemberDocuments(memberIds, memberDocuments);
+    DocumentBatchUploadResponse response = new DocumentBatchUploadResponse()
+        .uploads(new ArrayList<>(uploads.size()));
+    for (int i = 0; i < uploads.size(); i++) {
+      Optional<HouseMemberDocumentUpload> upload = uploads.get(i);
+      response.addUploadsItem(new MemberDocumentUploadResponse()
+          .memberId(memberIds.get(i))
+          .memberFound(upload.isPresent())
+          .upload(upload.map(this::toDocumentUploadResponse).orElse(null)));
+    }
+    return ResponseEntity.accepted().body(response);
+  }
+
+  /**
+   * returns the progress of processing a document uploaded for a member.
+   *
+   * @param memberId ID of the member the document was uploaded for.
+   *
+   * @param uploadId ID of the upload.
+   *
+   * @returns a `200 OK` response with the status of the upload, which is completed once
+   * the document is published, or `404 Not Found` if the member has no such upload.
+   */
+  @Override
+  public ResponseEntity<DocumentUploadResponse> getHouseMemberDocumentUpload(
+      @PathVariable String memberId, @PathVariable String uploadId) {
+    log.trace("Received request to get upload with id[{}] of house member documents", uploadId);
+    return houseMemberDocumentService.getHouseMemberDocumentUpload(memberId, uploadId)
+        .map(this::toDocumentUploadResponse)
+        .map(ResponseEntity::ok)
         .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
   }
 
@@ -220,4 +306,38 @@ public class HouseMemberDocumentController implements DocumentsApi {
       return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
     }
   }
+
+  /**
+   * rejects documents larger than the document size limit. The multipart limit of the
+   * application is raised for resident imports, so it does not cover documents anymore.
+   *
+   * @param memberDocument uploaded document to check.
+   *
+   * @throws MaxUploadSizeExceededException if the document exceeds the limit, answered
+   * with `413 Payload Too Large` like an upload exceeding the multipart limit.
+   */
+  private void checkDocumentSize(MultipartFile memberDocument) {
+    long maxDocumentSize = DataSize.ofKilobytes(maxDocumentSizeKBytes).toBytes();
+    if (memberDocument.getSize() > maxDocumentSize) {
+      throw new MaxUploadSizeExceededException(maxDocumentSize);
+    }
+  }
+
+  private ResponseEntity<DocumentUploadResponse> toAcceptedResponse(String memberId,
+      HouseMemberDocumentUpload upload) {
+    if (upload.getStatus() == com.myhome.domain.DocumentUploadStatus.FAILED) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).body(toDocumentUploadResponse(upload));
+    }
+    return ResponseEntity.accepted()
+        .location(URI.create(
+            String.format("/members/%s/documents/uploads/%s", memberId, upload.getUploadId())))
+        .body(toDocumentUploadResponse(upload));
+  }
+
+  private DocumentUploadResponse toDocumentUploadResponse(HouseMemberDocumentUpload upload) {
+    return new DocumentUploadResponse()
+        .uploadId(upload.getUploadId())
+        .status(DocumentUploadStatus.valueOf(upload.getStatus().name()))
+        .failureReason(upload.getFailureReason());
+  }
 }
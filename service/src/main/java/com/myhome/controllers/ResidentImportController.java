@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.controllers;
+
+import com.myhome.api.ImportsApi;
+import com.myhome.domain.ResidentImport;
+import com.myhome.model.ResidentImportFormat;
+import com.myhome.model.ResidentImportResponse;
+import com.myhome.model.ResidentImportStatus;
+import com.myhome.services.ResidentImportService;
+import com.myhome.services.imports.ResidentRecordFormat;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * REST controller importing houses and their members into a community from uploaded
+ * CSV or NDJSON files, and reporting the progress of such imports.
+ */
+@RestController
+@Slf4j
+@RequiredArgsConstructor
+public class ResidentImportController implements ImportsApi {
+
+  private final ResidentImportService residentImportService;
+
+  /**
+   * imports the houses and members of the uploaded file into a community.
+   * 
+   * @param communityId ID of the community to import into.
+   * 
+   * @param format format of the uploaded file.
+   * 
+   * @param residents uploaded file, read while it is imported.
+   * 
+   * @returns a `200 OK` response with the progress of the import, whose status tells if
+   * the import completed or failed, or `404 Not Found` if the community does not exist.
+   */
+  @Override
+  public ResponseEntity<ResidentImportResponse> importCommunityResidents(
+      @PathVariable String communityId, @RequestParam ResidentImportFormat format,
+      @RequestParam("residents") MultipartFile residents) {
+    log.trace("Received request to import residents into community with id[{}]", communityId);
+    return residentImportService.startImport(communityId, toRecordFormat(format), residents)
+        .map(this::toResidentImportResponse)
+        .map(ResponseEntity::ok)
+        .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+  }
+
+  /**
+   * returns the progress of an import, which is updated with every stored chunk while
+   * the import runs.
+   * 
+   * @param communityId ID of the community the import belongs to.
+   * 
+   * @param importId ID of the import.
+   * 
+   * @returns a `200 OK` response with the progress of the import, or `404 Not Found` if
+   * the community has no such import.
+   */
+  @Override
+  public ResponseEntity<ResidentImportResponse> getCommunityResidentsImport(
+      @PathVariable String communityId, @PathVariable String importId) {
+    log.trace("Received request to get import with id[{}] of community with id[{}]",
+        importId, communityId);
+    return residentImportService.getImport(communityId, importId)
+        .map(this::toResidentImportResponse)
+        .map(ResponseEntity::ok)
+        .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+  }
+
+  /**
+   * resumes a failed or interrupted import with the same file it was started with.
+   * 
+   * @param communityId ID of the community the import belongs to.
+   * 
+   * @param importId ID of the import to resume.
+   * 
+   * @param format format of the uploaded file.
+   * 
+   * @param residents uploaded file, whose records stored before are skipped.
+   * 
+   * @returns a `200 OK` response with the progress of the import, `404 Not Found` if the
+   * community has no such import, or `409 Conflict` if the import already completed.
+   */
+  @Override
+  public ResponseEntity<ResidentImportResponse> resumeCommunityResidentsImport(
+      @PathVariable String communityId, @PathVariable String importId,
+      @RequestParam ResidentImportFormat format,
+      @RequestParam("residents") MultipartFile residents) {
+    log.trace("Received request to resume import with id[{}] of community with id[{}]",
+        importId, communityId);
+    return residentImportService.getImport(communityId, importId)
+        .map(residentImport -> residentImport.getStatus()
+            == com.myhome.domain.ResidentImportStatus.COMPLETED
+            ? ResponseEntity.status(HttpStatus.CONFLICT).<ResidentImportResponse>build()
+            : residentImportService.resumeImport(communityId, importId, toRecordFormat(format),
+                residents)
+                .map(this::toResidentImportResponse)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build()))
+        .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+  }
+
+  private ResidentRecordFormat toRecordFormat(ResidentImportFormat format) {
+    return ResidentRecordFormat.valueOf(format.name());
+  }
+
+  private ResidentImportResponse toResidentImportResponse(ResidentImport residentImport) {
+    return new ResidentImportResponse()
+        .importId(residentImport.getImportId())
+        .status(ResidentImportStatus.valueOf(residentImport.getStatus().name()))
+        .processedRecords(residentImport.getProcessedRecords())
+        .createdHouses(residentImport.getCreatedHouses())
+        .createdMembers(residentImport.getCreatedMembers())
+        .failureReason(residentImport.getFailureReason());
+  }
+}
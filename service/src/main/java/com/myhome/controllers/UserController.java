@@ -301,7 +301,7 @@ public class UserController implements UsersApi {
 
     return houseService.listHouseMembersForHousesOfUserId(userId, pageable)
             .map(HashSet::new)
-            .map(houseMemberMapper::houseMemberSetToRestApiResponseHouseMemberSet)
+            .map(houseMemberMapper::houseMemberSummarySetToRestApiResponseHouseMemberSet)
             .map(houseMembers -> new ListHouseMembersResponse().members(houseMembers))
             .map(ResponseEntity::ok)
             .orElse(ResponseEntity.notFound().build());
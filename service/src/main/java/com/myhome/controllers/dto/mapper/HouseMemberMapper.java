@@ -18,6 +18,7 @@ package com.myhome.controllers.dto.mapper;
 
 import com.myhome.domain.HouseMember;
 import com.myhome.model.HouseMemberDto;
+import com.myhome.repositories.projections.HouseMemberSummary;
 import java.util.Set;
 import org.mapstruct.Mapper;
 
@@ -30,6 +31,9 @@ public interface HouseMemberMapper {
   Set<com.myhome.model.HouseMember> houseMemberSetToRestApiResponseHouseMemberSet(
       Set<HouseMember> houseMemberSet);
 
+  Set<com.myhome.model.HouseMember> houseMemberSummarySetToRestApiResponseHouseMemberSet(
+      Set<HouseMemberSummary> houseMemberSummarySet);
+
   Set<HouseMember> houseMemberDtoSetToHouseMemberSet(Set<HouseMemberDto> houseMemberDtoSet);
 
   Set<com.myhome.model.HouseMember> houseMemberSetToRestApiResponseAddHouseMemberSet(
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.controllers.exceptionhandler;
+
+import java.util.HashMap;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+/**
+ * turns updates lost to a concurrent change of the same entity into CONFLICT responses.
+ */
+@ControllerAdvice
+public class ConcurrentUpdateExceptionAdvice {
+
+  /**
+   * handles the `ObjectOptimisticLockingFailureException` thrown when an update is
+   * based on a version of an entity which was changed in the meantime, by returning a
+   * response entity with an error message.
+   * 
+   * @param exc ObjectOptimisticLockingFailureException object that is passed to the
+   * function as an exception.
+   * 
+   * @returns a response entity with a status code of CONFLICT and a body containing a
+   * message asking the client to reload the resource before updating it again.
+   */
+  @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+  public ResponseEntity handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException exc) {
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(new HashMap<String, String>() {{
+      put("message", "Resource was changed concurrently, reload it and try again!");
+    }});
+  }
+}
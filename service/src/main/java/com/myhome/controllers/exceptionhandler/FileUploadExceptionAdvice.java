@@ -18,11 +18,14 @@ package com.myhome.controllers.exceptionhandler;
 
 import java.io.IOException;
 import java.util.HashMap;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.multipart.MultipartException;
 
 /**
  * TODO
@@ -57,14 +60,13 @@ public class FileUploadExceptionAdvice {
   }
 
   /**
-   * is an exception handler for the `MaxUploadSizeExceededException` thrown by the
-   * service. It returns a response entity with a status code of `CONFLICT` and a message
+   * is an exception handler for the `IOException` thrown by the service. It returns a
+   * response entity with a status code of `CONFLICT` and a message
    * body containing an error message.
    * 
-   * @param exc `MaxUploadSizeExceededException` that occurs when the uploaded file
-   * exceeds the maximum allowed size.
+   * @param exc `IOException` that occurs when the uploaded file cannot be read or stored.
    * 
-   * 	- `MaxUploadSizeExceededException`: The class of the exception that was handled.
+   * 	- `IOException`: The class of the exception that was handled.
    * 	- `exc`: The deserialized instance of the exception class, providing information
    * about the specific error that occurred during document saving.
    * 
@@ -79,10 +81,43 @@ public class FileUploadExceptionAdvice {
    * related to the document saving process.
    */
   @ExceptionHandler(IOException.class)
-  public ResponseEntity handleIOException(MaxUploadSizeExceededException exc) {
+  public ResponseEntity handleIOException(IOException exc) {
     return ResponseEntity.status(HttpStatus.CONFLICT).body(new HashMap<String, String>() {{
       put("message", "Something go wrong with document saving!");
     }});
   }
-}
 
+  /**
+   * handles every other `MultipartException`, thrown when a multipart request is
+   * malformed, was aborted while it was received, or its parts cannot be written to the
+   * multipart location.
+   *
+   * @param exc MultipartException thrown while the multipart request was resolved.
+   *
+   * @returns a response entity with a status code of BAD_REQUEST.
+   */
+  @ExceptionHandler(MultipartException.class)
+  public ResponseEntity handleMultipartException(MultipartException exc) {
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new HashMap<String, String>() {{
+      put("message", "Could not read the uploaded files!");
+    }});
+  }
+
+  /**
+   * handles the `TaskRejectedException` thrown when an uploaded document cannot be
+   * queued for processing because all document processing workers are busy.
+   *
+   * @param exc TaskRejectedException thrown by the document processing executor.
+   *
+   * @returns a response entity with a status code of SERVICE_UNAVAILABLE, asking the
+   * client to upload the document again later.
+   */
+  @ExceptionHandler(TaskRejectedException.class)
+  public ResponseEntity handleTaskRejectedException(TaskRejectedException exc) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "10")
+        .body(new HashMap<String, String>() {{
+          put("message", "Too many documents are processed, upload it again later!");
+        }});
+  }
+}
@@ -22,6 +22,7 @@ import com.myhome.model.GetAmenityDetailsResponse;
 import com.myhome.model.UpdateAmenityRequest;
 import java.util.Set;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 /**
  * defines a mapper for converting between different representations of amenities,
@@ -34,6 +35,7 @@ public interface AmenityApiMapper {
 
   Set<GetAmenityDetailsResponse> amenitiesSetToAmenityDetailsResponseSet(Set<Amenity> amenity);
 
+  @Mapping(target = "version", ignore = true)
   Amenity amenityDtoToAmenity(AmenityDto amenityDto);
 
   AmenityDto amenityToAmenityDto(Amenity amenity);
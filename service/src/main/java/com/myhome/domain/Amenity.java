@@ -27,12 +27,17 @@ import javax.persistence.NamedAttributeNode;
 import javax.persistence.NamedEntityGraph;
 import javax.persistence.NamedEntityGraphs;
 import javax.persistence.OneToMany;
+import javax.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 import lombok.With;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 /**
  * has properties for amenity ID, name, description, price, community, and community
@@ -67,7 +72,11 @@ import lombok.With;
  * to a CommunityHouse entity.
  * 	- bookingItems (Set<AmenityBookingItem>): of the Amenity class represents a set
  * of objects related to bookings for the amenity.
+ * 	- version (Long): optimistic locking version of the amenity, incremented by every
+ * update and used to reject updates based on stale amenity details.
  */
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "amenity")
+@NaturalIdCache(region = "amenity-natural-id")
 @Entity
 @AllArgsConstructor
 @NoArgsConstructor
@@ -90,6 +99,7 @@ import lombok.With;
 })
 
 public class Amenity extends BaseEntity {
+  @NaturalId
   @Column(nullable = false, unique = true)
   private String amenityId;
   @Column(nullable = false)
@@ -105,4 +115,7 @@ public class Amenity extends BaseEntity {
   @ToString.Exclude
   @OneToMany(fetch = FetchType.LAZY, mappedBy = "amenity")
   private Set<AmenityBookingItem> bookingItems = new HashSet<>();
+  @Version
+  @Column(nullable = false)
+  private Long version;
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.domain;
+
+import java.time.LocalDateTime;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
+import javax.persistence.Index;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.With;
+
+/**
+ * represents the pre-aggregated occupancy of an amenity within one hour or one day,
+ * maintained incrementally whenever bookings of the amenity are created or deleted.
+ * Fields:
+ * 	- amenity (Amenity): the amenity whose bookings are aggregated.
+ * 	- granularity (OccupancyGranularity): size of the time bucket, one hour or one day.
+ * 	- bucketStart (LocalDateTime): start of the time bucket.
+ * 	- bookingCount (long): number of bookings overlapping the time bucket.
+ * 	- bookedMinutes (long): number of booked minutes within the time bucket, summed
+ * over all overlapping bookings.
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@With
+@Table(
+    uniqueConstraints = @UniqueConstraint(columnNames = {"amenity_id", "granularity", "bucketStart"}),
+    indexes = @Index(columnList = "amenity_id, granularity, bucketStart")
+)
+public class AmenityOccupancy extends BaseEntity {
+  @ManyToOne(fetch = FetchType.LAZY)
+  private Amenity amenity;
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private OccupancyGranularity granularity;
+  @Column(nullable = false)
+  private LocalDateTime bucketStart;
+  @Column(nullable = false)
+  private long bookingCount;
+  @Column(nullable = false)
+  private long bookedMinutes;
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.domain;
+
+import java.time.LocalDateTime;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
+import javax.persistence.Index;
+import javax.persistence.Lob;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import javax.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.With;
+
+/**
+ * an announcement mailed to the admins of a community, together with the progress of
+ * its delivery. The mail is rendered once when the announcement is
+ * accepted. Recipients are read in pages ordered by their ID, and the ID of the last
+ * recipient of every sent batch is stored with the counters, so the delivery continues
+ * after the last sent batch when the application restarts.
+ * Fields:
+ * 	- announcementId (String): public identifier of the announcement.
+ * 	- community (Community): the announced community.
+ * 	- subject (String): localized subject of the mail.
+ * 	- htmlBody (String): rendered HTML body of the mail.
+ * 	- status (AnnouncementStatus): whether the announcement is being sent, completed or
+ * failed.
+ * 	- recipientCount (long): number of recipients when the announcement was accepted.
+ * 	- lastRecipientId (long): ID of the last user a batch was sent to, 0 before the first.
+ * 	- sentMails (long): number of recipients the mail server accepted.
+ * 	- failedMails (long): number of recipients the mail server rejected.
+ * 	- attempts (int): number of failed attempts to send the current batch.
+ * 	- nextBatchAt (LocalDateTime): when the next batch is sent, at the earliest.
+ * 	- failureReason (String): why the delivery failed, if it did.
+ * 	- createdAt (LocalDateTime): when the announcement was accepted.
+ * 	- updatedAt (LocalDateTime): when the delivery last made progress or changed its status.
+ * 	- version (Long): guards the progress against batches being sent twice.
+ */
+@Entity
+@Table(indexes = {@Index(columnList = "status,nextBatchAt")})
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@With
+public class Announcement extends BaseEntity {
+  public static final int MAX_FAILURE_REASON_LENGTH = 1000;
+
+  @Column(nullable = false, unique = true)
+  private String announcementId;
+  @ManyToOne(fetch = FetchType.LAZY, optional = false)
+  private Community community;
+  @Column(nullable = false, length = 1000)
+  private String subject;
+  @Lob
+  @Column(nullable = false)
+  private String htmlBody;
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private AnnouncementStatus status;
+  @Column(nullable = false)
+  private long recipientCount;
+  @Column(nullable = false)
+  private long lastRecipientId;
+  @Column(nullable = false)
+  private long sentMails;
+  @Column(nullable = false)
+  private long failedMails;
+  @Column(nullable = false)
+  private int attempts;
+  @Column(nullable = false)
+  private LocalDateTime nextBatchAt;
+  @Column(length = MAX_FAILURE_REASON_LENGTH)
+  private String failureReason;
+  @Column(nullable = false)
+  private LocalDateTime createdAt;
+  @Column(nullable = false)
+  private LocalDateTime updatedAt;
+  @Version
+  private Long version;
+}
@@ -18,20 +18,21 @@ package com.myhome.domain;
 
 import java.io.Serializable;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.MappedSuperclass;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
 
 /**
  * Base class for all JPA Entities. Try not to expose id value outside of the service.
  */
 /**
  * serves as a base class for all JPA Entities and provides an ID field generated by
- * Hibernate using the Identity strategy.
+ * Hibernate from a pooled per-entity sequence, so identifiers are known before the
+ * entity is inserted and inserts can be deferred and batched.
  * Fields:
  * 	- id (Long): in BaseEntity represents an auto-generated unique identifier for
  * each instance of the class.
@@ -43,6 +44,8 @@ import lombok.NoArgsConstructor;
 @EqualsAndHashCode(callSuper = false)
 public class BaseEntity implements Serializable {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(generator = "pooled-sequence")
+  @GenericGenerator(name = "pooled-sequence",
+      strategy = "com.myhome.configuration.PooledSequenceIdGenerator")
   private Long id;
 }
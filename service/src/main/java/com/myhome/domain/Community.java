@@ -32,6 +32,10 @@ import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 import lombok.With;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 /**
  * Entity identifying a valid user in the service.
@@ -56,6 +60,8 @@ import lombok.With;
 @NoArgsConstructor
 @Data
 @EqualsAndHashCode(callSuper = false, of = {"communityId", "name", "district"})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "community")
+@NaturalIdCache(region = "community-natural-id")
 @Entity
 @With
 @NamedEntityGraphs({
@@ -87,6 +93,7 @@ public class Community extends BaseEntity {
   private Set<CommunityHouse> houses = new HashSet<>();
   @Column(nullable = false)
   private String name;
+  @NaturalId
   @Column(unique = true, nullable = false)
   private String communityId;
   @Column(nullable = false)
@@ -32,6 +32,10 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.With;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 /**
  * represents a house belonging to a community with attributes for the community and
@@ -50,6 +54,8 @@ import lombok.With;
  * 	- amenities (Set<Amenity>): in the CommunityHouse class represents a set of Amenity
  * objects associated with the house, which are not necessarily exclusive to the community.
  */
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "community-house")
+@NaturalIdCache(region = "community-house-natural-id")
 @Entity
 @AllArgsConstructor
 @NoArgsConstructor
@@ -78,6 +84,7 @@ public class CommunityHouse extends BaseEntity {
   @Column(nullable = false)
   private String name;
   @With
+  @NaturalId
   @Column(unique = true, nullable = false)
   private String houseId;
   @OneToMany(fetch = FetchType.LAZY)
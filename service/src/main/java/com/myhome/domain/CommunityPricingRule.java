@@ -0,0 +1,70 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.domain;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
+import javax.persistence.ManyToOne;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.With;
+
+/**
+ * represents a rule adjusting the price of the amenities of a community, applied on top
+ * of the hourly amenity price when a booking is quoted.
+ * Fields:
+ * 	- community (Community): the community whose amenities the rule applies to.
+ * 	- type (PricingRuleType): whether the rule is a peak hours surcharge or a member
+ * discount.
+ * 	- dayOfWeek (DayOfWeek): day the peak hours apply to, or every day if not set.
+ * 	- startTime (LocalTime): inclusive start of the peak hours, or the start of the day
+ * if not set.
+ * 	- endTime (LocalTime): exclusive end of the peak hours, or the end of the day if
+ * not set.
+ * 	- multiplier (BigDecimal): factor the price is multiplied with, e.g. 1.5 for a 50%
+ * peak surcharge or 0.9 for a 10% member discount.
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@With
+public class CommunityPricingRule extends BaseEntity {
+  @ManyToOne(fetch = FetchType.LAZY)
+  private Community community;
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private PricingRuleType type;
+  @Enumerated(EnumType.STRING)
+  @Column
+  private DayOfWeek dayOfWeek;
+  @Column
+  private LocalTime startTime;
+  @Column
+  private LocalTime endTime;
+  @Column(nullable = false)
+  private BigDecimal multiplier;
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.domain;
+
+import java.time.LocalDateTime;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.With;
+
+/**
+ * counts the references to content in the blob store. Every document refers once to
+ * each distinct content of its sizes, and every upload being processed to its uploaded
+ * content. Content is registered as soon as it is stored, so content which never got
+ * referenced, or lost its last reference, is found and collected after a grace period.
+ * Fields:
+ * 	- contentHash (String): SHA-256 hash addressing the content in the blob store.
+ * 	- contentLength (long): size of the content in bytes.
+ * 	- referenceCount (int): number of documents and uploads referring to the content.
+ * 	- orphanedSince (LocalDateTime): when the content was registered or lost its last
+ * reference, null while it is referenced.
+ */
+@Entity
+@Table(indexes = @Index(columnList = "referenceCount, orphanedSince"))
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@With
+public class DocumentBlob extends BaseEntity {
+
+  @Column(nullable = false, unique = true, length = 64)
+  private String contentHash;
+  @Column(nullable = false)
+  private long contentLength;
+  @Column(nullable = false)
+  private int referenceCount;
+  private LocalDateTime orphanedSince;
+}
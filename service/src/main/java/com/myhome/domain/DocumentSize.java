@@ -0,0 +1,42 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.domain;
+
+/**
+ * size in which the content of a house member document is stored and served. Besides
+ * the full document, smaller thumbnails are generated when a document is processed, so
+ * previews do not transfer the full image.
+ */
+public enum DocumentSize {
+  FULL(0),
+  MEDIUM(480),
+  SMALL(160);
+
+  private final int maxDimension;
+
+  DocumentSize(int maxDimension) {
+    this.maxDimension = maxDimension;
+  }
+
+  /**
+   * returns the largest width or height of a thumbnail of this size in pixels, or 0 for
+   * the full document, whose resolution is limited by the document processing settings.
+   */
+  public int getMaxDimension() {
+    return maxDimension;
+  }
+}
@@ -18,6 +18,7 @@ package com.myhome.domain;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToOne;
@@ -25,7 +26,10 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import lombok.With;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 /**
  * represents a member of a house with unique identification and associated documents,
@@ -34,7 +38,7 @@ import lombok.With;
  * 	- memberId (String): in the HouseMember class represents a unique identifier for
  * each member in the community.
  * 	- houseMemberDocument (HouseMemberDocument): represents an association between a
- * house member and a document related to them.
+ * house member and a document related to them, loaded only when it is accessed.
  * 	- name (String): in the HouseMember class stores a string value representing the
  * member's name.
  * 	- communityHouse (CommunityHouse): in the HouseMember class represents a single
@@ -44,14 +48,17 @@ import lombok.With;
 @AllArgsConstructor
 @NoArgsConstructor
 @Data
-@EqualsAndHashCode(callSuper = false, exclude = "communityHouse")
+@EqualsAndHashCode(callSuper = false, exclude = {"communityHouse", "houseMemberDocument"})
+@ToString(exclude = "houseMemberDocument")
+@NaturalIdCache(region = "house-member-natural-id")
 public class HouseMember extends BaseEntity {
 
   @With
+  @NaturalId
   @Column(nullable = false, unique = true)
   private String memberId;
 
-  @OneToOne(orphanRemoval = true)
+  @OneToOne(fetch = FetchType.LAZY, orphanRemoval = true)
   @JoinColumn(name = "document_id")
   private HouseMemberDocument houseMemberDocument;
 
@@ -16,9 +16,14 @@
 
 package com.myhome.domain;
 
+import javax.persistence.AttributeOverride;
+import javax.persistence.AttributeOverrides;
 import javax.persistence.Column;
+import javax.persistence.Embedded;
 import javax.persistence.Entity;
-import javax.persistence.Lob;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -26,14 +31,27 @@ import lombok.NoArgsConstructor;
 
 /**
  * in the given Java file defines a new entity with a unique document filename and
- * binary data content.
+ * the metadata of its content, which is kept in a blob store outside of the database.
  * Fields:
  * 	- documentFilename (String): in the HouseMemberDocument class represents the
  * filename of a document.
- * 	- documentContent (byte[]): in the HouseMemberDocument class contains a byte array
- * of unknown length.
+ * 	- contentHash (String): SHA-256 hash addressing the content in the blob store.
+ * 	- contentLength (long): size of the content in bytes.
+ * 	- contentType (String): media type of the content.
+ * 	- sourceContentHash (String): hash of the uploaded content the document was
+ * transcoded from, so the same upload is not transcoded again.
+ * 	- mediumThumbnail (DocumentContent): medium sized thumbnail of the document, if one
+ * was generated.
+ * 	- smallThumbnail (DocumentContent): small thumbnail of the document, if one was
+ * generated.
+ * 	- version (Long): incremented whenever the content of the document is replaced, so
+ * concurrent replacements do not overwrite each other.
  */
 @Entity
+@Table(indexes = {
+    @Index(columnList = "contentHash"),
+    @Index(columnList = "sourceContentHash")
+})
 @AllArgsConstructor
 @NoArgsConstructor
 @Data
@@ -43,7 +61,89 @@ public class HouseMemberDocument extends BaseEntity {
   @Column(unique = true)
   private String documentFilename;
 
-  @Lob
-  @Column
-  private byte[] documentContent = new byte[0];
+  @Column(nullable = false, length = 64)
+  private String contentHash;
+
+  @Column(nullable = false)
+  private long contentLength;
+
+  @Column(nullable = false)
+  private String contentType;
+
+  @Column(length = 64)
+  private String sourceContentHash;
+
+  @Embedded
+  @AttributeOverrides({
+      @AttributeOverride(name = "contentHash",
+          column = @Column(name = "mediumThumbnailHash", length = 64)),
+      @AttributeOverride(name = "contentLength",
+          column = @Column(name = "mediumThumbnailLength"))
+  })
+  private DocumentContent mediumThumbnail;
+
+  @Embedded
+  @AttributeOverrides({
+      @AttributeOverride(name = "contentHash",
+          column = @Column(name = "smallThumbnailHash", length = 64)),
+      @AttributeOverride(name = "contentLength",
+          column = @Column(name = "smallThumbnailLength"))
+  })
+  private DocumentContent smallThumbnail;
+
+  @Version
+  private Long version;
+
+  public HouseMemberDocument(String documentFilename, String contentHash, long contentLength,
+      String contentType) {
+    this(documentFilename, contentHash, contentLength, contentType, null, null, null, null);
+  }
+
+  /**
+   * returns the content of the document in the requested size. Documents stored before
+   * thumbnails were generated serve their full content in every size.
+   *
+   * @param size requested size of the document.
+   *
+   * @returns hash and length of the content in the blob store.
+   */
+  public DocumentContent getContent(DocumentSize size) {
+    DocumentContent thumbnail = null;
+    if (size == DocumentSize.MEDIUM) {
+      thumbnail = mediumThumbnail;
+    } else if (size == DocumentSize.SMALL) {
+      thumbnail = smallThumbnail;
+    }
+    return thumbnail != null ? thumbnail : new DocumentContent(contentHash, contentLength);
+  }
+
+  /**
+   * stores the metadata of a generated thumbnail.
+   *
+   * @param size size of the thumbnail, FULL is ignored.
+   *
+   * @param thumbnail hash and length of the thumbnail in the blob store.
+   */
+  public void setThumbnail(DocumentSize size, DocumentContent thumbnail) {
+    if (size == DocumentSize.MEDIUM) {
+      mediumThumbnail = thumbnail;
+    } else if (size == DocumentSize.SMALL) {
+      smallThumbnail = thumbnail;
+    }
+  }
+
+  /**
+   * replaces the content of the document and all of its thumbnails with those of a
+   * transcoded document, keeping the identity and filename of the document.
+   *
+   * @param document transcoded document whose content is taken over.
+   */
+  public void replaceContent(HouseMemberDocument document) {
+    contentHash = document.getContentHash();
+    contentLength = document.getContentLength();
+    contentType = document.getContentType();
+    sourceContentHash = document.getSourceContentHash();
+    mediumThumbnail = document.getMediumThumbnail();
+    smallThumbnail = document.getSmallThumbnail();
+  }
 }
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.domain;
+
+import java.time.LocalDateTime;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
+import javax.persistence.Index;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import javax.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.With;
+
+/**
+ * tracks an uploaded house member document while it is processed in the background.
+ * The upload is kept in the blob store as it was received until it is transcoded and
+ * published as the document of the member, so processing which was interrupted can be
+ * started again.
+ * Fields:
+ * 	- uploadId (String): public identifier of the upload.
+ * 	- member (HouseMember): the member the document is uploaded for.
+ * 	- status (DocumentUploadStatus): whether the upload is processing, completed or failed.
+ * 	- stagedContentHash (String): hash of the uploaded content in the blob store.
+ * 	- failureReason (String): why the processing failed, if it did.
+ * 	- createdAt (LocalDateTime): when the upload was received.
+ * 	- updatedAt (LocalDateTime): when the status last changed.
+ */
+@Entity
+@Table(indexes = {@Index(columnList = "status"), @Index(columnList = "stagedContentHash")})
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@With
+public class HouseMemberDocumentUpload extends BaseEntity {
+  public static final int MAX_FAILURE_REASON_LENGTH = 1000;
+
+  @Column(nullable = false, unique = true)
+  private String uploadId;
+  @ManyToOne(fetch = FetchType.LAZY)
+  private HouseMember member;
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private DocumentUploadStatus status;
+  @Column(length = 64)
+  private String stagedContentHash;
+  @Column(length = MAX_FAILURE_REASON_LENGTH)
+  private String failureReason;
+  @Column(nullable = false)
+  private LocalDateTime createdAt;
+  @Column(nullable = false)
+  private LocalDateTime updatedAt;
+  @Version
+  private Long version;
+}
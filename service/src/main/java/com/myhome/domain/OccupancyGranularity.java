@@ -0,0 +1,56 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.domain;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * size of the time buckets amenity occupancy is aggregated into.
+ */
+public enum OccupancyGranularity {
+  HOUR(ChronoUnit.HOURS),
+  DAY(ChronoUnit.DAYS);
+
+  private final ChronoUnit unit;
+
+  OccupancyGranularity(ChronoUnit unit) {
+    this.unit = unit;
+  }
+
+  /**
+   * returns the start of the bucket containing the given date-time.
+   *
+   * @param dateTime date-time to find the bucket for.
+   *
+   * @returns the given date-time truncated to the bucket size.
+   */
+  public LocalDateTime bucketStart(LocalDateTime dateTime) {
+    return dateTime.truncatedTo(unit);
+  }
+
+  /**
+   * returns the start of the bucket following the bucket starting at the given date-time.
+   *
+   * @param bucketStart start of a bucket.
+   *
+   * @returns the start of the next bucket.
+   */
+  public LocalDateTime nextBucketStart(LocalDateTime bucketStart) {
+    return bucketStart.plus(1, unit);
+  }
+}
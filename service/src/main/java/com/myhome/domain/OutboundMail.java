@@ -0,0 +1,79 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.domain;
+
+import java.time.LocalDateTime;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Index;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+import javax.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.With;
+
+/**
+ * a rendered mail waiting in the outbox until the background dispatcher sent it. Mails
+ * are rendered when they are queued, as the locale and the URLs they contain are taken
+ * from the request which queued them.
+ * Fields:
+ * 	- recipient (String): email address the mail is sent to.
+ * 	- subject (String): localized subject of the mail.
+ * 	- htmlBody (String): rendered HTML body of the mail.
+ * 	- status (OutboundMailStatus): whether the mail is still to be sent or was given up.
+ * 	- attempts (int): number of failed attempts to send the mail.
+ * 	- nextAttemptAt (LocalDateTime): when the mail is sent next, at the earliest.
+ * 	- lastError (String): why the last attempt failed, if one did.
+ * 	- createdAt (LocalDateTime): when the mail was queued.
+ * 	- version (Long): guards the claim of the mail against being taken by two instances.
+ */
+@Entity
+@Table(indexes = {@Index(columnList = "status,nextAttemptAt")})
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@With
+public class OutboundMail extends BaseEntity {
+  public static final int MAX_ERROR_LENGTH = 1000;
+
+  @Column(nullable = false)
+  private String recipient;
+  @Column(nullable = false, length = 1000)
+  private String subject;
+  @Lob
+  @Column(nullable = false)
+  private String htmlBody;
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private OutboundMailStatus status;
+  @Column(nullable = false)
+  private int attempts;
+  @Column(nullable = false)
+  private LocalDateTime nextAttemptAt;
+  @Column(length = MAX_ERROR_LENGTH)
+  private String lastError;
+  @Column(nullable = false)
+  private LocalDateTime createdAt;
+  @Version
+  private Long version;
+}
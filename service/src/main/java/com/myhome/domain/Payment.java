@@ -27,6 +27,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 /**
  * Entity identifying a payment in the service. This could be an electricity bill, house rent, water
@@ -101,8 +103,10 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @Data
 @EqualsAndHashCode(callSuper = false)
+@NaturalIdCache(region = "payment-natural-id")
 @Entity
 public class Payment extends BaseEntity {
+  @NaturalId
   @Column(unique = true, nullable = false)
   private String paymentId;
   @Column(nullable = false)
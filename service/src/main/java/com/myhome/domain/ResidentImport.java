@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.domain;
+
+import java.time.LocalDateTime;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
+import javax.persistence.ManyToOne;
+import javax.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.With;
+
+/**
+ * tracks an import of houses and members into a community from an uploaded file. The
+ * counters are updated in the same transaction as every imported chunk of records, so
+ * `processedRecords` always tells how many records of the file are already stored and
+ * where a resumed import has to continue.
+ * Fields:
+ * 	- importId (String): public identifier of the import.
+ * 	- community (Community): the community houses and members are imported into.
+ * 	- status (ResidentImportStatus): whether the import is running, completed or failed.
+ * 	- processedRecords (long): number of records of the file which were imported.
+ * 	- createdHouses (long): number of houses created by the import.
+ * 	- createdMembers (long): number of house members created by the import.
+ * 	- failureReason (String): why the import failed, if it did.
+ * 	- startedAt (LocalDateTime): when the import was started.
+ * 	- updatedAt (LocalDateTime): when the import last made progress or changed its status.
+ * 	- version (Long): guards the progress against imports of the same file running twice.
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@With
+public class ResidentImport extends BaseEntity {
+  public static final int MAX_FAILURE_REASON_LENGTH = 1000;
+
+  @Column(nullable = false, unique = true)
+  private String importId;
+  @ManyToOne(fetch = FetchType.LAZY)
+  private Community community;
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private ResidentImportStatus status;
+  @Column(nullable = false)
+  private long processedRecords;
+  @Column(nullable = false)
+  private long createdHouses;
+  @Column(nullable = false)
+  private long createdMembers;
+  @Column(length = MAX_FAILURE_REASON_LENGTH)
+  private String failureReason;
+  @Column(nullable = false)
+  private LocalDateTime startedAt;
+  @Column(nullable = false)
+  private LocalDateTime updatedAt;
+  @Version
+  private Long version;
+}
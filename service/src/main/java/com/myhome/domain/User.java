@@ -22,6 +22,10 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.With;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
@@ -114,6 +118,8 @@ import java.util.Set;
 @NoArgsConstructor
 @Data
 @EqualsAndHashCode(callSuper = false, of = {"userId", "email"})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
+@NaturalIdCache(region = "user-natural-id")
 @Entity
 @With
 @NamedEntityGraphs({
@@ -133,6 +139,7 @@ import java.util.Set;
 public class User extends BaseEntity {
   @Column(nullable = false)
   private String name;
+  @NaturalId
   @Column(unique = true, nullable = false)
   private String userId;
   @Column(unique = true, nullable = false)
@@ -1,13 +1,54 @@
 package com.myhome.repositories;
 
 import com.myhome.domain.AmenityBookingItem;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import javax.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 /**
  * extends JpaRepository and provides a method for finding an Optional<AmenityBookingItem>
- * by amenityBookingItemId.
+ * by amenityBookingItemId, along with conditional bulk deletes that are executed as a
+ * single statement and report the number of affected rows, and finders selecting the
+ * bookings to be deleted. Bookings found for a period are locked until the end of the
+ * transaction, so they can be deleted by ID without racing concurrent deletes.
  */
 public interface AmenityBookingItemRepository extends JpaRepository<AmenityBookingItem, String> {
   Optional<AmenityBookingItem> findByAmenityBookingItemId(String amenityBookingItemId);
+
+  @Query("from AmenityBookingItem item "
+      + "where item.amenityBookingItemId = :bookingId "
+      + "and item.amenity.amenityId = :amenityId")
+  Optional<AmenityBookingItem> findByAmenityBookingItemIdAndAmenityId(
+      @Param("bookingId") String bookingId,
+      @Param("amenityId") String amenityId);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("from AmenityBookingItem item "
+      + "where item.amenity.id in "
+      + "(select amenity.id from Amenity amenity where amenity.amenityId = :amenityId) "
+      + "and item.bookingStartDate < :endDate "
+      + "and (item.bookingEndDate > :startDate "
+      + "or (item.bookingEndDate is null and item.bookingStartDate >= :startDate))")
+  List<AmenityBookingItem> findAllByAmenityIdInPeriod(@Param("amenityId") String amenityId,
+      @Param("startDate") LocalDateTime startDate,
+      @Param("endDate") LocalDateTime endDate);
+
+  @Modifying
+  @Query("delete from AmenityBookingItem item "
+      + "where item.amenityBookingItemId = :bookingId "
+      + "and item.amenity.id in "
+      + "(select amenity.id from Amenity amenity where amenity.amenityId = :amenityId)")
+  int deleteByAmenityBookingItemIdAndAmenityId(@Param("bookingId") String bookingId,
+      @Param("amenityId") String amenityId);
+
+  @Modifying
+  @Query("delete from AmenityBookingItem item where item.id in :ids")
+  int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
 }
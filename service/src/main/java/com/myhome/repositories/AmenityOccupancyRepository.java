@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.repositories;
+
+import com.myhome.domain.AmenityOccupancy;
+import com.myhome.domain.OccupancyGranularity;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * provides access to the pre-aggregated occupancy buckets of amenities, with single
+ * statement increments of a bucket's counters and range reads over the buckets of one
+ * amenity.
+ */
+public interface AmenityOccupancyRepository extends JpaRepository<AmenityOccupancy, Long> {
+
+  @Modifying
+  @Query("update AmenityOccupancy occupancy "
+      + "set occupancy.bookingCount = occupancy.bookingCount + :bookings, "
+      + "occupancy.bookedMinutes = occupancy.bookedMinutes + :minutes "
+      + "where occupancy.amenity.id = :amenityId "
+      + "and occupancy.granularity = :granularity "
+      + "and occupancy.bucketStart = :bucketStart")
+  int incrementOccupancy(@Param("amenityId") Long amenityId,
+      @Param("granularity") OccupancyGranularity granularity,
+      @Param("bucketStart") LocalDateTime bucketStart,
+      @Param("bookings") long bookings,
+      @Param("minutes") long minutes);
+
+  @Modifying
+  @Query("delete from AmenityOccupancy occupancy "
+      + "where occupancy.amenity.id = :amenityId and occupancy.bookingCount <= 0")
+  int deleteEmptyOccupancy(@Param("amenityId") Long amenityId);
+
+  @Query("from AmenityOccupancy occupancy "
+      + "where occupancy.amenity.id in "
+      + "(select amenity.id from Amenity amenity where amenity.amenityId = :amenityId) "
+      + "and occupancy.granularity = :granularity "
+      + "and occupancy.bucketStart >= :startDate and occupancy.bucketStart < :endDate "
+      + "and occupancy.bookingCount > 0 "
+      + "order by occupancy.bucketStart")
+  List<AmenityOccupancy> findOccupancyInPeriod(@Param("amenityId") String amenityId,
+      @Param("granularity") OccupancyGranularity granularity,
+      @Param("startDate") LocalDateTime startDate,
+      @Param("endDate") LocalDateTime endDate);
+}
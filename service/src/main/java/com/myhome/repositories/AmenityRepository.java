@@ -17,22 +17,52 @@
 package com.myhome.repositories;
 
 import com.myhome.domain.Amenity;
+import java.math.BigDecimal;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 /**
  * defines a set of methods for interacting with the Amenity entity in a Spring Data
  * JPA repository context, including findByAmenityIdWithCommunity and findByAmenityId
- * methods.
+ * methods, and a single statement partial update guarded by the amenity version.
+ * findByAmenityId resolves the amenity by its natural id, served from the natural-id
+ * and second-level caches when possible.
  */
-public interface AmenityRepository extends JpaRepository<Amenity, Long> {
+public interface AmenityRepository extends JpaRepository<Amenity, Long>,
+    NaturalIdRepository<Amenity, Long> {
 
   @Query("from Amenity amenity where amenity.amenityId = :amenityId")
   @EntityGraph(value = "Amenity.community")
   Optional<Amenity> findByAmenityIdWithCommunity(@Param("amenityId") String amenityId);
 
-  Optional<Amenity> findByAmenityId(String amenityId);
+  default Optional<Amenity> findByAmenityId(String amenityId) {
+    return findBySimpleNaturalId(amenityId);
+  }
+
+  boolean existsByAmenityIdAndVersionNot(String amenityId, Long version);
+
+  boolean existsByAmenityIdAndCommunity_Admins_UserId(String amenityId, String userId);
+
+  @Modifying
+  @Query("update Amenity amenity set "
+      + "amenity.name = coalesce(:name, amenity.name), "
+      + "amenity.description = coalesce(:description, amenity.description), "
+      + "amenity.price = coalesce(:price, amenity.price), "
+      + "amenity.community = (select community from Community community "
+      + "where community.communityId = :communityId), "
+      + "amenity.version = amenity.version + 1 "
+      + "where amenity.amenityId = :amenityId "
+      + "and (:version is null or amenity.version = :version) "
+      + "and exists (select community.id from Community community "
+      + "where community.communityId = :communityId)")
+  int updateAmenity(@Param("amenityId") String amenityId,
+      @Param("communityId") String communityId,
+      @Param("name") String name,
+      @Param("description") String description,
+      @Param("price") BigDecimal price,
+      @Param("version") Long version);
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.repositories;
+
+import com.myhome.domain.Announcement;
+import com.myhome.domain.AnnouncementStatus;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * provides access to announcements and the progress of their delivery.
+ */
+public interface AnnouncementRepository extends JpaRepository<Announcement, Long> {
+
+  @Query("from Announcement announcement join fetch announcement.community community"
+      + " where announcement.announcementId = :announcementId"
+      + " and community.communityId = :communityId")
+  Optional<Announcement> findByAnnouncementIdAndCommunityId(
+      @Param("announcementId") String announcementId, @Param("communityId") String communityId);
+
+  /**
+   * returns announcements in the given status whose next batch is due, those waiting
+   * longest first, with their community.
+   */
+  @Query("select announcement from Announcement announcement"
+      + " join fetch announcement.community"
+      + " where announcement.status = :status and announcement.nextBatchAt <= :now"
+      + " order by announcement.nextBatchAt")
+  List<Announcement> findDueAnnouncements(@Param("status") AnnouncementStatus status,
+      @Param("now") LocalDateTime now, Pageable pageable);
+}
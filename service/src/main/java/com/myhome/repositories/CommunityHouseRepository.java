@@ -17,10 +17,12 @@
 package com.myhome.repositories;
 
 import com.myhome.domain.CommunityHouse;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
@@ -32,9 +34,12 @@ import org.springframework.stereotype.Repository;
  * of CommunityHouses based on various criteria.
  */
 @Repository
-public interface CommunityHouseRepository extends PagingAndSortingRepository<CommunityHouse, Long> {
+public interface CommunityHouseRepository extends PagingAndSortingRepository<CommunityHouse, Long>,
+    NaturalIdRepository<CommunityHouse, Long> {
 
-  Optional<CommunityHouse> findByHouseId(String houseId);
+  default Optional<CommunityHouse> findByHouseId(String houseId) {
+    return findBySimpleNaturalId(houseId);
+  }
 
   @Query("from CommunityHouse house where house.houseId = :houseId")
   @EntityGraph(value = "CommunityHouse.community")
@@ -48,4 +53,16 @@ public interface CommunityHouseRepository extends PagingAndSortingRepository<Com
   List<CommunityHouse> findAllByCommunity_CommunityId(String communityId, Pageable pageable);
 
   void deleteByHouseId(String houseId);
+
+  List<CommunityHouse> findAllByCommunity_IdAndNameIn(Long communityId, Collection<String> names);
+
+  /**
+   * adds the given houses to the houses collection of the community they reference,
+   * without loading the houses the community already has.
+   */
+  @Modifying(flushAutomatically = true)
+  @Query(value = "insert into community_houses (community_id, houses_id) "
+      + "select community_id, id from community_house "
+      + "where id in (:houseIds)", nativeQuery = true)
+  int addHousesToTheirCommunity(@Param("houseIds") Collection<Long> houseIds);
 }
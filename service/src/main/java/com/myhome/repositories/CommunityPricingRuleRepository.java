@@ -0,0 +1,35 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.repositories;
+
+import com.myhome.domain.CommunityPricingRule;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * provides access to the pricing rules of communities, including a finder for all
+ * rules applying to the community of an amenity.
+ */
+public interface CommunityPricingRuleRepository extends JpaRepository<CommunityPricingRule, Long> {
+
+  @Query("from CommunityPricingRule rule "
+      + "where rule.community.id in "
+      + "(select amenity.community.id from Amenity amenity where amenity.amenityId = :amenityId)")
+  List<CommunityPricingRule> findAllByAmenityId(@Param("amenityId") String amenityId);
+}
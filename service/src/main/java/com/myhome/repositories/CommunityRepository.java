@@ -30,9 +30,12 @@ import org.springframework.stereotype.Repository;
  * if a community exists by communityId.
  */
 @Repository
-public interface CommunityRepository extends PagingAndSortingRepository<Community, Long> {
+public interface CommunityRepository extends PagingAndSortingRepository<Community, Long>,
+    NaturalIdRepository<Community, Long> {
 
-  Optional<Community> findByCommunityId(String communityId);
+  default Optional<Community> findByCommunityId(String communityId) {
+    return findBySimpleNaturalId(communityId);
+  }
 
   @Query("from Community community where community.communityId = :communityId")
   @EntityGraph(value = "Community.houses")
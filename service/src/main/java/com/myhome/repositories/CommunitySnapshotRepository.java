@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.repositories;
+
+import com.myhome.domain.Community;
+import com.myhome.repositories.projections.AdminSnapshot;
+import com.myhome.repositories.projections.AmenitySnapshot;
+import com.myhome.repositories.projections.CommunitySnapshot;
+import com.myhome.repositories.projections.HouseSnapshot;
+import com.myhome.repositories.projections.MemberSnapshot;
+import com.myhome.repositories.projections.PaymentSnapshot;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+/**
+ * reads everything belonging to a community as unmanaged snapshot records for exports.
+ * The streaming queries are read through a database cursor, fetching
+ * {@value #FETCH_SIZE} rows per round trip, and have to be consumed and closed within a
+ * transaction.
+ */
+@Repository
+public interface CommunitySnapshotRepository
+    extends org.springframework.data.repository.Repository<Community, Long> {
+
+  String FETCH_SIZE = "500";
+
+  @Query("select new com.myhome.repositories.projections.CommunitySnapshot("
+      + "community.communityId, community.name, community.district) "
+      + "from Community community where community.communityId = :communityId")
+  Optional<CommunitySnapshot> findCommunity(@Param("communityId") String communityId);
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = FETCH_SIZE))
+  @Query("select new com.myhome.repositories.projections.HouseSnapshot("
+      + "house.houseId, house.name) "
+      + "from CommunityHouse house where house.community.communityId = :communityId "
+      + "order by house.id")
+  Stream<HouseSnapshot> streamHouses(@Param("communityId") String communityId);
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = FETCH_SIZE))
+  @Query("select new com.myhome.repositories.projections.MemberSnapshot("
+      + "houseMember.memberId, houseMember.name, house.houseId) "
+      + "from HouseMember houseMember join houseMember.communityHouse house "
+      + "where house.community.communityId = :communityId "
+      + "order by houseMember.id")
+  Stream<MemberSnapshot> streamMembers(@Param("communityId") String communityId);
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = FETCH_SIZE))
+  @Query("select new com.myhome.repositories.projections.AmenitySnapshot("
+      + "amenity.amenityId, amenity.name, amenity.description, amenity.price, house.houseId) "
+      + "from Amenity amenity left join amenity.communityHouse house "
+      + "where amenity.community.communityId = :communityId "
+      + "order by amenity.id")
+  Stream<AmenitySnapshot> streamAmenities(@Param("communityId") String communityId);
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = FETCH_SIZE))
+  @Query("select new com.myhome.repositories.projections.AdminSnapshot("
+      + "admin.userId, admin.name, admin.email) "
+      + "from Community community join community.admins admin "
+      + "where community.communityId = :communityId "
+      + "order by admin.id")
+  Stream<AdminSnapshot> streamAdmins(@Param("communityId") String communityId);
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = FETCH_SIZE))
+  @Query("select new com.myhome.repositories.projections.PaymentSnapshot("
+      + "payment.paymentId, payment.charge, payment.type, payment.description, "
+      + "payment.recurring, payment.dueDate, admin.userId, houseMember.memberId) "
+      + "from Payment payment join payment.member houseMember "
+      + "join houseMember.communityHouse house "
+      + "left join payment.admin admin "
+      + "where house.community.communityId = :communityId "
+      + "order by payment.id")
+  Stream<PaymentSnapshot> streamPayments(@Param("communityId") String communityId);
+}
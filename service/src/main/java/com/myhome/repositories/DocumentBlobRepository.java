@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.repositories;
+
+import com.myhome.domain.DocumentBlob;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * provides access to the reference counts of content in the blob store. Counts are only
+ * changed by single update statements, so concurrent document processing workers never
+ * lose a reference.
+ */
+public interface DocumentBlobRepository extends JpaRepository<DocumentBlob, Long> {
+
+  /**
+   * restarts the grace period of registered content which is not referenced, as it is
+   * about to be referenced again.
+   *
+   * @returns the number of updated rows, 0 if the content is referenced or not registered.
+   */
+  @Modifying
+  @Query("update DocumentBlob documentBlob set documentBlob.orphanedSince = :now"
+      + " where documentBlob.contentHash = :contentHash and documentBlob.referenceCount = 0")
+  int touchOrphaned(@Param("contentHash") String contentHash, @Param("now") LocalDateTime now);
+
+  boolean existsByContentHash(String contentHash);
+
+  @Modifying
+  @Query("update DocumentBlob documentBlob"
+      + " set documentBlob.referenceCount = documentBlob.referenceCount + 1,"
+      + " documentBlob.orphanedSince = null"
+      + " where documentBlob.contentHash in :contentHashes")
+  int addReferences(@Param("contentHashes") Collection<String> contentHashes);
+
+  @Modifying
+  @Query("update DocumentBlob documentBlob"
+      + " set documentBlob.referenceCount = documentBlob.referenceCount - 1"
+      + " where documentBlob.contentHash in :contentHashes and documentBlob.referenceCount > 0")
+  int removeReferences(@Param("contentHashes") Collection<String> contentHashes);
+
+  /**
+   * marks content which lost its last reference as orphaned, starting its grace period.
+   */
+  @Modifying
+  @Query("update DocumentBlob documentBlob set documentBlob.orphanedSince = :now"
+      + " where documentBlob.contentHash in :contentHashes"
+      + " and documentBlob.referenceCount = 0 and documentBlob.orphanedSince is null")
+  int markOrphaned(@Param("contentHashes") Collection<String> contentHashes,
+      @Param("now") LocalDateTime now);
+
+  @Query("select documentBlob.contentHash from DocumentBlob documentBlob"
+      + " where documentBlob.referenceCount = 0 and documentBlob.orphanedSince < :cutoff"
+      + " order by documentBlob.orphanedSince")
+  List<String> findOrphanedContentHashes(@Param("cutoff") LocalDateTime cutoff,
+      Pageable pageable);
+
+  /**
+   * deletes the registration of content which is still orphaned since before the cutoff.
+   *
+   * @returns 1 if the registration was deleted, 0 if the content got referenced or
+   * registered again in the meantime.
+   */
+  @Modifying
+  @Query("delete from DocumentBlob documentBlob where documentBlob.contentHash = :contentHash"
+      + " and documentBlob.referenceCount = 0 and documentBlob.orphanedSince < :cutoff")
+  int deleteOrphaned(@Param("contentHash") String contentHash,
+      @Param("cutoff") LocalDateTime cutoff);
+}
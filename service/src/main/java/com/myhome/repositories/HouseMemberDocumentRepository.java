@@ -17,11 +17,26 @@
 package com.myhome.repositories;
 
 import com.myhome.domain.HouseMemberDocument;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 /**
  * is an extension of JpaRepository for storing and retrieving HouseMemberDocument
  * entities in a Spring Data JPA environment.
  */
 public interface HouseMemberDocumentRepository extends JpaRepository<HouseMemberDocument, Long> {
+
+  Optional<HouseMemberDocument> findFirstBySourceContentHash(String sourceContentHash);
+
+  /**
+   * returns the IDs of documents no member refers to any more.
+   */
+  @Query("select document.id from HouseMemberDocument document where not exists"
+      + " (select houseMember.id from HouseMember houseMember"
+      + " where houseMember.houseMemberDocument = document)"
+      + " order by document.id")
+  List<Long> findOrphanedDocumentIds(Pageable pageable);
 }
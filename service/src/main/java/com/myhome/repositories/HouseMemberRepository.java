@@ -17,20 +17,50 @@
 package com.myhome.repositories;
 
 import com.myhome.domain.HouseMember;
+import com.myhome.repositories.projections.HouseMemberSummary;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 /**
  * provides methods for retrieving and manipulating HouseMember objects within a
  * Spring Data repository.
  */
-public interface HouseMemberRepository extends CrudRepository<HouseMember, Long> {
-  Optional<HouseMember> findByMemberId(String memberId);
+public interface HouseMemberRepository extends CrudRepository<HouseMember, Long>,
+    NaturalIdRepository<HouseMember, Long> {
 
-  List<HouseMember> findAllByCommunityHouse_HouseId(String houseId, Pageable pageable);
+  default Optional<HouseMember> findByMemberId(String memberId) {
+    return findBySimpleNaturalId(memberId);
+  }
 
-  List<HouseMember> findAllByCommunityHouse_Community_Admins_UserId(String userId,
+  @Query("select new com.myhome.repositories.projections.HouseMemberSummary("
+      + "houseMember.memberId, houseMember.name) "
+      + "from HouseMember houseMember join houseMember.communityHouse house "
+      + "where house.houseId = :houseId")
+  List<HouseMemberSummary> findSummariesByHouseId(@Param("houseId") String houseId,
       Pageable pageable);
+
+  @Query("select new com.myhome.repositories.projections.HouseMemberSummary("
+      + "houseMember.memberId, houseMember.name) "
+      + "from HouseMember houseMember join houseMember.communityHouse house "
+      + "join house.community community join community.admins admin "
+      + "where admin.userId = :userId")
+  List<HouseMemberSummary> findSummariesByAdminUserId(@Param("userId") String userId,
+      Pageable pageable);
+
+  /**
+   * adds the given members to the members collection of the house they reference,
+   * without loading the members the house already has.
+   */
+  @Modifying(flushAutomatically = true)
+  @Query(value = "insert into community_house_house_members "
+      + "(community_house_id, house_members_id) "
+      + "select community_house_id, id from house_member "
+      + "where id in (:memberIds)", nativeQuery = true)
+  int addMembersToTheirHouse(@Param("memberIds") Collection<Long> memberIds);
 }
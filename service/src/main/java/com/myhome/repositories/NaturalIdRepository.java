@@ -0,0 +1,32 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.repositories;
+
+import java.util.Optional;
+import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.repository.Repository;
+
+/**
+ * repository of an entity with a simple natural id, loading entities by their natural
+ * id through Hibernate, which resolves the natural id from the persistence context and
+ * the natural-id cache before querying the database.
+ */
+@NoRepositoryBean
+public interface NaturalIdRepository<T, ID> extends Repository<T, ID> {
+
+  Optional<T> findBySimpleNaturalId(Object naturalId);
+}
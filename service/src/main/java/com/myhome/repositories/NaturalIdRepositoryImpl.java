@@ -0,0 +1,58 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.repositories;
+
+import java.io.Serializable;
+import java.util.Optional;
+import javax.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * base class of all repositories, adding natural id loading to the default Spring Data
+ * JPA repository implementation.
+ */
+@Transactional(readOnly = true)
+public class NaturalIdRepositoryImpl<T, ID extends Serializable> extends SimpleJpaRepository<T, ID>
+    implements NaturalIdRepository<T, ID> {
+
+  private final EntityManager entityManager;
+
+  public NaturalIdRepositoryImpl(JpaEntityInformation<T, ?> entityInformation,
+      EntityManager entityManager) {
+    super(entityInformation, entityManager);
+    this.entityManager = entityManager;
+  }
+
+  /**
+   * loads an entity by its simple natural id. A natural id already resolved in the
+   * current persistence context or held by the natural-id cache is resolved without a
+   * query, and the entity itself is then read from the second-level cache if cached.
+   * 
+   * @param naturalId value of the natural id of the entity.
+   * 
+   * @returns the entity with the given natural id, or an empty Optional if none exists.
+   */
+  @Override
+  public Optional<T> findBySimpleNaturalId(Object naturalId) {
+    return entityManager.unwrap(Session.class)
+        .bySimpleNaturalId(getDomainClass())
+        .loadOptional(naturalId);
+  }
+}
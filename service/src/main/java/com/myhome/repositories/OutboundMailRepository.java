@@ -0,0 +1,39 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.repositories;
+
+import com.myhome.domain.OutboundMail;
+import com.myhome.domain.OutboundMailStatus;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface OutboundMailRepository extends JpaRepository<OutboundMail, Long> {
+
+  /**
+   * returns mails in the given status which are due to be sent, those waiting longest
+   * first.
+   */
+  @Query("select outboundMail from OutboundMail outboundMail"
+      + " where outboundMail.status = :status and outboundMail.nextAttemptAt <= :now"
+      + " order by outboundMail.nextAttemptAt")
+  List<OutboundMail> findDueMails(@Param("status") OutboundMailStatus status,
+      @Param("now") LocalDateTime now, Pageable pageable);
+}
@@ -23,8 +23,12 @@ import org.springframework.data.jpa.repository.JpaRepository;
  * provides methods for querying and deleting payments based on their IDs using
  * Optional and void methods respectively.
  */
-public interface PaymentRepository extends JpaRepository<Payment, Long> {
-  Optional<Payment> findByPaymentId(String paymentId);
+public interface PaymentRepository extends JpaRepository<Payment, Long>,
+    NaturalIdRepository<Payment, Long> {
+
+  default Optional<Payment> findByPaymentId(String paymentId) {
+    return findBySimpleNaturalId(paymentId);
+  }
 
   void deleteByPaymentId(String paymentId);
 }
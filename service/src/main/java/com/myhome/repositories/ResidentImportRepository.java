@@ -0,0 +1,32 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.repositories;
+
+import com.myhome.domain.ResidentImport;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * provides access to the progress of imports of houses and members into communities.
+ */
+public interface ResidentImportRepository extends JpaRepository<ResidentImport, Long> {
+
+  Optional<ResidentImport> findByImportId(String importId);
+
+  Optional<ResidentImport> findByImportIdAndCommunity_CommunityId(String importId,
+      String communityId);
+}
@@ -17,6 +17,7 @@
 package com.myhome.repositories;
 
 import com.myhome.domain.User;
+import com.myhome.repositories.projections.AnnouncementRecipient;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Pageable;
@@ -31,11 +32,14 @@ import org.springframework.stereotype.Repository;
  * Data JPA repository context.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>,
+    NaturalIdRepository<User, Long> {
 
   User findByEmail(String email);
 
-  Optional<User> findByUserId(String userId);
+  default Optional<User> findByUserId(String userId) {
+    return findBySimpleNaturalId(userId);
+  }
 
   @Query("from User user where user.userId = :userId")
   @EntityGraph(value = "User.communities")
@@ -50,4 +54,21 @@ public interface UserRepository extends JpaRepository<User, Long> {
   Optional<User> findByEmailWithTokens(@Param("email") String email);
 
   List<User> findAllByCommunities_CommunityId(String communityId, Pageable pageable);
+
+  /**
+   * returns the next page of admins of a community with a confirmed email address,
+   * ordered by their ID and starting after the given one, so pages are read by an index
+   * seek however far the reader got.
+   */
+  @Query("select new com.myhome.repositories.projections.AnnouncementRecipient(user.id, user.email)"
+      + " from User user join user.communities community"
+      + " where community.communityId = :communityId and user.emailConfirmed = true"
+      + " and user.id > :afterId order by user.id")
+  List<AnnouncementRecipient> findCommunityAnnouncementRecipients(
+      @Param("communityId") String communityId, @Param("afterId") long afterId,
+      Pageable pageable);
+
+  @Query("select count(user) from User user join user.communities community"
+      + " where community.communityId = :communityId and user.emailConfirmed = true")
+  long countCommunityAnnouncementRecipients(@Param("communityId") String communityId);
 }
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.repositories.projections;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+/**
+ * a single record of a community snapshot, read by a constructor expression so it is not
+ * managed by the persistence context. Every record is written with a `type` property
+ * naming its kind, so records of different kinds can be told apart when they are written
+ * one per line.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, include = JsonTypeInfo.As.PROPERTY, property = "type")
+@JsonSubTypes({
+    @JsonSubTypes.Type(value = CommunitySnapshot.class, name = "community"),
+    @JsonSubTypes.Type(value = HouseSnapshot.class, name = "house"),
+    @JsonSubTypes.Type(value = MemberSnapshot.class, name = "member"),
+    @JsonSubTypes.Type(value = AmenitySnapshot.class, name = "amenity"),
+    @JsonSubTypes.Type(value = AdminSnapshot.class, name = "admin"),
+    @JsonSubTypes.Type(value = PaymentSnapshot.class, name = "payment")
+})
+public interface CommunitySnapshotRecord {
+}
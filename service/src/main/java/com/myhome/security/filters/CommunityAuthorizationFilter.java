@@ -21,8 +21,8 @@ public class CommunityAuthorizationFilter extends BasicAuthenticationFilter {
   private final CommunityService communityService;
   private static final String UUID_PATTERN =
       "[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}";
-  private static final Pattern ADD_AMENITY_REQUEST_PATTERN =
-      Pattern.compile("/communities/" + UUID_PATTERN + "/amenities");
+  private static final Pattern COMMUNITY_ADMIN_REQUEST_PATTERN =
+      Pattern.compile("/communities/" + UUID_PATTERN + "/(amenities|announcements)");
 
   public CommunityAuthorizationFilter(AuthenticationManager authenticationManager,
       CommunityService communityService) {
@@ -31,8 +31,9 @@ public class CommunityAuthorizationFilter extends BasicAuthenticationFilter {
   }
 
   /**
-   * in the provided code is a filter that checks the request URI against a pattern and
-   * performs an administrative check on the user. If the user is not an administrator,
+   * in the provided code is a filter that checks the request URI against a pattern of
+   * requests to amenities and announcements of a community, and performs an
+   * administrative check on the user. If the user is not an administrator,
    * it sets the status code to `SC_FORBIDDEN` and returns without further processing.
    * 
    * @param request HTTP request object that is being processed by the filter.
@@ -76,7 +77,7 @@ public class CommunityAuthorizationFilter extends BasicAuthenticationFilter {
   protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
       FilterChain chain) throws IOException, ServletException {
 
-    Matcher urlMatcher = ADD_AMENITY_REQUEST_PATTERN.matcher(request.getRequestURI());
+    Matcher urlMatcher = COMMUNITY_ADMIN_REQUEST_PATTERN.matcher(request.getRequestURI());
 
     if (urlMatcher.find() && !isUserCommunityAdmin(request)) {
       response.setStatus(HttpServletResponse.SC_FORBIDDEN);
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services;
+
+import com.myhome.domain.AmenityBookingItem;
+import com.myhome.domain.AmenityOccupancy;
+import com.myhome.domain.OccupancyGranularity;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * defines methods for keeping the hourly and daily occupancy rollups of amenities in
+ * step with their bookings, and for reading the rollups of an amenity over a period.
+ */
+public interface AmenityOccupancyService {
+
+  void recordBookings(Collection<AmenityBookingItem> bookings);
+
+  void removeBookings(Collection<AmenityBookingItem> bookings);
+
+  List<AmenityOccupancy> getOccupancy(String amenityId, OccupancyGranularity granularity,
+      LocalDateTime startDate, LocalDateTime endDate);
+}
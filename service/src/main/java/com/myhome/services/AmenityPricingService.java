@@ -0,0 +1,32 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services;
+
+import com.myhome.services.pricing.AmenityPriceTable;
+import java.util.Optional;
+
+/**
+ * defines methods for retrieving the compiled price table of an amenity, used to quote
+ * bookings of the amenity, and for telling whether the current user books at the member
+ * price.
+ */
+public interface AmenityPricingService {
+
+  Optional<AmenityPriceTable> getPriceTable(String amenityId);
+
+  boolean isCurrentUserMember(String amenityId);
+}
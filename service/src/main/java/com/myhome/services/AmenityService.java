@@ -18,6 +18,7 @@ package com.myhome.services;
 
 import com.myhome.domain.Amenity;
 import com.myhome.model.AmenityDto;
+import com.myhome.model.GetAmenityDetailsResponse;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -32,9 +33,13 @@ public interface AmenityService {
 
   Optional<Amenity> getAmenityDetails(String amenityId);
 
+  Optional<GetAmenityDetailsResponse> findAmenityDetails(String amenityId);
+
   boolean deleteAmenity(String amenityId);
 
   Set<Amenity> listAllAmenities(String communityId);
 
+  Set<GetAmenityDetailsResponse> listAmenityCatalog(String communityId);
+
   boolean updateAmenity(AmenityDto updatedAmenityDto);
 }
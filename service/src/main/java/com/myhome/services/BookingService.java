@@ -1,10 +1,20 @@
 package com.myhome.services;
 
+import com.myhome.domain.AmenityBookingItem;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
 /**
- * defines a method for deleting bookings based on amenity ID and booking ID.
+ * defines methods for booking an amenity, deleting a single booking based on amenity
+ * ID and booking ID, and for cancelling all bookings of an amenity within a time window.
  */
 public interface BookingService {
 
+  Optional<AmenityBookingItem> createBooking(String amenityId, LocalDateTime startDate,
+      LocalDateTime endDate);
+
   boolean deleteBooking(String amenityId, String bookingId);
 
+  int cancelAmenityBookings(String amenityId, LocalDateTime startDate, LocalDateTime endDate);
+
 }
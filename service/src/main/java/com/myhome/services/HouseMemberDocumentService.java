@@ -16,8 +16,12 @@
 
 package com.myhome.services;
 
+import com.myhome.domain.DocumentSize;
 import com.myhome.domain.HouseMemberDocument;
+import com.myhome.domain.HouseMemberDocumentUpload;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
 /**
@@ -29,9 +33,17 @@ public interface HouseMemberDocumentService {
 
   Optional<HouseMemberDocument> findHouseMemberDocument(String memberId);
 
-  Optional<HouseMemberDocument> updateHouseMemberDocument(MultipartFile multipartFile,
+  Resource getDocumentContent(HouseMemberDocument document, DocumentSize size);
+
+  Optional<HouseMemberDocumentUpload> updateHouseMemberDocument(MultipartFile multipartFile,
       String memberId);
 
-  Optional<HouseMemberDocument> createHouseMemberDocument(MultipartFile multipartFile,
+  Optional<HouseMemberDocumentUpload> createHouseMemberDocument(MultipartFile multipartFile,
       String memberId);
+
+  List<Optional<HouseMemberDocumentUpload>> createHouseMemberDocuments(List<String> memberIds,
+      List<MultipartFile> multipartFiles);
+
+  Optional<HouseMemberDocumentUpload> getHouseMemberDocumentUpload(String memberId,
+      String uploadId);
 }
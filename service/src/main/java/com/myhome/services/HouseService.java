@@ -18,6 +18,7 @@ package com.myhome.services;
 
 import com.myhome.domain.CommunityHouse;
 import com.myhome.domain.HouseMember;
+import com.myhome.repositories.projections.HouseMemberSummary;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -38,7 +39,8 @@ public interface HouseService {
 
   Optional<CommunityHouse> getHouseDetailsById(String houseId);
 
-  Optional<List<HouseMember>> getHouseMembersById(String houseId, Pageable pageable);
+  Optional<List<HouseMemberSummary>> getHouseMembersById(String houseId, Pageable pageable);
 
-  Optional<List<HouseMember>> listHouseMembersForHousesOfUserId(String userId, Pageable pageable);
+  Optional<List<HouseMemberSummary>> listHouseMembersForHousesOfUserId(String userId,
+      Pageable pageable);
 }
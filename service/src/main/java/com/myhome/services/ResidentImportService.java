@@ -0,0 +1,38 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services;
+
+import com.myhome.domain.ResidentImport;
+import com.myhome.services.imports.ResidentRecordFormat;
+import java.util.Optional;
+import org.springframework.core.io.InputStreamSource;
+
+/**
+ * defines methods for importing houses and their members into a community from a file,
+ * for resuming an import which failed or was interrupted, and for reading the progress
+ * of an import.
+ */
+public interface ResidentImportService {
+
+  Optional<ResidentImport> startImport(String communityId, ResidentRecordFormat format,
+      InputStreamSource residents);
+
+  Optional<ResidentImport> resumeImport(String communityId, String importId,
+      ResidentRecordFormat format, InputStreamSource residents);
+
+  Optional<ResidentImport> getImport(String communityId, String importId);
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.blobs;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import org.springframework.core.io.AbstractResource;
+
+/**
+ * exposes a blob as a resource, so it can be written to a response without being read
+ * into memory. The content is opened anew for every read, and its length is known from
+ * the stored metadata without touching the content. Streams of seekable blobs skip by
+ * moving the channel position, so byte ranges are served without reading the content
+ * in front of them.
+ */
+public class BlobResource extends AbstractResource {
+
+  private final BlobStore blobStore;
+  private final String contentHash;
+  private final long contentLength;
+  private final String filename;
+
+  public BlobResource(BlobStore blobStore, String contentHash, long contentLength,
+      String filename) {
+    this.blobStore = blobStore;
+    this.contentHash = contentHash;
+    this.contentLength = contentLength;
+    this.filename = filename;
+  }
+
+  public String getContentHash() {
+    return contentHash;
+  }
+
+  @Override
+  public boolean exists() {
+    return blobStore.exists(contentHash);
+  }
+
+  @Override
+  public InputStream getInputStream() throws IOException {
+    ReadableByteChannel channel = readableChannel();
+    InputStream content = Channels.newInputStream(channel);
+    if (channel instanceof SeekableByteChannel) {
+      return new SeekableChannelInputStream(content, (SeekableByteChannel) channel);
+    }
+    return content;
+  }
+
+  @Override
+  public ReadableByteChannel readableChannel() throws IOException {
+    return blobStore.open(contentHash);
+  }
+
+  @Override
+  public long contentLength() {
+    return contentLength;
+  }
+
+  @Override
+  public String getFilename() {
+    return filename;
+  }
+
+  @Override
+  public String getDescription() {
+    return "Blob [" + contentHash + "]";
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return this == other || (other instanceof BlobResource
+        && contentHash.equals(((BlobResource) other).contentHash));
+  }
+
+  @Override
+  public int hashCode() {
+    return contentHash.hashCode();
+  }
+
+  /**
+   * skips over content by positioning the underlying channel instead of reading and
+   * discarding it, which is what a plain channel stream does.
+   */
+  private static class SeekableChannelInputStream extends FilterInputStream {
+
+    private final SeekableByteChannel channel;
+
+    SeekableChannelInputStream(InputStream content, SeekableByteChannel channel) {
+      super(content);
+      this.channel = channel;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      if (n <= 0) {
+        return 0;
+      }
+      long position = channel.position();
+      long skipped = Math.min(n, Math.max(channel.size() - position, 0));
+      channel.position(position + skipped);
+      return skipped;
+    }
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.blobs;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * stores binary content outside of the database, addressed by the SHA-256 hash of the
+ * content. Storing the same content twice keeps a single copy, so a blob may be
+ * referenced by more than one record and must only be deleted once no record refers to
+ * it any more.
+ */
+public interface BlobStore {
+
+  /**
+   * stores everything readable from the channel, which is left open.
+   *
+   * @param content channel the content is read from.
+   *
+   * @returns the hash and size of the stored content.
+   *
+   * @throws IOException if the content could not be read or stored.
+   */
+  StoredBlob store(ReadableByteChannel content) throws IOException;
+
+  /**
+   * opens a channel reading the content with the given hash, which has to be closed by
+   * the caller.
+   *
+   * @param contentHash hash of the content, as returned when it was stored.
+   *
+   * @returns a channel positioned at the start of the content.
+   *
+   * @throws java.nio.file.NoSuchFileException if no content with the hash is stored.
+   * @throws IOException if the content could not be opened.
+   */
+  ReadableByteChannel open(String contentHash) throws IOException;
+
+  boolean exists(String contentHash);
+
+  /**
+   * deletes the content with the given hash.
+   *
+   * @param contentHash hash of the content to delete.
+   *
+   * @returns true if the content was deleted, or false if it was not stored.
+   *
+   * @throws IOException if the content could not be deleted.
+   */
+  boolean delete(String contentHash) throws IOException;
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.blobs;
+
+import com.myhome.domain.DocumentBlob;
+import com.myhome.repositories.DocumentBlobRepository;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * counts the references of documents and uploads to content in the blob store and
+ * collects content nobody refers to. Content is registered right after it is stored and
+ * only deleted once it has not been referenced for the grace period, so content stored
+ * by a worker which fails or stops before referencing it is reclaimed as well. The
+ * registration of collected content stays locked until its content is deleted, so a
+ * worker registering the same content meanwhile waits and then finds it gone, and stores
+ * it again instead of referencing deleted content.
+ */
+@Slf4j
+@Component
+public class DocumentBlobRegistry {
+
+  private final DocumentBlobRepository documentBlobRepository;
+  private final BlobStore blobStore;
+  private final TransactionTemplate transactionTemplate;
+  private final Duration gracePeriod;
+  private final int collectionBatchSize;
+
+  public DocumentBlobRegistry(DocumentBlobRepository documentBlobRepository,
+      BlobStore blobStore,
+      TransactionTemplate transactionTemplate,
+      @Value("${files.blobs.gracePeriod}") Duration gracePeriod,
+      @Value("${files.blobs.collectionBatchSize}") int collectionBatchSize) {
+    this.documentBlobRepository = documentBlobRepository;
+    this.blobStore = blobStore;
+    this.transactionTemplate = transactionTemplate;
+    this.gracePeriod = gracePeriod;
+    this.collectionBatchSize = collectionBatchSize;
+  }
+
+  /**
+   * registers content which was just stored, or restarts the grace period of content
+   * which is stored already but not referenced, so it is kept until it is referenced.
+   *
+   * @param blob hash and size of the stored content.
+   *
+   * @throws IOException if the content was collected while it was stored, in which case
+   * it has to be stored again.
+   */
+  public void register(StoredBlob blob) throws IOException {
+    String contentHash = blob.getContentHash();
+    try {
+      transactionTemplate.execute(status -> {
+        LocalDateTime now = LocalDateTime.now();
+        if (documentBlobRepository.touchOrphaned(contentHash, now) == 0
+            && !documentBlobRepository.existsByContentHash(contentHash)) {
+          documentBlobRepository.save(new DocumentBlob()
+              .withContentHash(contentHash)
+              .withContentLength(blob.getContentLength())
+              .withOrphanedSince(now));
+        }
+        return null;
+      });
+    } catch (DataIntegrityViolationException e) {
+      // the same content was registered concurrently
+      log.trace("Blob [{}] was registered concurrently", contentHash);
+    }
+    if (!blobStore.exists(contentHash)) {
+      throw new IOException("Blob " + contentHash + " was collected while it was stored");
+    }
+  }
+
+  /**
+   * adds one reference to every given content, within the transaction of the caller
+   * which makes a document or upload refer to them.
+   *
+   * @param contentHashes distinct hashes of registered content.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void addReferences(Collection<String> contentHashes) {
+    if (!contentHashes.isEmpty()) {
+      documentBlobRepository.addReferences(contentHashes);
+    }
+  }
+
+  /**
+   * removes one reference from every given content, within the transaction of the
+   * caller which removes a document or upload referring to them. Content losing its last
+   * reference is collected once the grace period passed.
+   *
+   * @param contentHashes distinct hashes of registered content.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void removeReferences(Collection<String> contentHashes) {
+    if (!contentHashes.isEmpty()) {
+      documentBlobRepository.removeReferences(contentHashes);
+      documentBlobRepository.markOrphaned(contentHashes, LocalDateTime.now());
+    }
+  }
+
+  /**
+   * deletes content which has not been referenced for the grace period from the blob
+   * store, in batches. The registration of every content is deleted first and only if it
+   * is still orphaned, so content referenced again in the meantime is kept. The content is
+   * deleted before that deletion commits, and the registration is kept if it cannot be.
+   * A run stops at a batch of which no blob could be deleted, as the next batch would
+   * hold the same blobs again, and leaves them to the next run.
+   *
+   * @returns the number of deleted blobs.
+   */
+  @Scheduled(fixedDelayString = "${files.blobs.collectionInterval}",
+      initialDelayString = "${files.blobs.collectionInterval}")
+  public int collectOrphanedBlobs() {
+    LocalDateTime cutoff = LocalDateTime.now().minus(gracePeriod);
+    int collected = 0;
+    int collectedInBatch;
+    List<String> orphanedContentHashes;
+    do {
+      orphanedContentHashes = documentBlobRepository.findOrphanedContentHashes(cutoff,
+          PageRequest.of(0, collectionBatchSize));
+      collectedInBatch = 0;
+      for (String contentHash : orphanedContentHashes) {
+        if (collect(contentHash, cutoff)) {
+          collectedInBatch++;
+        }
+      }
+      collected += collectedInBatch;
+    } while (orphanedContentHashes.size() == collectionBatchSize && collectedInBatch > 0);
+    if (collected > 0) {
+      log.info("Collected {} orphaned document blobs", collected);
+    }
+    return collected;
+  }
+
+  private boolean collect(String contentHash, LocalDateTime cutoff) {
+    try {
+      return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+        if (documentBlobRepository.deleteOrphaned(contentHash, cutoff) == 0) {
+          return false;
+        }
+        try {
+          return blobStore.delete(contentHash);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }));
+    } catch (UncheckedIOException e) {
+      log.warn("Could not delete orphaned blob [{}]", contentHash, e.getCause());
+      return false;
+    }
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.blobs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * keeps blobs as files below a root directory, named after the SHA-256 hash of their
+ * content and spread over 256 subdirectories by the first two hex digits of the hash.
+ * Content is first written to a temporary file below the root while it is hashed, and
+ * then moved to its final name, so a blob is either complete or not visible at all and
+ * content which is already stored is not written a second time.
+ */
+@Slf4j
+public class FileSystemBlobStore implements BlobStore {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final Pattern CONTENT_HASH = Pattern.compile("[0-9a-f]{64}");
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private final Path root;
+  private final Path uploads;
+
+  public FileSystemBlobStore(Path root) throws IOException {
+    this.root = Files.createDirectories(root);
+    this.uploads = Files.createDirectories(root.resolve("uploads"));
+  }
+
+  @Override
+  public StoredBlob store(ReadableByteChannel content) throws IOException {
+    MessageDigest digest = newDigest();
+    ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    long contentLength = 0;
+    Path upload = Files.createTempFile(uploads, "blob", ".tmp");
+    try {
+      try (FileChannel uploadChannel = FileChannel.open(upload, StandardOpenOption.WRITE)) {
+        while (content.read(buffer) != -1) {
+          buffer.flip();
+          digest.update(buffer.duplicate());
+          while (buffer.hasRemaining()) {
+            contentLength += uploadChannel.write(buffer);
+          }
+          buffer.clear();
+        }
+        uploadChannel.force(true);
+      }
+      String contentHash = toHex(digest.digest());
+      Path blob = pathOf(contentHash);
+      if (Files.notExists(blob)) {
+        Files.createDirectories(blob.getParent());
+        try {
+          Files.move(upload, blob, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+          // the same content was stored concurrently
+          log.trace("Blob [{}] was stored concurrently", contentHash);
+        }
+      }
+      return new StoredBlob(contentHash, contentLength);
+    } finally {
+      Files.deleteIfExists(upload);
+    }
+  }
+
+  @Override
+  public ReadableByteChannel open(String contentHash) throws IOException {
+    return FileChannel.open(pathOf(contentHash), StandardOpenOption.READ);
+  }
+
+  @Override
+  public boolean exists(String contentHash) {
+    return Files.exists(pathOf(contentHash));
+  }
+
+  @Override
+  public boolean delete(String contentHash) throws IOException {
+    return Files.deleteIfExists(pathOf(contentHash));
+  }
+
+  private Path pathOf(String contentHash) {
+    if (contentHash == null || !CONTENT_HASH.matcher(contentHash).matches()) {
+      throw new IllegalArgumentException("Invalid content hash: " + contentHash);
+    }
+    return root.resolve(contentHash.substring(0, 2)).resolve(contentHash);
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not supported", e);
+    }
+  }
+
+  private static String toHex(byte[] bytes) {
+    char[] hex = new char[bytes.length * 2];
+    for (int i = 0; i < bytes.length; i++) {
+      hex[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+      hex[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xF];
+    }
+    return new String(hex);
+  }
+}
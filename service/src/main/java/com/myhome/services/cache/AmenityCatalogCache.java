@@ -0,0 +1,179 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.cache;
+
+import com.myhome.configuration.CacheConfig;
+import com.myhome.model.GetAmenityDetailsResponse;
+import com.myhome.services.pricing.AmenityPriceTable;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * holds the amenity catalog of every community, and the details of single amenities,
+ * already mapped to their API responses, along with the compiled price tables of single
+ * amenities. Entries are loaded on first read and have to be evicted by every write
+ * touching an amenity of the community. Evictions requested inside a transaction only
+ * take place once it committed, so that a read racing the write cannot cache the state
+ * from before the write again.
+ */
+@Component
+@RequiredArgsConstructor
+public class AmenityCatalogCache {
+
+  private final CacheManager cacheManager;
+
+  /**
+   * returns the cached amenity catalog of a community, loading and caching it with the
+   * given loader on a miss. Concurrent misses for the same community load it only once.
+   *
+   * @param communityId ID of the community whose catalog is requested.
+   *
+   * @param loader function loading the mapped catalog of a community.
+   *
+   * @returns the mapped amenities of the community.
+   */
+  public Set<GetAmenityDetailsResponse> getCommunityCatalog(String communityId,
+      Function<String, Set<GetAmenityDetailsResponse>> loader) {
+    return catalogCache().get(communityId, () -> loader.apply(communityId));
+  }
+
+  /**
+   * returns the cached details of an amenity, loading them with the given loader on a
+   * miss. Amenities which were not found are not cached, so that an amenity created
+   * later with the same ID is visible immediately.
+   *
+   * @param amenityId ID of the amenity whose details are requested.
+   *
+   * @param loader function loading the mapped details of an amenity.
+   *
+   * @returns the mapped amenity details, or an empty Optional if the amenity does not exist.
+   */
+  public Optional<GetAmenityDetailsResponse> getAmenityDetails(String amenityId,
+      Function<String, Optional<GetAmenityDetailsResponse>> loader) {
+    Cache detailsCache = detailsCache();
+    GetAmenityDetailsResponse cached = detailsCache.get(amenityId, GetAmenityDetailsResponse.class);
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+    Optional<GetAmenityDetailsResponse> loaded = loader.apply(amenityId);
+    loaded.ifPresent(details -> detailsCache.put(amenityId, details));
+    return loaded;
+  }
+
+  /**
+   * returns the cached price table of an amenity, compiling it with the given loader on
+   * a miss. Amenities which were not found are not cached.
+   *
+   * @param amenityId ID of the amenity whose price table is requested.
+   *
+   * @param loader function compiling the price table of an amenity.
+   *
+   * @returns the compiled price table, or an empty Optional if the amenity does not exist.
+   */
+  public Optional<AmenityPriceTable> getPriceTable(String amenityId,
+      Function<String, Optional<AmenityPriceTable>> loader) {
+    Cache priceTableCache = priceTableCache();
+    AmenityPriceTable cached = priceTableCache.get(amenityId, AmenityPriceTable.class);
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+    Optional<AmenityPriceTable> loaded = loader.apply(amenityId);
+    loaded.ifPresent(priceTable -> priceTableCache.put(amenityId, priceTable));
+    return loaded;
+  }
+
+  /**
+   * drops the cached catalog of a community, after the current transaction committed if
+   * there is one.
+   *
+   * @param communityId ID of the community whose catalog changed.
+   */
+  public void evictCommunityCatalog(String communityId) {
+    afterCommit(() -> evictCatalog(communityId));
+  }
+
+  /**
+   * drops the cached details and price table of an amenity together with the catalog of
+   * the community it belongs to, after the current transaction committed if there is one.
+   *
+   * @param amenityId ID of the changed amenity.
+   *
+   * @param communityId ID of the community of the changed amenity, may be null if the
+   * amenity is not assigned to a community.
+   */
+  public void evictAmenity(String amenityId, String communityId) {
+    afterCommit(() -> {
+      detailsCache().evict(amenityId);
+      priceTableCache().evict(amenityId);
+      evictCatalog(communityId);
+    });
+  }
+
+  /**
+   * drops the cached details and price table of an amenity together with the catalogs of
+   * all communities, as the amenity may have been moved between communities, after the
+   * current transaction committed if there is one.
+   *
+   * @param amenityId ID of the changed amenity.
+   */
+  public void evictAmenityFromAllCatalogs(String amenityId) {
+    afterCommit(() -> {
+      detailsCache().evict(amenityId);
+      priceTableCache().evict(amenityId);
+      catalogCache().clear();
+    });
+  }
+
+  private void evictCatalog(String communityId) {
+    if (communityId != null) {
+      catalogCache().evict(communityId);
+    }
+  }
+
+  private static void afterCommit(Runnable eviction) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      eviction.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronizationAdapter() {
+          @Override
+          public void afterCommit() {
+            eviction.run();
+          }
+        });
+  }
+
+  private Cache catalogCache() {
+    return cacheManager.getCache(CacheConfig.AMENITY_CATALOG_CACHE);
+  }
+
+  private Cache detailsCache() {
+    return cacheManager.getCache(CacheConfig.AMENITY_DETAILS_CACHE);
+  }
+
+  private Cache priceTableCache() {
+    return cacheManager.getCache(CacheConfig.AMENITY_PRICE_TABLE_CACHE);
+  }
+}
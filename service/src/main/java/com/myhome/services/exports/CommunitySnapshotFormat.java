@@ -0,0 +1,36 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.exports;
+
+/**
+ * formats a community snapshot can be exported in. Both formats are written
+ * incrementally, one record at a time, so communities of any size are written in
+ * constant memory.
+ */
+public enum CommunitySnapshotFormat {
+
+  /**
+   * a single JSON object holding the community and one array per kind of record.
+   */
+  JSON,
+
+  /**
+   * one JSON object per line, starting with the community, with a `type` property naming
+   * the kind of every record.
+   */
+  NDJSON
+}
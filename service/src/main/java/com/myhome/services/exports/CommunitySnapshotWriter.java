@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.exports;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.myhome.repositories.projections.CommunitySnapshot;
+import com.myhome.repositories.projections.CommunitySnapshotRecord;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * writes a community snapshot to an output stream while its records are read. Records
+ * pass through the buffer of a single JSON generator, which is only flushed when it is
+ * full, so the output is sent in chunks of constant size. The output stream is left
+ * open when the writer is closed.
+ */
+public class CommunitySnapshotWriter implements Closeable {
+
+  private final CommunitySnapshotFormat format;
+  private final JsonGenerator generator;
+  private final ObjectWriter recordWriter;
+
+  public CommunitySnapshotWriter(ObjectMapper objectMapper, CommunitySnapshotFormat format,
+      OutputStream output) throws IOException {
+    this.format = format;
+    this.generator = objectMapper.getFactory().createGenerator(output)
+        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    this.recordWriter = objectMapper.writerFor(CommunitySnapshotRecord.class)
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+        .without(SerializationFeature.INDENT_OUTPUT);
+    if (format == CommunitySnapshotFormat.JSON) {
+      generator.writeStartObject();
+    } else {
+      generator.setRootValueSeparator(new SerializedString("\n"));
+    }
+  }
+
+  /**
+   * writes the details of the community, which have to come before any other record.
+   *
+   * @param community details of the exported community.
+   *
+   * @throws IOException if the output could not be written.
+   */
+  public void writeCommunity(CommunitySnapshot community) throws IOException {
+    if (format == CommunitySnapshotFormat.JSON) {
+      generator.writeFieldName("community");
+    }
+    recordWriter.writeValue(generator, community);
+  }
+
+  /**
+   * writes all records of one kind.
+   *
+   * @param name name of the array holding the records in a JSON snapshot.
+   *
+   * @param records records to write, consumed one at a time.
+   *
+   * @returns the number of written records.
+   *
+   * @throws IOException if the output could not be written.
+   */
+  public long writeSection(String name, Iterator<? extends CommunitySnapshotRecord> records)
+      throws IOException {
+    if (format == CommunitySnapshotFormat.JSON) {
+      generator.writeArrayFieldStart(name);
+    }
+    long written = 0;
+    while (records.hasNext()) {
+      recordWriter.writeValue(generator, records.next());
+      written++;
+    }
+    if (format == CommunitySnapshotFormat.JSON) {
+      generator.writeEndArray();
+    }
+    return written;
+  }
+
+  /**
+   * completes the snapshot and flushes everything still buffered to the output stream.
+   */
+  @Override
+  public void close() throws IOException {
+    if (format == CommunitySnapshotFormat.JSON) {
+      generator.writeEndObject();
+    } else {
+      generator.writeRaw('\n');
+    }
+    generator.close();
+  }
+}
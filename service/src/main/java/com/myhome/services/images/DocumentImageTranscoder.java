@@ -0,0 +1,246 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.images;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+/**
+ * turns uploaded images into JPEG documents of bounded resolution and size. Large images
+ * are decoded with source subsampling, so the decoder only ever keeps every n-th column
+ * of every n-th row, and no side of the decoded image exceeds the maximum dimension. The
+ * image is then encoded with the highest quality keeping it within the byte budget.
+ * Thumbnails are scaled down from the decoded image in halving steps, which keeps them
+ * sharp without decoding the upload again. Heap used per image is bounded by the maximum
+ * dimension, the budget and the size of the upload, independent of the resolution of the
+ * uploaded image.
+ */
+public class DocumentImageTranscoder {
+
+  private static final String JPEG_FORMAT = "jpg";
+  private static final int QUALITY_SEARCH_STEPS = 5;
+
+  private final int maxDimension;
+  private final float minQuality;
+  private final float maxQuality;
+  private final long maxBytes;
+
+  /**
+   * @param maxDimension largest width or height of a transcoded image in pixels.
+   *
+   * @param minQuality lowest JPEG quality, from 0 to 1, an image may be encoded with.
+   *
+   * @param maxQuality highest JPEG quality, from 0 to 1, an image is encoded with.
+   *
+   * @param maxBytes largest size of a transcoded image in bytes.
+   */
+  public DocumentImageTranscoder(int maxDimension, float minQuality, float maxQuality,
+      long maxBytes) {
+    if (maxDimension < 1 || minQuality < 0 || maxQuality > 1 || minQuality > maxQuality) {
+      throw new IllegalArgumentException("Invalid image transcoding settings");
+    }
+    this.maxDimension = maxDimension;
+    this.minQuality = minQuality;
+    this.maxQuality = maxQuality;
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * decodes an image, downscaled to the maximum dimension while it is decoded, encodes
+   * it as JPEG within the byte budget and encodes thumbnails of it at the maximum
+   * quality.
+   *
+   * @param source content of the uploaded image in any format ImageIO reads.
+   *
+   * @param thumbnailDimensions largest width or height of every requested thumbnail.
+   * Thumbnails are never larger than the image itself.
+   *
+   * @returns the JPEG encoded image and thumbnails, or an empty Optional if the content
+   * is no image or does not fit into the byte budget even at the lowest quality.
+   */
+  public Optional<TranscodedImage> transcode(InputStream source, int... thumbnailDimensions)
+      throws IOException {
+    try (ImageInputStream imageInput = new MemoryCacheImageInputStream(source)) {
+      Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInput);
+      if (!readers.hasNext()) {
+        return Optional.empty();
+      }
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(imageInput, true, true);
+        ImageReadParam readParam = reader.getDefaultReadParam();
+        int subsampling = subsamplingFor(reader.getWidth(0), reader.getHeight(0));
+        readParam.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        BufferedImage image = withoutAlpha(reader.read(0, readParam));
+        Optional<byte[]> content = encodeWithinBudget(image);
+        if (!content.isPresent()) {
+          return Optional.empty();
+        }
+        return Optional.of(new TranscodedImage(content.get(),
+            encodeThumbnails(image, thumbnailDimensions)));
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  /**
+   * scales an image down to every thumbnail dimension and encodes the thumbnails. Every
+   * thumbnail is scaled from the previous one while that one is still large enough.
+   */
+  private List<byte[]> encodeThumbnails(BufferedImage image, int... thumbnailDimensions)
+      throws IOException {
+    List<byte[]> thumbnails = new ArrayList<>(thumbnailDimensions.length);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    BufferedImage previousThumbnail = image;
+    for (int thumbnailDimension : thumbnailDimensions) {
+      BufferedImage source = largestDimension(previousThumbnail) >= thumbnailDimension
+          ? previousThumbnail : image;
+      previousThumbnail = scaleDown(source, thumbnailDimension);
+      encode(previousThumbnail, maxQuality, output);
+      thumbnails.add(output.toByteArray());
+    }
+    return thumbnails;
+  }
+
+  /**
+   * scales an image down to fit the given dimension, halving it until the last step is
+   * less than half, as bilinear interpolation skips pixels when shrinking further at once.
+   */
+  private BufferedImage scaleDown(BufferedImage image, int maxDimension) {
+    double scale = Math.min(1d, (double) maxDimension / largestDimension(image));
+    int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * scale));
+    int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * scale));
+    BufferedImage scaled = image;
+    while (scaled.getWidth() != targetWidth || scaled.getHeight() != targetHeight) {
+      int width = Math.max(targetWidth, scaled.getWidth() / 2);
+      int height = Math.max(targetHeight, scaled.getHeight() / 2);
+      BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+      Graphics2D graphics = step.createGraphics();
+      try {
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+            RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(scaled, 0, 0, width, height, null);
+      } finally {
+        graphics.dispose();
+      }
+      scaled = step;
+    }
+    return scaled;
+  }
+
+  private static int largestDimension(BufferedImage image) {
+    return Math.max(image.getWidth(), image.getHeight());
+  }
+
+  /**
+   * returns the smallest subsampling which keeps both sides of the decoded image within
+   * the maximum dimension.
+   */
+  private int subsamplingFor(int width, int height) {
+    int largestDimension = Math.max(width, height);
+    return Math.max(1, (largestDimension + maxDimension - 1) / maxDimension);
+  }
+
+  /**
+   * returns the image itself if JPEG can encode its colors, or a copy on a white
+   * background for images with transparency or a palette.
+   */
+  private BufferedImage withoutAlpha(BufferedImage image) {
+    if (!image.getColorModel().hasAlpha() && !(image.getColorModel() instanceof IndexColorModel)) {
+      return image;
+    }
+    BufferedImage rgbImage =
+        new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+    Graphics2D graphics = rgbImage.createGraphics();
+    try {
+      graphics.drawImage(image, 0, 0, Color.WHITE, null);
+    } finally {
+      graphics.dispose();
+    }
+    return rgbImage;
+  }
+
+  /**
+   * encodes an image with the highest quality whose result fits into the byte budget.
+   * The maximum quality is tried first, as most images fit with it, then the quality is
+   * searched by bisection between the lowest and the maximum quality.
+   */
+  private Optional<byte[]> encodeWithinBudget(BufferedImage image) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    if (encode(image, maxQuality, output) <= maxBytes) {
+      return Optional.of(output.toByteArray());
+    }
+    if (encode(image, minQuality, output) > maxBytes) {
+      return Optional.empty();
+    }
+    byte[] best = output.toByteArray();
+    float lowQuality = minQuality;
+    float highQuality = maxQuality;
+    for (int step = 0; step < QUALITY_SEARCH_STEPS; step++) {
+      float quality = (lowQuality + highQuality) / 2;
+      if (encode(image, quality, output) <= maxBytes) {
+        best = output.toByteArray();
+        lowQuality = quality;
+      } else {
+        highQuality = quality;
+      }
+    }
+    return Optional.of(best);
+  }
+
+  /**
+   * encodes an image as JPEG into the reset output, buffering in memory only.
+   *
+   * @returns the size of the encoded image in bytes.
+   */
+  private int encode(BufferedImage image, float quality, ByteArrayOutputStream output)
+      throws IOException {
+    output.reset();
+    ImageWriter imageWriter = ImageIO.getImageWritersByFormatName(JPEG_FORMAT).next();
+    try (ImageOutputStream imageOutput = new MemoryCacheImageOutputStream(output)) {
+      imageWriter.setOutput(imageOutput);
+      ImageWriteParam writeParam = imageWriter.getDefaultWriteParam();
+      writeParam.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+      writeParam.setCompressionQuality(quality);
+      imageWriter.write(null, new IIOImage(image, null, null), writeParam);
+    } finally {
+      imageWriter.dispose();
+    }
+    return output.size();
+  }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.images;
+
+import java.util.List;
+import lombok.Value;
+
+/**
+ * result of transcoding an uploaded image: the JPEG encoded document and its JPEG
+ * encoded thumbnails, in the order their dimensions were requested.
+ */
+@Value
+public class TranscodedImage {
+  byte[] content;
+  List<byte[]> thumbnails;
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.imports;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * one record of a resident import file: a house of the community, identified by its
+ * name, and optionally one member living in it. Houses which are not found in the
+ * community by their name are created, so a house listed without a member is created
+ * empty.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResidentRecord {
+  private String houseName;
+  private String memberName;
+}
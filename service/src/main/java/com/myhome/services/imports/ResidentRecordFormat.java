@@ -0,0 +1,68 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.imports;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * file formats resident records can be imported from. Both formats are parsed
+ * incrementally, one record at a time, so files of any size are read in constant memory.
+ */
+public enum ResidentRecordFormat {
+
+  /**
+   * comma separated values with a header line naming the `houseName` and `memberName`
+   * columns.
+   */
+  CSV(new CsvMapper()
+      .readerFor(ResidentRecord.class)
+      .with(CsvSchema.emptySchema().withHeader())),
+
+  /**
+   * one JSON object with `houseName` and `memberName` fields per line.
+   */
+  NDJSON(new ObjectMapper()
+      .readerFor(ResidentRecord.class));
+
+  private final ObjectReader reader;
+
+  ResidentRecordFormat(ObjectReader reader) {
+    this.reader = reader.without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+  }
+
+  /**
+   * opens an iterator over the records of the given input, which parses the next record
+   * only when it is requested.
+   *
+   * @param input stream of the file to read, closed together with the returned iterator.
+   *
+   * @returns the iterator over the records of the file.
+   *
+   * @throws IOException if the input can not be read or does not start like a file of
+   * this format.
+   */
+  public MappingIterator<ResidentRecord> read(InputStream input) throws IOException {
+    return reader.readValues(input);
+  }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.mail;
+
+import com.myhome.configuration.properties.mail.MailProperties;
+import com.myhome.domain.Announcement;
+import com.myhome.domain.AnnouncementStatus;
+import com.myhome.repositories.AnnouncementRepository;
+import com.myhome.repositories.UserRepository;
+import com.myhome.repositories.projections.AnnouncementRecipient;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * sends accepted announcements in the background, one batch of recipients at a time
+ * over a single SMTP connection. Recipients are read page by page after the last one of
+ * the previous batch, so memory use does not grow with the number of recipients. Batches
+ * of all announcements are paced together to the configured rate, taking turns with the
+ * announcement whose batch is due longest. The progress is stored after every batch, and
+ * every batch is claimed before it is sent, so no two instances send the same batch.
+ * Recipients the mail server rejects are counted as failed, while a failure to reach the
+ * mail server retries the rest of the batch with exponentially growing delays and fails
+ * the announcement after the last attempt.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "spring.mail.devMode", havingValue = "false", matchIfMissing = false)
+public class AnnouncementDispatcher {
+
+  private final AnnouncementRepository announcementRepository;
+  private final UserRepository userRepository;
+  private final JavaMailSender mailSender;
+  private final MailProperties mailProperties;
+  private final int batchSize;
+  private final int ratePerSecond;
+  private final Duration claimTimeout;
+  private final MailRetryPolicy retryPolicy;
+  private long nextBatchNanos = System.nanoTime();
+
+  public AnnouncementDispatcher(AnnouncementRepository announcementRepository,
+      UserRepository userRepository,
+      JavaMailSender mailSender,
+      MailProperties mailProperties,
+      @Value("${email.announcements.batchSize}") int batchSize,
+      @Value("${email.announcements.ratePerSecond}") int ratePerSecond,
+      @Value("${email.announcements.claimTimeout}") Duration claimTimeout,
+      @Value("${email.announcements.maxAttempts}") int maxAttempts,
+      @Value("${email.announcements.initialBackoff}") Duration initialBackoff,
+      @Value("${email.announcements.maxBackoff}") Duration maxBackoff) {
+    if (batchSize < 1 || ratePerSecond < 1) {
+      throw new IllegalArgumentException("Invalid announcement dispatch settings");
+    }
+    this.announcementRepository = announcementRepository;
+    this.userRepository = userRepository;
+    this.mailSender = mailSender;
+    this.mailProperties = mailProperties;
+    this.batchSize = batchSize;
+    this.ratePerSecond = ratePerSecond;
+    this.claimTimeout = claimTimeout;
+    this.retryPolicy = new MailRetryPolicy(maxAttempts, initialBackoff, maxBackoff);
+  }
+
+  /**
+   * sends the next batch of the announcement which is due longest, unless the previous
+   * batch was sent too recently for the configured rate.
+   *
+   * @returns the number of recipients the batch was sent to, or 0 if no batch was sent.
+   */
+  @Scheduled(fixedDelayString = "${email.announcements.pollInterval}")
+  public int dispatchNextBatch() {
+    long batchStart = System.nanoTime();
+    if (batchStart - nextBatchNanos < 0) {
+      return 0;
+    }
+    List<Announcement> dueAnnouncements = announcementRepository.findDueAnnouncements(
+        AnnouncementStatus.SENDING, LocalDateTime.now(), PageRequest.of(0, 1));
+    if (dueAnnouncements.isEmpty()) {
+      return 0;
+    }
+    // the community is fetched with the due announcement only, the claimed copy refers to
+    // it by a proxy which cannot be loaded outside of a session
+    String communityId = dueAnnouncements.get(0).getCommunity().getCommunityId();
+    Announcement announcement = claim(dueAnnouncements.get(0));
+    if (announcement == null) {
+      return 0;
+    }
+    int sent = sendBatch(announcement, communityId);
+    nextBatchNanos = batchStart + TimeUnit.SECONDS.toNanos(Math.max(sent, 1)) / ratePerSecond;
+    return sent;
+  }
+
+  /**
+   * postpones the announcement by the claim timeout, so it is not picked by another
+   * instance while its batch is sent, and resumed if this instance stops while sending.
+   *
+   * @returns the claimed announcement, or null if another instance claimed it first.
+   */
+  private Announcement claim(Announcement announcement) {
+    announcement.setNextBatchAt(LocalDateTime.now().plus(claimTimeout));
+    try {
+      return announcementRepository.save(announcement);
+    } catch (ObjectOptimisticLockingFailureException e) {
+      log.debug("Announcement [{}] was claimed by another instance",
+          announcement.getAnnouncementId());
+      return null;
+    }
+  }
+
+  /**
+   * sends the announcement to the next page of recipients of its community and stores the
+   * progress.
+   *
+   * @returns the number of recipients the mail server accepted or rejected.
+   */
+  private int sendBatch(Announcement announcement, String communityId) {
+    List<AnnouncementRecipient> recipients = userRepository.findCommunityAnnouncementRecipients(
+        communityId, announcement.getLastRecipientId(), PageRequest.of(0, batchSize));
+    List<MimeMessage> messages = new ArrayList<>(recipients.size());
+    int rejected = 0;
+    for (AnnouncementRecipient recipient : recipients) {
+      try {
+        messages.add(toMimeMessage(announcement, recipient));
+      } catch (MessagingException e) {
+        log.debug("Cannot address announcement to user [{}]", recipient.getId(), e);
+        messages.add(null);
+      }
+    }
+
+    Map<Object, Exception> failedMessages = null;
+    Exception sessionFailure = null;
+    try {
+      mailSender.send(messages.stream().filter(Objects::nonNull)
+          .toArray(MimeMessage[]::new));
+    } catch (MailSendException e) {
+      failedMessages = e.getFailedMessages();
+      sessionFailure = e.getCause();
+    } catch (MailException e) {
+      sessionFailure = e;
+    }
+
+    // messages failing with the cause of the exception were not sent as the connection
+    // to the mail server failed, and neither were the ones after them
+    int handled = 0;
+    for (MimeMessage message : messages) {
+      Exception failure = message != null && failedMessages != null
+          ? failedMessages.get(message) : null;
+      boolean notSent = sessionFailure != null
+          && (failedMessages == null || (failure != null && failure == sessionFailure));
+      if (notSent) {
+        break;
+      }
+      if (message == null || failure != null) {
+        rejected++;
+      }
+      handled++;
+    }
+
+    LocalDateTime now = LocalDateTime.now();
+    if (handled > 0) {
+      announcement.setLastRecipientId(recipients.get(handled - 1).getId());
+      announcement.setSentMails(announcement.getSentMails() + handled - rejected);
+      announcement.setFailedMails(announcement.getFailedMails() + rejected);
+    }
+    if (handled < recipients.size()) {
+      retryLater(announcement, sessionFailure, now);
+    } else {
+      announcement.setAttempts(0);
+      announcement.setNextBatchAt(now);
+      if (recipients.size() < batchSize) {
+        announcement.setStatus(AnnouncementStatus.COMPLETED);
+        log.info("Sent announcement [{}] to {} recipients, {} were rejected",
+            announcement.getAnnouncementId(), announcement.getSentMails(),
+            announcement.getFailedMails());
+      }
+    }
+    announcement.setUpdatedAt(now);
+    announcementRepository.save(announcement);
+    return handled;
+  }
+
+  /**
+   * counts a failed attempt to reach the mail server and schedules the next one, or fails
+   * the announcement after the last attempt.
+   */
+  private void retryLater(Announcement announcement, Exception failure, LocalDateTime now) {
+    int attempts = announcement.getAttempts() + 1;
+    announcement.setAttempts(attempts);
+    if (retryPolicy.isExhausted(attempts)) {
+      log.warn("Giving up sending announcement [{}] after {} attempts",
+          announcement.getAnnouncementId(), attempts, failure);
+      announcement.setStatus(AnnouncementStatus.FAILED);
+      announcement.setFailureReason(abbreviate(String.valueOf(failure.getMessage())));
+      return;
+    }
+    log.debug("Sending announcement [{}] failed, retrying", announcement.getAnnouncementId(),
+        failure);
+    announcement.setNextBatchAt(now.plus(retryPolicy.backoff(attempts)));
+  }
+
+  private MimeMessage toMimeMessage(Announcement announcement, AnnouncementRecipient recipient)
+      throws MessagingException {
+    MimeMessage message = mailSender.createMimeMessage();
+    MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+    helper.setFrom(mailProperties.getUsername());
+    helper.setTo(recipient.getEmail());
+    helper.setSubject(announcement.getSubject());
+    helper.setText(announcement.getHtmlBody(), true);
+    return message;
+  }
+
+  private static String abbreviate(String message) {
+    return message.length() > Announcement.MAX_FAILURE_REASON_LENGTH
+        ? message.substring(0, Announcement.MAX_FAILURE_REASON_LENGTH) : message;
+  }
+}
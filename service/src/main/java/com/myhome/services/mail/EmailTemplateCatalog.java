@@ -0,0 +1,153 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.mail;
+
+import com.myhome.configuration.properties.mail.EmailTemplateLocalizationProperties;
+import com.myhome.configuration.properties.mail.EmailTemplateProperties;
+import com.myhome.configuration.properties.mail.MailTemplatesNames;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+/**
+ * renders the email templates and looks up their localized subjects. Requested locales
+ * are mapped to the supported locales, so the subjects can be cached per supported
+ * locale when templates are cached, without letting arbitrary request locales grow the
+ * cache. With preloading enabled every template is parsed and rendered for every
+ * supported locale at startup, which fills the template cache of the engine and the
+ * resource bundles of the message source before the first mail is sent.
+ */
+@Slf4j
+@Component
+public class EmailTemplateCatalog {
+
+  private final ITemplateEngine emailTemplateEngine;
+  private final ResourceBundleMessageSource messageSource;
+  private final EmailTemplateProperties templateProperties;
+  private final List<Locale> locales;
+  private final Map<Locale, Map<MailTemplatesNames, String>> subjects = new ConcurrentHashMap<>();
+
+  public EmailTemplateCatalog(ITemplateEngine emailTemplateEngine,
+      ResourceBundleMessageSource messageSource,
+      EmailTemplateProperties templateProperties,
+      EmailTemplateLocalizationProperties localizationProperties) {
+    if (localizationProperties.getLocales().isEmpty()) {
+      throw new IllegalArgumentException("At least one email locale is required");
+    }
+    this.emailTemplateEngine = emailTemplateEngine;
+    this.messageSource = messageSource;
+    this.templateProperties = templateProperties;
+    this.locales = localizationProperties.getLocales();
+  }
+
+  /**
+   * renders an email template.
+   *
+   * @param template template to render.
+   *
+   * @param locale requested locale of the email.
+   *
+   * @param templateModel variables used by the template.
+   *
+   * @returns the rendered HTML body of the email.
+   */
+  public String render(MailTemplatesNames template, Locale locale,
+      Map<String, Object> templateModel) {
+    Context thymeleafContext = new Context(toSupportedLocale(locale), templateModel);
+    return emailTemplateEngine.process(template.filename, thymeleafContext);
+  }
+
+  /**
+   * returns the localized subject of an email template, from the cache if templates are
+   * cached.
+   *
+   * @param template template whose subject is requested.
+   *
+   * @param locale requested locale of the email.
+   *
+   * @returns the subject, or its message key followed by a localization error if there
+   * is no subject for the template.
+   */
+  public String getSubject(MailTemplatesNames template, Locale locale) {
+    Locale supportedLocale = toSupportedLocale(locale);
+    if (!templateProperties.isCache()) {
+      return loadSubject(template, supportedLocale);
+    }
+    return subjects.computeIfAbsent(supportedLocale, this::loadSubjects).get(template);
+  }
+
+  /**
+   * parses and renders every template for every supported locale, if preloading is
+   * enabled. A template which cannot be rendered fails the startup.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void preloadTemplates() {
+    if (!templateProperties.isPreload()) {
+      return;
+    }
+    long start = System.nanoTime();
+    for (Locale locale : locales) {
+      for (MailTemplatesNames template : MailTemplatesNames.values()) {
+        render(template, locale, Collections.emptyMap());
+        getSubject(template, locale);
+      }
+    }
+    log.info("Preloaded {} email templates for locales {} in {} ms",
+        MailTemplatesNames.values().length, locales,
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  /**
+   * returns the supported locale equal to the requested one, or else of the same
+   * language, or else the first supported locale.
+   */
+  private Locale toSupportedLocale(Locale locale) {
+    if (locales.contains(locale)) {
+      return locale;
+    }
+    for (Locale supportedLocale : locales) {
+      if (supportedLocale.getLanguage().equals(locale.getLanguage())) {
+        return supportedLocale;
+      }
+    }
+    return locales.get(0);
+  }
+
+  private Map<MailTemplatesNames, String> loadSubjects(Locale locale) {
+    Map<MailTemplatesNames, String> localizedSubjects = new EnumMap<>(MailTemplatesNames.class);
+    for (MailTemplatesNames template : MailTemplatesNames.values()) {
+      localizedSubjects.put(template, loadSubject(template, locale));
+    }
+    return localizedSubjects;
+  }
+
+  private String loadSubject(MailTemplatesNames template, Locale locale) {
+    return messageSource.getMessage(template.subjectKey, null,
+        template.subjectKey + ": localization error", locale);
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.mail;
+
+import java.time.Duration;
+
+/**
+ * decides when sending mail is attempted again after it failed, doubling the delay
+ * after every failed attempt up to a maximum, and when it is given up.
+ */
+public class MailRetryPolicy {
+
+  private final int maxAttempts;
+  private final Duration initialBackoff;
+  private final Duration maxBackoff;
+
+  /**
+   * @param maxAttempts number of failed attempts after which sending is given up.
+   *
+   * @param initialBackoff delay after the first failed attempt.
+   *
+   * @param maxBackoff longest delay between two attempts.
+   */
+  public MailRetryPolicy(int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+    if (maxAttempts < 1 || initialBackoff.isNegative() || maxBackoff.compareTo(initialBackoff) < 0) {
+      throw new IllegalArgumentException("Invalid mail retry settings");
+    }
+    this.maxAttempts = maxAttempts;
+    this.initialBackoff = initialBackoff;
+    this.maxBackoff = maxBackoff;
+  }
+
+  /**
+   * @param attempts number of failed attempts so far.
+   *
+   * @returns true if no further attempt is made.
+   */
+  public boolean isExhausted(int attempts) {
+    return attempts >= maxAttempts;
+  }
+
+  /**
+   * @param attempts number of failed attempts so far, at least one.
+   *
+   * @returns the delay before the next attempt.
+   */
+  public Duration backoff(int attempts) {
+    Duration backoff = initialBackoff;
+    for (int attempt = 1; attempt < attempts && backoff.compareTo(maxBackoff) < 0; attempt++) {
+      backoff = backoff.multipliedBy(2);
+    }
+    return backoff.compareTo(maxBackoff) < 0 ? backoff : maxBackoff;
+  }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.mail;
+
+import com.myhome.configuration.MailOutboxConfig;
+import com.myhome.configuration.properties.mail.MailProperties;
+import com.myhome.domain.OutboundMail;
+import com.myhome.domain.OutboundMailStatus;
+import com.myhome.repositories.OutboundMailRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import javax.mail.MessagingException;
+import javax.mail.internet.AddressException;
+import javax.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * sends the mails queued in the outbox in the background, so the latency of the mail
+ * server never adds to the requests queueing them. Due mails are read in batches, and
+ * every mail is claimed before it is sent, so no two instances send the same mail. The
+ * claimed mails are split among the dispatch workers, and every worker sends its share
+ * over a single SMTP connection. Sent mails are deleted, mails which could not be sent are retried
+ * with exponentially growing delays and given up as dead after the last attempt.
+ * A mail may be sent twice if the application stops after sending it but before
+ * deleting it, as it is sent again once its claim timed out.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "spring.mail.devMode", havingValue = "false", matchIfMissing = false)
+public class OutboundMailDispatcher {
+
+  private final OutboundMailRepository outboundMailRepository;
+  private final JavaMailSender mailSender;
+  private final MailProperties mailProperties;
+  private final TaskExecutor mailDispatchExecutor;
+  private final int batchSize;
+  private final int workers;
+  private final Duration claimTimeout;
+  private final MailRetryPolicy retryPolicy;
+
+  public OutboundMailDispatcher(OutboundMailRepository outboundMailRepository,
+      JavaMailSender mailSender,
+      MailProperties mailProperties,
+      @Qualifier(MailOutboxConfig.MAIL_DISPATCH_EXECUTOR) TaskExecutor mailDispatchExecutor,
+      @Value("${email.outbox.batchSize}") int batchSize,
+      @Value("${email.outbox.workers}") int workers,
+      @Value("${email.outbox.claimTimeout}") Duration claimTimeout,
+      @Value("${email.outbox.maxAttempts}") int maxAttempts,
+      @Value("${email.outbox.initialBackoff}") Duration initialBackoff,
+      @Value("${email.outbox.maxBackoff}") Duration maxBackoff) {
+    this.outboundMailRepository = outboundMailRepository;
+    this.mailSender = mailSender;
+    this.mailProperties = mailProperties;
+    this.mailDispatchExecutor = mailDispatchExecutor;
+    this.batchSize = batchSize;
+    this.workers = workers;
+    this.claimTimeout = claimTimeout;
+    this.retryPolicy = new MailRetryPolicy(maxAttempts, initialBackoff, maxBackoff);
+  }
+
+  /**
+   * sends all mails which are due, batch by batch. The next batch is only read once
+   * every worker finished its share of the previous one, so no mail is sent by two
+   * workers at once.
+   *
+   * @returns the number of sent mails.
+   */
+  @Scheduled(fixedDelayString = "${email.outbox.pollInterval}")
+  public int dispatchDueMails() {
+    int sent = 0;
+    List<OutboundMail> dueMails;
+    do {
+      dueMails = outboundMailRepository.findDueMails(OutboundMailStatus.PENDING,
+          LocalDateTime.now(), PageRequest.of(0, batchSize));
+      sent += dispatch(claim(dueMails));
+    } while (dueMails.size() == batchSize);
+    if (sent > 0) {
+      log.info("Sent {} mails from the outbox", sent);
+    }
+    return sent;
+  }
+
+  /**
+   * postpones every mail by the claim timeout, so it is not picked by another instance
+   * while it is sent, and sent again if this instance stops before sending it.
+   *
+   * @returns the claimed mails, without those another instance claimed first.
+   */
+  private List<OutboundMail> claim(List<OutboundMail> mails) {
+    LocalDateTime claimedUntil = LocalDateTime.now().plus(claimTimeout);
+    List<OutboundMail> claimed = new ArrayList<>(mails.size());
+    for (OutboundMail mail : mails) {
+      mail.setNextAttemptAt(claimedUntil);
+      try {
+        claimed.add(outboundMailRepository.save(mail));
+      } catch (ObjectOptimisticLockingFailureException e) {
+        log.debug("Mail [{}] was claimed by another instance", mail.getId());
+      }
+    }
+    return claimed;
+  }
+
+  private int dispatch(List<OutboundMail> mails) {
+    if (mails.isEmpty()) {
+      return 0;
+    }
+    int shareSize = (mails.size() + workers - 1) / workers;
+    List<CompletableFuture<Map<OutboundMail, Exception>>> shares = new ArrayList<>(workers);
+    for (int from = 0; from < mails.size(); from += shareSize) {
+      List<OutboundMail> share = mails.subList(from, Math.min(from + shareSize, mails.size()));
+      shares.add(CompletableFuture.supplyAsync(() -> send(share), mailDispatchExecutor));
+    }
+    Map<OutboundMail, Exception> failures = new IdentityHashMap<>();
+    shares.stream().map(CompletableFuture::join).forEach(failures::putAll);
+
+    List<OutboundMail> sentMails = mails.stream()
+        .filter(mail -> !failures.containsKey(mail))
+        .collect(Collectors.toList());
+    outboundMailRepository.deleteInBatch(sentMails);
+    if (!failures.isEmpty()) {
+      LocalDateTime now = LocalDateTime.now();
+      failures.forEach((mail, failure) -> reschedule(mail, failure, now));
+      outboundMailRepository.saveAll(failures.keySet());
+    }
+    return sentMails.size();
+  }
+
+  /**
+   * sends mails over a single connection to the mail server.
+   *
+   * @returns the mails which could not be sent, with the reason.
+   */
+  private Map<OutboundMail, Exception> send(List<OutboundMail> mails) {
+    Map<OutboundMail, Exception> failures = new IdentityHashMap<>();
+    Map<MimeMessage, OutboundMail> mailsByMessage = new IdentityHashMap<>();
+    for (OutboundMail mail : mails) {
+      try {
+        mailsByMessage.put(toMimeMessage(mail), mail);
+      } catch (MessagingException e) {
+        failures.put(mail, e);
+      }
+    }
+    if (mailsByMessage.isEmpty()) {
+      return failures;
+    }
+    try {
+      mailSender.send(mailsByMessage.keySet().toArray(new MimeMessage[0]));
+    } catch (MailSendException e) {
+      Map<Object, Exception> failedMessages = e.getFailedMessages();
+      if (failedMessages.isEmpty()) {
+        mailsByMessage.values().forEach(mail -> failures.put(mail, e));
+      } else {
+        failedMessages.forEach((message, failure) ->
+            failures.put(mailsByMessage.get(message), failure));
+      }
+    } catch (MailException e) {
+      mailsByMessage.values().forEach(mail -> failures.put(mail, e));
+    }
+    return failures;
+  }
+
+  private MimeMessage toMimeMessage(OutboundMail mail) throws MessagingException {
+    MimeMessage message = mailSender.createMimeMessage();
+    MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+    helper.setFrom(mailProperties.getUsername());
+    helper.setTo(mail.getRecipient());
+    helper.setSubject(mail.getSubject());
+    helper.setText(mail.getHtmlBody(), true);
+    return message;
+  }
+
+  /**
+   * counts a failed attempt to send a mail and schedules the next one, doubling the
+   * delay after every attempt, or gives the mail up after the last attempt. Mails to an
+   * invalid address are given up at once, as sending them again fails the same way.
+   */
+  private void reschedule(OutboundMail mail, Exception failure, LocalDateTime now) {
+    int attempts = mail.getAttempts() + 1;
+    mail.setAttempts(attempts);
+    mail.setLastError(abbreviate(String.valueOf(failure.getMessage())));
+    if (retryPolicy.isExhausted(attempts) || failure instanceof AddressException) {
+      log.warn("Giving up sending mail [{}] after {} attempts", mail.getId(), attempts, failure);
+      mail.setStatus(OutboundMailStatus.DEAD);
+      return;
+    }
+    log.debug("Sending mail [{}] failed, retrying", mail.getId(), failure);
+    mail.setNextAttemptAt(now.plus(retryPolicy.backoff(attempts)));
+  }
+
+  private static String abbreviate(String message) {
+    return message.length() > OutboundMail.MAX_ERROR_LENGTH
+        ? message.substring(0, OutboundMail.MAX_ERROR_LENGTH) : message;
+  }
+}
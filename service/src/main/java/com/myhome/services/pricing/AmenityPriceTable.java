@@ -0,0 +1,179 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.pricing;
+
+import com.myhome.domain.CommunityPricingRule;
+import com.myhome.domain.PricingRuleType;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * immutable price table of a single amenity, compiled once from the hourly amenity price
+ * and the pricing rules of its community. Every day of the week is split into segments
+ * of constant price multiplier, so quoting a booking only walks the segments the booking
+ * overlaps, without any database access.
+ */
+public final class AmenityPriceTable {
+
+  private static final int MINUTES_PER_DAY = 24 * 60;
+  private static final BigDecimal SECONDS_PER_HOUR = BigDecimal.valueOf(3600);
+
+  private final BigDecimal hourlyPrice;
+  private final BigDecimal memberMultiplier;
+  private final int[][] segmentStarts;
+  private final BigDecimal[][] segmentMultipliers;
+
+  private AmenityPriceTable(BigDecimal hourlyPrice, BigDecimal memberMultiplier,
+      int[][] segmentStarts, BigDecimal[][] segmentMultipliers) {
+    this.hourlyPrice = hourlyPrice;
+    this.memberMultiplier = memberMultiplier;
+    this.segmentStarts = segmentStarts;
+    this.segmentMultipliers = segmentMultipliers;
+  }
+
+  /**
+   * compiles the price table of an amenity. Overlapping peak hours apply the highest of
+   * their multipliers, and of several member discounts the lowest multiplier applies.
+   * Peak hours ending before they start continue after midnight into the next day, so
+   * peak hours of a Friday from 22:00 to 02:00 also cover Saturday until 02:00. Peak
+   * hours ending when they start are empty.
+   * 
+   * @param hourlyPrice price of booking the amenity for one hour outside of peak hours.
+   * 
+   * @param rules pricing rules of the community the amenity belongs to.
+   * 
+   * @returns the compiled price table.
+   */
+  public static AmenityPriceTable compile(BigDecimal hourlyPrice,
+      Collection<CommunityPricingRule> rules) {
+    BigDecimal memberMultiplier = BigDecimal.ONE;
+    for (CommunityPricingRule rule : rules) {
+      if (rule.getType() == PricingRuleType.MEMBER_DISCOUNT
+          && rule.getMultiplier().compareTo(memberMultiplier) < 0) {
+        memberMultiplier = rule.getMultiplier();
+      }
+    }
+
+    DayOfWeek[] days = DayOfWeek.values();
+    BigDecimal[][] minuteMultipliers = new BigDecimal[days.length][MINUTES_PER_DAY];
+    for (BigDecimal[] dayMultipliers : minuteMultipliers) {
+      Arrays.fill(dayMultipliers, BigDecimal.ONE);
+    }
+    for (CommunityPricingRule rule : rules) {
+      if (rule.getType() != PricingRuleType.PEAK_HOURS) {
+        continue;
+      }
+      int from = rule.getStartTime() == null ? 0 : minuteOfDay(rule.getStartTime());
+      int to = rule.getEndTime() == null ? MINUTES_PER_DAY : minuteOfDay(rule.getEndTime());
+      for (DayOfWeek day : days) {
+        if (rule.getDayOfWeek() != null && rule.getDayOfWeek() != day) {
+          continue;
+        }
+        if (to > from) {
+          applyPeak(minuteMultipliers[day.ordinal()], from, to, rule.getMultiplier());
+        } else if (to < from) {
+          applyPeak(minuteMultipliers[day.ordinal()], from, MINUTES_PER_DAY,
+              rule.getMultiplier());
+          applyPeak(minuteMultipliers[day.plus(1).ordinal()], 0, to, rule.getMultiplier());
+        }
+      }
+    }
+
+    int[][] segmentStarts = new int[days.length][];
+    BigDecimal[][] segmentMultipliers = new BigDecimal[days.length][];
+    for (DayOfWeek day : days) {
+      compress(minuteMultipliers[day.ordinal()], day.ordinal(), segmentStarts,
+          segmentMultipliers);
+    }
+    return new AmenityPriceTable(hourlyPrice, memberMultiplier, segmentStarts,
+        segmentMultipliers);
+  }
+
+  /**
+   * computes the price of booking the amenity for the `[startDate, endDate)` period.
+   * 
+   * @param startDate inclusive start of the booking.
+   * 
+   * @param endDate exclusive end of the booking.
+   * 
+   * @param member whether the booking is made by a member of the community, applying
+   * the member discount.
+   * 
+   * @returns the price of the booking rounded to cents, zero for an empty period.
+   */
+  public BigDecimal quote(LocalDateTime startDate, LocalDateTime endDate, boolean member) {
+    BigDecimal weightedSeconds = BigDecimal.ZERO;
+    LocalDateTime cursor = startDate;
+    while (cursor.isBefore(endDate)) {
+      int day = cursor.getDayOfWeek().ordinal();
+      int[] starts = segmentStarts[day];
+      int minute = cursor.getHour() * 60 + cursor.getMinute();
+      int segment = Arrays.binarySearch(starts, minute);
+      if (segment < 0) {
+        segment = -segment - 2;
+      }
+      int segmentEndMinute = segment + 1 < starts.length ? starts[segment + 1] : MINUTES_PER_DAY;
+      LocalDateTime segmentEnd = cursor.toLocalDate().atStartOfDay().plusMinutes(segmentEndMinute);
+      LocalDateTime stop = segmentEnd.isBefore(endDate) ? segmentEnd : endDate;
+      long seconds = Duration.between(cursor, stop).getSeconds();
+      weightedSeconds = weightedSeconds.add(
+          segmentMultipliers[day][segment].multiply(BigDecimal.valueOf(seconds)));
+      cursor = stop;
+    }
+    BigDecimal price = hourlyPrice.multiply(weightedSeconds);
+    if (member) {
+      price = price.multiply(memberMultiplier);
+    }
+    return price.divide(SECONDS_PER_HOUR, 2, RoundingMode.HALF_UP);
+  }
+
+  private static int minuteOfDay(LocalTime time) {
+    return time.getHour() * 60 + time.getMinute();
+  }
+
+  private static void applyPeak(BigDecimal[] minuteMultipliers, int from, int to,
+      BigDecimal multiplier) {
+    for (int minute = from; minute < to; minute++) {
+      if (multiplier.compareTo(minuteMultipliers[minute]) > 0) {
+        minuteMultipliers[minute] = multiplier;
+      }
+    }
+  }
+
+  private static void compress(BigDecimal[] minuteMultipliers, int day, int[][] segmentStarts,
+      BigDecimal[][] segmentMultipliers) {
+    List<Integer> starts = new ArrayList<>();
+    List<BigDecimal> multipliers = new ArrayList<>();
+    for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+      if (minute == 0
+          || minuteMultipliers[minute].compareTo(minuteMultipliers[minute - 1]) != 0) {
+        starts.add(minute);
+        multipliers.add(minuteMultipliers[minute]);
+      }
+    }
+    segmentStarts[day] = starts.stream().mapToInt(Integer::intValue).toArray();
+    segmentMultipliers[day] = multipliers.toArray(new BigDecimal[0]);
+  }
+}
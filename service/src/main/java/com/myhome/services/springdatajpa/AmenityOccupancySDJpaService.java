@@ -0,0 +1,211 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.springdatajpa;
+
+import com.myhome.domain.AmenityBookingItem;
+import com.myhome.domain.AmenityOccupancy;
+import com.myhome.domain.OccupancyGranularity;
+import com.myhome.repositories.AmenityOccupancyRepository;
+import com.myhome.repositories.AmenityRepository;
+import com.myhome.services.AmenityOccupancyService;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.transaction.Transactional;
+import lombok.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * maintains the hourly and daily occupancy rollups of amenities as bookings are created
+ * and deleted, and reads them for a period.
+ */
+@Service
+public class AmenityOccupancySDJpaService implements AmenityOccupancyService {
+
+  private static final int MAX_BUCKET_CREATION_ATTEMPTS = 3;
+
+  private final AmenityOccupancyRepository occupancyRepository;
+  private final AmenityRepository amenityRepository;
+  private final TransactionTemplate bucketCreationTemplate;
+
+  public AmenityOccupancySDJpaService(AmenityOccupancyRepository occupancyRepository,
+      AmenityRepository amenityRepository,
+      PlatformTransactionManager transactionManager) {
+    this.occupancyRepository = occupancyRepository;
+    this.amenityRepository = amenityRepository;
+    this.bucketCreationTemplate = new TransactionTemplate(transactionManager);
+    this.bucketCreationTemplate.setPropagationBehavior(
+        TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  /**
+   * adds the given bookings to the hourly and daily occupancy buckets of their amenities.
+   * The changes of all bookings are summed up per bucket first, so every touched bucket
+   * is updated with a single increment statement. A bucket which does not exist yet is
+   * created empty first, see `createEmptyBucket`, and then incremented like any other.
+   * An empty bucket may be dropped by a concurrently removed booking before it is
+   * incremented, in which case it is created again.
+   * 
+   * @param bookings newly created bookings, each referencing the amenity it belongs to.
+   *
+   * @throws ConcurrencyFailureException if a bucket kept being dropped before it could be
+   * incremented, so the booking is rolled back instead of missing from the rollups.
+   */
+  @Transactional
+  @Override
+  public void recordBookings(Collection<AmenityBookingItem> bookings) {
+    aggregate(bookings).forEach((bucket, delta) -> {
+      int updated = occupancyRepository.incrementOccupancy(bucket.getAmenityId(),
+          bucket.getGranularity(), bucket.getBucketStart(), delta.bookings, delta.minutes);
+      for (int attempt = 0; updated == 0; attempt++) {
+        if (attempt == MAX_BUCKET_CREATION_ATTEMPTS) {
+          throw new ConcurrencyFailureException("Occupancy bucket " + bucket
+              + " was dropped before it could be incremented");
+        }
+        createEmptyBucket(bucket);
+        updated = occupancyRepository.incrementOccupancy(bucket.getAmenityId(),
+            bucket.getGranularity(), bucket.getBucketStart(), delta.bookings, delta.minutes);
+      }
+    });
+  }
+
+  /**
+   * inserts an empty bucket in a transaction of its own, so that concurrent first
+   * bookings of the same bucket do not both insert it in their transactions and fail
+   * the later one on the unique constraint. A bucket inserted concurrently by another
+   * booking is left as it is. The empty bucket is committed even if the booking is
+   * rolled back later, which is harmless as it holds no booking and is dropped with the
+   * next removed booking of the amenity.
+   */
+  private void createEmptyBucket(OccupancyBucket bucket) {
+    try {
+      bucketCreationTemplate.execute(status -> occupancyRepository.saveAndFlush(
+          new AmenityOccupancy(
+              amenityRepository.getOne(bucket.getAmenityId()),
+              bucket.getGranularity(),
+              bucket.getBucketStart(),
+              0,
+              0)));
+    } catch (DataIntegrityViolationException e) {
+      // created by a concurrent booking, which is incremented the same way
+    }
+  }
+
+  /**
+   * subtracts the given bookings from the hourly and daily occupancy buckets of their
+   * amenities, and drops the buckets no booking overlaps anymore so the rollups only
+   * hold buckets which are actually occupied.
+   * 
+   * @param bookings deleted bookings, each referencing the amenity it belonged to.
+   */
+  @Transactional
+  @Override
+  public void removeBookings(Collection<AmenityBookingItem> bookings) {
+    Set<Long> amenityIds = new HashSet<>();
+    aggregate(bookings).forEach((bucket, delta) -> {
+      occupancyRepository.incrementOccupancy(bucket.getAmenityId(), bucket.getGranularity(),
+          bucket.getBucketStart(), -delta.bookings, -delta.minutes);
+      amenityIds.add(bucket.getAmenityId());
+    });
+    amenityIds.forEach(occupancyRepository::deleteEmptyOccupancy);
+  }
+
+  /**
+   * reads the occupancy buckets of an amenity starting within the `[startDate, endDate)`
+   * period, ordered by their start. Buckets without any booking are not stored and
+   * therefore not returned.
+   * 
+   * @param amenityId ID of the amenity whose occupancy is requested.
+   * 
+   * @param granularity size of the returned buckets.
+   * 
+   * @param startDate inclusive start of the period.
+   * 
+   * @param endDate exclusive end of the period.
+   * 
+   * @returns the occupied buckets of the amenity within the period.
+   */
+  @Override
+  public List<AmenityOccupancy> getOccupancy(String amenityId, OccupancyGranularity granularity,
+      LocalDateTime startDate, LocalDateTime endDate) {
+    return occupancyRepository.findOccupancyInPeriod(amenityId, granularity, startDate,
+        endDate);
+  }
+
+  /**
+   * splits every booking into the hourly and daily buckets it overlaps and sums the
+   * booking count and booked minutes per bucket. Bookings without an end date are
+   * counted in the bucket containing their start only, without any booked minutes.
+   * 
+   * @param bookings bookings to aggregate.
+   * 
+   * @returns the summed changes per bucket.
+   */
+  private Map<OccupancyBucket, OccupancyDelta> aggregate(Collection<AmenityBookingItem> bookings) {
+    Map<OccupancyBucket, OccupancyDelta> deltas = new LinkedHashMap<>();
+    for (AmenityBookingItem booking : bookings) {
+      Long amenityId = booking.getAmenity().getId();
+      LocalDateTime start = booking.getBookingStartDate();
+      LocalDateTime end = booking.getBookingEndDate();
+      for (OccupancyGranularity granularity : OccupancyGranularity.values()) {
+        LocalDateTime bucketStart = granularity.bucketStart(start);
+        if (end == null || !end.isAfter(start)) {
+          deltas.computeIfAbsent(new OccupancyBucket(amenityId, granularity, bucketStart),
+              bucket -> new OccupancyDelta()).add(0);
+          continue;
+        }
+        while (bucketStart.isBefore(end)) {
+          LocalDateTime bucketEnd = granularity.nextBucketStart(bucketStart);
+          LocalDateTime overlapStart = start.isAfter(bucketStart) ? start : bucketStart;
+          LocalDateTime overlapEnd = end.isBefore(bucketEnd) ? end : bucketEnd;
+          deltas.computeIfAbsent(new OccupancyBucket(amenityId, granularity, bucketStart),
+              bucket -> new OccupancyDelta())
+              .add(Duration.between(overlapStart, overlapEnd).toMinutes());
+          bucketStart = bucketEnd;
+        }
+      }
+    }
+    return deltas;
+  }
+
+  @Value
+  private static class OccupancyBucket {
+    Long amenityId;
+    OccupancyGranularity granularity;
+    LocalDateTime bucketStart;
+  }
+
+  private static class OccupancyDelta {
+    private long bookings;
+    private long minutes;
+
+    private void add(long bookedMinutes) {
+      bookings++;
+      minutes += bookedMinutes;
+    }
+  }
+}
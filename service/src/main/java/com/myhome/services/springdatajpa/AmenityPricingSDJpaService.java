@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.springdatajpa;
+
+import com.myhome.repositories.AmenityRepository;
+import com.myhome.repositories.CommunityPricingRuleRepository;
+import com.myhome.services.AmenityPricingService;
+import com.myhome.services.cache.AmenityCatalogCache;
+import com.myhome.services.pricing.AmenityPriceTable;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+/**
+ * quotes amenity bookings from cached price tables compiled from the amenity price and
+ * the pricing rules of its community.
+ */
+@Service
+@RequiredArgsConstructor
+public class AmenityPricingSDJpaService implements AmenityPricingService {
+
+  private final AmenityRepository amenityRepository;
+  private final CommunityPricingRuleRepository pricingRuleRepository;
+  private final AmenityCatalogCache amenityCatalogCache;
+
+  /**
+   * returns the price table of an amenity from the cache, compiling it from the amenity
+   * price and the pricing rules of its community on a miss. The compiled table is
+   * dropped from the cache together with the other cached details of the amenity
+   * whenever the amenity changes.
+   * 
+   * @param amenityId ID of the amenity whose price table is requested.
+   * 
+   * @returns the compiled price table, or an empty Optional if the amenity does not exist.
+   */
+  @Override
+  public Optional<AmenityPriceTable> getPriceTable(String amenityId) {
+    return amenityCatalogCache.getPriceTable(amenityId, this::compilePriceTable);
+  }
+
+  /**
+   * tells whether the authenticated user is a member of the community of an amenity.
+   * Users belong to communities as their admins only, so admins of the community of the
+   * amenity are its members.
+   * 
+   * @param amenityId ID of the amenity to be booked.
+   * 
+   * @returns true if the authenticated user is an admin of the community of the amenity.
+   */
+  @Override
+  public boolean isCurrentUserMember(String amenityId) {
+    String userId = (String) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+    return amenityRepository.existsByAmenityIdAndCommunity_Admins_UserId(amenityId, userId);
+  }
+
+  private Optional<AmenityPriceTable> compilePriceTable(String amenityId) {
+    return amenityRepository.findByAmenityId(amenityId)
+        .map(amenity -> AmenityPriceTable.compile(amenity.getPrice(),
+            pricingRuleRepository.findAllByAmenityId(amenityId)));
+  }
+}
@@ -20,16 +20,21 @@ import com.myhome.controllers.mapper.AmenityApiMapper;
 import com.myhome.domain.Amenity;
 import com.myhome.domain.Community;
 import com.myhome.model.AmenityDto;
+import com.myhome.model.GetAmenityDetailsResponse;
 import com.myhome.repositories.AmenityRepository;
 import com.myhome.repositories.CommunityRepository;
 import com.myhome.services.AmenityService;
 import com.myhome.services.CommunityService;
+import com.myhome.services.cache.AmenityCatalogCache;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import javax.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
 /**
@@ -43,6 +48,7 @@ public class AmenitySDJpaService implements AmenityService {
   private final CommunityRepository communityRepository;
   private final CommunityService communityService;
   private final AmenityApiMapper amenityApiMapper;
+  private final AmenityCatalogCache amenityCatalogCache;
 
   /**
    * creates a list of `AmenityDto` objects from a set of `AmenityDto` objects and a
@@ -99,6 +105,7 @@ public class AmenitySDJpaService implements AmenityService {
         amenityRepository.saveAll(amenitiesWithCommunity).stream()
             .map(amenityApiMapper::amenityToAmenityDto)
             .collect(Collectors.toList());
+    amenityCatalogCache.evictCommunityCatalog(communityId);
     return Optional.of(createdAmenities);
   }
 
@@ -128,6 +135,22 @@ public class AmenitySDJpaService implements AmenityService {
     return amenityRepository.findByAmenityId(amenityId);
   }
 
+  /**
+   * retrieves the details of an amenity already mapped to its API response. The mapped
+   * details are served from the amenity catalog cache and only loaded from the repository
+   * on a cache miss.
+   * 
+   * @param amenityId identifier of the amenity whose details are requested.
+   * 
+   * @returns an Optional containing the mapped details of the amenity, or an empty
+   * Optional if no amenity with the given ID exists.
+   */
+  @Override
+  public Optional<GetAmenityDetailsResponse> findAmenityDetails(String amenityId) {
+    return amenityCatalogCache.getAmenityDetails(amenityId,
+        id -> getAmenityDetails(id).map(amenityApiMapper::amenityToAmenityDetailsResponse));
+  }
+
   /**
    * deletes an amenity from the database by finding it in the `amenities` collection
    * of a community, removing it, and then marking the community as having fewer amenities.
@@ -162,6 +185,7 @@ public class AmenitySDJpaService implements AmenityService {
           Community community = amenity.getCommunity();
           community.getAmenities().remove(amenity);
           amenityRepository.delete(amenity);
+          amenityCatalogCache.evictAmenity(amenityId, community.getCommunityId());
           return true;
         })
         .orElse(false);
@@ -210,63 +234,60 @@ public class AmenitySDJpaService implements AmenityService {
   }
 
   /**
-   * updates an amenity in the database by retrieving the amenity from the repository,
-   * updating its name, price, and other attributes, and then saving it back to the database.
-   * 
-   * @param updatedAmenity updated amenity object that contains the new values for the
-   * amenity's name, price, and other properties.
+   * retrieves the amenity catalog of a community already mapped to API responses. The
+   * catalog is served from the amenity catalog cache and only loaded and mapped on a
+   * cache miss, after which it stays cached until an amenity of the community is created,
+   * updated or deleted.
    * 
-   * 	- `amenityId`: A String that represents the ID of the amenity to be updated.
-   * 	- `communityId`: A String that represents the ID of the community associated with
-   * the amenity.
-   * 	- `name`: A String that represents the name of the amenity.
-   * 	- `price`: An Integer that represents the price of the amenity.
-   * 	- `description`: A String that represents the description of the amenity.
+   * @param communityId identifier of the community whose catalog is requested.
    * 
-   * The function then performs several operations:
-   * 
-   * 	- It finds the existing amenity with the same `amenityId` using the `amenityRepository`.
-   * 	- If the amenity is found, it updates the `name`, `price`, and `description`
-   * fields of the amenity using the `communityRepository`.
-   * 	- It then saves the updated amenity to the database using the `amenityRepository.save()`
-   * method.
-   * 
-   * The function returns a boolean value indicating whether the update was successful
-   * or not.
+   * @returns an unmodifiable set of the mapped amenities of the community, empty if the
+   * community has no amenities or does not exist.
+   */
+  @Override
+  public Set<GetAmenityDetailsResponse> listAmenityCatalog(String communityId) {
+    return amenityCatalogCache.getCommunityCatalog(communityId,
+        id -> Collections.unmodifiableSet(
+            amenityApiMapper.amenitiesSetToAmenityDetailsResponseSet(listAllAmenities(id))));
+  }
+
+  /**
+   * updates the name, description, price and community of an amenity with a single
+   * targeted UPDATE statement, leaving its booking associations untouched. Attributes
+   * which are not set in the update are kept as they are, and giving another community
+   * moves the amenity to it. When a version is given, the amenity is only updated if it
+   * has not been changed since that version. As the amenity may have been moved, which
+   * is not known without reading it first, the cached catalogs of all communities are
+   * evicted.
    * 
-   * @returns an amenity object representing the updated amenity.
+   * @param updatedAmenity updated amenity object that contains the ID of the amenity and
+   * of its community, the new values for the amenity's name, description and price, and
+   * optionally the version of the amenity the update is based on.
    * 
-   * 	- `map(amenity -> communityRepository.findByCommunityId(updatedAmenity.getCommunityId())`:
-   * This line of code retrieves the community associated with the updated amenity by
-   * calling the `communityRepository.findByCommunityId()` method. The returned value
-   * is a stream of `Community` objects, which is then mapped to a single `Community`
-   * object using the `orElse()` method.
-   * 	- `map(community -> { ... }): This line of code retrieves the amenity associated
-   * with the updated community by calling the `amenityRepository.findByAmenityId()`
-   * method. The returned value is a single `Amenity` object, which is then mapped to
-   * an updated `Amenity` object using the provided mapping function.
-   * 	- `orElse(null)`: This line of code returns the result of the `Community` or
-   * `Amenity` repository's `save()` method if it is present, or `null` otherwise.
+   * @returns `true` if the amenity was updated, `false` if no amenity with the given ID
+   * or no community with the given ID exists.
    * 
-   * In summary, the output of the `updateAmenity` function is a stream of `Community`
-   * objects, followed by an updated `Amenity` object that represents the changes made
-   * to the amenity.
+   * @throws ObjectOptimisticLockingFailureException if the amenity exists but was changed
+   * since the version given in the update.
    */
+  @Transactional
   @Override
   public boolean updateAmenity(AmenityDto updatedAmenity) {
     String amenityId = updatedAmenity.getAmenityId();
-    return amenityRepository.findByAmenityId(amenityId)
-        .map(amenity -> communityRepository.findByCommunityId(updatedAmenity.getCommunityId())
-            .map(community -> {
-              Amenity updated = new Amenity();
-              updated.setName(updatedAmenity.getName());
-              updated.setPrice(updatedAmenity.getPrice());
-              updated.setId(amenity.getId());
-              updated.setAmenityId(amenityId);
-              updated.setDescription(updatedAmenity.getDescription());
-              return updated;
-            })
-            .orElse(null))
-        .map(amenityRepository::save).isPresent();
+    Long version = updatedAmenity.getVersion();
+    int updatedRows = amenityRepository.updateAmenity(amenityId,
+        updatedAmenity.getCommunityId(),
+        updatedAmenity.getName(),
+        updatedAmenity.getDescription(),
+        updatedAmenity.getPrice(),
+        version);
+    if (updatedRows == 0) {
+      if (version != null && amenityRepository.existsByAmenityIdAndVersionNot(amenityId, version)) {
+        throw new ObjectOptimisticLockingFailureException(Amenity.class, amenityId);
+      }
+      return false;
+    }
+    amenityCatalogCache.evictAmenityFromAllCatalogs(amenityId);
+    return true;
   }
 }
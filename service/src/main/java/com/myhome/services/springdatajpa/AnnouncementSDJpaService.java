@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.springdatajpa;
+
+import com.myhome.configuration.properties.mail.MailTemplatesNames;
+import com.myhome.domain.Announcement;
+import com.myhome.domain.AnnouncementStatus;
+import com.myhome.domain.Community;
+import com.myhome.repositories.AnnouncementRepository;
+import com.myhome.repositories.CommunityRepository;
+import com.myhome.repositories.UserRepository;
+import com.myhome.services.AnnouncementService;
+import com.myhome.services.mail.EmailTemplateCatalog;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.IdGenerator;
+
+/**
+ * accepts announcements, rendering their mail once in the locale of the announcing
+ * request, as users have no locale of their own. The mails are sent in the background
+ * by the `AnnouncementDispatcher`, which reads the recipients page by page, so accepting
+ * an announcement only counts its recipients.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AnnouncementSDJpaService implements AnnouncementService {
+
+  private final AnnouncementRepository announcementRepository;
+  private final CommunityRepository communityRepository;
+  private final UserRepository userRepository;
+  private final EmailTemplateCatalog emailTemplateCatalog;
+  private final IdGenerator idGenerator;
+
+  /**
+   * accepts an announcement to the admins of a community with a confirmed email address.
+   *
+   * @param communityId ID of the announced community.
+   *
+   * @param subject subject of the announcement, following the localized subject prefix.
+   *
+   * @param message plain text of the announcement.
+   *
+   * @returns the accepted announcement, or an empty Optional if the community does not
+   * exist.
+   */
+  @Override
+  @Transactional
+  public Optional<Announcement> announceToCommunity(String communityId, String subject,
+      String message) {
+    return communityRepository.findByCommunityId(communityId)
+        .map(community -> createAnnouncement(community, subject, message,
+            userRepository.countCommunityAnnouncementRecipients(communityId)));
+  }
+
+  @Override
+  public Optional<Announcement> getAnnouncement(String communityId, String announcementId) {
+    return announcementRepository.findByAnnouncementIdAndCommunityId(announcementId,
+        communityId);
+  }
+
+  /**
+   * renders the announcement and stores it, due at once, or completed if there is
+   * nobody to send it to.
+   */
+  private Announcement createAnnouncement(Community community, String subject, String message,
+      long recipientCount) {
+    Locale locale = LocaleContextHolder.getLocale();
+    Map<String, Object> templateModel = new HashMap<>();
+    templateModel.put("communityName", community.getName());
+    templateModel.put("message", message);
+    LocalDateTime now = LocalDateTime.now();
+    Announcement announcement = announcementRepository.save(new Announcement()
+        .withAnnouncementId(idGenerator.generateId().toString())
+        .withCommunity(community)
+        .withSubject(emailTemplateCatalog.getSubject(MailTemplatesNames.ANNOUNCEMENT, locale)
+            + " " + subject)
+        .withHtmlBody(emailTemplateCatalog.render(MailTemplatesNames.ANNOUNCEMENT, locale,
+            templateModel))
+        .withStatus(recipientCount > 0 ? AnnouncementStatus.SENDING : AnnouncementStatus.COMPLETED)
+        .withRecipientCount(recipientCount)
+        .withNextBatchAt(now)
+        .withCreatedAt(now)
+        .withUpdatedAt(now));
+    log.info("Accepted announcement [{}] to {} recipients", announcement.getAnnouncementId(),
+        recipientCount);
+    return announcement;
+  }
+}
@@ -2,11 +2,18 @@ package com.myhome.services.springdatajpa;
 
 import com.myhome.domain.AmenityBookingItem;
 import com.myhome.repositories.AmenityBookingItemRepository;
+import com.myhome.repositories.AmenityRepository;
+import com.myhome.services.AmenityOccupancyService;
 import com.myhome.services.BookingService;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import javax.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.util.IdGenerator;
 
 /**
  * TODO
@@ -16,65 +23,102 @@ import org.springframework.stereotype.Service;
 public class BookingSDJpaService implements BookingService {
 
   private final AmenityBookingItemRepository bookingRepository;
+  private final AmenityRepository amenityRepository;
+  private final AmenityOccupancyService amenityOccupancyService;
+  private final IdGenerator idGenerator;
 
   /**
-   * deletes a booking from the database based on the amenity ID and booking ID parameters.
-   * It first retrieves the booking item from the repository using the booking ID, then
-   * checks if the amenity ID of the booking item matches the provided amenity ID. If
-   * it does, the function deletes the booking item from the repository and returns
-   * `true`. Otherwise, it returns `false`.
-   * 
-   * @param amenityId ID of the amenity for which the booking is being searched, and
-   * it is used to filter the booking items in the repository to only those that
-   * correspond to the specified amenity.
+   * books an amenity for the `[startDate, endDate)` period and adds the booking to the
+   * occupancy rollups of the amenity.
    * 
-   * 	- `Optional<AmenityBookingItem> booking`: This represents an optional reference
-   * to an `AmenityBookingItem` object in the repository. If no matching booking item
-   * is found, this will be `Optional.empty()`.
-   * 	- `bookingItem.getAmenity().getAmenityId()`: This retrieves the amenity ID
-   * associated with the booking item.
-   * 	- `amenityFound`: A boolean indicating whether the amenity ID matches the input
-   * `amenityId`. If this is `true`, the function proceeds to delete the matching booking
-   * item; otherwise, it returns `false`.
+   * @param amenityId ID of the amenity to book.
    * 
-   * @param bookingId unique identifier of a booking item to be deleted.
+   * @param startDate inclusive start of the booking.
    * 
-   * 	- `amenityId`: The ID of the amenity related to the booking.
-   * 	- `bookingId`: The unique identifier for the booking.
+   * @param endDate exclusive end of the booking.
    * 
-   * @returns a boolean value indicating whether the booking was successfully deleted.
+   * @returns the created booking, or an empty Optional if the amenity does not exist or
+   * the period does not end after it starts.
+   */
+  @Transactional
+  @Override
+  public Optional<AmenityBookingItem> createBooking(String amenityId, LocalDateTime startDate,
+      LocalDateTime endDate) {
+    if (!startDate.isBefore(endDate)) {
+      return Optional.empty();
+    }
+    return amenityRepository.findByAmenityId(amenityId)
+        .map(amenity -> {
+          AmenityBookingItem booking = new AmenityBookingItem()
+              .withAmenityBookingItemId(idGenerator.generateId().toString())
+              .withAmenity(amenity)
+              .withBookingStartDate(startDate)
+              .withBookingEndDate(endDate);
+          AmenityBookingItem savedBooking = bookingRepository.save(booking);
+          amenityOccupancyService.recordBookings(Collections.singletonList(savedBooking));
+          return savedBooking;
+        });
+  }
+
+  /**
+   * deletes a booking from the database based on the amenity ID and booking ID parameters.
+   * The booking is removed with a single conditional delete statement which matches both
+   * the booking ID and the ID of the amenity the booking belongs to, so concurrent deletes
+   * of the same booking cannot both succeed. Only the delete which actually removed the
+   * booking subtracts it from the occupancy rollups of the amenity.
    * 
-   * 	- The `map` method is used to perform an action on each element in the `Optional`
-   * object, and the result of this action is stored in the `Optional` object.
-   * 	- The `findByAmenityBookingItemId` method is used to find an `AmenityBookingItem`
-   * entity based on its `amenityBookingItemId`, and the resulting `Optional` object
-   * contains the found entity or `None` if no entity is found.
-   * 	- The `delete` method is used to delete an `AmenityBookingItem` entity from the
-   * repository, which will result in the deletion of the corresponding booking item.
-   * 	- The `orElse` method is used to return a default value if the `Optional` object
-   * contains no elements. In this case, the default value is `false`.
+   * @param amenityId ID of the amenity the booking has to belong to in order to be deleted.
    * 
-   * The output of the `deleteBooking` function can be destructured as follows:
+   * @param bookingId unique identifier of a booking item to be deleted.
    * 
-   * 	- If the `Optional` object contains an element, the resulting `boolean` value
-   * will be `true` if the booking item was successfully deleted, and `false` otherwise.
-   * 	- If the `Optional` object is empty (`None`), the resulting `boolean` value will
-   * be `false`.
+   * @returns `true` if exactly one booking matched both identifiers and was deleted,
+   * `false` otherwise.
    */
   @Transactional
   @Override
   public boolean deleteBooking(String amenityId, String bookingId) {
     Optional<AmenityBookingItem> booking =
-        bookingRepository.findByAmenityBookingItemId(bookingId);
-    return booking.map(bookingItem -> {
-      boolean amenityFound =
-          bookingItem.getAmenity().getAmenityId().equals(amenityId);
-      if (amenityFound) {
-        bookingRepository.delete(bookingItem);
-        return true;
-      } else {
-        return false;
-      }
-    }).orElse(false);
+        bookingRepository.findByAmenityBookingItemIdAndAmenityId(bookingId, amenityId);
+    if (!booking.isPresent()
+        || bookingRepository.deleteByAmenityBookingItemIdAndAmenityId(bookingId, amenityId) == 0) {
+      return false;
+    }
+    amenityOccupancyService.removeBookings(Collections.singletonList(booking.get()));
+    return true;
+  }
+
+  /**
+   * cancels every booking of the given amenity that overlaps the `[startDate, endDate)`
+   * window, e.g. when the amenity is closed for maintenance. The matching bookings are
+   * selected and locked first, then removed by one bulk delete statement by their IDs,
+   * so exactly the deleted bookings are subtracted from the occupancy rollups of the
+   * amenity.
+   * 
+   * @param amenityId ID of the amenity whose bookings are cancelled.
+   * 
+   * @param startDate inclusive start of the cancellation window.
+   * 
+   * @param endDate exclusive end of the cancellation window.
+   * 
+   * @returns number of cancelled bookings, `0` if the window is empty or no booking
+   * of the amenity overlaps it.
+   */
+  @Transactional
+  @Override
+  public int cancelAmenityBookings(String amenityId, LocalDateTime startDate,
+      LocalDateTime endDate) {
+    if (!startDate.isBefore(endDate)) {
+      return 0;
+    }
+    List<AmenityBookingItem> bookings =
+        bookingRepository.findAllByAmenityIdInPeriod(amenityId, startDate, endDate);
+    if (bookings.isEmpty()) {
+      return 0;
+    }
+    int cancelledBookings = bookingRepository.deleteAllByIdIn(bookings.stream()
+        .map(AmenityBookingItem::getId)
+        .collect(Collectors.toList()));
+    amenityOccupancyService.removeBookings(bookings);
+    return cancelledBookings;
   }
 }
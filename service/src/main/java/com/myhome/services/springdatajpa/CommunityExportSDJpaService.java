@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.springdatajpa;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myhome.repositories.CommunitySnapshotRepository;
+import com.myhome.repositories.projections.CommunitySnapshot;
+import com.myhome.repositories.projections.CommunitySnapshotRecord;
+import com.myhome.services.CommunityExportService;
+import com.myhome.services.exports.CommunitySnapshotFormat;
+import com.myhome.services.exports.CommunitySnapshotWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * exports a community by streaming its records from database cursors straight into the
+ * output. All records are read as unmanaged projections within a single read-only
+ * transaction, so the snapshot is consistent and neither the persistence context nor
+ * the heap grows with the size of the community.
+ */
+@Slf4j
+@Service
+public class CommunityExportSDJpaService implements CommunityExportService {
+
+  private final CommunitySnapshotRepository communitySnapshotRepository;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate transactionTemplate;
+
+  public CommunityExportSDJpaService(CommunitySnapshotRepository communitySnapshotRepository,
+      ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+    this.communitySnapshotRepository = communitySnapshotRepository;
+    this.objectMapper = objectMapper;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setReadOnly(true);
+  }
+
+  /**
+   * writes the community followed by its houses, members, amenities, admins and
+   * payments to the output.
+   *
+   * @param communityId ID of the community to export.
+   *
+   * @param format format of the snapshot.
+   *
+   * @param output stream the snapshot is written to, which is left open.
+   *
+   * @returns true if the community was exported, or false if it does not exist, in which
+   * case nothing is written.
+   *
+   * @throws IOException if the output could not be written.
+   */
+  @Override
+  public boolean exportCommunity(String communityId, CommunitySnapshotFormat format,
+      OutputStream output) throws IOException {
+    try {
+      return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+        Optional<CommunitySnapshot> community =
+            communitySnapshotRepository.findCommunity(communityId);
+        if (!community.isPresent()) {
+          return false;
+        }
+        try (CommunitySnapshotWriter writer =
+            new CommunitySnapshotWriter(objectMapper, format, output)) {
+          writer.writeCommunity(community.get());
+          long records = writeSection(writer, "houses",
+              communitySnapshotRepository.streamHouses(communityId))
+              + writeSection(writer, "members",
+              communitySnapshotRepository.streamMembers(communityId))
+              + writeSection(writer, "amenities",
+              communitySnapshotRepository.streamAmenities(communityId))
+              + writeSection(writer, "admins",
+              communitySnapshotRepository.streamAdmins(communityId))
+              + writeSection(writer, "payments",
+              communitySnapshotRepository.streamPayments(communityId));
+          log.debug("Exported community [{}] with {} records", communityId, records);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        return true;
+      }));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static long writeSection(CommunitySnapshotWriter writer, String name,
+      Stream<? extends CommunitySnapshotRecord> records) throws IOException {
+    try (Stream<? extends CommunitySnapshotRecord> openRecords = records) {
+      return writer.writeSection(name, openRecords.iterator());
+    }
+  }
+}
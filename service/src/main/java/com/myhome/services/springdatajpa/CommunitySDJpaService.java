@@ -39,6 +39,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.util.IdGenerator;
 
 /**
  * TODO
@@ -52,6 +53,7 @@ public class CommunitySDJpaService implements CommunityService {
   private final CommunityMapper communityMapper;
   private final CommunityHouseRepository communityHouseRepository;
   private final HouseService houseService;
+  private final IdGenerator idGenerator;
 
   /**
    * generates a unique ID for a community, adds an admin to the community, saves it
@@ -599,7 +601,7 @@ public class CommunitySDJpaService implements CommunityService {
   }
 
   /**
-   * generates a unique identifier using the `UUID.randomUUID()` method, returning it
+   * generates a unique, time ordered identifier using the `IdGenerator`, returning it
    * as a string.
    * 
    * @returns a unique string of characters representing a randomly generated UUID.
@@ -616,12 +618,12 @@ public class CommunitySDJpaService implements CommunityService {
    * strings up to 16 characters in length, while version 4 generates strings up to 36
    * characters in length.
    * 
-   * Overall, the `generateUniqueId` function returns a unique and cryptographically
-   * secure identifier that can be used to identify a particular object or entity without
+   * Overall, the `generateUniqueId` function returns a unique, time ordered
+   * identifier that can be used to identify a particular object or entity without
    * any risk of collision or duplication.
    */
   private String generateUniqueId() {
-    return UUID.randomUUID().toString();
+    return idGenerator.generateId().toString();
   }
 
   /**
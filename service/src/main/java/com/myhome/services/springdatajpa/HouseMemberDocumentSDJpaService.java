@@ -16,45 +16,109 @@
 
 package com.myhome.services.springdatajpa;
 
+import com.myhome.configuration.DocumentProcessingConfig;
+import com.myhome.domain.DocumentContent;
+import com.myhome.domain.DocumentSize;
+import com.myhome.domain.DocumentUploadStatus;
 import com.myhome.domain.HouseMember;
 import com.myhome.domain.HouseMemberDocument;
+import com.myhome.domain.HouseMemberDocumentUpload;
 import com.myhome.repositories.HouseMemberDocumentRepository;
+import com.myhome.repositories.HouseMemberDocumentUploadRepository;
 import com.myhome.repositories.HouseMemberRepository;
 import com.myhome.services.HouseMemberDocumentService;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
+import com.myhome.services.blobs.BlobResource;
+import com.myhome.services.blobs.BlobStore;
+import com.myhome.services.blobs.DocumentBlobRegistry;
+import com.myhome.services.blobs.StoredBlob;
+import com.myhome.services.images.DocumentImageTranscoder;
+import com.myhome.services.images.TranscodedImage;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
-import javax.imageio.IIOImage;
-import javax.imageio.ImageIO;
-import javax.imageio.ImageWriteParam;
-import javax.imageio.ImageWriter;
-import javax.imageio.stream.ImageOutputStream;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.util.unit.DataSize;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.IdGenerator;
 import org.springframework.web.multipart.MultipartFile;
 
 /**
- * TODO
+ * manages the documents of house members. Uploaded documents are accepted by storing
+ * them as received and are decoded, transcoded to JPEG and published on the document
+ * processing workers, so request threads never wait for image processing. Thumbnails of
+ * every document are generated along with it, so previews never transfer the full image.
+ * Content is shared by everything referring to the same hash: documents and uploads
+ * count their references in the {@link DocumentBlobRegistry}, which collects content no
+ * longer referenced, and an upload whose content was transcoded before reuses the
+ * transcoded content instead of transcoding it again. Every member has at most one
+ * document row, whose content is replaced in place, and rows left without a member are
+ * compacted in batches.
  */
+@Slf4j
 @Service
 public class HouseMemberDocumentSDJpaService implements HouseMemberDocumentService {
 
+  private static final DocumentSize[] THUMBNAIL_SIZES = Arrays.stream(DocumentSize.values())
+      .filter(size -> size != DocumentSize.FULL)
+      .toArray(DocumentSize[]::new);
+
   private final HouseMemberRepository houseMemberRepository;
   private final HouseMemberDocumentRepository houseMemberDocumentRepository;
-  @Value("${files.compressionBorderSizeKBytes}")
-  private int compressionBorderSizeKBytes;
-  @Value("${files.maxSizeKBytes}")
-  private int maxFileSizeKBytes;
-  @Value("${files.compressedImageQuality}")
-  private float compressedImageQuality;
+  private final HouseMemberDocumentUploadRepository houseMemberDocumentUploadRepository;
+  private final BlobStore blobStore;
+  private final DocumentBlobRegistry documentBlobRegistry;
+  private final DocumentImageTranscoder documentImageTranscoder;
+  private final IdGenerator idGenerator;
+  private final TransactionTemplate transactionTemplate;
+  private final TaskExecutor documentProcessingExecutor;
+  private final TaskExecutor documentUploadExecutor;
+  private final int compactionBatchSize;
 
   public HouseMemberDocumentSDJpaService(HouseMemberRepository houseMemberRepository,
-      HouseMemberDocumentRepository houseMemberDocumentRepository) {
+      HouseMemberDocumentRepository houseMemberDocumentRepository,
+      HouseMemberDocumentUploadRepository houseMemberDocumentUploadRepository,
+      BlobStore blobStore,
+      DocumentBlobRegistry documentBlobRegistry,
+      DocumentImageTranscoder documentImageTranscoder,
+      IdGenerator idGenerator,
+      TransactionTemplate transactionTemplate,
+      @Qualifier(DocumentProcessingConfig.DOCUMENT_PROCESSING_EXECUTOR)
+          TaskExecutor documentProcessingExecutor,
+      @Qualifier(DocumentProcessingConfig.DOCUMENT_UPLOAD_EXECUTOR)
+          TaskExecutor documentUploadExecutor,
+      @Value("${files.compaction.batchSize}") int compactionBatchSize) {
     this.houseMemberRepository = houseMemberRepository;
     this.houseMemberDocumentRepository = houseMemberDocumentRepository;
+    this.houseMemberDocumentUploadRepository = houseMemberDocumentUploadRepository;
+    this.blobStore = blobStore;
+    this.documentBlobRegistry = documentBlobRegistry;
+    this.documentImageTranscoder = documentImageTranscoder;
+    this.idGenerator = idGenerator;
+    this.transactionTemplate = transactionTemplate;
+    this.documentProcessingExecutor = documentProcessingExecutor;
+    this.documentUploadExecutor = documentUploadExecutor;
+    this.compactionBatchSize = compactionBatchSize;
   }
 
   /**
@@ -92,6 +156,24 @@ public class HouseMemberDocumentSDJpaService implements HouseMemberDocumentServi
     return houseMemberRepository.findByMemberId(memberId)
         .map(HouseMember::getHouseMemberDocument);
   }
+  /**
+   * returns the content of a document in the requested size as a resource which reads it
+   * from the blob store only when it is written, so the content is never held in memory
+   * as a whole.
+   *
+   * @param document document whose content is requested.
+   *
+   * @param size requested size of the document.
+   *
+   * @returns a resource streaming the content of the document.
+   */
+  @Override
+  public Resource getDocumentContent(HouseMemberDocument document, DocumentSize size) {
+    DocumentContent content = document.getContent(size);
+    return new BlobResource(blobStore, content.getContentHash(), content.getContentLength(),
+        document.getDocumentFilename());
+  }
+
 
   /**
    * deletes a member's document from the House Member Document repository by finding
@@ -112,361 +194,430 @@ public class HouseMemberDocumentSDJpaService implements HouseMemberDocumentServi
    */
   @Override
   public boolean deleteHouseMemberDocument(String memberId) {
-    return houseMemberRepository.findByMemberId(memberId).map(member -> {
-      if (member.getHouseMemberDocument() != null) {
-        member.setHouseMemberDocument(null);
-        houseMemberRepository.save(member);
-        return true;
-      }
-      return false;
-    }).orElse(false);
+    return Boolean.TRUE.equals(transactionTemplate.execute(status ->
+        houseMemberRepository.findByMemberId(memberId).map(member -> {
+          HouseMemberDocument document = member.getHouseMemberDocument();
+          if (document != null) {
+            member.setHouseMemberDocument(null);
+            houseMemberRepository.save(member);
+            documentBlobRegistry.removeReferences(contentHashes(document));
+            return true;
+          }
+          return false;
+        }).orElse(false)));
   }
 
   /**
-   * updates an existing House Member Document by creating a new document if one does
-   * not exist, and then adding it to the member's record if successful.
+   * accepts a document replacing the current document of a member. The upload is kept
+   * in the blob store as it was received and processed in the background, where it
+   * replaces the current document once it is transcoded.
    * 
    * @param multipartFile file containing the House Member Document that needs to be updated.
    * 
-   * 	- `multipartFile`: A `MultipartFile` object that contains the file to be updated.
-   * 	- `memberId`: A `String` representing the ID of the member whose document is being
-   * updated.
-   * 
    * @param memberId unique identifier of the member whose House Member Document is
    * being updated.
    * 
-   * 	- `memberId`: A string representing the unique identifier for a member in the house.
-   * 
-   * @returns an Optional<HouseMemberDocument> containing the updated document for the
-   * specified member.
+   * @returns the accepted upload, which is failed if the file could not be read, or an
+   * empty Optional if the member does not exist.
    * 
-   * 	- `Optional<HouseMemberDocument>` represents an optional house member document
-   * that can be obtained by calling the `map` method on the `Optional` instance. If a
-   * house member document is found and updated successfully, this Optional will contain
-   * a non-empty `HouseMemberDocument`. Otherwise, it will be empty.
-   * 	- The `findByMemberId` method of the `houseMemberRepository` returns an `Optional`
-   * containing the house member with the specified `memberId`, or `None` if no such
-   * member is found.
-   * 	- The `tryCreateDocument` method creates a new `HouseMemberDocument` instance
-   * based on the provided `multipartFile` and `member` parameters, or returns
-   * `Optional.empty()` if an exception occurs.
-   * 	- The `addDocumentToHouseMember` method adds the created `HouseMemberDocument`
-   * to the specified `house Member`, or does nothing if the document already exists.
+   * @throws TaskRejectedException if all workers are busy and no more uploads can be
+   * queued, in which case the upload is failed as well.
    */
   @Override
-  public Optional<HouseMemberDocument> updateHouseMemberDocument(MultipartFile multipartFile,
-      String memberId) {
-    return houseMemberRepository.findByMemberId(memberId).map(member -> {
-      Optional<HouseMemberDocument> houseMemberDocument = tryCreateDocument(multipartFile, member);
-      houseMemberDocument.ifPresent(document -> addDocumentToHouseMember(document, member));
-      return houseMemberDocument;
-    }).orElse(Optional.empty());
+  public Optional<HouseMemberDocumentUpload> updateHouseMemberDocument(
+      MultipartFile multipartFile, String memberId) {
+    return houseMemberRepository.findByMemberId(memberId)
+        .map(member -> scheduleProcessing(stageUpload(multipartFile, member)));
   }
 
   /**
-   * creates a new `HouseMemberDocument` instance based on a provided `MultipartFile`
-   * and `memberId`. It first retrieves the member from the repository using the
-   * `memberId`, then tries to create a new document for the member using the
-   * `multipartFile`. If successful, it adds the document to the member in the repository.
-   * 
-   * @param multipartFile file containing the House Member's document to be created or
-   * updated.
+   * accepts a new document of a member. The upload is kept in the blob store as it was
+   * received and processed in the background, where it becomes the document of the
+   * member once it is transcoded.
    * 
-   * 	- `multipartFile`: A `MultipartFile` object representing a file uploaded by the
-   * user. Its attributes may include:
-   * 	+ `filename`: The name of the file being uploaded.
-   * 	+ `originalFilename`: The original filename of the file before it was processed
-   * by Spring.
-   * 	+ `contentType`: The MIME type of the file, which can be used to determine its
-   * format and potential content.
-   * 	+ `size`: The size of the file in bytes.
-   * 	+ `inputStream`: An `InputStream` object representing the contents of the file.
+   * @param multipartFile file containing the House Member's document to be created.
    * 
    * @param memberId unique identifier of the member whose House Member Document is
-   * being created or updated.
+   * being created.
    * 
-   * 	- `memberId`: This is a string representing the unique identifier for a member
-   * in the House. It is used to locate the corresponding member object in the `houseMemberRepository`.
+   * @returns the accepted upload, which is failed if the file could not be read, or an
+   * empty Optional if the member does not exist.
    * 
-   * @returns an Optional<HouseMemberDocument> containing a newly created or updated
-   * House Member document.
-   * 
-   * 	- The first part of the return statement involves calling the `findByMemberId`
-   * method on the `houseMemberRepository`, which returns an `Optional` containing a
-   * `HouseMember` object if found, and `None` otherwise.
-   * 	- The second part of the return statement maps the `member` parameter to an
-   * `Optional` of type `HouseMemberDocument`. This is done using the `tryCreateDocument`
-   * method, which creates a new `HouseMemberDocument` instance if the `multipartFile`
-   * parameter is not `None`, and returns it in an `Optional` format.
-   * 	- The third part of the return statement checks if the `houseMemberDocument`
-   * Optional is non-empty. If it is, the `addDocumentToHouseMember` method is called
-   * with the `document` parameter, which adds the document to the corresponding `House
-   * Member`.
-   * 	- The final part of the return statement returns the original `Optional` containing
-   * the `HouseMemberDocument`, or an empty `Optional` if no document was created.
+   * @throws TaskRejectedException if all workers are busy and no more uploads can be
+   * queued, in which case the upload is failed as well.
    */
   @Override
-  public Optional<HouseMemberDocument> createHouseMemberDocument(MultipartFile multipartFile,
-      String memberId) {
-    return houseMemberRepository.findByMemberId(memberId).map(member -> {
-      Optional<HouseMemberDocument> houseMemberDocument = tryCreateDocument(multipartFile, member);
-      houseMemberDocument.ifPresent(document -> addDocumentToHouseMember(document, member));
-      return houseMemberDocument;
-    }).orElse(Optional.empty());
+  public Optional<HouseMemberDocumentUpload> createHouseMemberDocument(
+      MultipartFile multipartFile, String memberId) {
+    return houseMemberRepository.findByMemberId(memberId)
+        .map(member -> scheduleProcessing(stageUpload(multipartFile, member)));
   }
 
   /**
-   * creates a HouseMemberDocument by reading an image from a multipart file, compressing
-   * it if necessary, and saving it to disk. It returns an Optional containing the
-   * created document or an empty one if an error occurs.
-   * 
-   * @param multipartFile file that contains the image to be processed and compressed,
-   * which is passed through the `getImageFromMultipartFile()` method for processing.
-   * 
-   * 	- `multipartFile`: A `MultipartFile` object representing a file uploaded through
-   * a web form. It contains information such as the file's name, size, and content type.
-   * 	- `member`: An instance of the `HouseMember` class, which represents an individual
-   * member of a house. This parameter is used to identify the member whose document
-   * is being created.
-   * 
-   * @param member HouseMember object that is associated with the document being created.
-   * 
-   * 	- `member`: The HouseMember object that contains information about a member of a
-   * house.
-   * 	- `multipartFile`: A MultipartFile object representing an image file submitted
-   * by the user.
-   * 	- `getImageFromMultipartFile()`: A method that retrieves the image data from the
-   * MultipartFile object.
-   * 	- `writeImageToByteStream()` and `compressImageToByteStream()`: Methods that write
-   * or compress the retrieved image data to a ByteArrayOutputStream object.
-   * 	- `saveHouseMemberDocument()`: A method that saves the compressed or uncompressed
-   * image data to a file with a unique name.
-   * 
-   * The input parameters for the `tryCreateDocument` function are explained as follows:
-   * 
-   * 	- `multipartFile`: The MultipartFile object representing an image file submitted
-   * by the user.
-   * 	- `member`: The HouseMember object that contains information about a member of a
-   * house.
-   * 
-   * @returns an `Optional` containing a `HouseMemberDocument`, or an empty `Optional`
-   * if the image could not be processed.
-   * 
-   * 	- The `Optional<HouseMemberDocument>` return type indicates that the function may
-   * return an empty optional if there is an error during processing or if the file
-   * size exceeds the maximum allowed size.
-   * 	- The `HouseMemberDocument` object is a result of saving the image to a file with
-   * a name formatted using the `memberId` of the `HouseMember` parameter.
-   * 	- The `saveHouseMemberDocument` method saves the image to a file in a location
-   * determined by the function implementation.
-   * 	- The `getImageFromMultipartFile` and `compressImageToByteStream` methods are
-   * used to process the multipart file and compress the image, respectively.
-   * 	- The `DataSize` class is used to represent the size of data in bytes, which is
-   * used in the comparison of the file size with the maximum allowed size.
+   * accepts new documents of many members at once. The documents are stored in the blob
+   * store in parallel, streaming each from the location the multipart request was
+   * spilled to, and processed in the background like single uploads. Documents which
+   * cannot be queued for processing are failed without failing the other documents.
+   *
+   * @param memberIds IDs of the members, one for every document.
+   *
+   * @param multipartFiles uploaded documents, in the order of the member IDs.
+   *
+   * @returns the accepted upload of every document, in the order of the documents, or
+   * an empty Optional for documents whose member does not exist.
    */
-  private Optional<HouseMemberDocument> tryCreateDocument(MultipartFile multipartFile,
-      HouseMember member) {
+  @Override
+  public List<Optional<HouseMemberDocumentUpload>> createHouseMemberDocuments(
+      List<String> memberIds, List<MultipartFile> multipartFiles) {
+    if (memberIds.size() != multipartFiles.size()) {
+      throw new IllegalArgumentException("Every document needs exactly one member ID");
+    }
+    List<CompletableFuture<Optional<HouseMemberDocumentUpload>>> stagedUploads =
+        new ArrayList<>(multipartFiles.size());
+    for (int i = 0; i < multipartFiles.size(); i++) {
+      String memberId = memberIds.get(i);
+      MultipartFile multipartFile = multipartFiles.get(i);
+      stagedUploads.add(CompletableFuture.supplyAsync(() ->
+          houseMemberRepository.findByMemberId(memberId)
+              .map(member -> stageUpload(multipartFile, member)), documentUploadExecutor));
+    }
+    return stagedUploads.stream()
+        .map(CompletableFuture::join)
+        .map(stagedUpload -> stagedUpload.map(this::scheduleProcessingInBatch))
+        .collect(Collectors.toList());
+  }
 
-    try (ByteArrayOutputStream imageByteStream = new ByteArrayOutputStream()) {
-      BufferedImage documentImage = getImageFromMultipartFile(multipartFile);
-      if (multipartFile.getSize() < DataSize.ofKilobytes(compressionBorderSizeKBytes).toBytes()) {
-        writeImageToByteStream(documentImage, imageByteStream);
-      } else {
-        compressImageToByteStream(documentImage, imageByteStream);
-      }
-      if (imageByteStream.size() < DataSize.ofKilobytes(maxFileSizeKBytes).toBytes()) {
-        HouseMemberDocument houseMemberDocument = saveHouseMemberDocument(imageByteStream,
-            String.format("member_%s_document.jpg", member.getMemberId()));
-        return Optional.of(houseMemberDocument);
-      } else {
-        return Optional.empty();
-      }
-    } catch (IOException e) {
-      return Optional.empty();
+  /**
+   * returns the progress of processing a document uploaded for a member.
+   *
+   * @param memberId ID of the member the document was uploaded for.
+   *
+   * @param uploadId ID of the upload.
+   *
+   * @returns the upload, or an empty Optional if the member has no such upload.
+   */
+  @Override
+  public Optional<HouseMemberDocumentUpload> getHouseMemberDocumentUpload(String memberId,
+      String uploadId) {
+    return houseMemberDocumentUploadRepository.findByUploadIdAndMember_MemberId(uploadId,
+        memberId);
+  }
+
+  /**
+   * schedules the processing of uploads again which were still processing when the
+   * application stopped. Their uploaded content is still in the blob store.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void resumeDocumentUploads() {
+    List<HouseMemberDocumentUpload> pendingUploads =
+        houseMemberDocumentUploadRepository.findAllByStatus(DocumentUploadStatus.PROCESSING);
+    if (!pendingUploads.isEmpty()) {
+      log.info("Resuming processing of {} uploaded documents", pendingUploads.size());
+    }
+    try {
+      pendingUploads.forEach(this::scheduleProcessing);
+    } catch (TaskRejectedException e) {
+      log.warn("Could not resume all uploaded documents", e);
     }
   }
 
   /**
-   * updates a HouseMember object's `HouseMemberDocument` field with the provided
-   * document, then saves the modified object to the repository.
-   * 
-   * @param houseMemberDocument HouseMember document to be added to the member object.
-   * 
-   * 	- `HouseMemberDocument`: This represents an object that contains information about
-   * a member and their documents.
-   * 	- `houseMemberDocument`: The instance of the `HouseMemberDocument` class that is
-   * being passed to the function.
-   * 	- `member`: A reference to an instance of the `HouseMember` class, which represents
-   * a member of a house.
-   * 	- `houseMemberRepository`: This is a repository interface for storing and retrieving
-   * instances of the `House Member` class.
-   * 
-   * @param member House Member that the `houseMemberDocument` is associated with, and
-   * it is updated to reference the newly saved document.
-   * 
-   * 	- `setHouseMemberDocument`: sets the `HouseMemberDocument` field of the `member`
-   * object to the provided `houseMemberDocument`.
-   * 
-   * @returns a saved House Member document and member entity.
-   * 
-   * 	- `HouseMemberDocument`: This is a reference to a `HouseMemberDocument` object
-   * that represents the document added to the member.
-   * 	- `HouseMember`: This is a reference to a `HouseMember` object that represents
-   * the member to whom the document is being added.
-   * 	- `houseMemberRepository`: This is a reference to a `House Member Repository`
-   * interface that provides methods for persisting and retrieving `HouseMember` objects.
-   * The `save()` method is called on this repository to persist the updated `HouseMember`
-   * object in the database.
+   * deletes documents which no member refers to any more, in batches of one transaction
+   * each, and removes their references to their content. Such rows are left behind by
+   * replacements made before documents were replaced in place.
+   *
+   * @returns the number of deleted documents.
+   */
+  @Scheduled(fixedDelayString = "${files.compaction.interval}",
+      initialDelayString = "${files.compaction.interval}")
+  public int compactOrphanedDocuments() {
+    int compacted = 0;
+    Integer batchSize;
+    do {
+      batchSize = transactionTemplate.execute(status -> {
+        List<HouseMemberDocument> orphanedDocuments = houseMemberDocumentRepository.findAllById(
+            houseMemberDocumentRepository.findOrphanedDocumentIds(
+                PageRequest.of(0, compactionBatchSize)));
+        orphanedDocuments.forEach(document ->
+            documentBlobRegistry.removeReferences(contentHashes(document)));
+        houseMemberDocumentRepository.deleteInBatch(orphanedDocuments);
+        return orphanedDocuments.size();
+      });
+      compacted += batchSize != null ? batchSize : 0;
+    } while (batchSize != null && batchSize == compactionBatchSize);
+    if (compacted > 0) {
+      log.info("Compacted {} orphaned house member documents", compacted);
+    }
+    return compacted;
+  }
+
+  /**
+   * stores an uploaded document in the blob store as it was received, streaming it
+   * without decoding it, and records the upload referring to the stored content.
+   *
+   * @param multipartFile uploaded document.
+   *
+   * @param member member the document is uploaded for.
+   *
+   * @returns the recorded upload, which is processing, or failed if the document could
+   * not be read.
    */
-  private HouseMember addDocumentToHouseMember(HouseMemberDocument houseMemberDocument,
+  private HouseMemberDocumentUpload stageUpload(MultipartFile multipartFile,
       HouseMember member) {
-    member.setHouseMemberDocument(houseMemberDocument);
-    return houseMemberRepository.save(member);
+    LocalDateTime now = LocalDateTime.now();
+    HouseMemberDocumentUpload upload = new HouseMemberDocumentUpload()
+        .withUploadId(idGenerator.generateId().toString())
+        .withMember(member)
+        .withStatus(DocumentUploadStatus.PROCESSING)
+        .withCreatedAt(now)
+        .withUpdatedAt(now);
+    try (ReadableByteChannel content = Channels.newChannel(multipartFile.getInputStream())) {
+      StoredBlob stagedContent = blobStore.store(content);
+      documentBlobRegistry.register(stagedContent);
+      upload.setStagedContentHash(stagedContent.getContentHash());
+    } catch (IOException e) {
+      log.warn("Could not store document uploaded for member with id[{}]",
+          member.getMemberId(), e);
+      return houseMemberDocumentUploadRepository.save(upload
+          .withStatus(DocumentUploadStatus.FAILED)
+          .withFailureReason("Document could not be read"));
+    }
+    return transactionTemplate.execute(status -> {
+      documentBlobRegistry.addReferences(
+          Collections.singleton(upload.getStagedContentHash()));
+      return houseMemberDocumentUploadRepository.save(upload);
+    });
   }
 
   /**
-   * saves a `HouseMemberDocument` object to the repository, creating it first from an
-   * image byte stream and filename.
-   * 
-   * @param imageByteStream 2D image of the member that is saved as a byte array to the
-   * document.
-   * 
-   * 	- ` ByteArrayOutputStream imageByteStream`: This is an instance of
-   * `java.io.ByteArrayOutputStream`, which is used to hold the serialized House Member
-   * Document data.
-   * 	- `filename`: A string parameter that represents the file name of the House Member
-   * Document to be saved.
-   * 
-   * @param filename name of the output file for the saved HouseMemberDocument.
-   * 
-   * 	- `filename`: A string attribute representing the name of the document being saved.
-   * 	- `imageByteStream`: An `ByteArrayOutputStream` object that contains the image
-   * data to be saved in the document.
-   * 
-   * @returns a `HouseMemberDocument` object representing the saved document.
-   * 
-   * 	- The HouseMemberDocument object represents a new document that has been saved
-   * to the repository.
-   * 	- The filename property is set to the input filename provided in the function.
-   * 	- The imageByteStream property is set to the output of the `toByteArray()` method,
-   * which contains the binary data of the image.
+   * hands an upload to the document processing workers, unless it failed already.
+   *
+   * @param upload upload to process.
+   *
+   * @returns the upload.
+   *
+   * @throws TaskRejectedException if all workers are busy and the queue is full, after
+   * the upload was failed.
    */
-  private HouseMemberDocument saveHouseMemberDocument(ByteArrayOutputStream imageByteStream,
-      String filename) {
-    HouseMemberDocument newDocument =
-        new HouseMemberDocument(filename, imageByteStream.toByteArray());
-    return houseMemberDocumentRepository.save(newDocument);
+  private HouseMemberDocumentUpload scheduleProcessing(HouseMemberDocumentUpload upload) {
+    if (upload.getStatus() != DocumentUploadStatus.PROCESSING) {
+      return upload;
+    }
+    String uploadId = upload.getUploadId();
+    try {
+      documentProcessingExecutor.execute(() -> processUpload(uploadId));
+      return upload;
+    } catch (TaskRejectedException e) {
+      failUpload(uploadId, "Too many documents are processed, upload it again later");
+      throw e;
+    }
   }
 
   /**
-   * writes a `BufferedImage` object to a byte stream using the `ImageIO.write()` method
-   * with the specified image format ("jpg").
-   * 
-   * @param documentImage 2D image that is to be written to a byte stream as a JPEG
-   * image file.
-   * 
-   * 	- Type: `BufferedImage`, indicating that the input is an image object that can
-   * be serialized and sent over a network.
-   * 	- Method: `ImageIO.write()`, which is used to write the image data to a `ByteArrayOutputStream`.
-   * 	- Parameters:
-   * 	+ `"jpg"`: The format of the output image file.
-   * 	+ `documentImage`: The input image object that will be written to the output stream.
-   * 	- Throws: `IOException`, indicating that any errors encountered during the writing
-   * process will be thrown and handled by the calling code.
-   * 
-   * @param imageByteStream output stream where the image data will be written as a
-   * JPEG file.
-   * 
-   * 	- `imageByteStream`: A `ByteArrayOutputStream` object that stores the byte array
-   * representation of the image.
-   * 	- Type: ` ByteArrayOutputStream`
-   * 	- Description: A stream for converting an image into a byte array.
+   * hands an upload of a batch to the document processing workers, failing only this
+   * upload if they are too busy.
+   *
+   * @param upload upload to process.
+   *
+   * @returns the upload, which is failed if it could not be queued.
    */
-  private void writeImageToByteStream(BufferedImage documentImage,
-      ByteArrayOutputStream imageByteStream)
-      throws IOException {
-    ImageIO.write(documentImage, "jpg", imageByteStream);
+  private HouseMemberDocumentUpload scheduleProcessingInBatch(HouseMemberDocumentUpload upload) {
+    try {
+      return scheduleProcessing(upload);
+    } catch (TaskRejectedException e) {
+      return houseMemberDocumentUploadRepository.findByUploadId(upload.getUploadId())
+          .orElse(upload);
+    }
   }
 
   /**
-   * compresses an image using JPEG compression and writes it to a byte stream.
-   * 
-   * @param bufferedImage 2D image to be compressed and is used by the `ImageWriter`
-   * to write the compressed image to a byte stream.
-   * 
-   * 	- `BufferedImage` is a class that represents an image in a buffered form, allowing
-   * for efficient display and manipulation of images.
-   * 	- The `ImageIO` class provides methods for reading and writing images in various
-   * formats, including JPEG.
-   * 	- The `ImageWriter` interface defines the methods for writing images to a file
-   * or other output stream.
-   * 	- The `ImageWriteParam` class defines the parameters for image writing, including
-   * compression mode and quality.
-   * 	- The `IIOImage` class represents an image as a stream of bytes, allowing for
-   * efficient reading and writing of images.
-   * 
-   * @param imageByteStream byte stream where the compressed image will be written.
-   * 
-   * 	- `BufferedImage bufferedImage`: The original image data to be compressed.
-   * 	- `ByteArrayOutputStream imageByteStream`: A byte array output stream where the
-   * compressed image will be written.
-   * 	- `IOException throws IOException`: An exception that may occur during compression,
-   * which will be caught and handled by the method.
-   * 	- `ImageIO.createImageOutputStream(imageByteStream)`: Creates an image output
-   * stream from the given `imageByteStream`.
-   * 	- `ImageWriter imageWriter = ImageIO.getImageWritersByFormatName("jpg").next();`:
-   * Gets an instance of an image writer class that can write JPEG images.
-   * 	- `ImageWriteParam param = imageWriter.getDefaultWriteParam();`: Gets the default
-   * write parameters for the image writer.
-   * 	- `param.canWriteCompressed()`: Checks if the image writer can write compressed
-   * images.
-   * 	- `param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);`: Sets the compression
-   * mode to explicit.
-   * 	- `param.setCompressionQuality(compressedImageQuality);`: Sets the compression
-   * quality of the image.
-   * 	- `imageWriter.write(null, new IIOImage(bufferedImage, null, null), param);`:
-   * Writes the compressed image data to the output stream using the image writer.
-   * 	- `imageWriter.dispose();`: Disposes of the image writer instance.
+   * transcodes an upload and publishes it as the document of its member. Content which
+   * was transcoded before is not transcoded again. Runs on the document processing
+   * workers, every failure is recorded on the upload.
+   *
+   * @param uploadId ID of the upload to process.
    */
-  private void compressImageToByteStream(BufferedImage bufferedImage,
-      ByteArrayOutputStream imageByteStream) throws IOException {
+  private void processUpload(String uploadId) {
+    Optional<HouseMemberDocumentUpload> pendingUpload =
+        houseMemberDocumentUploadRepository.findByUploadId(uploadId)
+            .filter(upload -> upload.getStatus() == DocumentUploadStatus.PROCESSING);
+    if (!pendingUpload.isPresent()) {
+      return;
+    }
+    String stagedContentHash = pendingUpload.get().getStagedContentHash();
+    try {
+      Optional<HouseMemberDocument> document = findTranscodedDocument(stagedContentHash);
+      if (!document.isPresent()) {
+        document = transcodeDocument(stagedContentHash);
+      }
+      if (document.isPresent()) {
+        completeUpload(uploadId, stagedContentHash, document.get());
+      } else {
+        failUpload(uploadId, "Document is not an image or is too large");
+      }
+    } catch (IOException | RuntimeException e) {
+      log.warn("Could not process upload with id[{}]", uploadId, e);
+      failUpload(uploadId, "Document could not be processed");
+    }
+  }
 
-    try (ImageOutputStream imageOutStream = ImageIO.createImageOutputStream(imageByteStream)) {
+  /**
+   * returns an unsaved copy of a document which was transcoded from the same uploaded
+   * content, referring to the same content and thumbnails. The content of the copied
+   * document is not deleted while it is copied, as it is only collected after the grace
+   * period.
+   *
+   * @param stagedContentHash hash of the uploaded content in the blob store.
+   *
+   * @returns the copy, or an empty Optional if the content was not transcoded before.
+   */
+  private Optional<HouseMemberDocument> findTranscodedDocument(String stagedContentHash) {
+    return houseMemberDocumentRepository.findFirstBySourceContentHash(stagedContentHash)
+        .map(transcodedDocument -> {
+          HouseMemberDocument document = new HouseMemberDocument(null,
+              transcodedDocument.getContentHash(), transcodedDocument.getContentLength(),
+              transcodedDocument.getContentType());
+          document.setSourceContentHash(stagedContentHash);
+          for (DocumentSize size : THUMBNAIL_SIZES) {
+            DocumentContent thumbnail = transcodedDocument.getContent(size);
+            document.setThumbnail(size,
+                new DocumentContent(thumbnail.getContentHash(), thumbnail.getContentLength()));
+          }
+          return document;
+        });
+  }
 
-      ImageWriter imageWriter = ImageIO.getImageWritersByFormatName("jpg").next();
-      imageWriter.setOutput(imageOutStream);
-      ImageWriteParam param = imageWriter.getDefaultWriteParam();
+  /**
+   * transcodes an uploaded image into a JPEG document of bounded resolution and size
+   * and thumbnails of every thumbnail size, and stores them in the blob store.
+   *
+   * @param stagedContentHash hash of the uploaded content in the blob store.
+   *
+   * @returns the unsaved document referring to the stored content and thumbnails, or an
+   * empty Optional if the upload is no image or does not fit into the size limit of
+   * documents even at the lowest quality.
+   */
+  private Optional<HouseMemberDocument> transcodeDocument(String stagedContentHash)
+      throws IOException {
+    int[] thumbnailDimensions = Arrays.stream(THUMBNAIL_SIZES)
+        .mapToInt(DocumentSize::getMaxDimension)
+        .toArray();
+    Optional<TranscodedImage> documentImage;
+    try (InputStream stagedContent = Channels.newInputStream(blobStore.open(stagedContentHash))) {
+      documentImage = documentImageTranscoder.transcode(stagedContent, thumbnailDimensions);
+    }
+    if (!documentImage.isPresent()) {
+      return Optional.empty();
+    }
+    StoredBlob content = storeContent(documentImage.get().getContent());
+    HouseMemberDocument document = new HouseMemberDocument(null, content.getContentHash(),
+        content.getContentLength(), MediaType.IMAGE_JPEG_VALUE);
+    document.setSourceContentHash(stagedContentHash);
+    for (int i = 0; i < THUMBNAIL_SIZES.length; i++) {
+      StoredBlob thumbnail = storeContent(documentImage.get().getThumbnails().get(i));
+      document.setThumbnail(THUMBNAIL_SIZES[i],
+          new DocumentContent(thumbnail.getContentHash(), thumbnail.getContentLength()));
+    }
+    return Optional.of(document);
+  }
 
-      if (param.canWriteCompressed()) {
-        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
-        param.setCompressionQuality(compressedImageQuality);
-      }
-      imageWriter.write(null, new IIOImage(bufferedImage, null, null), param);
-      imageWriter.dispose();
+  /**
+   * stores transcoded content and registers it, storing it again if it was collected
+   * while it was stored.
+   */
+  private StoredBlob storeContent(byte[] content) throws IOException {
+    StoredBlob storedContent =
+        blobStore.store(Channels.newChannel(new ByteArrayInputStream(content)));
+    try {
+      documentBlobRegistry.register(storedContent);
+    } catch (IOException e) {
+      storedContent = blobStore.store(Channels.newChannel(new ByteArrayInputStream(content)));
     }
+    return storedContent;
   }
 
   /**
-   * reads an image from an InputStream provided by a MultipartFile object and returns
-   * a BufferedImage object.
-   * 
-   * @param multipartFile uploaded image file to be processed and read using `ImageIO.read()`
-   * method.
+   * publishes a transcoded document as the document of the member of an upload and
+   * completes the upload in the same transaction, moving the references from the
+   * replaced content and the uploaded content to the new content. A member without a
+   * document gets a new one, while the current document of a member has its content
+   * replaced in place, guarded by its version, so no row is left behind. A member
+   * uploading the content of their current document again keeps the current document.
+   *
+   * @param uploadId ID of the processed upload.
+   *
+   * @param stagedContentHash hash of the uploaded content in the blob store.
+   *
+   * @param document transcoded document referring to its content in the blob store.
+   */
+  private void completeUpload(String uploadId, String stagedContentHash,
+      HouseMemberDocument document) {
+    transactionTemplate.execute(status ->
+        houseMemberDocumentUploadRepository.findByUploadId(uploadId).map(upload -> {
+          HouseMember member = upload.getMember();
+          HouseMemberDocument currentDocument = member.getHouseMemberDocument();
+          if (currentDocument == null) {
+            member.setHouseMemberDocument(saveHouseMemberDocument(document,
+                String.format("member_%s_document.jpg", member.getMemberId())));
+            houseMemberRepository.save(member);
+            documentBlobRegistry.addReferences(contentHashes(document));
+          } else if (!stagedContentHash.equals(currentDocument.getSourceContentHash())) {
+            Set<String> replacedContentHashes = contentHashes(currentDocument);
+            currentDocument.replaceContent(document);
+            houseMemberDocumentRepository.save(currentDocument);
+            documentBlobRegistry.addReferences(contentHashes(currentDocument));
+            documentBlobRegistry.removeReferences(replacedContentHashes);
+          }
+          upload.setStatus(DocumentUploadStatus.COMPLETED);
+          upload.setUpdatedAt(LocalDateTime.now());
+          documentBlobRegistry.removeReferences(Collections.singleton(stagedContentHash));
+          return houseMemberDocumentUploadRepository.save(upload);
+        }));
+  }
+
+  /**
+   * fails an upload and removes its reference to the uploaded content.
+   *
+   * @param uploadId ID of the upload which failed.
+   *
+   * @param failureReason why the upload failed.
+   */
+  private void failUpload(String uploadId, String failureReason) {
+    transactionTemplate.execute(status ->
+        houseMemberDocumentUploadRepository.findByUploadId(uploadId).map(upload -> {
+          upload.setStatus(DocumentUploadStatus.FAILED);
+          upload.setFailureReason(failureReason);
+          upload.setUpdatedAt(LocalDateTime.now());
+          if (upload.getStagedContentHash() != null) {
+            documentBlobRegistry.removeReferences(
+                Collections.singleton(upload.getStagedContentHash()));
+          }
+          return houseMemberDocumentUploadRepository.save(upload);
+        }));
+  }
+
+  /**
+   * saves a `HouseMemberDocument` object to the repository under a filename.
    * 
-   * 	- `InputStream multipartFileStream`: The input stream for the file contained in
-   * the `multipartFile`.
-   * 	- `ImageIO read()`: A method for reading an image from the input stream.
+   * @param document transcoded document referring to its content in the blob store.
    * 
-   * @returns a `BufferedImage` object.
+   * @param filename name of the output file for the saved HouseMemberDocument.
    * 
-   * 	- The output is a `BufferedImage`, which represents a 2D image in Java.
-   * 	- The image is read from an input stream using the `ImageIO` class.
-   * 	- The input stream is obtained from the `MultipartFile` object through its
-   * `getInputStream()` method.
+   * @returns a `HouseMemberDocument` object representing the saved document.
    */
-  private BufferedImage getImageFromMultipartFile(MultipartFile multipartFile) throws IOException {
-    try (InputStream multipartFileStream = multipartFile.getInputStream()) {
-      return ImageIO.read(multipartFileStream);
-    }
+  private HouseMemberDocument saveHouseMemberDocument(HouseMemberDocument document,
+      String filename) {
+    document.setDocumentFilename(filename);
+    return houseMemberDocumentRepository.save(document);
+  }
+
+  /**
+   * returns the distinct hashes of the content of a document in every size, each of
+   * which the document refers to once.
+   */
+  private static Set<String> contentHashes(HouseMemberDocument document) {
+    return Arrays.stream(DocumentSize.values())
+        .map(size -> document.getContent(size).getContentHash())
+        .collect(Collectors.toSet());
   }
 }
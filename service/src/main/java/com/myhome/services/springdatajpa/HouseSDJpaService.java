@@ -21,16 +21,17 @@ import com.myhome.domain.HouseMember;
 import com.myhome.repositories.CommunityHouseRepository;
 import com.myhome.repositories.HouseMemberDocumentRepository;
 import com.myhome.repositories.HouseMemberRepository;
+import com.myhome.repositories.projections.HouseMemberSummary;
 import com.myhome.services.HouseService;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.IdGenerator;
 
 /**
  * TODO
@@ -41,22 +42,22 @@ public class HouseSDJpaService implements HouseService {
   private final HouseMemberRepository houseMemberRepository;
   private final HouseMemberDocumentRepository houseMemberDocumentRepository;
   private final CommunityHouseRepository communityHouseRepository;
+  private final IdGenerator idGenerator;
 
   /**
-   * generates a unique identifier based on a random UUID created by the `UUID.randomUUID()`
-   * method, and returns it as a string.
+   * generates a unique identifier based on a time ordered UUID created by the
+   * `IdGenerator`, and returns it as a string.
    * 
-   * @returns a unique, randomly generated string of characters.
+   * @returns a unique, time ordered string of characters.
    * 
-   * 	- The output is a string containing a unique identifier generated using the UUID
-   * randomUUID() method.
+   * 	- The output is a string containing a version 7 UUID, whose leading part is the
+   * creation time, so that identifiers created together are stored close to each other
+   * in the index.
    * 	- The string has a length of 36 characters, consisting of a series of letters and
    * digits separated by hyphens.
-   * 	- Each part of the identifier is generated randomly, ensuring that the same
-   * identifier will never be produced twice.
    */
   private String generateUniqueId() {
-    return UUID.randomUUID().toString();
+    return idGenerator.generateId().toString();
   }
 
   /**
@@ -282,9 +283,10 @@ public class HouseSDJpaService implements HouseService {
    * members based on the specified house ID and pageable parameters.
    */
   @Override
-  public Optional<List<HouseMember>> getHouseMembersById(String houseId, Pageable pageable) {
+  public Optional<List<HouseMemberSummary>> getHouseMembersById(String houseId,
+      Pageable pageable) {
     return Optional.ofNullable(
-        houseMemberRepository.findAllByCommunityHouse_HouseId(houseId, pageable)
+        houseMemberRepository.findSummariesByHouseId(houseId, pageable)
     );
   }
 
@@ -318,10 +320,10 @@ public class HouseSDJpaService implements HouseService {
    * specified user ID.
    */
   @Override
-  public Optional<List<HouseMember>> listHouseMembersForHousesOfUserId(String userId,
+  public Optional<List<HouseMemberSummary>> listHouseMembersForHousesOfUserId(String userId,
       Pageable pageable) {
     return Optional.ofNullable(
-        houseMemberRepository.findAllByCommunityHouse_Community_Admins_UserId(userId, pageable)
+        houseMemberRepository.findSummariesByAdminUserId(userId, pageable)
     );
   }
 }
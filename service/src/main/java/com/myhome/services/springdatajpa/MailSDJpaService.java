@@ -1,26 +1,23 @@
 package com.myhome.services.springdatajpa;
 
-import com.myhome.configuration.properties.mail.MailProperties;
 import com.myhome.configuration.properties.mail.MailTemplatesNames;
+import com.myhome.domain.OutboundMail;
+import com.myhome.domain.OutboundMailStatus;
 import com.myhome.domain.SecurityToken;
 import com.myhome.domain.User;
+import com.myhome.repositories.OutboundMailRepository;
 import com.myhome.services.MailService;
+import com.myhome.services.mail.EmailTemplateCatalog;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.i18n.LocaleContextHolder;
-import org.springframework.context.support.ResourceBundleMessageSource;
-import org.springframework.mail.MailException;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
-import org.thymeleaf.ITemplateEngine;
-import org.thymeleaf.context.Context;
 
-import javax.mail.MessagingException;
-import javax.mail.internet.MimeMessage;
+import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -29,13 +26,10 @@ import java.util.Map;
 @Service
 @ConditionalOnProperty(value = "spring.mail.devMode", havingValue = "false", matchIfMissing = false)
 @RequiredArgsConstructor
-@Slf4j
 public class MailSDJpaService implements MailService {
 
-  private final ITemplateEngine emailTemplateEngine;
-  private final JavaMailSender mailSender;
-  private final ResourceBundleMessageSource messageSource;
-  private final MailProperties mailProperties;
+  private final EmailTemplateCatalog emailTemplateCatalog;
+  private final OutboundMailRepository outboundMailRepository;
 
   /**
    * sends a password recovery code via email to the specified user's registered email
@@ -66,9 +60,7 @@ public class MailSDJpaService implements MailService {
     Map<String, Object> templateModel = new HashMap<>();
     templateModel.put("username", user.getName());
     templateModel.put("recoverCode", randomCode);
-    String passwordRecoverSubject = getLocalizedMessage("locale.EmailSubject.passwordRecover");
-    boolean mailSent = send(user.getEmail(), passwordRecoverSubject,
-        MailTemplatesNames.PASSWORD_RESET.filename, templateModel);
+    boolean mailSent = send(user.getEmail(), MailTemplatesNames.PASSWORD_RESET, templateModel);
     return mailSent;
   }
 
@@ -84,8 +76,8 @@ public class MailSDJpaService implements MailService {
    * 
    * 1/ Creates a new `HashMap` to store template model data.
    * 2/ Assigns the user's name to the `username` key in the map.
-   * 3/ Generates a subject line for an email notification using the `getLocalizedMessage`
-   * method and passing in "locale.EmailSubject.passwordChanged".
+   * 3/ Generates a subject line for an email notification from the localized subject
+   * of the template, "locale.EmailSubject.passwordChanged".
    * 4/ Combines the subject line with the file name of the email template
    * (`MailTemplatesNames.PASSWORD_CHANGED.filename`) and the template model data to
    * create a message for sending via email.
@@ -100,9 +92,7 @@ public class MailSDJpaService implements MailService {
   public boolean sendPasswordSuccessfullyChanged(User user) {
     Map<String, Object> templateModel = new HashMap<>();
     templateModel.put("username", user.getName());
-    String passwordChangedSubject = getLocalizedMessage("locale.EmailSubject.passwordChanged");
-    boolean mailSent = send(user.getEmail(), passwordChangedSubject,
-        MailTemplatesNames.PASSWORD_CHANGED.filename, templateModel);
+    boolean mailSent = send(user.getEmail(), MailTemplatesNames.PASSWORD_CHANGED, templateModel);
     return mailSent;
   }
 
@@ -145,9 +135,7 @@ public class MailSDJpaService implements MailService {
     String emailConfirmLink = getAccountConfirmLink(user, emailConfirmToken);
     templateModel.put("username", user.getName());
     templateModel.put("emailConfirmLink", emailConfirmLink);
-    String accountCreatedSubject = getLocalizedMessage("locale.EmailSubject.accountCreated");
-    boolean mailSent = send(user.getEmail(), accountCreatedSubject,
-        MailTemplatesNames.ACCOUNT_CREATED.filename, templateModel);
+    boolean mailSent = send(user.getEmail(), MailTemplatesNames.ACCOUNT_CREATED, templateModel);
     return mailSent;
   }
 
@@ -167,101 +155,45 @@ public class MailSDJpaService implements MailService {
   public boolean sendAccountConfirmed(User user) {
     Map<String, Object> templateModel = new HashMap<>();
     templateModel.put("username", user.getName());
-    String accountConfirmedSubject = getLocalizedMessage("locale.EmailSubject.accountConfirmed");
-    boolean mailSent = send(user.getEmail(), accountConfirmedSubject,
-        MailTemplatesNames.ACCOUNT_CONFIRMED.filename, templateModel);
+    boolean mailSent = send(user.getEmail(), MailTemplatesNames.ACCOUNT_CONFIRMED, templateModel);
     return mailSent;
   }
 
   /**
-   * sends an HTML email message through a mail sender.
-   * 
-   * @param to email address of the recipient to whom the HTML message will be sent.
-   * 
-   * 	- `to`: This parameter is a string that represents the email address of the
-   * recipient. It can be any valid email address format, such as [john.doe@example.com](mailto:john.doe@example.com).
-   * 	- `subject`: A string that represents the subject line of the email message. It
-   * is used to provide context for the email and help the recipient quickly identify
-   * the purpose of the message.
-   * 	- `htmlBody`: This parameter is a string that contains the HTML content of the
-   * email message. It can include any valid HTML elements, such as headings, paragraphs,
-   * images, and links.
-   * 
-   * @param subject subject line of an email that is being sent through the `mailSender`
-   * object, and it is used to set the corresponding field in the created MimeMessage
-   * object.
-   * 
-   * 	- `subject`: This is a `String` variable representing the subject of the email
-   * to be sent. It carries important information about the email's purpose or context.
-   * 	- `mailProperties`: This is an object that stores configuration properties for
-   * sending emails. It may have attributes such as `username`, which represents the
-   * sender's email address, and other relevant information for email communication.
-   * 
-   * @param htmlBody HTML content of the message that will be sent to the recipient.
-   * 
-   * 	- The `MimeMessageHelper` sets the `from` property to `mailProperties.getUsername()`.
-   * 	- The `to` property is set to the input string `to`.
-   * 	- The `subject` property is set to the input string `subject`.
-   * 	- The `setText` method takes a string argument `htmlBody`, which contains the
-   * HTML message body, and sets it as the message body of the `MimeMessage`.
-   * 	- The `mailSender.send()` method sends the `MimeMessage` object to the destination
-   * email server.
-   */
-  private void sendHtmlMessage(String to, String subject, String htmlBody) throws MessagingException {
-    MimeMessage message = mailSender.createMimeMessage();
-    MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-    helper.setFrom(mailProperties.getUsername());
-    helper.setTo(to);
-    helper.setSubject(subject);
-    helper.setText(htmlBody, true);
-    mailSender.send(message);
-  }
-
-  /**
-   * takes an email address, subject, template name and model as input, sends an HTML
-   * message using the Thymeleaf engine and logs any errors to the console if they occur.
+   * renders an HTML message and its localized subject in the locale of the current
+   * request and queues it in the outbox, from which it is sent in the background by the
+   * `OutboundMailDispatcher`. The message is rendered right away, as its locale and
+   * links are taken from the current request. The mail is queued within the transaction
+   * of the caller, so it is only sent if the caller commits, and a failure to queue it
+   * fails the caller instead of being reported as a mail which was not sent.
    * 
    * @param emailTo recipient's email address to which the HTML message will be sent.
    * 
-   * 	- `emailTo`: The recipient's email address. It is a String type variable.
-   * 
-   * @param subject subject line of the email to be sent.
-   * 
-   * 	- `String subject`: The subject line of the email to be sent.
-   * 	- `String templateName`: The name of the Thymeleaf template to be processed for
-   * generating the email body.
-   * 	- `Map<String, Object> templateModel`: A map containing the model data that will
-   * be used in the Thymeleaf template to generate the email body.
-   * 
-   * @param templateName name of the Thymeleaf template to be processed and rendered
-   * as HTML content for the email message.
-   * 
-   * 	- `String templateName`: The name of the Thymeleaf email template to be processed.
-   * 	- `Map<String, Object> templateModel`: A map of key-value pairs representing the
-   * model data for the email template.
+   * @param template email template to render, which also defines the subject.
    * 
    * @param templateModel map of data that will be used to render the email template,
    * allowing the function to generate a personalized and dynamic email message.
    * 
-   * 	- `Map<String, Object>`: A map containing key-value pairs representing the variables
-   * that will be used in the Thymeleaf template engine to generate the email body. The
-   * keys are the variable names, and the values are their corresponding values.
+   * @returns `true` once the mail is queued.
    * 
-   * @returns a boolean value indicating whether the email was sent successfully or not.
+   * @throws DataAccessException if the mail cannot be queued in the outbox.
    */
-  private boolean send(String emailTo, String subject, String templateName, Map<String, Object> templateModel) {
-    try {
-      Context thymeleafContext = new Context(LocaleContextHolder.getLocale());
-      thymeleafContext.setVariables(templateModel);
-      String htmlBody = emailTemplateEngine.process(templateName, thymeleafContext);
-      sendHtmlMessage(emailTo, subject, htmlBody);
-    } catch (MailException | MessagingException mailException) {
-      log.error("Mail send error!", mailException);
-      return false;
-    }
+  private boolean send(String emailTo, MailTemplatesNames template, Map<String, Object> templateModel) {
+    Locale locale = LocaleContextHolder.getLocale();
+    String subject = emailTemplateCatalog.getSubject(template, locale);
+    String htmlBody = emailTemplateCatalog.render(template, locale, templateModel);
+    LocalDateTime now = LocalDateTime.now();
+    outboundMailRepository.save(new OutboundMail()
+        .withRecipient(emailTo)
+        .withSubject(subject)
+        .withHtmlBody(htmlBody)
+        .withStatus(OutboundMailStatus.PENDING)
+        .withNextAttemptAt(now)
+        .withCreatedAt(now));
     return true;
   }
 
+
   /**
    * generates a URL for confirming an email address associated with a user's account.
    * It takes the user and security token as input and constructs the URL using the
@@ -299,32 +231,4 @@ public class MailSDJpaService implements MailService {
     return String.format("%s/users/%s/email-confirm/%s", baseUrl, user.getUserId(), token.getToken());
   }
 
-  /**
-   * retrieves a localized message from a message source based on a given property name,
-   * handling potential exceptions and returning the obtained message.
-   * 
-   * @param prop string key for which the localized message is to be retrieved.
-   * 
-   * 	- `String`: The input parameter passed to the function, which is a string value.
-   * 
-   * @returns a localized string based on the input property and the current locale.
-   * 
-   * 	- The output is a string that represents a localized message.
-   * 	- The message is obtained from the `messageSource` using the `getMessage` method.
-   * 	- The `messageSource` is an object that provides localized messages.
-   * 	- The method call to `getMessage` takes three arguments: the key of the message,
-   * a null `Locale` parameter, and the `LocaleContextHolder` locale.
-   * 	- If any exceptions occur during the message retrieval process, the message
-   * returned is simply "localization error".
-   */
-  private String getLocalizedMessage(String prop) {
-    String message = "";
-    try {
-      message = messageSource.getMessage(prop, null, LocaleContextHolder.getLocale());
-    } catch (Exception e) {
-      message = prop + ": localization error";
-    }
-    return message;
-  }
-
 }
@@ -28,7 +28,6 @@ import com.myhome.services.PaymentService;
 import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
-import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Example;
@@ -37,6 +36,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.util.IdGenerator;
 
 /**
  * Implements {@link PaymentService} and uses Spring Data JPA Repository to do its work
@@ -52,6 +52,7 @@ public class PaymentSDJpaService implements PaymentService {
   private final UserRepository adminRepository;
   private final PaymentMapper paymentMapper;
   private final HouseMemberRepository houseMemberRepository;
+  private final IdGenerator idGenerator;
 
   /**
    * 1) generates a payment ID and 2) creates a payment instance in the repository.
@@ -278,13 +279,11 @@ public class PaymentSDJpaService implements PaymentService {
   }
 
   /**
-   * generates a unique payment ID for a given `PaymentDto` request using the
-   * `UUID.randomUUID()` method and assigns it to the `paymentId` field of the `PaymentDto`
-   * object.
+   * generates a unique, time ordered payment ID for a given `PaymentDto` request using
+   * the `IdGenerator` and assigns it to the `paymentId` field of the `PaymentDto` object.
    * 
    * @param request PaymentDto object that contains information about the payment, and
-   * it is used to generate a unique payment ID using the `UUID.randomUUID().toString()`
-   * method.
+   * it is used to generate a unique payment ID using the `IdGenerator`.
    * 
    * The input `request` has the following properties:
    * 
@@ -292,6 +291,6 @@ public class PaymentSDJpaService implements PaymentService {
    * payment.
    */
   private void generatePaymentId(PaymentDto request) {
-    request.setPaymentId(UUID.randomUUID().toString());
+    request.setPaymentId(idGenerator.generateId().toString());
   }
 }
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.springdatajpa;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.myhome.domain.CommunityHouse;
+import com.myhome.domain.HouseMember;
+import com.myhome.domain.ResidentImport;
+import com.myhome.domain.ResidentImportStatus;
+import com.myhome.repositories.CommunityHouseRepository;
+import com.myhome.repositories.CommunityRepository;
+import com.myhome.repositories.HouseMemberRepository;
+import com.myhome.repositories.ResidentImportRepository;
+import com.myhome.services.ResidentImportService;
+import com.myhome.services.imports.ResidentRecord;
+import com.myhome.services.imports.ResidentRecordFormat;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.IdGenerator;
+import org.springframework.util.StringUtils;
+
+/**
+ * imports houses and members into a community from a file, reading it one record at a
+ * time and writing the records in chunks. Every chunk is written in its own transaction,
+ * together with the progress of the import, so memory use does not grow with the file
+ * and an import which failed or was interrupted continues after the last stored chunk
+ * when it is resumed with the same file.
+ */
+@Slf4j
+@Service
+public class ResidentImportSDJpaService implements ResidentImportService {
+
+  private final ResidentImportRepository residentImportRepository;
+  private final CommunityRepository communityRepository;
+  private final CommunityHouseRepository communityHouseRepository;
+  private final HouseMemberRepository houseMemberRepository;
+  private final IdGenerator idGenerator;
+  private final TransactionTemplate transactionTemplate;
+  private final int chunkSize;
+
+  public ResidentImportSDJpaService(ResidentImportRepository residentImportRepository,
+      CommunityRepository communityRepository,
+      CommunityHouseRepository communityHouseRepository,
+      HouseMemberRepository houseMemberRepository,
+      IdGenerator idGenerator,
+      TransactionTemplate transactionTemplate,
+      @Value("${imports.chunkSize}") int chunkSize) {
+    this.residentImportRepository = residentImportRepository;
+    this.communityRepository = communityRepository;
+    this.communityHouseRepository = communityHouseRepository;
+    this.houseMemberRepository = houseMemberRepository;
+    this.idGenerator = idGenerator;
+    this.transactionTemplate = transactionTemplate;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * creates a new import for the community and imports all records of the given file.
+   *
+   * @param communityId ID of the community to import the houses and members into.
+   *
+   * @param format format of the file.
+   *
+   * @param residents source of the file.
+   *
+   * @returns the import with its final progress, which is failed if the file could not be
+   * read or a chunk could not be stored, or an empty Optional if the community does not
+   * exist.
+   */
+  @Override
+  public Optional<ResidentImport> startImport(String communityId, ResidentRecordFormat format,
+      InputStreamSource residents) {
+    return transactionTemplate.execute(status ->
+        communityRepository.findByCommunityId(communityId).map(community -> {
+          LocalDateTime now = LocalDateTime.now();
+          return residentImportRepository.save(new ResidentImport()
+              .withImportId(idGenerator.generateId().toString())
+              .withCommunity(community)
+              .withStatus(ResidentImportStatus.RUNNING)
+              .withStartedAt(now)
+              .withUpdatedAt(now));
+        }))
+        .map(residentImport -> runImport(residentImport, format, residents));
+  }
+
+  /**
+   * continues an import which failed or was interrupted, skipping as many records of the
+   * given file as the import already stored. Completed imports are returned unchanged.
+   *
+   * @param communityId ID of the community the import belongs to.
+   *
+   * @param importId ID of the import to resume.
+   *
+   * @param format format of the file.
+   *
+   * @param residents source of the same file the import was started with.
+   *
+   * @returns the import with its final progress, or an empty Optional if the community
+   * has no such import.
+   */
+  @Override
+  public Optional<ResidentImport> resumeImport(String communityId, String importId,
+      ResidentRecordFormat format, InputStreamSource residents) {
+    return transactionTemplate.execute(status ->
+        residentImportRepository.findByImportIdAndCommunity_CommunityId(importId, communityId)
+            .map(residentImport -> {
+              if (residentImport.getStatus() != ResidentImportStatus.COMPLETED) {
+                residentImport.setStatus(ResidentImportStatus.RUNNING);
+                residentImport.setFailureReason(null);
+                residentImport.setUpdatedAt(LocalDateTime.now());
+              }
+              return residentImport;
+            }))
+        .map(residentImport -> residentImport.getStatus() == ResidentImportStatus.COMPLETED
+            ? residentImport
+            : runImport(residentImport, format, residents));
+  }
+
+  @Override
+  public Optional<ResidentImport> getImport(String communityId, String importId) {
+    return residentImportRepository.findByImportIdAndCommunity_CommunityId(importId,
+        communityId);
+  }
+
+  private ResidentImport runImport(ResidentImport residentImport, ResidentRecordFormat format,
+      InputStreamSource residents) {
+    String importId = residentImport.getImportId();
+    long position = residentImport.getProcessedRecords();
+    try (MappingIterator<ResidentRecord> records = format.read(residents.getInputStream())) {
+      for (long skipped = 0; skipped < position && records.hasNextValue(); skipped++) {
+        records.nextValue();
+      }
+      List<ResidentRecord> chunk = new ArrayList<>(chunkSize);
+      while (records.hasNextValue()) {
+        chunk.add(records.nextValue());
+        if (chunk.size() == chunkSize) {
+          importChunk(importId, position, chunk);
+          position += chunk.size();
+          chunk.clear();
+        }
+      }
+      if (!chunk.isEmpty()) {
+        importChunk(importId, position, chunk);
+      }
+      return finishImport(importId, ResidentImportStatus.COMPLETED, null);
+    } catch (ObjectOptimisticLockingFailureException e) {
+      // another run of the same import stored a chunk first and carries on with it
+      log.warn("Stopped import [{}] which is continued by another run", importId);
+      return residentImportRepository.findByImportId(importId).orElse(residentImport);
+    } catch (IOException | RuntimeException e) {
+      log.warn("Import [{}] failed after {} records", importId, position, e);
+      return finishImport(importId, ResidentImportStatus.FAILED, e.getMessage());
+    }
+  }
+
+  /**
+   * stores one chunk of records together with the progress of the import. Houses are
+   * looked up in the community by their name, and created if they do not exist yet.
+   *
+   * @param importId ID of the import the chunk belongs to.
+   *
+   * @param position number of records before the chunk, which have to be stored already.
+   *
+   * @param chunk records to store.
+   *
+   * @throws ObjectOptimisticLockingFailureException if the import is not at the given
+   * position, because another run of it stored the chunk already.
+   */
+  private void importChunk(String importId, long position, List<ResidentRecord> chunk) {
+    transactionTemplate.execute(status -> {
+      ResidentImport residentImport = residentImportRepository.findByImportId(importId)
+          .filter(found -> found.getStatus() == ResidentImportStatus.RUNNING
+              && found.getProcessedRecords() == position)
+          .orElseThrow(
+              () -> new ObjectOptimisticLockingFailureException(ResidentImport.class, importId));
+
+      Set<String> houseNames = new HashSet<>();
+      for (int index = 0; index < chunk.size(); index++) {
+        houseNames.add(requireHouseName(chunk.get(index), position + index));
+      }
+      Map<String, CommunityHouse> houses = new HashMap<>();
+      communityHouseRepository.findAllByCommunity_IdAndNameIn(
+          residentImport.getCommunity().getId(), houseNames)
+          .forEach(house -> houses.putIfAbsent(house.getName(), house));
+
+      List<Long> createdHouseIds = new ArrayList<>();
+      List<Long> createdMemberIds = new ArrayList<>();
+      for (ResidentRecord record : chunk) {
+        CommunityHouse house = houses.computeIfAbsent(record.getHouseName(), houseName -> {
+          CommunityHouse createdHouse = new CommunityHouse()
+              .withHouseId(idGenerator.generateId().toString())
+              .withName(houseName)
+              .withCommunity(residentImport.getCommunity());
+          createdHouseIds.add(communityHouseRepository.save(createdHouse).getId());
+          return createdHouse;
+        });
+        if (StringUtils.hasText(record.getMemberName())) {
+          HouseMember member = new HouseMember()
+              .withMemberId(idGenerator.generateId().toString())
+              .withName(record.getMemberName());
+          member.setCommunityHouse(house);
+          createdMemberIds.add(houseMemberRepository.save(member).getId());
+        }
+      }
+      if (!createdHouseIds.isEmpty()) {
+        communityHouseRepository.addHousesToTheirCommunity(createdHouseIds);
+      }
+      if (!createdMemberIds.isEmpty()) {
+        houseMemberRepository.addMembersToTheirHouse(createdMemberIds);
+      }
+
+      residentImport.setProcessedRecords(position + chunk.size());
+      residentImport.setCreatedHouses(residentImport.getCreatedHouses() + createdHouseIds.size());
+      residentImport.setCreatedMembers(
+          residentImport.getCreatedMembers() + createdMemberIds.size());
+      residentImport.setUpdatedAt(LocalDateTime.now());
+      return null;
+    });
+  }
+
+  private ResidentImport finishImport(String importId, ResidentImportStatus status,
+      String failureReason) {
+    return transactionTemplate.execute(transactionStatus -> {
+      ResidentImport residentImport = residentImportRepository.findByImportId(importId)
+          .orElseThrow(() -> new IllegalStateException("Import " + importId + " not found"));
+      residentImport.setStatus(status);
+      residentImport.setFailureReason(failureReason == null ? null
+          : failureReason.substring(0,
+              Math.min(failureReason.length(), ResidentImport.MAX_FAILURE_REASON_LENGTH)));
+      residentImport.setUpdatedAt(LocalDateTime.now());
+      return residentImport;
+    });
+  }
+
+  private static String requireHouseName(ResidentRecord record, long recordIndex) {
+    if (!StringUtils.hasText(record.getHouseName())) {
+      throw new IllegalArgumentException(
+          String.format("Record %d has no house name", recordIndex + 1));
+    }
+    return record.getHouseName();
+  }
+}
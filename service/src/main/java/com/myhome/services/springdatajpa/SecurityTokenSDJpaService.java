@@ -78,6 +78,8 @@ public class SecurityTokenSDJpaService implements SecurityTokenService {
    * as it is assumed to be a dependency of the function.
    */
   private SecurityToken createSecurityToken(SecurityTokenType tokenType, Duration liveTimeSeconds, User tokenOwner) {
+    // tokens stay fully random instead of time ordered, so they can not be guessed from
+    // their creation time
     String token = UUID.randomUUID().toString();
     LocalDate creationDate = LocalDate.now();
     LocalDate expiryDate = getDateAfterDays(LocalDate.now(), liveTimeSeconds);
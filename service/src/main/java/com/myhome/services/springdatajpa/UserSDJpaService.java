@@ -33,11 +33,11 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.util.IdGenerator;
 
 import java.time.LocalDate;
 import java.util.Optional;
 import java.util.Set;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -56,6 +56,7 @@ public class UserSDJpaService implements UserService {
   private final PasswordEncoder passwordEncoder;
   private final SecurityTokenService securityTokenService;
   private final MailService mailService;
+  private final IdGenerator idGenerator;
 
   /**
    * creates a new user account in the system. It first verifies if an existing user
@@ -607,8 +608,8 @@ public class UserSDJpaService implements UserService {
   }
 
   /**
-   * generates a unique user ID for a given `UserDto` request using the `UUID.randomUUID()`
-   * method and assigns it to the `UserId` field of the `request` object.
+   * generates a unique, time ordered user ID for a given `UserDto` request using
+   * the `IdGenerator` and assigns it to the `UserId` field of the `request` object.
    * 
    * @param request UserDto object that contains the user's details and is used to
    * generate a unique user ID for the user.
@@ -616,6 +617,6 @@ public class UserSDJpaService implements UserService {
    * 	- `request`: A `UserDto` object containing user-related information.
    */
   private void generateUniqueUserId(UserDto request) {
-    request.setUserId(UUID.randomUUID().toString());
+    request.setUserId(idGenerator.generateId().toString());
   }
 }
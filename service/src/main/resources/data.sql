@@ -51,109 +51,109 @@ INSERT INTO "PUBLIC"."COMMUNITY"("ID", "COMMUNITY_ID", "DISTRICT", "NAME") VALUE
 (49, '41791dbf-a5fa-480b-adde-6083cc69801b', 'Wonderland', 'Test Community 49'),
 (50, '45aa7327-8b6e-42ac-a49e-b345d369a2eb', 'Wonderland', 'Test Community 50');
 --
-INSERT INTO "PUBLIC"."AMENITY"("ID", "AMENITY_ID", "DESCRIPTION", "NAME", "PRICE", "COMMUNITY_ID") VALUES
-(0, '244282d9-d71b-4824-ae72-1f5d4f9b067c', 'default-amenity-description-for-testing', 'name', 12, 0),
-(1, '672fb557-9cb7-45f8-815a-bb9b9c78ef4c', 'Test-community-amenity-description-1', 'name', 12, 0),
-(2, '7b5a67d8-2ebe-48ee-82bd-17b65ddaab32', 'Test-community-amenity-description-2', 'name', 12, 1),
-(3, 'f8874587-94e8-4de8-a3fb-9f946912ac1a', 'Test-community-amenity-description-3', 'name', 12, 1),
-(4, '36675557-5b66-4e5a-a429-a841fcf8c2b3', 'Test-community-amenity-description-4', 'name', 12, 2),
-(5, 'f1c5624c-ee82-48d3-8ff9-328a15e7a224', 'Test-community-amenity-description-5', 'name', 12, 2),
-(6, '96cbc6cd-befe-40b4-927f-871808afd1be', 'Test-community-amenity-description-6', 'name', 12, 3),
-(7, 'a0913ea9-7c9d-4a1f-b8a6-a02715776697', 'Test-community-amenity-description-7', 'name', 12, 3),
-(8, '1611743c-bc88-4075-8a81-571e62931b1e', 'Test-community-amenity-description-8', 'name', 12, 4),
-(9, 'ec1ca651-a75b-4a30-8b53-2247f0e5876f', 'Test-community-amenity-description-9', 'name', 12, 4),
-(10, '43b69caf-8939-4e79-8106-d7d87c541f22', 'Test-community-amenity-description-10', 'name', 12, 5),
-(11, '15a1141e-d73b-49bc-89f8-7f5e297797f7', 'Test-community-amenity-description-11', 'name', 12, 5),
-(12, 'b58ee282-f10e-4b86-81b2-0da91c31c71a', 'Test-community-amenity-description-12', 'name', 12, 6),
-(13, '3f121142-9f2f-45f8-9b90-0f2eb3afffba', 'Test-community-amenity-description-13', 'name', 12, 6),
-(14, 'ac17f31b-16d9-44c0-91ba-59842c147d02', 'Test-community-amenity-description-14', 'name', 12, 7),
-(15, '05a1a044-2248-4e35-8ef0-f3d81ee1feba', 'Test-community-amenity-description-15', 'name', 12, 7),
-(16, 'edbb4c15-3a0a-4a0d-8a63-fc64c73a7287', 'Test-community-amenity-description-16', 'name', 12, 8),
-(17, '80797425-ec66-4591-98ec-70635d8355e6', 'Test-community-amenity-description-17', 'name', 12, 8),
-(18, '7996cbc5-bc9f-4422-aadf-6afefbe28596', 'Test-community-amenity-description-18', 'name', 12, 9),
-(19, '4026e7ce-53fd-4390-a82b-c0af18b41e7d', 'Test-community-amenity-description-19', 'name', 12, 9),
-(20, 'cd806ef8-fd5f-46df-a820-f494743b5f97', 'Test-community-amenity-description-20', 'name', 12, 10),
-(21, 'e8d02cc3-94c7-49ea-9457-1eaaa929b619', 'Test-community-amenity-description-21', 'name', 12, 10),
-(22, '3358c150-f278-4c22-ae09-fb98dc8f113c', 'Test-community-amenity-description-22', 'name', 12, 11),
-(23, 'c1f9f5b7-6df2-4153-9530-c25287cda78b', 'Test-community-amenity-description-23', 'name', 12, 11),
-(24, 'f4fcb828-bd58-4030-b531-5cebf5f52ed5', 'Test-community-amenity-description-24', 'name', 12, 12),
-(25, '02575eb3-1c49-4bd5-9019-0c30de290bdc', 'Test-community-amenity-description-25', 'name', 12, 12),
-(26, '3e600f00-1653-4fe9-a8d1-7d6ac2ed5eb3', 'Test-community-amenity-description-26', 'name', 12, 13),
-(27, '1931439b-91b1-4d65-9fd6-b9bcb29e12e8', 'Test-community-amenity-description-27', 'name', 12, 13),
-(28, '12e5f7f1-fcc2-4095-9ddc-734d70e49d01', 'Test-community-amenity-description-28', 'name', 12, 14),
-(29, '822b1d3f-276d-4ae0-9c05-c394b14bfcbf', 'Test-community-amenity-description-29', 'name', 12, 14),
-(30, '8c1edc3e-682e-4c96-961f-c187df990d7e', 'Test-community-amenity-description-30', 'name', 12, 15),
-(31, '4f91bd7a-4787-43cc-8fc3-3c553320899d', 'Test-community-amenity-description-31', 'name', 12, 15),
-(32, 'f483bb2e-36cb-4b00-af88-2bab5d42632f', 'Test-community-amenity-description-32', 'name', 12, 16),
-(33, '8b8b0979-5642-4eba-8922-35e32d3683df', 'Test-community-amenity-description-33', 'name', 12, 16),
-(34, 'e7f13fd1-2703-4771-8590-59fe0400a17e', 'Test-community-amenity-description-34', 'name', 12, 17),
-(35, '9ab8faa8-e4b1-4e22-a8bc-7d7ec49a6285', 'Test-community-amenity-description-35', 'name', 12, 17),
-(36, 'a95a1a2f-c512-4d43-a9b1-87bed1b9d3a3', 'Test-community-amenity-description-36', 'name', 12, 18),
-(37, 'fb780df5-b319-42a5-bd1c-51b38415bab9', 'Test-community-amenity-description-37', 'name', 12, 18),
-(38, 'c9a9c9ac-a792-41e4-a655-61d932db32d3', 'Test-community-amenity-description-38', 'name', 12, 19),
-(39, 'b720c8b2-ea1c-4164-913f-e4f87da291f0', 'Test-community-amenity-description-39', 'name', 12, 19),
-(40, 'b6cb7dc4-cf76-4ba7-a1bd-7d037eef0aaa', 'Test-community-amenity-description-40', 'name', 12, 20),
-(41, '803afd89-036d-4a0c-876c-f9f15328d4d0', 'Test-community-amenity-description-41', 'name', 12, 20),
-(42, '2ce60c88-2021-4763-9b70-3887a57609b0', 'Test-community-amenity-description-42', 'name', 12, 21),
-(43, 'b63215bb-db0f-4c36-9a0f-91439b02afec', 'Test-community-amenity-description-43', 'name', 12, 21),
-(44, 'fbeef0e7-a7ab-44a5-9bc0-c5181d2813b0', 'Test-community-amenity-description-44', 'name', 12, 22),
-(45, '9035164d-acbd-423f-a411-dd264365b35b', 'Test-community-amenity-description-45', 'name', 12, 22),
-(46, '3e819288-b38f-4dd3-8fad-10b4002d82af', 'Test-community-amenity-description-46', 'name', 12, 23),
-(47, '511cf42b-b33b-46ed-a8dc-48ed872007b6', 'Test-community-amenity-description-47', 'name', 12, 23),
-(48, '7a20b7e8-d3d7-4223-8fe4-640f2f224373', 'Test-community-amenity-description-48', 'name', 12, 24),
-(49, '6e4b286e-3b87-4942-8311-9f686d6c8ae3', 'Test-community-amenity-description-49', 'name', 12, 24),
-(50, 'e5b997ee-6c25-4245-9abe-3c2f22e23703', 'Test-community-amenity-description-50', 'name', 12, 25);
-INSERT INTO "PUBLIC"."AMENITY"("ID", "AMENITY_ID", "DESCRIPTION", "NAME", "PRICE", "COMMUNITY_ID") VALUES
-(51, 'd16b617e-14e5-4fc7-ae17-730e0e86c679', 'Test-community-amenity-description-51', 'name', 12, 25),
-(52, 'ed37e808-e65c-489b-808b-dfce39a7b1fb', 'Test-community-amenity-description-52', 'name', 12, 26),
-(53, '19107110-c66e-4ff3-b56b-3a39e4c4fab2', 'Test-community-amenity-description-53', 'name', 12, 26),
-(54, '43cca55e-90d4-4364-b95b-72eef55400ac', 'Test-community-amenity-description-54', 'name', 12, 27),
-(55, '1d0fa384-e39f-459c-ba29-a1c4b2cf76b2', 'Test-community-amenity-description-55', 'name', 12, 27),
-(56, 'a19c6be9-237c-41f0-9149-4ee995b9c39d', 'Test-community-amenity-description-56', 'name', 12, 28),
-(57, '397f1f37-c053-4ce6-a8ef-e533ce332495', 'Test-community-amenity-description-57', 'name', 12, 28),
-(58, '61a1ac1d-2492-4735-948c-2f99d7b82dc5', 'Test-community-amenity-description-58', 'name', 12, 29),
-(59, '7a558512-c3e2-451d-be64-f40e4b757bce', 'Test-community-amenity-description-59', 'name', 12, 29),
-(60, '2e7cfaef-d4ca-4647-addb-2c038d618052', 'Test-community-amenity-description-60', 'name', 12, 30),
-(61, 'decd88de-e8e1-4b93-bbae-b2955d6f8de1', 'Test-community-amenity-description-61', 'name', 12, 30),
-(62, 'b95b373d-7401-4241-910e-d8ac8ee092fd', 'Test-community-amenity-description-62', 'name', 12, 31),
-(63, '4d01e0b2-82d1-43cd-9304-61e320e6a661', 'Test-community-amenity-description-63', 'name', 12, 31),
-(64, 'adbbee69-95ae-40a0-a69a-2e8bf862408a', 'Test-community-amenity-description-64', 'name', 12, 32),
-(65, '3b0b428f-1ab1-4434-b7f2-b65f39891b47', 'Test-community-amenity-description-65', 'name', 12, 32),
-(66, '862dedcc-3bf6-4cc1-a3b6-a04263bf635a', 'Test-community-amenity-description-66', 'name', 12, 33),
-(67, 'e7a2efeb-8ab6-458c-88cd-4430dcbc0265', 'Test-community-amenity-description-67', 'name', 12, 33),
-(68, 'd42272dd-6f9f-408e-aeca-24afacda5489', 'Test-community-amenity-description-68', 'name', 12, 34),
-(69, 'c1cb193a-6088-4f1e-b475-93ceaa5001b8', 'Test-community-amenity-description-69', 'name', 12, 34),
-(70, 'ab21a642-6def-43d8-a717-1cee29e22754', 'Test-community-amenity-description-70', 'name', 12, 35),
-(71, '14fc7029-6052-4eb3-a391-54c16beee080', 'Test-community-amenity-description-71', 'name', 12, 35),
-(72, 'a484c786-3a51-45d2-bd5c-2272750beac6', 'Test-community-amenity-description-72', 'name', 12, 36),
-(73, 'b3d64c22-4424-449e-b12d-a25ccf748717', 'Test-community-amenity-description-73', 'name', 12, 36),
-(74, 'd21835d8-b900-4c29-9854-cf2a78a4fb34', 'Test-community-amenity-description-74', 'name', 12, 37),
-(75, '20311bc3-f128-4f3d-9b0f-cdd62c938353', 'Test-community-amenity-description-75', 'name', 12, 37),
-(76, 'af7d0c0a-879d-4b8d-bf80-e0dc0a9caddd', 'Test-community-amenity-description-76', 'name', 12, 38),
-(77, '4eb476a7-a569-4b6e-b0f1-7555a6733c2e', 'Test-community-amenity-description-77', 'name', 12, 38),
-(78, 'c67eff66-30b2-49c5-ae08-03cdde1e78ca', 'Test-community-amenity-description-78', 'name', 12, 39),
-(79, '8d795ee1-d688-4719-b509-51e7bc3a2b1d', 'Test-community-amenity-description-79', 'name', 12, 39),
-(80, 'a1105455-f1d9-4c0a-860d-c13d4d761a74', 'Test-community-amenity-description-80', 'name', 12, 40),
-(81, '0b68a02f-d082-4ce0-9d07-924c58686832', 'Test-community-amenity-description-81', 'name', 12, 40),
-(82, '7c018770-8132-429e-a5df-3df47d799e77', 'Test-community-amenity-description-82', 'name', 12, 41),
-(83, '530ed285-2658-40a8-84c1-6f141c98e594', 'Test-community-amenity-description-83', 'name', 12, 41),
-(84, 'b10f3e4b-fd29-4778-9815-85c990822c8b', 'Test-community-amenity-description-84', 'name', 12, 42),
-(85, '869a69be-73df-4825-86fc-e90e9b9d9187', 'Test-community-amenity-description-85', 'name', 12, 42),
-(86, '2e7bdbb4-04d2-43e4-af78-14a28982e997', 'Test-community-amenity-description-86', 'name', 12, 43),
-(87, 'cafc9f73-321b-47e9-9d8a-f7a6e09b6737', 'Test-community-amenity-description-87', 'name', 12, 43),
-(88, '09089eb8-ae25-4bfb-af7d-a76799989d3b', 'Test-community-amenity-description-88', 'name', 12, 44),
-(89, '2d02495c-c9ad-43c6-9aa7-59d3985226b7', 'Test-community-amenity-description-89', 'name', 12, 44),
-(90, '0c6972a3-eff8-408d-ab6c-8cc04539566f', 'Test-community-amenity-description-90', 'name', 12, 45),
-(91, '2cd1d115-f9e0-497d-aea0-74acad60cb62', 'Test-community-amenity-description-91', 'name', 12, 45),
-(92, '5e0c9dcf-2990-4ef4-8d48-aabfda01c835', 'Test-community-amenity-description-92', 'name', 12, 46),
-(93, '0c65426f-705f-4e97-ba2f-80015b4432f1', 'Test-community-amenity-description-93', 'name', 12, 46),
-(94, '0882655d-748c-40f9-a9a0-97ab18773298', 'Test-community-amenity-description-94', 'name', 12, 47),
-(95, '727d8a37-298e-4c50-b4a4-fef14bda3b16', 'Test-community-amenity-description-95', 'name', 12, 47),
-(96, '716a63d5-abbd-4370-9af9-8dff22a0a901', 'Test-community-amenity-description-96', 'name', 12, 48),
-(97, '386fdf41-3536-4f26-a96e-94fe5f2ad5ec', 'Test-community-amenity-description-97', 'name', 12, 48),
-(98, '9c2298af-6506-4d61-969b-ac2018d5cfde', 'Test-community-amenity-description-98', 'name', 12, 49),
-(99, 'ade9c4b3-4105-4e6e-a3a9-0abdded75b9c', 'Test-community-amenity-description-99', 'name', 12, 49),
-(100, '99bd016e-a128-4dd6-a5b2-0c518285a664', 'Test-community-amenity-description-100', 'name', 12, 50);
+INSERT INTO "PUBLIC"."AMENITY"("ID", "AMENITY_ID", "DESCRIPTION", "NAME", "PRICE", "COMMUNITY_ID", "VERSION") VALUES
+(0, '244282d9-d71b-4824-ae72-1f5d4f9b067c', 'default-amenity-description-for-testing', 'name', 12, 0, 0),
+(1, '672fb557-9cb7-45f8-815a-bb9b9c78ef4c', 'Test-community-amenity-description-1', 'name', 12, 0, 0),
+(2, '7b5a67d8-2ebe-48ee-82bd-17b65ddaab32', 'Test-community-amenity-description-2', 'name', 12, 1, 0),
+(3, 'f8874587-94e8-4de8-a3fb-9f946912ac1a', 'Test-community-amenity-description-3', 'name', 12, 1, 0),
+(4, '36675557-5b66-4e5a-a429-a841fcf8c2b3', 'Test-community-amenity-description-4', 'name', 12, 2, 0),
+(5, 'f1c5624c-ee82-48d3-8ff9-328a15e7a224', 'Test-community-amenity-description-5', 'name', 12, 2, 0),
+(6, '96cbc6cd-befe-40b4-927f-871808afd1be', 'Test-community-amenity-description-6', 'name', 12, 3, 0),
+(7, 'a0913ea9-7c9d-4a1f-b8a6-a02715776697', 'Test-community-amenity-description-7', 'name', 12, 3, 0),
+(8, '1611743c-bc88-4075-8a81-571e62931b1e', 'Test-community-amenity-description-8', 'name', 12, 4, 0),
+(9, 'ec1ca651-a75b-4a30-8b53-2247f0e5876f', 'Test-community-amenity-description-9', 'name', 12, 4, 0),
+(10, '43b69caf-8939-4e79-8106-d7d87c541f22', 'Test-community-amenity-description-10', 'name', 12, 5, 0),
+(11, '15a1141e-d73b-49bc-89f8-7f5e297797f7', 'Test-community-amenity-description-11', 'name', 12, 5, 0),
+(12, 'b58ee282-f10e-4b86-81b2-0da91c31c71a', 'Test-community-amenity-description-12', 'name', 12, 6, 0),
+(13, '3f121142-9f2f-45f8-9b90-0f2eb3afffba', 'Test-community-amenity-description-13', 'name', 12, 6, 0),
+(14, 'ac17f31b-16d9-44c0-91ba-59842c147d02', 'Test-community-amenity-description-14', 'name', 12, 7, 0),
+(15, '05a1a044-2248-4e35-8ef0-f3d81ee1feba', 'Test-community-amenity-description-15', 'name', 12, 7, 0),
+(16, 'edbb4c15-3a0a-4a0d-8a63-fc64c73a7287', 'Test-community-amenity-description-16', 'name', 12, 8, 0),
+(17, '80797425-ec66-4591-98ec-70635d8355e6', 'Test-community-amenity-description-17', 'name', 12, 8, 0),
+(18, '7996cbc5-bc9f-4422-aadf-6afefbe28596', 'Test-community-amenity-description-18', 'name', 12, 9, 0),
+(19, '4026e7ce-53fd-4390-a82b-c0af18b41e7d', 'Test-community-amenity-description-19', 'name', 12, 9, 0),
+(20, 'cd806ef8-fd5f-46df-a820-f494743b5f97', 'Test-community-amenity-description-20', 'name', 12, 10, 0),
+(21, 'e8d02cc3-94c7-49ea-9457-1eaaa929b619', 'Test-community-amenity-description-21', 'name', 12, 10, 0),
+(22, '3358c150-f278-4c22-ae09-fb98dc8f113c', 'Test-community-amenity-description-22', 'name', 12, 11, 0),
+(23, 'c1f9f5b7-6df2-4153-9530-c25287cda78b', 'Test-community-amenity-description-23', 'name', 12, 11, 0),
+(24, 'f4fcb828-bd58-4030-b531-5cebf5f52ed5', 'Test-community-amenity-description-24', 'name', 12, 12, 0),
+(25, '02575eb3-1c49-4bd5-9019-0c30de290bdc', 'Test-community-amenity-description-25', 'name', 12, 12, 0),
+(26, '3e600f00-1653-4fe9-a8d1-7d6ac2ed5eb3', 'Test-community-amenity-description-26', 'name', 12, 13, 0),
+(27, '1931439b-91b1-4d65-9fd6-b9bcb29e12e8', 'Test-community-amenity-description-27', 'name', 12, 13, 0),
+(28, '12e5f7f1-fcc2-4095-9ddc-734d70e49d01', 'Test-community-amenity-description-28', 'name', 12, 14, 0),
+(29, '822b1d3f-276d-4ae0-9c05-c394b14bfcbf', 'Test-community-amenity-description-29', 'name', 12, 14, 0),
+(30, '8c1edc3e-682e-4c96-961f-c187df990d7e', 'Test-community-amenity-description-30', 'name', 12, 15, 0),
+(31, '4f91bd7a-4787-43cc-8fc3-3c553320899d', 'Test-community-amenity-description-31', 'name', 12, 15, 0),
+(32, 'f483bb2e-36cb-4b00-af88-2bab5d42632f', 'Test-community-amenity-description-32', 'name', 12, 16, 0),
+(33, '8b8b0979-5642-4eba-8922-35e32d3683df', 'Test-community-amenity-description-33', 'name', 12, 16, 0),
+(34, 'e7f13fd1-2703-4771-8590-59fe0400a17e', 'Test-community-amenity-description-34', 'name', 12, 17, 0),
+(35, '9ab8faa8-e4b1-4e22-a8bc-7d7ec49a6285', 'Test-community-amenity-description-35', 'name', 12, 17, 0),
+(36, 'a95a1a2f-c512-4d43-a9b1-87bed1b9d3a3', 'Test-community-amenity-description-36', 'name', 12, 18, 0),
+(37, 'fb780df5-b319-42a5-bd1c-51b38415bab9', 'Test-community-amenity-description-37', 'name', 12, 18, 0),
+(38, 'c9a9c9ac-a792-41e4-a655-61d932db32d3', 'Test-community-amenity-description-38', 'name', 12, 19, 0),
+(39, 'b720c8b2-ea1c-4164-913f-e4f87da291f0', 'Test-community-amenity-description-39', 'name', 12, 19, 0),
+(40, 'b6cb7dc4-cf76-4ba7-a1bd-7d037eef0aaa', 'Test-community-amenity-description-40', 'name', 12, 20, 0),
+(41, '803afd89-036d-4a0c-876c-f9f15328d4d0', 'Test-community-amenity-description-41', 'name', 12, 20, 0),
+(42, '2ce60c88-2021-4763-9b70-3887a57609b0', 'Test-community-amenity-description-42', 'name', 12, 21, 0),
+(43, 'b63215bb-db0f-4c36-9a0f-91439b02afec', 'Test-community-amenity-description-43', 'name', 12, 21, 0),
+(44, 'fbeef0e7-a7ab-44a5-9bc0-c5181d2813b0', 'Test-community-amenity-description-44', 'name', 12, 22, 0),
+(45, '9035164d-acbd-423f-a411-dd264365b35b', 'Test-community-amenity-description-45', 'name', 12, 22, 0),
+(46, '3e819288-b38f-4dd3-8fad-10b4002d82af', 'Test-community-amenity-description-46', 'name', 12, 23, 0),
+(47, '511cf42b-b33b-46ed-a8dc-48ed872007b6', 'Test-community-amenity-description-47', 'name', 12, 23, 0),
+(48, '7a20b7e8-d3d7-4223-8fe4-640f2f224373', 'Test-community-amenity-description-48', 'name', 12, 24, 0),
+(49, '6e4b286e-3b87-4942-8311-9f686d6c8ae3', 'Test-community-amenity-description-49', 'name', 12, 24, 0),
+(50, 'e5b997ee-6c25-4245-9abe-3c2f22e23703', 'Test-community-amenity-description-50', 'name', 12, 25, 0);
+INSERT INTO "PUBLIC"."AMENITY"("ID", "AMENITY_ID", "DESCRIPTION", "NAME", "PRICE", "COMMUNITY_ID", "VERSION") VALUES
+(51, 'd16b617e-14e5-4fc7-ae17-730e0e86c679', 'Test-community-amenity-description-51', 'name', 12, 25, 0),
+(52, 'ed37e808-e65c-489b-808b-dfce39a7b1fb', 'Test-community-amenity-description-52', 'name', 12, 26, 0),
+(53, '19107110-c66e-4ff3-b56b-3a39e4c4fab2', 'Test-community-amenity-description-53', 'name', 12, 26, 0),
+(54, '43cca55e-90d4-4364-b95b-72eef55400ac', 'Test-community-amenity-description-54', 'name', 12, 27, 0),
+(55, '1d0fa384-e39f-459c-ba29-a1c4b2cf76b2', 'Test-community-amenity-description-55', 'name', 12, 27, 0),
+(56, 'a19c6be9-237c-41f0-9149-4ee995b9c39d', 'Test-community-amenity-description-56', 'name', 12, 28, 0),
+(57, '397f1f37-c053-4ce6-a8ef-e533ce332495', 'Test-community-amenity-description-57', 'name', 12, 28, 0),
+(58, '61a1ac1d-2492-4735-948c-2f99d7b82dc5', 'Test-community-amenity-description-58', 'name', 12, 29, 0),
+(59, '7a558512-c3e2-451d-be64-f40e4b757bce', 'Test-community-amenity-description-59', 'name', 12, 29, 0),
+(60, '2e7cfaef-d4ca-4647-addb-2c038d618052', 'Test-community-amenity-description-60', 'name', 12, 30, 0),
+(61, 'decd88de-e8e1-4b93-bbae-b2955d6f8de1', 'Test-community-amenity-description-61', 'name', 12, 30, 0),
+(62, 'b95b373d-7401-4241-910e-d8ac8ee092fd', 'Test-community-amenity-description-62', 'name', 12, 31, 0),
+(63, '4d01e0b2-82d1-43cd-9304-61e320e6a661', 'Test-community-amenity-description-63', 'name', 12, 31, 0),
+(64, 'adbbee69-95ae-40a0-a69a-2e8bf862408a', 'Test-community-amenity-description-64', 'name', 12, 32, 0),
+(65, '3b0b428f-1ab1-4434-b7f2-b65f39891b47', 'Test-community-amenity-description-65', 'name', 12, 32, 0),
+(66, '862dedcc-3bf6-4cc1-a3b6-a04263bf635a', 'Test-community-amenity-description-66', 'name', 12, 33, 0),
+(67, 'e7a2efeb-8ab6-458c-88cd-4430dcbc0265', 'Test-community-amenity-description-67', 'name', 12, 33, 0),
+(68, 'd42272dd-6f9f-408e-aeca-24afacda5489', 'Test-community-amenity-description-68', 'name', 12, 34, 0),
+(69, 'c1cb193a-6088-4f1e-b475-93ceaa5001b8', 'Test-community-amenity-description-69', 'name', 12, 34, 0),
+(70, 'ab21a642-6def-43d8-a717-1cee29e22754', 'Test-community-amenity-description-70', 'name', 12, 35, 0),
+(71, '14fc7029-6052-4eb3-a391-54c16beee080', 'Test-community-amenity-description-71', 'name', 12, 35, 0),
+(72, 'a484c786-3a51-45d2-bd5c-2272750beac6', 'Test-community-amenity-description-72', 'name', 12, 36, 0),
+(73, 'b3d64c22-4424-449e-b12d-a25ccf748717', 'Test-community-amenity-description-73', 'name', 12, 36, 0),
+(74, 'd21835d8-b900-4c29-9854-cf2a78a4fb34', 'Test-community-amenity-description-74', 'name', 12, 37, 0),
+(75, '20311bc3-f128-4f3d-9b0f-cdd62c938353', 'Test-community-amenity-description-75', 'name', 12, 37, 0),
+(76, 'af7d0c0a-879d-4b8d-bf80-e0dc0a9caddd', 'Test-community-amenity-description-76', 'name', 12, 38, 0),
+(77, '4eb476a7-a569-4b6e-b0f1-7555a6733c2e', 'Test-community-amenity-description-77', 'name', 12, 38, 0),
+(78, 'c67eff66-30b2-49c5-ae08-03cdde1e78ca', 'Test-community-amenity-description-78', 'name', 12, 39, 0),
+(79, '8d795ee1-d688-4719-b509-51e7bc3a2b1d', 'Test-community-amenity-description-79', 'name', 12, 39, 0),
+(80, 'a1105455-f1d9-4c0a-860d-c13d4d761a74', 'Test-community-amenity-description-80', 'name', 12, 40, 0),
+(81, '0b68a02f-d082-4ce0-9d07-924c58686832', 'Test-community-amenity-description-81', 'name', 12, 40, 0),
+(82, '7c018770-8132-429e-a5df-3df47d799e77', 'Test-community-amenity-description-82', 'name', 12, 41, 0),
+(83, '530ed285-2658-40a8-84c1-6f141c98e594', 'Test-community-amenity-description-83', 'name', 12, 41, 0),
+(84, 'b10f3e4b-fd29-4778-9815-85c990822c8b', 'Test-community-amenity-description-84', 'name', 12, 42, 0),
+(85, '869a69be-73df-4825-86fc-e90e9b9d9187', 'Test-community-amenity-description-85', 'name', 12, 42, 0),
+(86, '2e7bdbb4-04d2-43e4-af78-14a28982e997', 'Test-community-amenity-description-86', 'name', 12, 43, 0),
+(87, 'cafc9f73-321b-47e9-9d8a-f7a6e09b6737', 'Test-community-amenity-description-87', 'name', 12, 43, 0),
+(88, '09089eb8-ae25-4bfb-af7d-a76799989d3b', 'Test-community-amenity-description-88', 'name', 12, 44, 0),
+(89, '2d02495c-c9ad-43c6-9aa7-59d3985226b7', 'Test-community-amenity-description-89', 'name', 12, 44, 0),
+(90, '0c6972a3-eff8-408d-ab6c-8cc04539566f', 'Test-community-amenity-description-90', 'name', 12, 45, 0),
+(91, '2cd1d115-f9e0-497d-aea0-74acad60cb62', 'Test-community-amenity-description-91', 'name', 12, 45, 0),
+(92, '5e0c9dcf-2990-4ef4-8d48-aabfda01c835', 'Test-community-amenity-description-92', 'name', 12, 46, 0),
+(93, '0c65426f-705f-4e97-ba2f-80015b4432f1', 'Test-community-amenity-description-93', 'name', 12, 46, 0),
+(94, '0882655d-748c-40f9-a9a0-97ab18773298', 'Test-community-amenity-description-94', 'name', 12, 47, 0),
+(95, '727d8a37-298e-4c50-b4a4-fef14bda3b16', 'Test-community-amenity-description-95', 'name', 12, 47, 0),
+(96, '716a63d5-abbd-4370-9af9-8dff22a0a901', 'Test-community-amenity-description-96', 'name', 12, 48, 0),
+(97, '386fdf41-3536-4f26-a96e-94fe5f2ad5ec', 'Test-community-amenity-description-97', 'name', 12, 48, 0),
+(98, '9c2298af-6506-4d61-969b-ac2018d5cfde', 'Test-community-amenity-description-98', 'name', 12, 49, 0),
+(99, 'ade9c4b3-4105-4e6e-a3a9-0abdded75b9c', 'Test-community-amenity-description-99', 'name', 12, 49, 0),
+(100, '99bd016e-a128-4dd6-a5b2-0c518285a664', 'Test-community-amenity-description-100', 'name', 12, 50, 0);
 
 
 INSERT INTO "PUBLIC"."USER"("ID", "EMAIL", "ENCRYPTED_PASSWORD", "NAME", "USER_ID", "EMAIL_CONFIRMED") VALUES
@@ -11403,4 +11403,25 @@ INSERT INTO "PUBLIC"."COMMUNITY_HOUSE_HOUSE_MEMBERS"("COMMUNITY_HOUSE_ID", "HOUS
 (436, 4999);
 INSERT INTO "PUBLIC"."AMENITY_BOOKING_ITEM"("ID","AMENITY_BOOKING_ITEM_ID", "BOOKING_START_DATE","BOOKING_END_DATE","AMENITY_ID","BOOKING_USER_ID") VALUES
 (0, '7f8c2547-fcd5-42fe-8fcb-32c4d5a55c5d', '2020-10-10 10:00', '2020-10-10 10:30', 1, 0),
-(1, 'f71ea3a1-fe94-4f73-9d5d-6e830df42c5e', '2020-10-10 10:30', '2020-10-10 11:00', 0, 1);
\ No newline at end of file
+(1, 'f71ea3a1-fe94-4f73-9d5d-6e830df42c5e', '2020-10-10 10:30', '2020-10-10 11:00', 0, 1);
+INSERT INTO "PUBLIC"."AMENITY_OCCUPANCY"("ID","AMENITY_ID","GRANULARITY","BUCKET_START","BOOKING_COUNT","BOOKED_MINUTES") VALUES
+(0, 1, 'HOUR', '2020-10-10 10:00', 1, 30),
+(1, 1, 'DAY', '2020-10-10 00:00', 1, 30),
+(2, 0, 'HOUR', '2020-10-10 10:00', 1, 30),
+(3, 0, 'DAY', '2020-10-10 00:00', 1, 30);
+INSERT INTO "PUBLIC"."COMMUNITY_PRICING_RULE"("ID","COMMUNITY_ID","TYPE","DAY_OF_WEEK","START_TIME","END_TIME","MULTIPLIER") VALUES
+(0, 0, 'PEAK_HOURS', NULL, '17:00', '21:00', 1.5),
+(1, 0, 'PEAK_HOURS', 'SATURDAY', '09:00', '13:00', 1.25),
+(2, 0, 'MEMBER_DISCOUNT', NULL, NULL, NULL, 0.9);
+
+-- Identifiers are generated from per-entity pooled sequences, so every sequence has to
+-- continue after the highest identifier inserted above.
+ALTER SEQUENCE "PUBLIC"."COMMUNITY_SEQ" RESTART WITH 51;
+ALTER SEQUENCE "PUBLIC"."AMENITY_SEQ" RESTART WITH 101;
+ALTER SEQUENCE "PUBLIC"."USER_SEQ" RESTART WITH 51;
+ALTER SEQUENCE "PUBLIC"."SECURITY_TOKEN_SEQ" RESTART WITH 52;
+ALTER SEQUENCE "PUBLIC"."COMMUNITY_HOUSE_SEQ" RESTART WITH 501;
+ALTER SEQUENCE "PUBLIC"."HOUSE_MEMBER_SEQ" RESTART WITH 5001;
+ALTER SEQUENCE "PUBLIC"."AMENITY_BOOKING_ITEM_SEQ" RESTART WITH 2;
+ALTER SEQUENCE "PUBLIC"."AMENITY_OCCUPANCY_SEQ" RESTART WITH 4;
+ALTER SEQUENCE "PUBLIC"."COMMUNITY_PRICING_RULE_SEQ" RESTART WITH 3;
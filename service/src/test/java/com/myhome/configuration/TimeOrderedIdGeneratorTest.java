@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeOrderedIdGeneratorTest {
+
+  private static final long EPOCH_MILLIS = 1_600_000_000_000L;
+
+  @Test
+  void shouldEncodeVersionVariantAndTimestamp() {
+    // when
+    UUID uuid = TimeOrderedIdGenerator.of(EPOCH_MILLIS, -1L, -1L);
+
+    // then
+    assertThat(uuid.version()).isEqualTo(7);
+    assertThat(uuid.variant()).isEqualTo(2);
+    assertThat(uuid.getMostSignificantBits() >>> 16).isEqualTo(EPOCH_MILLIS);
+  }
+
+  @Test
+  void shouldOrderByCreationTime() {
+    // given
+    AtomicLong clock = new AtomicLong(EPOCH_MILLIS);
+    TimeOrderedIdGenerator idGenerator = new TimeOrderedIdGenerator(clock::getAndIncrement);
+
+    // when
+    List<String> generated = IntStream.range(0, 100)
+        .mapToObj(index -> idGenerator.generateId().toString())
+        .collect(Collectors.toList());
+
+    // then
+    assertThat(generated).isSorted();
+  }
+
+  @Test
+  void shouldStayMonotonicWithinOneMillisecond() {
+    // given
+    TimeOrderedIdGenerator idGenerator = new TimeOrderedIdGenerator(() -> EPOCH_MILLIS);
+
+    // when
+    List<UUID> generated = IntStream.range(0, 10_000)
+        .mapToObj(index -> idGenerator.generateId())
+        .collect(Collectors.toList());
+
+    // then
+    assertThat(generated).isSorted().doesNotHaveDuplicates();
+    assertThat(generated).allSatisfy(uuid -> assertThat(uuid.version()).isEqualTo(7));
+  }
+
+  @Test
+  void shouldStayMonotonicWhenClockGoesBackwards() {
+    // given
+    AtomicLong clock = new AtomicLong(EPOCH_MILLIS);
+    TimeOrderedIdGenerator idGenerator = new TimeOrderedIdGenerator(clock::get);
+    UUID beforeClockChange = idGenerator.generateId();
+    clock.set(EPOCH_MILLIS - 1000);
+
+    // when
+    UUID afterClockChange = idGenerator.generateId();
+
+    // then
+    assertThat(afterClockChange).isGreaterThan(beforeClockChange);
+  }
+
+  @Test
+  void shouldGenerateUniqueIdsOnParallelThreads() throws Exception {
+    // given
+    TimeOrderedIdGenerator idGenerator = new TimeOrderedIdGenerator();
+    Set<UUID> generated = ConcurrentHashMap.newKeySet();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    List<Future<?>> tasks = new ArrayList<>();
+
+    // when
+    try {
+      IntStream.range(0, 8).forEach(thread -> tasks.add(executor.submit(() ->
+          IntStream.range(0, 10_000).forEach(index -> generated.add(idGenerator.generateId())))));
+      for (Future<?> task : tasks) {
+        task.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    // then
+    assertThat(generated).hasSize(80_000);
+  }
+}
@@ -27,6 +27,7 @@ import com.myhome.services.AmenityService;
 import java.math.BigDecimal;
 import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -38,9 +39,7 @@ import org.springframework.http.ResponseEntity;
 import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 /**
@@ -134,10 +133,8 @@ class AmenityControllerTest {
         .amenityId(testAmenity.getAmenityId())
         .description(testAmenity.getDescription());
 
-    given(amenitySDJpaService.getAmenityDetails(TEST_AMENITY_ID))
-        .willReturn(Optional.of(testAmenity));
-    given(amenityApiMapper.amenityToAmenityDetailsResponse(testAmenity))
-        .willReturn(expectedResponseBody);
+    given(amenitySDJpaService.findAmenityDetails(TEST_AMENITY_ID))
+        .willReturn(Optional.of(expectedResponseBody));
 
     // when
     ResponseEntity<GetAmenityDetailsResponse> response =
@@ -146,8 +143,7 @@ class AmenityControllerTest {
     // then
     assertEquals(expectedResponseBody, response.getBody());
     assertEquals(HttpStatus.OK, response.getStatusCode());
-    verify(amenitySDJpaService).getAmenityDetails(TEST_AMENITY_ID);
-    verify(amenityApiMapper).amenityToAmenityDetailsResponse(testAmenity);
+    verify(amenitySDJpaService).findAmenityDetails(TEST_AMENITY_ID);
   }
 
   /**
@@ -159,7 +155,7 @@ class AmenityControllerTest {
   @Test
   void getAmenityDetailsNotExists() {
     // given
-    given(amenitySDJpaService.getAmenityDetails(TEST_AMENITY_ID))
+    given(amenitySDJpaService.findAmenityDetails(TEST_AMENITY_ID))
         .willReturn(Optional.empty());
 
     // when
@@ -169,8 +165,31 @@ class AmenityControllerTest {
     // then
     assertNull(response.getBody());
     assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-    verify(amenitySDJpaService).getAmenityDetails(TEST_AMENITY_ID);
-    verify(amenityApiMapper, never()).amenityToAmenityDetailsResponse(any());
+    verify(amenitySDJpaService).findAmenityDetails(TEST_AMENITY_ID);
+  }
+
+  /**
+   * returns the cached amenity catalog of a community as the response body.
+   */
+  @Test
+  void listAllAmenities() {
+    // given
+    Set<GetAmenityDetailsResponse> expectedResponseBody = new HashSet<>(singletonList(
+        new GetAmenityDetailsResponse()
+            .amenityId(TEST_AMENITY_ID)
+            .description(TEST_AMENITY_DESCRIPTION)));
+
+    given(amenitySDJpaService.listAmenityCatalog(TEST_COMMUNITY_ID))
+        .willReturn(expectedResponseBody);
+
+    // when
+    ResponseEntity<Set<GetAmenityDetailsResponse>> response =
+        amenityController.listAllAmenities(TEST_COMMUNITY_ID);
+
+    // then
+    assertEquals(expectedResponseBody, response.getBody());
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    verify(amenitySDJpaService).listAmenityCatalog(TEST_COMMUNITY_ID);
   }
 
   /**
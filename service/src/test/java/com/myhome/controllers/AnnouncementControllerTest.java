@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.controllers;
+
+import com.myhome.domain.Announcement;
+import com.myhome.domain.AnnouncementStatus;
+import com.myhome.domain.Community;
+import com.myhome.model.AnnouncementResponse;
+import com.myhome.model.CreateAnnouncementRequest;
+import com.myhome.services.AnnouncementService;
+import java.net.URI;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.BDDMockito.given;
+
+class AnnouncementControllerTest {
+
+  private static final String COMMUNITY_ID = "test-community-id";
+  private static final String ANNOUNCEMENT_ID = "test-announcement-id";
+  private static final String SUBJECT = "Water outage";
+  private static final String MESSAGE = "No water on Monday";
+
+  private final CreateAnnouncementRequest request =
+      new CreateAnnouncementRequest().subject(SUBJECT).message(MESSAGE);
+
+  @Mock
+  private AnnouncementService announcementService;
+
+  @InjectMocks
+  private AnnouncementController announcementController;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.initMocks(this);
+  }
+
+  @Test
+  void announceToCommunity() {
+    // given
+    given(announcementService.announceToCommunity(COMMUNITY_ID, SUBJECT, MESSAGE))
+        .willReturn(Optional.of(announcement(new Community().withCommunityId(COMMUNITY_ID))));
+
+    // when
+    ResponseEntity<AnnouncementResponse> response =
+        announcementController.announceToCommunity(COMMUNITY_ID, request);
+
+    // then
+    assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+    assertEquals(URI.create("/communities/" + COMMUNITY_ID + "/announcements/" + ANNOUNCEMENT_ID),
+        response.getHeaders().getLocation());
+    assertEquals(ANNOUNCEMENT_ID, response.getBody().getAnnouncementId());
+    assertEquals(COMMUNITY_ID, response.getBody().getCommunityId());
+    assertEquals(com.myhome.model.AnnouncementStatus.SENDING, response.getBody().getStatus());
+    assertEquals(10L, response.getBody().getRecipients().longValue());
+  }
+
+  @Test
+  void announceToCommunityNotExists() {
+    // given
+    given(announcementService.announceToCommunity(COMMUNITY_ID, SUBJECT, MESSAGE))
+        .willReturn(Optional.empty());
+
+    // when
+    ResponseEntity<AnnouncementResponse> response =
+        announcementController.announceToCommunity(COMMUNITY_ID, request);
+
+    // then
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    assertNull(response.getBody());
+  }
+
+  @Test
+  void getAnnouncementNotExists() {
+    // given
+    given(announcementService.getAnnouncement(COMMUNITY_ID, ANNOUNCEMENT_ID))
+        .willReturn(Optional.empty());
+
+    // when
+    ResponseEntity<AnnouncementResponse> response =
+        announcementController.getAnnouncement(COMMUNITY_ID, ANNOUNCEMENT_ID);
+
+    // then
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+  }
+
+  private Announcement announcement(Community community) {
+    return new Announcement()
+        .withAnnouncementId(ANNOUNCEMENT_ID)
+        .withCommunity(community)
+        .withStatus(AnnouncementStatus.SENDING)
+        .withRecipientCount(10L);
+  }
+}
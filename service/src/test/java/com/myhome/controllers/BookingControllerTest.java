@@ -1,6 +1,29 @@
 package com.myhome.controllers;
 
+import com.myhome.domain.AmenityBookingItem;
+import com.myhome.domain.AmenityOccupancy;
+import com.myhome.domain.CommunityPricingRule;
+import com.myhome.domain.OccupancyGranularity;
+import com.myhome.domain.PricingRuleType;
+import com.myhome.model.AmenityOccupancyGranularity;
+import com.myhome.model.AmenityQuoteRequest;
+import com.myhome.model.AmenityQuoteResponse;
+import com.myhome.model.BookingSlot;
+import com.myhome.model.CancelAmenityBookingsResponse;
+import com.myhome.model.CreateAmenityBookingRequest;
+import com.myhome.model.CreateAmenityBookingResponse;
+import com.myhome.model.GetAmenityOccupancyResponse;
+import com.myhome.services.AmenityOccupancyService;
+import com.myhome.services.AmenityPricingService;
 import com.myhome.services.BookingService;
+import com.myhome.services.pricing.AmenityPriceTable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -13,6 +36,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 /**
  * TODO
@@ -21,9 +45,15 @@ public class BookingControllerTest {
 
   private final String TEST_AMENITY_ID = "test-amenity-id";
   private static final String TEST_BOOKING_ID = "test-booking-id";
+  private static final LocalDateTime TEST_START_DATE = LocalDateTime.of(2020, 10, 10, 8, 0);
+  private static final LocalDateTime TEST_END_DATE = LocalDateTime.of(2020, 10, 10, 18, 0);
 
   @Mock
   private BookingService bookingSDJpaService;
+  @Mock
+  private AmenityOccupancyService amenityOccupancyService;
+  @Mock
+  private AmenityPricingService amenityPricingService;
 
   @InjectMocks
   private BookingController bookingController;
@@ -79,4 +109,245 @@ public class BookingControllerTest {
     assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     verify(bookingSDJpaService).deleteBooking(TEST_AMENITY_ID, TEST_BOOKING_ID);
   }
+
+  /**
+   * cancels bookings of an amenity in a period and returns the number of cancelled
+   * bookings in the response body.
+   */
+  @Test
+  void cancelAmenityBookings() {
+    // given
+    given(bookingSDJpaService.cancelAmenityBookings(TEST_AMENITY_ID, TEST_START_DATE,
+        TEST_END_DATE))
+        .willReturn(2);
+
+    // when
+    ResponseEntity<CancelAmenityBookingsResponse> response =
+        bookingController.cancelAmenityBookings(TEST_AMENITY_ID,
+            toOffsetDateTime(TEST_START_DATE), toOffsetDateTime(TEST_END_DATE));
+
+    // then
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(2, response.getBody().getCancelledBookings());
+    verify(bookingSDJpaService).cancelAmenityBookings(TEST_AMENITY_ID, TEST_START_DATE,
+        TEST_END_DATE);
+  }
+
+  /**
+   * verifies that a reversed period is rejected without calling the service.
+   */
+  @Test
+  void cancelAmenityBookingsInvalidPeriod() {
+    // when
+    ResponseEntity<CancelAmenityBookingsResponse> response =
+        bookingController.cancelAmenityBookings(TEST_AMENITY_ID,
+            toOffsetDateTime(TEST_END_DATE), toOffsetDateTime(TEST_START_DATE));
+
+    // then
+    assertNull(response.getBody());
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    verifyNoInteractions(bookingSDJpaService);
+  }
+
+  /**
+   * books an amenity and returns the ID of the created booking.
+   */
+  @Test
+  void createAmenityBooking() {
+    // given
+    CreateAmenityBookingRequest request = new CreateAmenityBookingRequest()
+        .bookingStartDate(toOffsetDateTime(TEST_START_DATE))
+        .bookingEndDate(toOffsetDateTime(TEST_END_DATE));
+    given(bookingSDJpaService.createBooking(TEST_AMENITY_ID, TEST_START_DATE, TEST_END_DATE))
+        .willReturn(Optional.of(new AmenityBookingItem().withAmenityBookingItemId(TEST_BOOKING_ID)));
+
+    // when
+    ResponseEntity<CreateAmenityBookingResponse> response =
+        bookingController.createAmenityBooking(TEST_AMENITY_ID, request);
+
+    // then
+    assertEquals(HttpStatus.CREATED, response.getStatusCode());
+    assertEquals(TEST_BOOKING_ID, response.getBody().getBookingId());
+  }
+
+  /**
+   * verifies that booking an amenity which does not exist returns NOT_FOUND.
+   */
+  @Test
+  void createAmenityBookingAmenityNotExists() {
+    // given
+    CreateAmenityBookingRequest request = new CreateAmenityBookingRequest()
+        .bookingStartDate(toOffsetDateTime(TEST_START_DATE))
+        .bookingEndDate(toOffsetDateTime(TEST_END_DATE));
+    given(bookingSDJpaService.createBooking(TEST_AMENITY_ID, TEST_START_DATE, TEST_END_DATE))
+        .willReturn(Optional.empty());
+
+    // when
+    ResponseEntity<CreateAmenityBookingResponse> response =
+        bookingController.createAmenityBooking(TEST_AMENITY_ID, request);
+
+    // then
+    assertNull(response.getBody());
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+  }
+
+  /**
+   * verifies that a reversed booking period is rejected without calling the service.
+   */
+  @Test
+  void createAmenityBookingInvalidPeriod() {
+    // given
+    CreateAmenityBookingRequest request = new CreateAmenityBookingRequest()
+        .bookingStartDate(toOffsetDateTime(TEST_END_DATE))
+        .bookingEndDate(toOffsetDateTime(TEST_START_DATE));
+
+    // when
+    ResponseEntity<CreateAmenityBookingResponse> response =
+        bookingController.createAmenityBooking(TEST_AMENITY_ID, request);
+
+    // then
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    verifyNoInteractions(bookingSDJpaService);
+  }
+
+  /**
+   * returns the occupancy rollups of an amenity within a period.
+   */
+  @Test
+  void getAmenityOccupancy() {
+    // given
+    AmenityOccupancy occupancy =
+        new AmenityOccupancy(null, OccupancyGranularity.HOUR, TEST_START_DATE, 2, 90);
+    given(amenityOccupancyService.getOccupancy(TEST_AMENITY_ID, OccupancyGranularity.HOUR,
+        TEST_START_DATE, TEST_END_DATE))
+        .willReturn(Collections.singletonList(occupancy));
+
+    // when
+    ResponseEntity<GetAmenityOccupancyResponse> response =
+        bookingController.getAmenityOccupancy(TEST_AMENITY_ID, AmenityOccupancyGranularity.HOUR,
+            toOffsetDateTime(TEST_START_DATE), toOffsetDateTime(TEST_END_DATE));
+
+    // then
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(1, response.getBody().getOccupancy().size());
+    assertEquals(toOffsetDateTime(TEST_START_DATE),
+        response.getBody().getOccupancy().get(0).getBucketStart());
+    assertEquals(2L, response.getBody().getOccupancy().get(0).getBookingCount());
+    assertEquals(90L, response.getBody().getOccupancy().get(0).getBookedMinutes());
+  }
+
+  /**
+   * verifies that a reversed occupancy period is rejected without reading the rollups.
+   */
+  @Test
+  void getAmenityOccupancyInvalidPeriod() {
+    // when
+    ResponseEntity<GetAmenityOccupancyResponse> response =
+        bookingController.getAmenityOccupancy(TEST_AMENITY_ID, AmenityOccupancyGranularity.DAY,
+            toOffsetDateTime(TEST_END_DATE), toOffsetDateTime(TEST_START_DATE));
+
+    // then
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    verifyNoInteractions(amenityOccupancyService);
+  }
+
+  /**
+   * quotes every requested slot from the price table of the amenity and sums up the
+   * slot prices.
+   */
+  @Test
+  void quoteAmenityBookings() {
+    // given
+    AmenityQuoteRequest request = new AmenityQuoteRequest()
+        .slots(Arrays.asList(
+            getTestSlot(TEST_START_DATE, TEST_START_DATE.plusHours(1)),
+            getTestSlot(TEST_START_DATE.plusHours(2), TEST_START_DATE.plusHours(4))));
+    given(amenityPricingService.getPriceTable(TEST_AMENITY_ID))
+        .willReturn(Optional.of(
+            AmenityPriceTable.compile(BigDecimal.TEN, Collections.emptyList())));
+
+    // when
+    ResponseEntity<AmenityQuoteResponse> response =
+        bookingController.quoteAmenityBookings(TEST_AMENITY_ID, request);
+
+    // then
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(new BigDecimal("10.00"), response.getBody().getSlots().get(0).getPrice());
+    assertEquals(new BigDecimal("20.00"), response.getBody().getSlots().get(1).getPrice());
+    assertEquals(new BigDecimal("30.00"), response.getBody().getTotalPrice());
+  }
+
+  /**
+   * verifies that the member discount is applied when the authenticated user is a
+   * member of the community of the amenity, as decided by the pricing service.
+   */
+  @Test
+  void quoteAmenityBookingsForMember() {
+    // given
+    AmenityQuoteRequest request = new AmenityQuoteRequest()
+        .slots(Collections.singletonList(
+            getTestSlot(TEST_START_DATE, TEST_START_DATE.plusHours(1))));
+    given(amenityPricingService.getPriceTable(TEST_AMENITY_ID))
+        .willReturn(Optional.of(AmenityPriceTable.compile(BigDecimal.TEN,
+            Collections.singletonList(new CommunityPricingRule()
+                .withType(PricingRuleType.MEMBER_DISCOUNT)
+                .withMultiplier(new BigDecimal("0.9"))))));
+    given(amenityPricingService.isCurrentUserMember(TEST_AMENITY_ID)).willReturn(true);
+
+    // when
+    ResponseEntity<AmenityQuoteResponse> response =
+        bookingController.quoteAmenityBookings(TEST_AMENITY_ID, request);
+
+    // then
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(new BigDecimal("9.00"), response.getBody().getTotalPrice());
+  }
+
+  /**
+   * verifies that quoting an amenity which does not exist returns NOT_FOUND.
+   */
+  @Test
+  void quoteAmenityBookingsAmenityNotExists() {
+    // given
+    AmenityQuoteRequest request = new AmenityQuoteRequest()
+        .slots(Collections.singletonList(getTestSlot(TEST_START_DATE, TEST_END_DATE)));
+    given(amenityPricingService.getPriceTable(TEST_AMENITY_ID))
+        .willReturn(Optional.empty());
+
+    // when
+    ResponseEntity<AmenityQuoteResponse> response =
+        bookingController.quoteAmenityBookings(TEST_AMENITY_ID, request);
+
+    // then
+    assertNull(response.getBody());
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+  }
+
+  /**
+   * verifies that a reversed slot is rejected without loading the price table.
+   */
+  @Test
+  void quoteAmenityBookingsInvalidSlot() {
+    // given
+    AmenityQuoteRequest request = new AmenityQuoteRequest()
+        .slots(Collections.singletonList(getTestSlot(TEST_END_DATE, TEST_START_DATE)));
+
+    // when
+    ResponseEntity<AmenityQuoteResponse> response =
+        bookingController.quoteAmenityBookings(TEST_AMENITY_ID, request);
+
+    // then
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    verifyNoInteractions(amenityPricingService);
+  }
+
+  private BookingSlot getTestSlot(LocalDateTime startDate, LocalDateTime endDate) {
+    return new BookingSlot()
+        .startDate(toOffsetDateTime(startDate))
+        .endDate(toOffsetDateTime(endDate));
+  }
+
+  private OffsetDateTime toOffsetDateTime(LocalDateTime dateTime) {
+    return dateTime.atZone(ZoneId.systemDefault()).toOffsetDateTime();
+  }
 }
@@ -26,6 +26,7 @@ import com.myhome.model.AddCommunityAdminRequest;
 import com.myhome.model.AddCommunityAdminResponse;
 import com.myhome.model.AddCommunityHouseRequest;
 import com.myhome.model.AddCommunityHouseResponse;
+import com.myhome.model.CommunityExportFormat;
 import com.myhome.model.CommunityHouseName;
 import com.myhome.model.CreateCommunityRequest;
 import com.myhome.model.CreateCommunityResponse;
@@ -35,7 +36,10 @@ import com.myhome.model.GetHouseDetailsResponse;
 import com.myhome.model.GetHouseDetailsResponseCommunityHouse;
 import com.myhome.model.ListCommunityAdminsResponse;
 import com.myhome.model.ListCommunityAdminsResponseCommunityAdmin;
+import com.myhome.services.CommunityExportService;
 import com.myhome.services.CommunityService;
+import com.myhome.services.exports.CommunitySnapshotFormat;
+import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -49,7 +53,9 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -79,6 +85,9 @@ class CommunityControllerTest {
   @Mock
   private CommunityApiMapper communityApiMapper;
 
+  @Mock
+  private CommunityExportService communityExportService;
+
   @InjectMocks
   private CommunityController communityController;
 
@@ -730,6 +739,72 @@ class CommunityControllerTest {
     verify(communityService).deleteCommunity(COMMUNITY_ID);
   }
 
+  /**
+   * tests that an existing community is exported by streaming the snapshot written by
+   * the export service in the requested format.
+   */
+  @Test
+  void shouldExportCommunitySuccess() throws Exception {
+    // given
+    given(communityService.getCommunityDetailsById(COMMUNITY_ID))
+        .willReturn(Optional.of(createTestCommunity()));
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    // when
+    ResponseEntity<StreamingResponseBody> responseEntity =
+        communityController.exportCommunity(COMMUNITY_ID, CommunityExportFormat.NDJSON);
+    responseEntity.getBody().writeTo(output);
+
+    // then
+    assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+    assertEquals(MediaType.valueOf("application/x-ndjson"),
+        responseEntity.getHeaders().getContentType());
+    verify(communityExportService)
+        .exportCommunity(COMMUNITY_ID, CommunitySnapshotFormat.NDJSON, output);
+  }
+
+  /**
+   * tests that a community is exported as a single JSON document if no format is given.
+   */
+  @Test
+  void shouldExportCommunityAsJsonByDefault() throws Exception {
+    // given
+    given(communityService.getCommunityDetailsById(COMMUNITY_ID))
+        .willReturn(Optional.of(createTestCommunity()));
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    // when
+    ResponseEntity<StreamingResponseBody> responseEntity =
+        communityController.exportCommunity(COMMUNITY_ID, null);
+    responseEntity.getBody().writeTo(output);
+
+    // then
+    assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+    assertEquals(MediaType.APPLICATION_JSON, responseEntity.getHeaders().getContentType());
+    verify(communityExportService)
+        .exportCommunity(COMMUNITY_ID, CommunitySnapshotFormat.JSON, output);
+  }
+
+  /**
+   * tests that exporting a community which does not exist returns `HttpStatus.NOT_FOUND`
+   * without starting the export.
+   */
+  @Test
+  void shouldNotExportCommunityIfNotExists() {
+    // given
+    given(communityService.getCommunityDetailsById(COMMUNITY_ID))
+        .willReturn(Optional.empty());
+
+    // when
+    ResponseEntity<StreamingResponseBody> responseEntity =
+        communityController.exportCommunity(COMMUNITY_ID, CommunityExportFormat.JSON);
+
+    // then
+    assertEquals(HttpStatus.NOT_FOUND, responseEntity.getStatusCode());
+    assertNull(responseEntity.getBody());
+    verifyNoInteractions(communityExportService);
+  }
+
   /**
    * creates a new instance of `CommunityHouse` and sets its name, ID, and member set
    * to empty collections. It returns the created instance.
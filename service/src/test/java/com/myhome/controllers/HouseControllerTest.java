@@ -26,6 +26,7 @@ import com.myhome.model.GetHouseDetailsResponse;
 import com.myhome.model.GetHouseDetailsResponseCommunityHouse;
 import com.myhome.model.HouseMemberDto;
 import com.myhome.model.ListHouseMembersResponse;
+import com.myhome.repositories.projections.HouseMemberSummary;
 import com.myhome.services.HouseService;
 import helpers.TestUtils;
 import java.util.ArrayList;
@@ -170,7 +171,10 @@ class HouseControllerTest {
   @Test
   void listAllMembersOfHouse() {
     // given
-    Set<HouseMember> testHouseMembers = TestUtils.HouseMemberHelpers.getTestHouseMembers(TEST_HOUSE_MEMBERS_COUNT);
+    Set<HouseMemberSummary> testHouseMembers =
+        TestUtils.HouseMemberHelpers.getTestHouseMembers(TEST_HOUSE_MEMBERS_COUNT).stream()
+            .map(member -> new HouseMemberSummary(member.getMemberId(), member.getName()))
+            .collect(Collectors.toSet());
     Set<com.myhome.model.HouseMember> testHouseMemberDetails = testHouseMembers.stream()
         .map(member -> new com.myhome.model.HouseMember()
             .memberId(member.getMemberId())
@@ -182,7 +186,7 @@ class HouseControllerTest {
 
     given(houseService.getHouseMembersById(TEST_HOUSE_ID, null))
         .willReturn(Optional.of(new ArrayList<>(testHouseMembers)));
-    given(houseMemberMapper.houseMemberSetToRestApiResponseHouseMemberSet(
+    given(houseMemberMapper.houseMemberSummarySetToRestApiResponseHouseMemberSet(
         new HashSet<>(testHouseMembers)))
         .willReturn(testHouseMemberDetails);
 
@@ -194,7 +198,7 @@ class HouseControllerTest {
     assertEquals(HttpStatus.OK, response.getStatusCode());
     assertEquals(expectedResponseBody, response.getBody());
     verify(houseService).getHouseMembersById(TEST_HOUSE_ID, null);
-    verify(houseMemberMapper).houseMemberSetToRestApiResponseHouseMemberSet(
+    verify(houseMemberMapper).houseMemberSummarySetToRestApiResponseHouseMemberSet(
         new HashSet<>(testHouseMembers));
   }
 
@@ -216,7 +220,8 @@ class HouseControllerTest {
     assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     assertNull(response.getBody());
     verify(houseService).getHouseMembersById(TEST_HOUSE_ID, null);
-    verify(houseMemberMapper, never()).houseMemberSetToRestApiResponseHouseMemberSet(anySet());
+    verify(houseMemberMapper, never())
+        .houseMemberSummarySetToRestApiResponseHouseMemberSet(anySet());
   }
 
   /**
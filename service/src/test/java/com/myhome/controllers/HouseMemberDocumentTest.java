@@ -16,22 +16,49 @@
 
 package com.myhome.controllers;
 
+import com.myhome.domain.DocumentContent;
+import com.myhome.domain.DocumentSize;
+import com.myhome.domain.DocumentUploadStatus;
 import com.myhome.domain.HouseMemberDocument;
+import com.myhome.domain.HouseMemberDocumentUpload;
+import com.myhome.model.DocumentBatchUploadResponse;
+import com.myhome.model.DocumentUploadResponse;
+import com.myhome.model.MemberDocumentUploadResponse;
 import com.myhome.services.HouseMemberDocumentService;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.multipart.MultipartFile;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
  * TODO
@@ -39,11 +66,21 @@ import static org.mockito.Mockito.verify;
 class HouseMemberDocumentTest {
 
   private static final String MEMBER_ID = "test-member-id";
+  private static final String TEST_CONTENT_HASH =
+      "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
 
   private static final MockMultipartFile MULTIPART_FILE =
       new MockMultipartFile("memberDocument", new byte[0]);
   private static final HouseMemberDocument MEMBER_DOCUMENT =
-      new HouseMemberDocument(MULTIPART_FILE.getName(), new byte[0]);
+      new HouseMemberDocument(MULTIPART_FILE.getName(), TEST_CONTENT_HASH, 0,
+          MediaType.IMAGE_JPEG_VALUE);
+
+  private static final String UPLOAD_ID = "test-upload-id";
+  private static final HouseMemberDocumentUpload DOCUMENT_UPLOAD = new HouseMemberDocumentUpload()
+      .withUploadId(UPLOAD_ID)
+      .withStatus(DocumentUploadStatus.PROCESSING);
+  private static final byte[] DOCUMENT_CONTENT =
+      "0123456789".getBytes(StandardCharsets.US_ASCII);
 
   @Mock
   private HouseMemberDocumentService houseMemberDocumentService;
@@ -67,18 +104,50 @@ class HouseMemberDocumentTest {
   @Test
   void shouldGetDocumentSuccess() {
     // given
+    Resource documentContent = new ByteArrayResource(new byte[0]);
     given(houseMemberDocumentService.findHouseMemberDocument(MEMBER_ID))
         .willReturn(Optional.of(MEMBER_DOCUMENT));
+    given(houseMemberDocumentService.getDocumentContent(MEMBER_DOCUMENT, DocumentSize.FULL))
+        .willReturn(documentContent);
     // when
-    ResponseEntity<byte[]> responseEntity =
-        houseMemberDocumentController.getHouseMemberDocument(MEMBER_ID);
+    ResponseEntity<Resource> responseEntity =
+        houseMemberDocumentController.getHouseMemberDocument(MEMBER_ID, null);
     //then
     assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
-    assertEquals(MEMBER_DOCUMENT.getDocumentContent(), responseEntity.getBody());
+    assertEquals(documentContent, responseEntity.getBody());
     assertEquals(MediaType.IMAGE_JPEG, responseEntity.getHeaders().getContentType());
+    assertEquals("\"" + TEST_CONTENT_HASH + "\"", responseEntity.getHeaders().getETag());
+    assertEquals("no-cache, private", responseEntity.getHeaders().getCacheControl());
     verify(houseMemberDocumentService).findHouseMemberDocument(MEMBER_ID);
   }
 
+  /**
+   * verifies that a thumbnail of the document is streamed when a smaller size is
+   * requested, with the content hash of the thumbnail as its ETag.
+   */
+  @Test
+  void shouldGetDocumentThumbnail() {
+    // given
+    String thumbnailContentHash =
+        "6b86b273ff34fce19d6b804eff5a3f5747ada4eaa22f1d49c01e52ddb7875b4b";
+    HouseMemberDocument document = new HouseMemberDocument(MULTIPART_FILE.getName(),
+        TEST_CONTENT_HASH, 0, MediaType.IMAGE_JPEG_VALUE);
+    document.setThumbnail(DocumentSize.SMALL, new DocumentContent(thumbnailContentHash, 1L));
+    Resource thumbnailContent = new ByteArrayResource(new byte[1]);
+    given(houseMemberDocumentService.findHouseMemberDocument(MEMBER_ID))
+        .willReturn(Optional.of(document));
+    given(houseMemberDocumentService.getDocumentContent(document, DocumentSize.SMALL))
+        .willReturn(thumbnailContent);
+    // when
+    ResponseEntity<Resource> responseEntity =
+        houseMemberDocumentController.getHouseMemberDocument(MEMBER_ID,
+            com.myhome.model.DocumentSize.SMALL);
+    //then
+    assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+    assertEquals(thumbnailContent, responseEntity.getBody());
+    assertEquals("\"" + thumbnailContentHash + "\"", responseEntity.getHeaders().getETag());
+  }
+
   /**
    * verifies that the `getHouseMemberDocument` method returns a `HttpStatus.NOT_FOUND`
    * response when the document for a given member cannot be found in the service.
@@ -89,28 +158,69 @@ class HouseMemberDocumentTest {
     given(houseMemberDocumentService.findHouseMemberDocument(MEMBER_ID))
         .willReturn(Optional.empty());
     // when
-    ResponseEntity<byte[]> responseEntity =
-        houseMemberDocumentController.getHouseMemberDocument(MEMBER_ID);
+    ResponseEntity<Resource> responseEntity =
+        houseMemberDocumentController.getHouseMemberDocument(MEMBER_ID,
+            com.myhome.model.DocumentSize.FULL);
     //then
     assertEquals(HttpStatus.NOT_FOUND, responseEntity.getStatusCode());
     verify(houseMemberDocumentService).findHouseMemberDocument(MEMBER_ID);
   }
 
   /**
-   * tests the `uploadHouseMemberDocument` method by verifying that it returns a
-   * `NO_CONTENT` status code and calls the underlying `createHouseMemberDocument`
+   * verifies that a request carrying the ETag of the current document is answered with
+   * `304 Not Modified` and no content.
+   */
+  @Test
+  void shouldGetDocumentNotModified() throws Exception {
+    // given
+    givenDocumentContent(DOCUMENT_CONTENT);
+    MockMvc mockMvc = MockMvcBuilders.standaloneSetup(houseMemberDocumentController).build();
+    // when and then
+    mockMvc.perform(get("/members/{memberId}/documents", MEMBER_ID)
+        .header(HttpHeaders.IF_NONE_MATCH, "\"" + TEST_CONTENT_HASH + "\""))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"" + TEST_CONTENT_HASH + "\""))
+        .andExpect(content().bytes(new byte[0]));
+  }
+
+  /**
+   * verifies that a byte range of a document is served as `206 Partial Content` holding
+   * only the requested bytes.
+   */
+  @Test
+  void shouldGetDocumentRange() throws Exception {
+    // given
+    givenDocumentContent(DOCUMENT_CONTENT);
+    MockMvc mockMvc = MockMvcBuilders.standaloneSetup(houseMemberDocumentController).build();
+    // when and then
+    mockMvc.perform(get("/members/{memberId}/documents", MEMBER_ID)
+        .header(HttpHeaders.RANGE, "bytes=2-5"))
+        .andExpect(status().isPartialContent())
+        .andExpect(header().string(HttpHeaders.CONTENT_RANGE,
+            "bytes 2-5/" + DOCUMENT_CONTENT.length))
+        .andExpect(content().bytes("2345".getBytes(StandardCharsets.US_ASCII)));
+  }
+
+  /**
+   * tests the `uploadHouseMemberDocument` method by verifying that it returns an
+   * `ACCEPTED` status code pointing to the upload and calls the underlying `createHouseMemberDocument`
    * method with the provided file and member ID.
    */
   @Test
   void shouldPostDocumentSuccess() {
     // given
     given(houseMemberDocumentService.createHouseMemberDocument(MULTIPART_FILE, MEMBER_ID))
-        .willReturn(Optional.of(MEMBER_DOCUMENT));
+        .willReturn(Optional.of(DOCUMENT_UPLOAD));
     // when
-    ResponseEntity<byte[]> responseEntity =
+    ResponseEntity<DocumentUploadResponse> responseEntity =
         houseMemberDocumentController.uploadHouseMemberDocument(MEMBER_ID, MULTIPART_FILE);
     //then
-    assertEquals(HttpStatus.NO_CONTENT, responseEntity.getStatusCode());
+    assertEquals(HttpStatus.ACCEPTED, responseEntity.getStatusCode());
+    assertEquals(URI.create("/members/" + MEMBER_ID + "/documents/uploads/" + UPLOAD_ID),
+        responseEntity.getHeaders().getLocation());
+    assertEquals(UPLOAD_ID, responseEntity.getBody().getUploadId());
+    assertEquals(com.myhome.model.DocumentUploadStatus.PROCESSING,
+        responseEntity.getBody().getStatus());
     verify(houseMemberDocumentService).createHouseMemberDocument(MULTIPART_FILE, MEMBER_ID);
   }
 
@@ -126,13 +236,79 @@ class HouseMemberDocumentTest {
     given(houseMemberDocumentService.createHouseMemberDocument(MULTIPART_FILE, MEMBER_ID))
         .willReturn(Optional.empty());
     // when
-    ResponseEntity<byte[]> responseEntity =
+    ResponseEntity<DocumentUploadResponse> responseEntity =
         houseMemberDocumentController.uploadHouseMemberDocument(MEMBER_ID, MULTIPART_FILE);
     //then
     assertEquals(HttpStatus.NOT_FOUND, responseEntity.getStatusCode());
     verify(houseMemberDocumentService).createHouseMemberDocument(MULTIPART_FILE, MEMBER_ID);
   }
 
+  /**
+   * verifies that an upload whose file could not be read is answered with `CONFLICT`
+   * and the reason of the failure.
+   */
+  @Test
+  void shouldPostDocumentFailureUnreadable() {
+    // given
+    HouseMemberDocumentUpload failedUpload = new HouseMemberDocumentUpload()
+        .withUploadId(UPLOAD_ID)
+        .withStatus(DocumentUploadStatus.FAILED)
+        .withFailureReason("Document could not be read");
+    given(houseMemberDocumentService.createHouseMemberDocument(MULTIPART_FILE, MEMBER_ID))
+        .willReturn(Optional.of(failedUpload));
+    // when
+    ResponseEntity<DocumentUploadResponse> responseEntity =
+        houseMemberDocumentController.uploadHouseMemberDocument(MEMBER_ID, MULTIPART_FILE);
+    //then
+    assertEquals(HttpStatus.CONFLICT, responseEntity.getStatusCode());
+    assertEquals("Document could not be read", responseEntity.getBody().getFailureReason());
+  }
+
+  /**
+   * verifies that a batch upload answers with the upload of every document, paired with
+   * its member, and marks members which do not exist.
+   */
+  @Test
+  void shouldPostDocumentsInBatchSuccess() {
+    // given
+    ReflectionTestUtils.setField(houseMemberDocumentController, "maxBatchFiles", 2);
+    List<String> memberIds = Arrays.asList(MEMBER_ID, "missing-member-id");
+    List<MultipartFile> documents = Arrays.asList(MULTIPART_FILE, MULTIPART_FILE);
+    given(houseMemberDocumentService.createHouseMemberDocuments(memberIds, documents))
+        .willReturn(Arrays.asList(Optional.of(DOCUMENT_UPLOAD), Optional.empty()));
+    // when
+    ResponseEntity<DocumentBatchUploadResponse> responseEntity =
+        houseMemberDocumentController.uploadHouseMemberDocuments(memberIds, documents);
+    //then
+    assertEquals(HttpStatus.ACCEPTED, responseEntity.getStatusCode());
+    List<MemberDocumentUploadResponse> uploads = responseEntity.getBody().getUploads();
+    assertEquals(2, uploads.size());
+    assertEquals(MEMBER_ID, uploads.get(0).getMemberId());
+    assertTrue(uploads.get(0).getMemberFound());
+    assertEquals(UPLOAD_ID, uploads.get(0).getUpload().getUploadId());
+    assertEquals("missing-member-id", uploads.get(1).getMemberId());
+    assertFalse(uploads.get(1).getMemberFound());
+    assertNull(uploads.get(1).getUpload());
+  }
+
+  /**
+   * verifies that a batch upload with more documents than allowed is rejected without
+   * storing any of them.
+   */
+  @Test
+  void shouldPostDocumentsInBatchFailureTooManyFiles() {
+    // given
+    ReflectionTestUtils.setField(houseMemberDocumentController, "maxBatchFiles", 1);
+    List<String> memberIds = Arrays.asList(MEMBER_ID, MEMBER_ID);
+    List<MultipartFile> documents = Arrays.asList(MULTIPART_FILE, MULTIPART_FILE);
+    // when
+    ResponseEntity<DocumentBatchUploadResponse> responseEntity =
+        houseMemberDocumentController.uploadHouseMemberDocuments(memberIds, documents);
+    //then
+    assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+    verify(houseMemberDocumentService, never()).createHouseMemberDocuments(any(), any());
+  }
+
   /**
    * tests the updateHouseMemberDocument method's functionality by calling it with a
    * valid multipart file and member ID, verifying the HTTP status code and invoking
@@ -142,12 +318,17 @@ class HouseMemberDocumentTest {
   void shouldPutDocumentSuccess() {
     // given
     given(houseMemberDocumentService.updateHouseMemberDocument(MULTIPART_FILE, MEMBER_ID))
-        .willReturn(Optional.of(MEMBER_DOCUMENT));
+        .willReturn(Optional.of(DOCUMENT_UPLOAD));
     // when
-    ResponseEntity<byte[]> responseEntity =
+    ResponseEntity<DocumentUploadResponse> responseEntity =
         houseMemberDocumentController.updateHouseMemberDocument(MEMBER_ID, MULTIPART_FILE);
     //then
-    assertEquals(HttpStatus.NO_CONTENT, responseEntity.getStatusCode());
+    assertEquals(HttpStatus.ACCEPTED, responseEntity.getStatusCode());
+    assertEquals(URI.create("/members/" + MEMBER_ID + "/documents/uploads/" + UPLOAD_ID),
+        responseEntity.getHeaders().getLocation());
+    assertEquals(UPLOAD_ID, responseEntity.getBody().getUploadId());
+    assertEquals(com.myhome.model.DocumentUploadStatus.PROCESSING,
+        responseEntity.getBody().getStatus());
     verify(houseMemberDocumentService).updateHouseMemberDocument(MULTIPART_FILE, MEMBER_ID);
   }
 
@@ -163,13 +344,46 @@ class HouseMemberDocumentTest {
     given(houseMemberDocumentService.updateHouseMemberDocument(MULTIPART_FILE, MEMBER_ID))
         .willReturn(Optional.empty());
     // when
-    ResponseEntity<byte[]> responseEntity =
+    ResponseEntity<DocumentUploadResponse> responseEntity =
         houseMemberDocumentController.updateHouseMemberDocument(MEMBER_ID, MULTIPART_FILE);
     //then
     assertEquals(HttpStatus.NOT_FOUND, responseEntity.getStatusCode());
     verify(houseMemberDocumentService).updateHouseMemberDocument(MULTIPART_FILE, MEMBER_ID);
   }
 
+  /**
+   * verifies that the progress of an upload of the member is returned.
+   */
+  @Test
+  void shouldGetDocumentUploadSuccess() {
+    // given
+    given(houseMemberDocumentService.getHouseMemberDocumentUpload(MEMBER_ID, UPLOAD_ID))
+        .willReturn(Optional.of(DOCUMENT_UPLOAD));
+    // when
+    ResponseEntity<DocumentUploadResponse> responseEntity =
+        houseMemberDocumentController.getHouseMemberDocumentUpload(MEMBER_ID, UPLOAD_ID);
+    //then
+    assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+    assertEquals(UPLOAD_ID, responseEntity.getBody().getUploadId());
+    assertEquals(com.myhome.model.DocumentUploadStatus.PROCESSING,
+        responseEntity.getBody().getStatus());
+  }
+
+  /**
+   * verifies that `NOT_FOUND` is returned for an upload the member does not have.
+   */
+  @Test
+  void shouldGetDocumentUploadFailureNotFound() {
+    // given
+    given(houseMemberDocumentService.getHouseMemberDocumentUpload(MEMBER_ID, UPLOAD_ID))
+        .willReturn(Optional.empty());
+    // when
+    ResponseEntity<DocumentUploadResponse> responseEntity =
+        houseMemberDocumentController.getHouseMemberDocumentUpload(MEMBER_ID, UPLOAD_ID);
+    //then
+    assertEquals(HttpStatus.NOT_FOUND, responseEntity.getStatusCode());
+  }
+
   /**
    * tests whether deleting a house member document returns a successful response with
    * a HTTP status code of `NO_CONTENT`.
@@ -202,4 +416,13 @@ class HouseMemberDocumentTest {
     assertEquals(HttpStatus.NOT_FOUND, responseEntity.getStatusCode());
     verify(houseMemberDocumentService).deleteHouseMemberDocument(MEMBER_ID);
   }
+
+  private void givenDocumentContent(byte[] content) {
+    HouseMemberDocument document = new HouseMemberDocument(MULTIPART_FILE.getName(),
+        TEST_CONTENT_HASH, content.length, MediaType.IMAGE_JPEG_VALUE);
+    given(houseMemberDocumentService.findHouseMemberDocument(MEMBER_ID))
+        .willReturn(Optional.of(document));
+    given(houseMemberDocumentService.getDocumentContent(document, DocumentSize.FULL))
+        .willReturn(new ByteArrayResource(content));
+  }
 }
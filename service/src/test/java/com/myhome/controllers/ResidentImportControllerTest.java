@@ -0,0 +1,180 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.controllers;
+
+import com.myhome.domain.ResidentImport;
+import com.myhome.domain.ResidentImportStatus;
+import com.myhome.model.ResidentImportFormat;
+import com.myhome.model.ResidentImportResponse;
+import com.myhome.services.ResidentImportService;
+import com.myhome.services.imports.ResidentRecordFormat;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class ResidentImportControllerTest {
+
+  private static final String COMMUNITY_ID = "test-community-id";
+  private static final String IMPORT_ID = "test-import-id";
+
+  private final MockMultipartFile residents = new MockMultipartFile("residents",
+      "residents.csv", "text/csv", "houseName,memberName\nHouse A,Member 1\n".getBytes());
+
+  @Mock
+  private ResidentImportService residentImportService;
+
+  @InjectMocks
+  private ResidentImportController residentImportController;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.initMocks(this);
+  }
+
+  @Test
+  void importCommunityResidents() {
+    // given
+    given(residentImportService.startImport(COMMUNITY_ID, ResidentRecordFormat.CSV, residents))
+        .willReturn(Optional.of(residentImport(ResidentImportStatus.COMPLETED)));
+
+    // when
+    ResponseEntity<ResidentImportResponse> response = residentImportController
+        .importCommunityResidents(COMMUNITY_ID, ResidentImportFormat.CSV, residents);
+
+    // then
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(IMPORT_ID, response.getBody().getImportId());
+    assertEquals(com.myhome.model.ResidentImportStatus.COMPLETED, response.getBody().getStatus());
+    assertEquals(1L, response.getBody().getProcessedRecords().longValue());
+    assertEquals(1L, response.getBody().getCreatedHouses().longValue());
+    assertEquals(1L, response.getBody().getCreatedMembers().longValue());
+  }
+
+  @Test
+  void importCommunityResidentsCommunityNotExists() {
+    // given
+    given(residentImportService.startImport(COMMUNITY_ID, ResidentRecordFormat.NDJSON, residents))
+        .willReturn(Optional.empty());
+
+    // when
+    ResponseEntity<ResidentImportResponse> response = residentImportController
+        .importCommunityResidents(COMMUNITY_ID, ResidentImportFormat.NDJSON, residents);
+
+    // then
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    assertNull(response.getBody());
+  }
+
+  @Test
+  void getCommunityResidentsImport() {
+    // given
+    given(residentImportService.getImport(COMMUNITY_ID, IMPORT_ID))
+        .willReturn(Optional.of(residentImport(ResidentImportStatus.RUNNING)));
+
+    // when
+    ResponseEntity<ResidentImportResponse> response =
+        residentImportController.getCommunityResidentsImport(COMMUNITY_ID, IMPORT_ID);
+
+    // then
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(com.myhome.model.ResidentImportStatus.RUNNING, response.getBody().getStatus());
+  }
+
+  @Test
+  void getCommunityResidentsImportNotExists() {
+    // given
+    given(residentImportService.getImport(COMMUNITY_ID, IMPORT_ID)).willReturn(Optional.empty());
+
+    // when
+    ResponseEntity<ResidentImportResponse> response =
+        residentImportController.getCommunityResidentsImport(COMMUNITY_ID, IMPORT_ID);
+
+    // then
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+  }
+
+  @Test
+  void resumeCommunityResidentsImport() {
+    // given
+    given(residentImportService.getImport(COMMUNITY_ID, IMPORT_ID))
+        .willReturn(Optional.of(residentImport(ResidentImportStatus.FAILED)));
+    given(residentImportService.resumeImport(COMMUNITY_ID, IMPORT_ID, ResidentRecordFormat.CSV,
+        residents)).willReturn(Optional.of(residentImport(ResidentImportStatus.COMPLETED)));
+
+    // when
+    ResponseEntity<ResidentImportResponse> response = residentImportController
+        .resumeCommunityResidentsImport(COMMUNITY_ID, IMPORT_ID, ResidentImportFormat.CSV,
+            residents);
+
+    // then
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(com.myhome.model.ResidentImportStatus.COMPLETED, response.getBody().getStatus());
+  }
+
+  @Test
+  void resumeCommunityResidentsImportCompleted() {
+    // given
+    given(residentImportService.getImport(COMMUNITY_ID, IMPORT_ID))
+        .willReturn(Optional.of(residentImport(ResidentImportStatus.COMPLETED)));
+
+    // when
+    ResponseEntity<ResidentImportResponse> response = residentImportController
+        .resumeCommunityResidentsImport(COMMUNITY_ID, IMPORT_ID, ResidentImportFormat.CSV,
+            residents);
+
+    // then
+    assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    verify(residentImportService, never()).resumeImport(any(), any(), any(), any());
+  }
+
+  @Test
+  void resumeCommunityResidentsImportNotExists() {
+    // given
+    given(residentImportService.getImport(COMMUNITY_ID, IMPORT_ID)).willReturn(Optional.empty());
+
+    // when
+    ResponseEntity<ResidentImportResponse> response = residentImportController
+        .resumeCommunityResidentsImport(COMMUNITY_ID, IMPORT_ID, ResidentImportFormat.CSV,
+            residents);
+
+    // then
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    verify(residentImportService, never()).resumeImport(any(), any(), any(), any());
+  }
+
+  private ResidentImport residentImport(ResidentImportStatus status) {
+    return new ResidentImport()
+        .withImportId(IMPORT_ID)
+        .withStatus(status)
+        .withProcessedRecords(1)
+        .withCreatedHouses(1)
+        .withCreatedMembers(1);
+  }
+}
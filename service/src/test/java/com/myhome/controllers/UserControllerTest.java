@@ -20,7 +20,6 @@ import com.myhome.controllers.dto.UserDto;
 import com.myhome.controllers.dto.mapper.HouseMemberMapper;
 import com.myhome.controllers.mapper.UserApiMapper;
 import com.myhome.domain.PasswordActionType;
-import com.myhome.domain.HouseMember;
 import com.myhome.domain.User;
 import com.myhome.model.CreateUserRequest;
 import com.myhome.model.CreateUserResponse;
@@ -28,6 +27,7 @@ import com.myhome.model.ForgotPasswordRequest;
 import com.myhome.model.GetUserDetailsResponse;
 import com.myhome.model.GetUserDetailsResponseUser;
 import com.myhome.model.ListHouseMembersResponse;
+import com.myhome.repositories.projections.HouseMemberSummary;
 import com.myhome.services.HouseService;
 import com.myhome.services.UserService;
 import java.util.Collections;
@@ -356,8 +356,8 @@ class UserControllerTest {
     int limit = 150;
     PageRequest pageRequest = PageRequest.of(start, limit);
 
-    List<HouseMember> houseMemberList = Collections.singletonList(
-        new HouseMember(TEST_ID, null, TEST_NAME, null)
+    List<HouseMemberSummary> houseMemberList = Collections.singletonList(
+        new HouseMemberSummary(TEST_ID, TEST_NAME)
     );
 
     Set<com.myhome.model.HouseMember> responseSet = Collections.singleton(
@@ -371,7 +371,7 @@ class UserControllerTest {
 
     given(houseService.listHouseMembersForHousesOfUserId(userId, pageRequest))
         .willReturn(Optional.of(houseMemberList));
-    given(houseMemberMapper.houseMemberSetToRestApiResponseHouseMemberSet(
+    given(houseMemberMapper.houseMemberSummarySetToRestApiResponseHouseMemberSet(
         new HashSet<>(houseMemberList)))
         .willReturn(responseSet);
 
@@ -384,7 +384,7 @@ class UserControllerTest {
     assertEquals(expectedResponse, response.getBody());
     then(houseService).should().listHouseMembersForHousesOfUserId(userId, pageRequest);
     then(houseMemberMapper).should()
-        .houseMemberSetToRestApiResponseHouseMemberSet(new HashSet<>(houseMemberList));
+        .houseMemberSummarySetToRestApiResponseHouseMemberSet(new HashSet<>(houseMemberList));
     then(userService).shouldHaveNoInteractions();
     then(userApiMapper).shouldHaveNoInteractions();
   }
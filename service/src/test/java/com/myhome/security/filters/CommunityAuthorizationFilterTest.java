@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.security.filters;
+
+import com.myhome.domain.User;
+import com.myhome.services.CommunityService;
+import java.util.Collections;
+import java.util.Optional;
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class CommunityAuthorizationFilterTest {
+
+  private static final String COMMUNITY_ID = "0b6f8a3c-5d2e-4f1a-9c7b-2e4d6f8a1b3c";
+  private static final String USER_ID = "test-user-id";
+  private static final String ANNOUNCEMENTS_URI = "/communities/" + COMMUNITY_ID + "/announcements";
+
+  @Mock
+  private AuthenticationManager authenticationManager;
+  @Mock
+  private CommunityService communityService;
+  @Mock
+  private FilterChain chain;
+
+  private CommunityAuthorizationFilter communityAuthorizationFilter;
+
+  @BeforeEach
+  private void init() {
+    MockitoAnnotations.initMocks(this);
+    communityAuthorizationFilter =
+        new CommunityAuthorizationFilter(authenticationManager, communityService);
+    SecurityContextHolder.getContext().setAuthentication(
+        new UsernamePasswordAuthenticationToken(USER_ID, null, Collections.emptyList()));
+  }
+
+  @AfterEach
+  private void clearSecurityContext() {
+    SecurityContextHolder.clearContext();
+  }
+
+  /**
+   * verifies that a user who is not an admin of the community cannot announce to it.
+   */
+  @Test
+  void announcementOfNonAdminIsForbidden() throws Exception {
+    // given
+    given(communityService.findCommunityAdminsById(eq(COMMUNITY_ID), any()))
+        .willReturn(Optional.of(Collections.singletonList(new User().withUserId("other-user-id"))));
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", ANNOUNCEMENTS_URI);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    // when
+    communityAuthorizationFilter.doFilter(request, response, chain);
+
+    // then
+    assertEquals(HttpServletResponse.SC_FORBIDDEN, response.getStatus());
+    verify(chain, never()).doFilter(any(), any());
+  }
+
+  /**
+   * verifies that the progress of announcements is only readable by admins of the
+   * community either.
+   */
+  @Test
+  void announcementProgressOfNonAdminIsForbidden() throws Exception {
+    // given
+    given(communityService.findCommunityAdminsById(eq(COMMUNITY_ID), any()))
+        .willReturn(Optional.empty());
+    MockHttpServletRequest request =
+        new MockHttpServletRequest("GET", ANNOUNCEMENTS_URI + "/test-announcement-id");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    // when
+    communityAuthorizationFilter.doFilter(request, response, chain);
+
+    // then
+    assertEquals(HttpServletResponse.SC_FORBIDDEN, response.getStatus());
+    verify(chain, never()).doFilter(any(), any());
+  }
+
+  @Test
+  void announcementOfAdminIsPassedOn() throws Exception {
+    // given
+    given(communityService.findCommunityAdminsById(eq(COMMUNITY_ID), any()))
+        .willReturn(Optional.of(Collections.singletonList(new User().withUserId(USER_ID))));
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", ANNOUNCEMENTS_URI);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    // when
+    communityAuthorizationFilter.doFilter(request, response, chain);
+
+    // then
+    assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+    verify(chain).doFilter(request, response);
+  }
+}
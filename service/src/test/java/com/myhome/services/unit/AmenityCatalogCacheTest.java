@@ -0,0 +1,189 @@
+package com.myhome.services.unit;
+
+import com.myhome.configuration.CacheConfig;
+import com.myhome.model.GetAmenityDetailsResponse;
+import com.myhome.services.cache.AmenityCatalogCache;
+import com.myhome.services.pricing.AmenityPriceTable;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * tests caching, reading and evicting the amenity catalogs of communities.
+ */
+class AmenityCatalogCacheTest {
+
+  private static final String TEST_COMMUNITY_ID = "test-community-id";
+  private static final String TEST_AMENITY_ID = "test-amenity-id";
+
+  private AmenityCatalogCache amenityCatalogCache;
+
+  /**
+   * creates the cache on top of in-memory caches named like the application caches.
+   */
+  @BeforeEach
+  private void init() {
+    amenityCatalogCache = new AmenityCatalogCache(new ConcurrentMapCacheManager(
+        CacheConfig.AMENITY_CATALOG_CACHE, CacheConfig.AMENITY_DETAILS_CACHE,
+        CacheConfig.AMENITY_PRICE_TABLE_CACHE));
+  }
+
+  /**
+   * loads a community catalog once and serves further reads from the cache until the
+   * catalog is evicted.
+   */
+  @Test
+  void shouldLoadCommunityCatalogOnceUntilEvicted() {
+    // given
+    AtomicInteger loads = new AtomicInteger();
+    Set<GetAmenityDetailsResponse> catalog =
+        Collections.singleton(new GetAmenityDetailsResponse().amenityId(TEST_AMENITY_ID));
+
+    // when
+    amenityCatalogCache.getCommunityCatalog(TEST_COMMUNITY_ID, id -> {
+      loads.incrementAndGet();
+      return catalog;
+    });
+    Set<GetAmenityDetailsResponse> cached =
+        amenityCatalogCache.getCommunityCatalog(TEST_COMMUNITY_ID, id -> {
+          loads.incrementAndGet();
+          return catalog;
+        });
+    amenityCatalogCache.evictAmenity(TEST_AMENITY_ID, TEST_COMMUNITY_ID);
+    amenityCatalogCache.getCommunityCatalog(TEST_COMMUNITY_ID, id -> {
+      loads.incrementAndGet();
+      return catalog;
+    });
+
+    // then
+    assertEquals(catalog, cached);
+    assertEquals(2, loads.get());
+  }
+
+  /**
+   * does not cache amenities which were not found, so a later load sees new amenities.
+   */
+  @Test
+  void shouldNotCacheMissingAmenityDetails() {
+    // given
+    GetAmenityDetailsResponse details = new GetAmenityDetailsResponse().amenityId(TEST_AMENITY_ID);
+
+    // when
+    Optional<GetAmenityDetailsResponse> missing =
+        amenityCatalogCache.getAmenityDetails(TEST_AMENITY_ID, id -> Optional.empty());
+    Optional<GetAmenityDetailsResponse> loaded =
+        amenityCatalogCache.getAmenityDetails(TEST_AMENITY_ID, id -> Optional.of(details));
+    Optional<GetAmenityDetailsResponse> cached =
+        amenityCatalogCache.getAmenityDetails(TEST_AMENITY_ID, id -> Optional.empty());
+
+    // then
+    assertFalse(missing.isPresent());
+    assertEquals(Optional.of(details), loaded);
+    assertEquals(Optional.of(details), cached);
+  }
+
+  /**
+   * compiles the price table of an amenity once and compiles it again after the amenity
+   * was evicted.
+   */
+  @Test
+  void shouldCompilePriceTableOnceUntilEvicted() {
+    // given
+    AtomicInteger loads = new AtomicInteger();
+    AmenityPriceTable priceTable =
+        AmenityPriceTable.compile(BigDecimal.TEN, Collections.emptyList());
+
+    // when
+    Optional<AmenityPriceTable> loaded = amenityCatalogCache.getPriceTable(TEST_AMENITY_ID, id -> {
+      loads.incrementAndGet();
+      return Optional.of(priceTable);
+    });
+    Optional<AmenityPriceTable> cached =
+        amenityCatalogCache.getPriceTable(TEST_AMENITY_ID, id -> Optional.empty());
+    amenityCatalogCache.evictAmenity(TEST_AMENITY_ID, TEST_COMMUNITY_ID);
+    Optional<AmenityPriceTable> evicted =
+        amenityCatalogCache.getPriceTable(TEST_AMENITY_ID, id -> Optional.empty());
+
+    // then
+    assertSame(priceTable, loaded.get());
+    assertSame(priceTable, cached.get());
+    assertFalse(evicted.isPresent());
+    assertEquals(1, loads.get());
+  }
+
+  /**
+   * keeps serving a cached catalog evicted inside a transaction until the transaction
+   * committed.
+   */
+  @Test
+  void shouldEvictAmenityAfterTransactionCommitted() {
+    // given
+    AtomicInteger loads = new AtomicInteger();
+    Set<GetAmenityDetailsResponse> catalog =
+        Collections.singleton(new GetAmenityDetailsResponse().amenityId(TEST_AMENITY_ID));
+    amenityCatalogCache.getCommunityCatalog(TEST_COMMUNITY_ID, id -> {
+      loads.incrementAndGet();
+      return catalog;
+    });
+    TransactionSynchronizationManager.initSynchronization();
+
+    // when
+    try {
+      amenityCatalogCache.evictAmenity(TEST_AMENITY_ID, TEST_COMMUNITY_ID);
+      amenityCatalogCache.getCommunityCatalog(TEST_COMMUNITY_ID, id -> {
+        loads.incrementAndGet();
+        return catalog;
+      });
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(TransactionSynchronization::afterCommit);
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    amenityCatalogCache.getCommunityCatalog(TEST_COMMUNITY_ID, id -> {
+      loads.incrementAndGet();
+      return catalog;
+    });
+
+    // then
+    assertEquals(2, loads.get());
+  }
+
+  /**
+   * drops the catalogs of all communities when an amenity may have moved between them.
+   */
+  @Test
+  void shouldEvictAllCatalogsForAmenity() {
+    // given
+    String otherCommunityId = "other-community-id";
+    AtomicInteger loads = new AtomicInteger();
+    Set<GetAmenityDetailsResponse> catalog =
+        Collections.singleton(new GetAmenityDetailsResponse().amenityId(TEST_AMENITY_ID));
+    amenityCatalogCache.getCommunityCatalog(TEST_COMMUNITY_ID, id -> catalog);
+    amenityCatalogCache.getCommunityCatalog(otherCommunityId, id -> catalog);
+
+    // when
+    amenityCatalogCache.evictAmenityFromAllCatalogs(TEST_AMENITY_ID);
+    amenityCatalogCache.getCommunityCatalog(TEST_COMMUNITY_ID, id -> {
+      loads.incrementAndGet();
+      return catalog;
+    });
+    amenityCatalogCache.getCommunityCatalog(otherCommunityId, id -> {
+      loads.incrementAndGet();
+      return catalog;
+    });
+
+    // then
+    assertEquals(2, loads.get());
+  }
+}
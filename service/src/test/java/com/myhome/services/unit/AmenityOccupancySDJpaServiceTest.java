@@ -0,0 +1,278 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.unit;
+
+import com.myhome.domain.Amenity;
+import com.myhome.domain.AmenityBookingItem;
+import com.myhome.domain.AmenityOccupancy;
+import com.myhome.domain.OccupancyGranularity;
+import com.myhome.repositories.AmenityOccupancyRepository;
+import com.myhome.repositories.AmenityRepository;
+import com.myhome.services.springdatajpa.AmenityOccupancySDJpaService;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+/**
+ * tests the hourly and daily occupancy rollups kept by AmenityOccupancySDJpaService.
+ */
+class AmenityOccupancySDJpaServiceTest {
+
+  private static final Long TEST_AMENITY_ENTITY_ID = 5L;
+  private static final String TEST_AMENITY_ID = "test-amenity-id";
+  private static final LocalDateTime TEST_DAY = LocalDateTime.of(2020, 10, 10, 0, 0);
+
+  @Mock
+  private AmenityOccupancyRepository occupancyRepository;
+  @Mock
+  private AmenityRepository amenityRepository;
+
+  private AmenityOccupancySDJpaService amenityOccupancySDJpaService;
+
+  /**
+   * initializes mock objects using MockitoAnnotations.
+   */
+  @BeforeEach
+  private void init() {
+    MockitoAnnotations.initMocks(this);
+    amenityOccupancySDJpaService = new AmenityOccupancySDJpaService(occupancyRepository,
+        amenityRepository, mock(PlatformTransactionManager.class));
+  }
+
+  /**
+   * splits a booking into the hourly and daily buckets it overlaps and increments each
+   * existing bucket by the booked minutes within it.
+   */
+  @Test
+  void recordBookingSpanningSeveralHours() {
+    // given
+    AmenityBookingItem booking = getTestBooking(TEST_DAY.withHour(9).withMinute(30),
+        TEST_DAY.withHour(11).withMinute(15));
+    given(occupancyRepository.incrementOccupancy(any(), any(), any(), anyLong(), anyLong()))
+        .willReturn(1);
+
+    // when
+    amenityOccupancySDJpaService.recordBookings(Collections.singletonList(booking));
+
+    // then
+    verify(occupancyRepository).incrementOccupancy(TEST_AMENITY_ENTITY_ID,
+        OccupancyGranularity.HOUR, TEST_DAY.withHour(9), 1, 30);
+    verify(occupancyRepository).incrementOccupancy(TEST_AMENITY_ENTITY_ID,
+        OccupancyGranularity.HOUR, TEST_DAY.withHour(10), 1, 60);
+    verify(occupancyRepository).incrementOccupancy(TEST_AMENITY_ENTITY_ID,
+        OccupancyGranularity.HOUR, TEST_DAY.withHour(11), 1, 15);
+    verify(occupancyRepository).incrementOccupancy(TEST_AMENITY_ENTITY_ID,
+        OccupancyGranularity.DAY, TEST_DAY, 1, 105);
+    verify(occupancyRepository, never()).saveAndFlush(any());
+  }
+
+  /**
+   * sums bookings falling into the same bucket into a single increment, and inserts the
+   * buckets which do not exist yet empty before incrementing them.
+   */
+  @Test
+  void recordBookingsCreatesMissingBuckets() {
+    // given
+    Amenity amenityReference = getTestAmenity();
+    List<AmenityBookingItem> bookings = Arrays.asList(
+        getTestBooking(TEST_DAY.withHour(10), TEST_DAY.withHour(10).withMinute(20)),
+        getTestBooking(TEST_DAY.withHour(10).withMinute(30), TEST_DAY.withHour(11)));
+    given(occupancyRepository.incrementOccupancy(any(), any(), any(), anyLong(), anyLong()))
+        .willReturn(0, 1, 0, 1);
+    given(amenityRepository.getOne(TEST_AMENITY_ENTITY_ID))
+        .willReturn(amenityReference);
+
+    // when
+    amenityOccupancySDJpaService.recordBookings(bookings);
+
+    // then
+    ArgumentCaptor<AmenityOccupancy> occupancyCaptor =
+        ArgumentCaptor.forClass(AmenityOccupancy.class);
+    verify(occupancyRepository, times(2)).incrementOccupancy(TEST_AMENITY_ENTITY_ID,
+        OccupancyGranularity.HOUR, TEST_DAY.withHour(10), 2, 50);
+    verify(occupancyRepository, times(2)).incrementOccupancy(TEST_AMENITY_ENTITY_ID,
+        OccupancyGranularity.DAY, TEST_DAY, 2, 50);
+    verify(occupancyRepository, times(2)).saveAndFlush(occupancyCaptor.capture());
+    AmenityOccupancy hourly = occupancyCaptor.getAllValues().get(0);
+    assertEquals(amenityReference, hourly.getAmenity());
+    assertEquals(OccupancyGranularity.HOUR, hourly.getGranularity());
+    assertEquals(TEST_DAY.withHour(10), hourly.getBucketStart());
+    assertEquals(0, hourly.getBookingCount());
+    assertEquals(0, hourly.getBookedMinutes());
+  }
+
+  /**
+   * increments a missing bucket which a concurrent booking inserted first, instead of
+   * failing the booking on the unique constraint.
+   */
+  @Test
+  void recordBookingIncrementsBucketInsertedConcurrently() {
+    // given
+    AmenityBookingItem booking = getTestBooking(TEST_DAY.withHour(10), TEST_DAY.withHour(11));
+    given(occupancyRepository.incrementOccupancy(any(), any(), any(), anyLong(), anyLong()))
+        .willReturn(0, 1, 0, 1);
+    given(amenityRepository.getOne(TEST_AMENITY_ENTITY_ID)).willReturn(getTestAmenity());
+    given(occupancyRepository.saveAndFlush(any(AmenityOccupancy.class)))
+        .willThrow(new DataIntegrityViolationException("duplicate bucket"));
+
+    // when
+    amenityOccupancySDJpaService.recordBookings(Collections.singletonList(booking));
+
+    // then
+    verify(occupancyRepository, times(2)).incrementOccupancy(TEST_AMENITY_ENTITY_ID,
+        OccupancyGranularity.HOUR, TEST_DAY.withHour(10), 1, 60);
+    verify(occupancyRepository, times(2)).incrementOccupancy(TEST_AMENITY_ENTITY_ID,
+        OccupancyGranularity.DAY, TEST_DAY, 1, 60);
+  }
+
+  /**
+   * creates a missing bucket again if a concurrently removed booking dropped it while it
+   * was still empty, so the booking is not lost from the rollups.
+   */
+  @Test
+  void recordBookingRecreatesBucketDroppedBeforeIncrement() {
+    // given
+    AmenityBookingItem booking = getTestBooking(TEST_DAY.withHour(10), TEST_DAY.withHour(11));
+    given(occupancyRepository.incrementOccupancy(TEST_AMENITY_ENTITY_ID,
+        OccupancyGranularity.HOUR, TEST_DAY.withHour(10), 1, 60))
+        .willReturn(0, 0, 1);
+    given(occupancyRepository.incrementOccupancy(TEST_AMENITY_ENTITY_ID,
+        OccupancyGranularity.DAY, TEST_DAY, 1, 60))
+        .willReturn(1);
+    given(amenityRepository.getOne(TEST_AMENITY_ENTITY_ID)).willReturn(getTestAmenity());
+
+    // when
+    amenityOccupancySDJpaService.recordBookings(Collections.singletonList(booking));
+
+    // then
+    verify(occupancyRepository, times(3)).incrementOccupancy(TEST_AMENITY_ENTITY_ID,
+        OccupancyGranularity.HOUR, TEST_DAY.withHour(10), 1, 60);
+    verify(occupancyRepository, times(2)).saveAndFlush(any(AmenityOccupancy.class));
+  }
+
+  /**
+   * fails the booking instead of losing it from the rollups if its bucket keeps being
+   * dropped before it is incremented.
+   */
+  @Test
+  void recordBookingFailsIfBucketKeepsBeingDropped() {
+    // given
+    AmenityBookingItem booking = getTestBooking(TEST_DAY.withHour(10), TEST_DAY.withHour(11));
+    given(occupancyRepository.incrementOccupancy(any(), any(), any(), anyLong(), anyLong()))
+        .willReturn(0);
+    given(amenityRepository.getOne(TEST_AMENITY_ENTITY_ID)).willReturn(getTestAmenity());
+
+    // when and then
+    assertThrows(ConcurrencyFailureException.class, () ->
+        amenityOccupancySDJpaService.recordBookings(Collections.singletonList(booking)));
+    verify(occupancyRepository, times(3)).saveAndFlush(any(AmenityOccupancy.class));
+  }
+
+  /**
+   * counts a booking without an end date in the buckets containing its start only.
+   */
+  @Test
+  void recordOpenEndedBooking() {
+    // given
+    AmenityBookingItem booking = getTestBooking(TEST_DAY.withHour(10).withMinute(45), null);
+    given(occupancyRepository.incrementOccupancy(any(), any(), any(), anyLong(), anyLong()))
+        .willReturn(1);
+
+    // when
+    amenityOccupancySDJpaService.recordBookings(Collections.singletonList(booking));
+
+    // then
+    verify(occupancyRepository).incrementOccupancy(TEST_AMENITY_ENTITY_ID,
+        OccupancyGranularity.HOUR, TEST_DAY.withHour(10), 1, 0);
+    verify(occupancyRepository).incrementOccupancy(TEST_AMENITY_ENTITY_ID,
+        OccupancyGranularity.DAY, TEST_DAY, 1, 0);
+    verifyNoMoreInteractions(occupancyRepository);
+  }
+
+  /**
+   * subtracts deleted bookings from their buckets and drops the buckets left empty.
+   */
+  @Test
+  void removeBookings() {
+    // given
+    AmenityBookingItem booking = getTestBooking(TEST_DAY.withHour(10), TEST_DAY.withHour(11));
+
+    // when
+    amenityOccupancySDJpaService.removeBookings(Collections.singletonList(booking));
+
+    // then
+    verify(occupancyRepository).incrementOccupancy(TEST_AMENITY_ENTITY_ID,
+        OccupancyGranularity.HOUR, TEST_DAY.withHour(10), -1, -60);
+    verify(occupancyRepository).incrementOccupancy(TEST_AMENITY_ENTITY_ID,
+        OccupancyGranularity.DAY, TEST_DAY, -1, -60);
+    verify(occupancyRepository).deleteEmptyOccupancy(TEST_AMENITY_ENTITY_ID);
+    verify(occupancyRepository, never()).saveAndFlush(any());
+  }
+
+  /**
+   * reads the occupancy buckets of an amenity within a period from the repository.
+   */
+  @Test
+  void getOccupancy() {
+    // given
+    List<AmenityOccupancy> occupancy = Collections.singletonList(
+        new AmenityOccupancy(getTestAmenity(), OccupancyGranularity.DAY, TEST_DAY, 3, 120));
+    given(occupancyRepository.findOccupancyInPeriod(TEST_AMENITY_ID, OccupancyGranularity.DAY,
+        TEST_DAY, TEST_DAY.plusDays(7)))
+        .willReturn(occupancy);
+
+    // when
+    List<AmenityOccupancy> result = amenityOccupancySDJpaService.getOccupancy(TEST_AMENITY_ID,
+        OccupancyGranularity.DAY, TEST_DAY, TEST_DAY.plusDays(7));
+
+    // then
+    assertEquals(occupancy, result);
+  }
+
+  private Amenity getTestAmenity() {
+    Amenity amenity = new Amenity().withAmenityId(TEST_AMENITY_ID);
+    amenity.setId(TEST_AMENITY_ENTITY_ID);
+    return amenity;
+  }
+
+  private AmenityBookingItem getTestBooking(LocalDateTime startDate, LocalDateTime endDate) {
+    return new AmenityBookingItem()
+        .withAmenity(getTestAmenity())
+        .withBookingStartDate(startDate)
+        .withBookingEndDate(endDate);
+  }
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.unit;
+
+import com.myhome.domain.Amenity;
+import com.myhome.domain.CommunityPricingRule;
+import com.myhome.domain.PricingRuleType;
+import com.myhome.repositories.AmenityRepository;
+import com.myhome.repositories.CommunityPricingRuleRepository;
+import com.myhome.services.cache.AmenityCatalogCache;
+import com.myhome.services.pricing.AmenityPriceTable;
+import com.myhome.services.springdatajpa.AmenityPricingSDJpaService;
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * tests the price tables compiled by AmenityPricingSDJpaService and the quotes they give.
+ */
+class AmenityPricingSDJpaServiceTest {
+
+  private static final String TEST_AMENITY_ID = "test-amenity-id";
+  private static final BigDecimal TEST_HOURLY_PRICE = BigDecimal.valueOf(20);
+  // 2020-10-10 is a Saturday
+  private static final LocalDateTime TEST_SATURDAY = LocalDateTime.of(2020, 10, 10, 0, 0);
+
+  @Mock
+  private AmenityRepository amenityRepository;
+  @Mock
+  private CommunityPricingRuleRepository pricingRuleRepository;
+  @Mock
+  private AmenityCatalogCache amenityCatalogCache;
+
+  @InjectMocks
+  private AmenityPricingSDJpaService amenityPricingSDJpaService;
+
+  /**
+   * initializes mock objects and makes the cache call through to the loader.
+   */
+  @BeforeEach
+  private void init() {
+    MockitoAnnotations.initMocks(this);
+    given(amenityCatalogCache.getPriceTable(eq(TEST_AMENITY_ID), any()))
+        .willAnswer(invocation -> invocation.<Function<String, Optional<?>>>getArgument(1)
+            .apply(invocation.getArgument(0)));
+  }
+
+  /**
+   * compiles the price table of an amenity from its price and the pricing rules of its
+   * community.
+   */
+  @Test
+  void shouldCompilePriceTableOfAmenity() {
+    // given
+    given(amenityRepository.findByAmenityId(TEST_AMENITY_ID))
+        .willReturn(Optional.of(new Amenity().withAmenityId(TEST_AMENITY_ID)
+            .withPrice(TEST_HOURLY_PRICE)));
+    given(pricingRuleRepository.findAllByAmenityId(TEST_AMENITY_ID))
+        .willReturn(getTestRules());
+
+    // when
+    Optional<AmenityPriceTable> priceTable = amenityPricingSDJpaService.getPriceTable(TEST_AMENITY_ID);
+
+    // then
+    assertTrue(priceTable.isPresent());
+    assertEquals(new BigDecimal("20.00"),
+        priceTable.get().quote(TEST_SATURDAY.withHour(14), TEST_SATURDAY.withHour(15), false));
+    verify(pricingRuleRepository).findAllByAmenityId(TEST_AMENITY_ID);
+  }
+
+  /**
+   * decides membership from the authenticated user, being an admin of the community of
+   * the amenity.
+   */
+  @Test
+  void shouldTellIfCurrentUserIsMember() {
+    // given
+    SecurityContextHolder.getContext().setAuthentication(
+        new UsernamePasswordAuthenticationToken("test-user-id", null, Collections.emptyList()));
+    given(amenityRepository.existsByAmenityIdAndCommunity_Admins_UserId(TEST_AMENITY_ID,
+        "test-user-id")).willReturn(true);
+
+    // when
+    boolean member = amenityPricingSDJpaService.isCurrentUserMember(TEST_AMENITY_ID);
+
+    // then
+    assertTrue(member);
+  }
+
+  @AfterEach
+  private void clearSecurityContext() {
+    SecurityContextHolder.clearContext();
+  }
+
+  /**
+   * does not load pricing rules for an amenity which does not exist.
+   */
+  @Test
+  void shouldNotCompilePriceTableOfMissingAmenity() {
+    // given
+    given(amenityRepository.findByAmenityId(TEST_AMENITY_ID))
+        .willReturn(Optional.empty());
+
+    // when
+    Optional<AmenityPriceTable> priceTable = amenityPricingSDJpaService.getPriceTable(TEST_AMENITY_ID);
+
+    // then
+    assertFalse(priceTable.isPresent());
+    verifyNoInteractions(pricingRuleRepository);
+  }
+
+  /**
+   * charges the peak multiplier for the part of a booking within peak hours only.
+   */
+  @Test
+  void shouldApplyPeakHoursToOverlappingPart() {
+    // given
+    AmenityPriceTable priceTable = AmenityPriceTable.compile(TEST_HOURLY_PRICE, getTestRules());
+
+    // when
+    // 16:00-18:00: one regular hour and one peak hour at 1.5
+    BigDecimal price =
+        priceTable.quote(TEST_SATURDAY.withHour(16), TEST_SATURDAY.withHour(18), false);
+
+    // then
+    assertEquals(new BigDecimal("50.00"), price);
+  }
+
+  /**
+   * applies the highest multiplier of overlapping peak hours, and peak hours of a given
+   * weekday on that weekday only.
+   */
+  @Test
+  void shouldApplyHighestMultiplierOfOverlappingPeakHours() {
+    // given
+    List<CommunityPricingRule> rules = Arrays.asList(
+        getPeakRule(null, LocalTime.of(10, 0), LocalTime.of(12, 0), new BigDecimal("1.5")),
+        getPeakRule(DayOfWeek.SATURDAY, LocalTime.of(11, 0), LocalTime.of(13, 0),
+            new BigDecimal("2")));
+    AmenityPriceTable priceTable = AmenityPriceTable.compile(TEST_HOURLY_PRICE, rules);
+
+    // when
+    BigDecimal saturdayPrice =
+        priceTable.quote(TEST_SATURDAY.withHour(10), TEST_SATURDAY.withHour(13), false);
+    BigDecimal sundayPrice = priceTable.quote(TEST_SATURDAY.plusDays(1).withHour(10),
+        TEST_SATURDAY.plusDays(1).withHour(13), false);
+
+    // then
+    // Saturday: 1.5 + 2 + 2 hours, Sunday: 1.5 + 1.5 + 1 hours
+    assertEquals(new BigDecimal("110.00"), saturdayPrice);
+    assertEquals(new BigDecimal("80.00"), sundayPrice);
+  }
+
+  /**
+   * applies peak hours ending before they start until and after midnight.
+   */
+  @Test
+  void shouldApplyPeakHoursWrappingMidnight() {
+    // given
+    AmenityPriceTable priceTable = AmenityPriceTable.compile(TEST_HOURLY_PRICE,
+        Collections.singletonList(
+            getPeakRule(null, LocalTime.of(22, 0), LocalTime.of(2, 0), new BigDecimal("2"))));
+
+    // when
+    BigDecimal price =
+        priceTable.quote(TEST_SATURDAY.withHour(21), TEST_SATURDAY.plusDays(1).withHour(3), false);
+
+    // then
+    // 21-22 regular, 22-02 peak, 02-03 regular
+    assertEquals(new BigDecimal("200.00"), price);
+  }
+
+  /**
+   * applies peak hours of a single day which wrap midnight to the night into the next
+   * day, and not to the morning of the day itself.
+   */
+  @Test
+  void shouldApplyDaySpecificPeakHoursWrappingMidnightToNextDay() {
+    // given
+    LocalDateTime friday = TEST_SATURDAY.minusDays(1);
+    AmenityPriceTable priceTable = AmenityPriceTable.compile(TEST_HOURLY_PRICE,
+        Collections.singletonList(getPeakRule(DayOfWeek.FRIDAY, LocalTime.of(22, 0),
+            LocalTime.of(2, 0), new BigDecimal("2"))));
+
+    // when
+    BigDecimal fridayMorningPrice = priceTable.quote(friday, friday.withHour(3), false);
+    BigDecimal fridayNightPrice =
+        priceTable.quote(friday.withHour(21), TEST_SATURDAY.withHour(3), false);
+
+    // then
+    // Friday 00-03 regular
+    assertEquals(new BigDecimal("60.00"), fridayMorningPrice);
+    // Friday 21-22 regular, Friday 22 to Saturday 02 peak, Saturday 02-03 regular
+    assertEquals(new BigDecimal("200.00"), fridayNightPrice);
+  }
+
+  /**
+   * treats peak hours ending when they start as empty instead of lasting the whole day.
+   */
+  @Test
+  void shouldIgnorePeakHoursEndingWhenTheyStart() {
+    // given
+    AmenityPriceTable priceTable = AmenityPriceTable.compile(TEST_HOURLY_PRICE,
+        Collections.singletonList(
+            getPeakRule(null, LocalTime.of(10, 0), LocalTime.of(10, 0), new BigDecimal("2"))));
+
+    // when
+    BigDecimal price = priceTable.quote(TEST_SATURDAY, TEST_SATURDAY.plusDays(1), false);
+
+    // then
+    assertEquals(new BigDecimal("480.00"), price);
+  }
+
+  /**
+   * quotes a week-long booking across days and applies the member discount to the total.
+   */
+  @Test
+  void shouldQuoteWeekLongBookingWithMemberDiscount() {
+    // given
+    AmenityPriceTable priceTable = AmenityPriceTable.compile(TEST_HOURLY_PRICE, getTestRules());
+
+    // when
+    BigDecimal price = priceTable.quote(TEST_SATURDAY, TEST_SATURDAY.plusWeeks(1), false);
+    BigDecimal memberPrice = priceTable.quote(TEST_SATURDAY, TEST_SATURDAY.plusWeeks(1), true);
+
+    // then
+    // 168 hours, 7 * 4 evening peak hours at 1.5 and 4 Saturday peak hours at 1.25
+    BigDecimal expected = BigDecimal.valueOf(168 + 28 * 0.5 + 4 * 0.25)
+        .multiply(TEST_HOURLY_PRICE).setScale(2);
+    assertEquals(expected, price);
+    assertEquals(expected.multiply(new BigDecimal("0.9")).setScale(2), memberPrice);
+  }
+
+  /**
+   * quotes an empty period as free.
+   */
+  @Test
+  void shouldQuoteEmptyPeriodAsZero() {
+    // given
+    AmenityPriceTable priceTable = AmenityPriceTable.compile(TEST_HOURLY_PRICE, getTestRules());
+
+    // when
+    BigDecimal price = priceTable.quote(TEST_SATURDAY, TEST_SATURDAY, true);
+
+    // then
+    assertEquals(new BigDecimal("0.00"), price);
+  }
+
+  private List<CommunityPricingRule> getTestRules() {
+    return Arrays.asList(
+        getPeakRule(null, LocalTime.of(17, 0), LocalTime.of(21, 0), new BigDecimal("1.5")),
+        getPeakRule(DayOfWeek.SATURDAY, LocalTime.of(9, 0), LocalTime.of(13, 0),
+            new BigDecimal("1.25")),
+        new CommunityPricingRule()
+            .withType(PricingRuleType.MEMBER_DISCOUNT)
+            .withMultiplier(new BigDecimal("0.9")));
+  }
+
+  private CommunityPricingRule getPeakRule(DayOfWeek dayOfWeek, LocalTime startTime,
+      LocalTime endTime, BigDecimal multiplier) {
+    return new CommunityPricingRule()
+        .withType(PricingRuleType.PEAK_HOURS)
+        .withDayOfWeek(dayOfWeek)
+        .withStartTime(startTime)
+        .withEndTime(endTime)
+        .withMultiplier(multiplier);
+  }
+}
@@ -20,9 +20,11 @@ import com.myhome.controllers.mapper.AmenityApiMapper;
 import com.myhome.domain.Amenity;
 import com.myhome.domain.Community;
 import com.myhome.model.AmenityDto;
+import com.myhome.model.GetAmenityDetailsResponse;
 import com.myhome.repositories.AmenityRepository;
 import com.myhome.repositories.CommunityRepository;
 import com.myhome.services.CommunityService;
+import com.myhome.services.cache.AmenityCatalogCache;
 import com.myhome.services.springdatajpa.AmenitySDJpaService;
 import helpers.TestUtils;
 import java.math.BigDecimal;
@@ -30,23 +32,25 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.never;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
-import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 /**
  * TODO
@@ -58,6 +62,7 @@ class AmenitySDJpaServiceTest {
   private final String TEST_AMENITY_ID = "test-amenity-id";
   private final String TEST_AMENITY_DESCRIPTION = "test-amenity-description";
   private final String TEST_COMMUNITY_ID = "test-community-id";
+  private final Long TEST_AMENITY_VERSION = 3L;
   private final int TEST_AMENITIES_COUNT = 2;
   @Mock
   private AmenityRepository amenityRepository;
@@ -67,6 +72,8 @@ class AmenitySDJpaServiceTest {
   private CommunityService communityService;
   @Mock
   private AmenityApiMapper amenityApiMapper;
+  @Mock
+  private AmenityCatalogCache amenityCatalogCache;
 
   @InjectMocks
   private AmenitySDJpaService amenitySDJpaService;
@@ -99,6 +106,8 @@ class AmenitySDJpaServiceTest {
     assertTrue(amenityDeleted);
     verify(amenityRepository).findByAmenityIdWithCommunity(TEST_AMENITY_ID);
     verify(amenityRepository).delete(testAmenity);
+    verify(amenityCatalogCache).evictAmenity(TEST_AMENITY_ID,
+        testAmenity.getCommunity().getCommunityId());
   }
 
   /**
@@ -119,6 +128,7 @@ class AmenitySDJpaServiceTest {
     assertFalse(amenityDeleted);
     verify(amenityRepository).findByAmenityIdWithCommunity(TEST_AMENITY_ID);
     verify(amenityRepository, never()).delete(any());
+    verifyNoInteractions(amenityCatalogCache);
   }
 
   /**
@@ -204,6 +214,7 @@ class AmenitySDJpaServiceTest {
     verify(amenityApiMapper).amenityDtoToAmenity(baseAmenityDto);
     verify(amenityRepository).saveAll(amenitiesWithCommunity);
     verify(amenityApiMapper).amenityToAmenityDto(amenityWithCommunity);
+    verify(amenityCatalogCache).evictCommunityCatalog(communityId);
   }
 
   /**
@@ -236,110 +247,178 @@ class AmenitySDJpaServiceTest {
   }
 
   /**
-   * tests the update amenity method of `AmenitySDJpaService`. It mocks the
-   * `AmenityRepository`, `CommunityRepository`, and `AmenityDto` classes to verify the
-   * find, save, and update operations. The function then updates an amenity in the
-   * repository and verifies that the update was successful.
+   * updates an amenity with a single update statement, which also moves it to the
+   * community given in the update, and evicts its cached details and the catalogs.
    */
   @Test
   void shouldUpdateCommunityAmenitySuccessfully() {
     // given
-    Amenity communityAmenity =
-        TestUtils.AmenityHelpers.getTestAmenity(TEST_AMENITY_ID, TEST_AMENITY_DESCRIPTION);
-    Community testCommunity = TestUtils.CommunityHelpers.getTestCommunity();
     AmenityDto updated = getTestAmenityDto();
-    Amenity updatedAmenity = getUpdatedCommunityAmenity();
 
-    given(amenityRepository.findByAmenityId(TEST_AMENITY_ID))
-        .willReturn(Optional.of(communityAmenity));
-    given(communityRepository.findByCommunityId(TEST_COMMUNITY_ID))
-        .willReturn(Optional.of(testCommunity));
-    given(amenityRepository.save(updatedAmenity))
-        .willReturn(updatedAmenity);
+    given(amenityRepository.updateAmenity(TEST_AMENITY_ID, TEST_COMMUNITY_ID,
+        TEST_AMENITY_NAME, TEST_AMENITY_DESCRIPTION, TEST_AMENITY_PRICE, null))
+        .willReturn(1);
 
     // when
     boolean result = amenitySDJpaService.updateAmenity(updated);
 
     // then
     assertTrue(result);
-    verify(amenityRepository).findByAmenityId(TEST_AMENITY_ID);
-    verify(communityRepository).findByCommunityId(TEST_COMMUNITY_ID);
-    verify(amenityRepository).save(updatedAmenity);
+    verify(amenityRepository).updateAmenity(TEST_AMENITY_ID, TEST_COMMUNITY_ID,
+        TEST_AMENITY_NAME, TEST_AMENITY_DESCRIPTION, TEST_AMENITY_PRICE, null);
+    verify(amenityRepository, never()).save(any());
+    verifyNoInteractions(communityRepository);
+    verify(amenityCatalogCache).evictAmenityFromAllCatalogs(TEST_AMENITY_ID);
+  }
+
+  /**
+   * passes the version the update is based on to the update statement.
+   */
+  @Test
+  void shouldUpdateCommunityAmenityWithMatchingVersion() {
+    // given
+    AmenityDto updated = getTestAmenityDto().version(TEST_AMENITY_VERSION);
+
+    given(amenityRepository.updateAmenity(TEST_AMENITY_ID, TEST_COMMUNITY_ID,
+        TEST_AMENITY_NAME, TEST_AMENITY_DESCRIPTION, TEST_AMENITY_PRICE, TEST_AMENITY_VERSION))
+        .willReturn(1);
+
+    // when
+    boolean result = amenitySDJpaService.updateAmenity(updated);
+
+    // then
+    assertTrue(result);
+    verify(amenityRepository, never()).existsByAmenityIdAndVersionNot(any(), any());
+    verify(amenityCatalogCache).evictAmenityFromAllCatalogs(TEST_AMENITY_ID);
   }
 
   /**
    * verifies that the `amenitySDJpaService` does not update a community amenity
-   * successfully if the amenity does not exist in the repository.
+   * successfully if the amenity or the community does not exist.
    */
   @Test
   void shouldNotUpdateCommunityAmenitySuccessfullyIfAmenityNotExists() {
     // given
-    given(amenityRepository.findByAmenityId(TEST_AMENITY_ID))
-        .willReturn(Optional.empty());
+    given(amenityRepository.updateAmenity(TEST_AMENITY_ID, TEST_COMMUNITY_ID,
+        TEST_AMENITY_NAME, TEST_AMENITY_DESCRIPTION, TEST_AMENITY_PRICE, null))
+        .willReturn(0);
 
     // when
     boolean result = amenitySDJpaService.updateAmenity(getTestAmenityDto());
 
     // then
     assertFalse(result);
-    verify(amenityRepository, times(0)).save(getUpdatedCommunityAmenity());
-    verifyNoInteractions(communityRepository);
+    verify(amenityRepository, never()).existsByAmenityIdAndVersionNot(any(), any());
+    verifyNoInteractions(amenityCatalogCache);
+  }
+
+  /**
+   * verifies that an update based on the current version of an amenity which is not
+   * updated, as the community does not exist, is reported as not found, not as a
+   * conflict.
+   */
+  @Test
+  void shouldNotUpdateAmenityIfVersionedAmenityIsNotUpdated() {
+    // given
+    AmenityDto updated = getTestAmenityDto().version(TEST_AMENITY_VERSION);
+
+    given(amenityRepository.updateAmenity(TEST_AMENITY_ID, TEST_COMMUNITY_ID,
+        TEST_AMENITY_NAME, TEST_AMENITY_DESCRIPTION, TEST_AMENITY_PRICE, TEST_AMENITY_VERSION))
+        .willReturn(0);
+    given(amenityRepository.existsByAmenityIdAndVersionNot(TEST_AMENITY_ID,
+        TEST_AMENITY_VERSION))
+        .willReturn(false);
+
+    // when
+    boolean result = amenitySDJpaService.updateAmenity(updated);
+
+    // then
+    assertFalse(result);
+    verifyNoInteractions(amenityCatalogCache);
+  }
+
+  /**
+   * verifies that an update based on an outdated version of an existing amenity fails
+   * with an optimistic locking exception and leaves the cache untouched.
+   */
+  @Test
+  void shouldFailUpdateIfAmenityVersionIsOutdated() {
+    // given
+    AmenityDto updated = getTestAmenityDto().version(TEST_AMENITY_VERSION);
+
+    given(amenityRepository.updateAmenity(TEST_AMENITY_ID, TEST_COMMUNITY_ID,
+        TEST_AMENITY_NAME, TEST_AMENITY_DESCRIPTION, TEST_AMENITY_PRICE, TEST_AMENITY_VERSION))
+        .willReturn(0);
+    given(amenityRepository.existsByAmenityIdAndVersionNot(TEST_AMENITY_ID,
+        TEST_AMENITY_VERSION))
+        .willReturn(true);
+
+    // when and then
+    assertThrows(ObjectOptimisticLockingFailureException.class,
+        () -> amenitySDJpaService.updateAmenity(updated));
+    verifyNoInteractions(amenityCatalogCache);
   }
 
   /**
-   * tests whether updating an amenity using the `amenitySDJpaService` method will fail
-   * if the save operation fails.
+   * loads the details of an amenity through the catalog cache and maps them to the
+   * API response on a cache miss.
    */
   @Test
-  void shouldNotUpdateCommunityAmenitySuccessfullyIfSavingFails() {
+  void findAmenityDetails() {
     // given
     Amenity testAmenity =
         TestUtils.AmenityHelpers.getTestAmenity(TEST_AMENITY_ID, TEST_AMENITY_DESCRIPTION);
-    Amenity updatedAmenity = getUpdatedCommunityAmenity();
-    AmenityDto updatedDto = getTestAmenityDto();
-    Community community = TestUtils.CommunityHelpers.getTestCommunity();
+    GetAmenityDetailsResponse details = new GetAmenityDetailsResponse()
+        .amenityId(TEST_AMENITY_ID)
+        .description(TEST_AMENITY_DESCRIPTION);
 
+    given(amenityCatalogCache.getAmenityDetails(eq(TEST_AMENITY_ID), any()))
+        .willAnswer(invocation -> invocation.<Function<String, Optional<?>>>getArgument(1)
+            .apply(TEST_AMENITY_ID));
     given(amenityRepository.findByAmenityId(TEST_AMENITY_ID))
         .willReturn(Optional.of(testAmenity));
-    given(communityRepository.findByCommunityId(TEST_COMMUNITY_ID))
-        .willReturn(Optional.of(community));
-    given(amenityRepository.save(updatedAmenity))
-        .willReturn(null);
+    given(amenityApiMapper.amenityToAmenityDetailsResponse(testAmenity))
+        .willReturn(details);
 
     // when
-    boolean result = amenitySDJpaService.updateAmenity(updatedDto);
+    Optional<GetAmenityDetailsResponse> result =
+        amenitySDJpaService.findAmenityDetails(TEST_AMENITY_ID);
 
     // then
-    assertFalse(result);
+    assertEquals(Optional.of(details), result);
     verify(amenityRepository).findByAmenityId(TEST_AMENITY_ID);
-    verify(communityRepository).findByCommunityId(TEST_COMMUNITY_ID);
-    verify(amenityRepository).save(updatedAmenity);
+    verify(amenityApiMapper).amenityToAmenityDetailsResponse(testAmenity);
   }
 
   /**
-   * tests whether amenitySDJpaService updates an amenity when a community associated
-   * with it does not exist.
+   * loads the amenity catalog of a community through the catalog cache and maps the
+   * whole set to API responses on a cache miss.
    */
   @Test
-  void shouldNotUpdateAmenityIfCommunityDoesNotExist() {
+  void listAmenityCatalog() {
     // given
-    Amenity communityAmenity =
-        TestUtils.AmenityHelpers.getTestAmenity(TEST_AMENITY_ID, TEST_AMENITY_DESCRIPTION);
-    AmenityDto updatedDto = getTestAmenityDto();
+    Set<Amenity> testAmenities = TestUtils.AmenityHelpers.getTestAmenities(TEST_AMENITIES_COUNT);
+    Community testCommunity = TestUtils.CommunityHelpers.getTestCommunity();
+    testCommunity.setAmenities(testAmenities);
+    Set<GetAmenityDetailsResponse> catalog = new HashSet<>(singletonList(
+        new GetAmenityDetailsResponse().amenityId(TEST_AMENITY_ID)));
 
-    given(amenityRepository.findByAmenityId(TEST_AMENITY_ID))
-        .willReturn(Optional.of(communityAmenity));
-    given(communityRepository.findByCommunityId(TEST_COMMUNITY_ID))
-        .willReturn(Optional.empty());
+    given(amenityCatalogCache.getCommunityCatalog(eq(TEST_COMMUNITY_ID), any()))
+        .willAnswer(invocation -> invocation.<Function<String, Set<?>>>getArgument(1)
+            .apply(TEST_COMMUNITY_ID));
+    given(communityRepository.findByCommunityIdWithAmenities(TEST_COMMUNITY_ID))
+        .willReturn(Optional.of(testCommunity));
+    given(amenityApiMapper.amenitiesSetToAmenityDetailsResponseSet(testAmenities))
+        .willReturn(catalog);
 
     // when
-    boolean result = amenitySDJpaService.updateAmenity(updatedDto);
+    Set<GetAmenityDetailsResponse> result =
+        amenitySDJpaService.listAmenityCatalog(TEST_COMMUNITY_ID);
 
     // then
-    assertFalse(result);
-    verify(amenityRepository).findByAmenityId(TEST_AMENITY_ID);
-    verify(communityRepository).findByCommunityId(TEST_COMMUNITY_ID);
-    verifyNoMoreInteractions(amenityRepository);
+    assertEquals(catalog, result);
+    verify(communityRepository).findByCommunityIdWithAmenities(TEST_COMMUNITY_ID);
+    verify(amenityApiMapper).amenitiesSetToAmenityDetailsResponseSet(testAmenities);
   }
 
   /**
@@ -367,26 +446,4 @@ class AmenitySDJpaServiceTest {
         .price(TEST_AMENITY_PRICE)
         .communityId(TEST_COMMUNITY_ID);
   }
-
-  /**
-   * updates an amenity object with values from a test amenity DTO and attaches it to
-   * a community object.
-   * 
-   * @returns a new `Amenity` object with updated values from a test `AmenityDto`.
-   * 
-   * 	- `withAmenityId`: The amenity ID of the updated community amenity.
-   * 	- `withName`: The name of the updated community amenity.
-   * 	- `withPrice`: The price of the updated community amenity.
-   * 	- `withDescription`: The description of the updated community amenity.
-   * 	- `withCommunity`: The community to which the updated amenity belongs.
-   */
-  private Amenity getUpdatedCommunityAmenity() {
-    AmenityDto communityAmenityDto = getTestAmenityDto();
-    return new Amenity()
-        .withAmenityId(communityAmenityDto.getAmenityId())
-        .withName(communityAmenityDto.getName())
-        .withPrice(communityAmenityDto.getPrice())
-        .withDescription(communityAmenityDto.getDescription())
-        .withCommunity(TestUtils.CommunityHelpers.getTestCommunity());
-  }
-}
\ No newline at end of file
+}
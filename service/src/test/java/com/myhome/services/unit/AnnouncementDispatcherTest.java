@@ -0,0 +1,204 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.unit;
+
+import com.myhome.configuration.properties.mail.MailProperties;
+import com.myhome.domain.Announcement;
+import com.myhome.domain.AnnouncementStatus;
+import com.myhome.domain.Community;
+import com.myhome.repositories.AnnouncementRepository;
+import com.myhome.repositories.UserRepository;
+import com.myhome.repositories.projections.AnnouncementRecipient;
+import com.myhome.services.mail.AnnouncementDispatcher;
+import helpers.LocalSmtpServer;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+
+/**
+ * sends announcements to a local SMTP server, so batches, rejected recipients and
+ * connection failures are reported by a real mail client.
+ */
+class AnnouncementDispatcherTest {
+
+  private static final String COMMUNITY_ID = "test-community-id";
+  private static final int MAX_ATTEMPTS = 2;
+  private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(30);
+  private static final Duration MAX_BACKOFF = Duration.ofMinutes(1);
+
+  @Mock
+  private AnnouncementRepository announcementRepository;
+
+  @Mock
+  private UserRepository userRepository;
+
+  private LocalSmtpServer smtpServer;
+  private Announcement announcement;
+
+  /**
+   * starts the local SMTP server and returns a single due announcement to the community,
+   * storing its progress in place.
+   */
+  @BeforeEach
+  private void init() throws IOException {
+    MockitoAnnotations.initMocks(this);
+    smtpServer = new LocalSmtpServer();
+    announcement = new Announcement()
+        .withAnnouncementId("test-announcement-id")
+        .withCommunity(new Community().withCommunityId(COMMUNITY_ID))
+        .withSubject("'My home' announcement: Water outage")
+        .withHtmlBody("<p>No water on Monday</p>")
+        .withStatus(AnnouncementStatus.SENDING)
+        .withNextBatchAt(LocalDateTime.now());
+    given(announcementRepository.findDueAnnouncements(eq(AnnouncementStatus.SENDING), any(),
+        any())).willReturn(Collections.singletonList(announcement));
+    given(announcementRepository.save(any(Announcement.class)))
+        .willAnswer(invocation -> invocation.getArgument(0));
+  }
+
+  @AfterEach
+  private void stopSmtpServer() throws IOException {
+    smtpServer.close();
+  }
+
+  private AnnouncementDispatcher createDispatcher(int port, int batchSize) {
+    JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+    mailSender.setHost("localhost");
+    mailSender.setPort(port);
+    mailSender.setProtocol("smtp");
+    Properties javaMailProperties = new Properties();
+    javaMailProperties.setProperty("mail.smtp.connectiontimeout", "5000");
+    javaMailProperties.setProperty("mail.smtp.timeout", "5000");
+    mailSender.setJavaMailProperties(javaMailProperties);
+    MailProperties mailProperties = new MailProperties();
+    mailProperties.setUsername("announcements@myhome.test");
+    return new AnnouncementDispatcher(announcementRepository, userRepository, mailSender,
+        mailProperties, batchSize, Integer.MAX_VALUE, Duration.ofMinutes(10), MAX_ATTEMPTS,
+        INITIAL_BACKOFF, MAX_BACKOFF);
+  }
+
+  /**
+   * verifies that recipients are read page by page after the last recipient of the
+   * previous batch, every batch is sent over its own connection, and the announcement
+   * completes with a short page.
+   */
+  @Test
+  void dispatchNextBatchSendsBatchesUntilCompleted() {
+    // given
+    given(userRepository.findCommunityAnnouncementRecipients(eq(COMMUNITY_ID), eq(0L), any()))
+        .willReturn(Arrays.asList(getTestRecipient(1, "admin1"), getTestRecipient(2, "admin2")));
+    given(userRepository.findCommunityAnnouncementRecipients(eq(COMMUNITY_ID), eq(2L), any()))
+        .willReturn(Collections.singletonList(getTestRecipient(5, "admin5")));
+    AnnouncementDispatcher dispatcher = createDispatcher(smtpServer.getPort(), 2);
+
+    // when
+    int firstBatch = dispatcher.dispatchNextBatch();
+    AnnouncementStatus statusAfterFirstBatch = announcement.getStatus();
+    int secondBatch = dispatcher.dispatchNextBatch();
+
+    // then
+    assertEquals(2, firstBatch);
+    assertEquals(AnnouncementStatus.SENDING, statusAfterFirstBatch);
+    assertEquals(1, secondBatch);
+    assertEquals(AnnouncementStatus.COMPLETED, announcement.getStatus());
+    assertEquals(5L, announcement.getLastRecipientId());
+    assertEquals(3L, announcement.getSentMails());
+    assertEquals(0L, announcement.getFailedMails());
+    assertEquals(2, smtpServer.getSessions());
+    assertEquals(Arrays.asList("admin1@myhome.test", "admin2@myhome.test", "admin5@myhome.test"),
+        smtpServer.getDeliveredRecipients());
+  }
+
+  /**
+   * verifies that a recipient rejected by the mail server is counted as failed while the
+   * rest of the batch is delivered.
+   */
+  @Test
+  void dispatchNextBatchCountsRejectedRecipients() {
+    // given
+    given(userRepository.findCommunityAnnouncementRecipients(eq(COMMUNITY_ID), eq(0L), any()))
+        .willReturn(Arrays.asList(getTestRecipient(1, "admin1"),
+            getTestRecipient(2, LocalSmtpServer.REJECTED_PREFIX + "2"),
+            getTestRecipient(3, "admin3")));
+    AnnouncementDispatcher dispatcher = createDispatcher(smtpServer.getPort(), 10);
+
+    // when
+    int handled = dispatcher.dispatchNextBatch();
+
+    // then
+    assertEquals(3, handled);
+    assertEquals(AnnouncementStatus.COMPLETED, announcement.getStatus());
+    assertEquals(3L, announcement.getLastRecipientId());
+    assertEquals(2L, announcement.getSentMails());
+    assertEquals(1L, announcement.getFailedMails());
+    assertEquals(Arrays.asList("admin1@myhome.test", "admin3@myhome.test"),
+        smtpServer.getDeliveredRecipients());
+  }
+
+  /**
+   * verifies that a batch is retried after the initial backoff if the mail server cannot
+   * be reached, keeping the progress, and that the announcement fails after the last
+   * attempt.
+   */
+  @Test
+  void dispatchNextBatchRetriesUnreachableServerAndFails() throws IOException {
+    // given
+    int closedPort = smtpServer.getPort();
+    smtpServer.close();
+    given(userRepository.findCommunityAnnouncementRecipients(eq(COMMUNITY_ID), eq(0L), any()))
+        .willReturn(Collections.singletonList(getTestRecipient(1, "admin1")));
+    AnnouncementDispatcher dispatcher = createDispatcher(closedPort, 10);
+
+    // when
+    LocalDateTime beforeFirstAttempt = LocalDateTime.now();
+    int firstAttempt = dispatcher.dispatchNextBatch();
+    AnnouncementStatus statusAfterFirstAttempt = announcement.getStatus();
+    LocalDateTime retryAt = announcement.getNextBatchAt();
+    int secondAttempt = dispatcher.dispatchNextBatch();
+
+    // then
+    assertEquals(0, firstAttempt);
+    assertEquals(AnnouncementStatus.SENDING, statusAfterFirstAttempt);
+    assertTrue(!retryAt.isBefore(beforeFirstAttempt.plus(INITIAL_BACKOFF)));
+    assertEquals(0, secondAttempt);
+    assertEquals(AnnouncementStatus.FAILED, announcement.getStatus());
+    assertEquals(MAX_ATTEMPTS, announcement.getAttempts());
+    assertEquals(0L, announcement.getLastRecipientId());
+    assertEquals(0L, announcement.getSentMails());
+    assertNotNull(announcement.getFailureReason());
+  }
+
+  private AnnouncementRecipient getTestRecipient(long id, String localPart) {
+    return new AnnouncementRecipient(id, localPart + "@myhome.test");
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.unit;
+
+import com.myhome.configuration.properties.mail.MailTemplatesNames;
+import com.myhome.domain.Announcement;
+import com.myhome.domain.AnnouncementStatus;
+import com.myhome.domain.Community;
+import com.myhome.repositories.AnnouncementRepository;
+import com.myhome.repositories.CommunityRepository;
+import com.myhome.repositories.UserRepository;
+import com.myhome.services.mail.EmailTemplateCatalog;
+import com.myhome.services.springdatajpa.AnnouncementSDJpaService;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.util.AlternativeJdkIdGenerator;
+import org.springframework.util.IdGenerator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class AnnouncementSDJpaServiceTest {
+
+  private static final String COMMUNITY_ID = "test-community-id";
+  private static final String SUBJECT = "Water outage";
+  private static final String MESSAGE = "No water on Monday";
+
+  @Mock
+  private AnnouncementRepository announcementRepository;
+  @Mock
+  private CommunityRepository communityRepository;
+  @Mock
+  private UserRepository userRepository;
+  @Mock
+  private EmailTemplateCatalog emailTemplateCatalog;
+  @Spy
+  private IdGenerator idGenerator = new AlternativeJdkIdGenerator();
+
+  private AnnouncementSDJpaService announcementSDJpaService;
+
+  @BeforeEach
+  private void init() {
+    MockitoAnnotations.initMocks(this);
+    announcementSDJpaService = new AnnouncementSDJpaService(announcementRepository,
+        communityRepository, userRepository, emailTemplateCatalog, idGenerator);
+    given(emailTemplateCatalog.getSubject(eq(MailTemplatesNames.ANNOUNCEMENT), any()))
+        .willReturn("'My home' announcement:");
+    given(emailTemplateCatalog.render(eq(MailTemplatesNames.ANNOUNCEMENT), any(), any()))
+        .willReturn("<p>" + MESSAGE + "</p>");
+    given(announcementRepository.save(any(Announcement.class)))
+        .willAnswer(invocation -> invocation.getArgument(0));
+  }
+
+  /**
+   * verifies that an announcement to a community is rendered once with the community
+   * name and message, and stored as due with the number of its recipients.
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  void announceToCommunity() {
+    // given
+    Community community = new Community().withCommunityId(COMMUNITY_ID).withName("Oak Street");
+    given(communityRepository.findByCommunityId(COMMUNITY_ID)).willReturn(Optional.of(community));
+    given(userRepository.countCommunityAnnouncementRecipients(COMMUNITY_ID)).willReturn(3L);
+
+    // when
+    Optional<Announcement> announcement =
+        announcementSDJpaService.announceToCommunity(COMMUNITY_ID, SUBJECT, MESSAGE);
+
+    // then
+    assertTrue(announcement.isPresent());
+    assertEquals(community, announcement.get().getCommunity());
+    assertEquals("'My home' announcement: " + SUBJECT, announcement.get().getSubject());
+    assertEquals("<p>" + MESSAGE + "</p>", announcement.get().getHtmlBody());
+    assertEquals(AnnouncementStatus.SENDING, announcement.get().getStatus());
+    assertEquals(3L, announcement.get().getRecipientCount());
+    assertEquals(0L, announcement.get().getLastRecipientId());
+    ArgumentCaptor<Map<String, Object>> templateModel = ArgumentCaptor.forClass(Map.class);
+    verify(emailTemplateCatalog).render(eq(MailTemplatesNames.ANNOUNCEMENT), any(),
+        templateModel.capture());
+    assertEquals("Oak Street", templateModel.getValue().get("communityName"));
+    assertEquals(MESSAGE, templateModel.getValue().get("message"));
+  }
+
+  @Test
+  void announceToCommunityNotExists() {
+    // given
+    given(communityRepository.findByCommunityId(COMMUNITY_ID)).willReturn(Optional.empty());
+
+    // when
+    Optional<Announcement> announcement =
+        announcementSDJpaService.announceToCommunity(COMMUNITY_ID, SUBJECT, MESSAGE);
+
+    // then
+    assertFalse(announcement.isPresent());
+    verify(announcementRepository, never()).save(any());
+  }
+
+  /**
+   * verifies that an announcement without recipients is completed at once, so the
+   * dispatcher never picks it up.
+   */
+  @Test
+  void announceToCommunityWithoutRecipients() {
+    // given
+    Community community = new Community().withCommunityId(COMMUNITY_ID).withName("Oak Street");
+    given(communityRepository.findByCommunityId(COMMUNITY_ID)).willReturn(Optional.of(community));
+    given(userRepository.countCommunityAnnouncementRecipients(COMMUNITY_ID)).willReturn(0L);
+
+    // when
+    Optional<Announcement> announcement =
+        announcementSDJpaService.announceToCommunity(COMMUNITY_ID, SUBJECT, MESSAGE);
+
+    // then
+    assertTrue(announcement.isPresent());
+    assertEquals(AnnouncementStatus.COMPLETED, announcement.get().getStatus());
+    assertEquals(0L, announcement.get().getRecipientCount());
+  }
+}
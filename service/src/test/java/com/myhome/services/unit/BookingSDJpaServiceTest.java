@@ -1,23 +1,35 @@
 package com.myhome.services.unit;
 
+import com.myhome.domain.Amenity;
 import com.myhome.domain.AmenityBookingItem;
 import com.myhome.repositories.AmenityBookingItemRepository;
+import com.myhome.repositories.AmenityRepository;
+import com.myhome.services.AmenityOccupancyService;
 import com.myhome.services.springdatajpa.BookingSDJpaService;
-import helpers.TestUtils;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.util.AlternativeJdkIdGenerator;
+import org.springframework.util.IdGenerator;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
-import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 /**
  * TODO
@@ -26,11 +38,18 @@ public class BookingSDJpaServiceTest {
 
   private static final String TEST_BOOKING_ID = "test-booking-id";
   private static final String TEST_AMENITY_ID = "test-amenity-id";
-  private static final String TEST_AMENITY_ID_2 = "test-amenity-id-2";
-  private final String TEST_AMENITY_DESCRIPTION = "test-amenity-description";
+  private static final String TEST_GENERATED_BOOKING_ID = "0174876e-8000-7abc-8def-0123456789ab";
+  private static final LocalDateTime TEST_START_DATE = LocalDateTime.of(2020, 10, 10, 8, 0);
+  private static final LocalDateTime TEST_END_DATE = LocalDateTime.of(2020, 10, 10, 18, 0);
 
   @Mock
   private AmenityBookingItemRepository bookingItemRepository;
+  @Mock
+  private AmenityRepository amenityRepository;
+  @Mock
+  private AmenityOccupancyService amenityOccupancyService;
+  @Spy
+  private IdGenerator idGenerator = new AlternativeJdkIdGenerator();
 
   @InjectMocks
   private BookingSDJpaService bookingSDJpaService;
@@ -44,35 +63,101 @@ public class BookingSDJpaServiceTest {
   }
 
   /**
-   * deletes a booking item from the repository given its amenity booking item ID.
+   * books an existing amenity and records the booking in the occupancy rollups.
    */
   @Test
-  void deleteBookingItem() {
+  void createBooking() {
     // given
-    AmenityBookingItem testBookingItem = getTestBookingItem();
+    Amenity amenity = new Amenity().withAmenityId(TEST_AMENITY_ID);
+    given(amenityRepository.findByAmenityId(TEST_AMENITY_ID))
+        .willReturn(Optional.of(amenity));
+    given(bookingItemRepository.save(any(AmenityBookingItem.class)))
+        .willAnswer(invocation -> invocation.getArgument(0));
+    given(idGenerator.generateId())
+        .willReturn(UUID.fromString(TEST_GENERATED_BOOKING_ID));
+
+    // when
+    Optional<AmenityBookingItem> booking =
+        bookingSDJpaService.createBooking(TEST_AMENITY_ID, TEST_START_DATE, TEST_END_DATE);
+
+    // then
+    assertTrue(booking.isPresent());
+    assertEquals(TEST_GENERATED_BOOKING_ID, booking.get().getAmenityBookingItemId());
+    assertEquals(amenity, booking.get().getAmenity());
+    assertEquals(TEST_START_DATE, booking.get().getBookingStartDate());
+    assertEquals(TEST_END_DATE, booking.get().getBookingEndDate());
+    verify(amenityOccupancyService).recordBookings(Collections.singletonList(booking.get()));
+  }
 
-    given(bookingItemRepository.findByAmenityBookingItemId(TEST_BOOKING_ID))
-        .willReturn(Optional.of(testBookingItem));
-    testBookingItem.setAmenity(TestUtils.AmenityHelpers
-        .getTestAmenity(TEST_AMENITY_ID, TEST_AMENITY_DESCRIPTION));
+  /**
+   * verifies that booking an amenity which does not exist creates nothing.
+   */
+  @Test
+  void createBookingAmenityNotExists() {
+    // given
+    given(amenityRepository.findByAmenityId(TEST_AMENITY_ID))
+        .willReturn(Optional.empty());
+
+    // when
+    Optional<AmenityBookingItem> booking =
+        bookingSDJpaService.createBooking(TEST_AMENITY_ID, TEST_START_DATE, TEST_END_DATE);
+
+    // then
+    assertFalse(booking.isPresent());
+    verifyNoInteractions(bookingItemRepository);
+    verifyNoInteractions(amenityOccupancyService);
+  }
+
+  /**
+   * verifies that an empty or reversed booking period is rejected without looking up
+   * the amenity.
+   */
+  @Test
+  void createBookingInvalidPeriod() {
+    // when
+    Optional<AmenityBookingItem> booking =
+        bookingSDJpaService.createBooking(TEST_AMENITY_ID, TEST_END_DATE, TEST_START_DATE);
+
+    // then
+    assertFalse(booking.isPresent());
+    verifyNoInteractions(amenityRepository);
+    verifyNoInteractions(bookingItemRepository);
+  }
+
+  /**
+   * deletes a booking item given its amenity ID and booking ID and subtracts it from
+   * the occupancy rollups.
+   */
+  @Test
+  void deleteBookingItem() {
+    // given
+    AmenityBookingItem booking = getTestBooking(TEST_BOOKING_ID);
+    given(bookingItemRepository.findByAmenityBookingItemIdAndAmenityId(TEST_BOOKING_ID,
+        TEST_AMENITY_ID))
+        .willReturn(Optional.of(booking));
+    given(bookingItemRepository.deleteByAmenityBookingItemIdAndAmenityId(TEST_BOOKING_ID,
+        TEST_AMENITY_ID))
+        .willReturn(1);
 
     // when
     boolean bookingDeleted = bookingSDJpaService.deleteBooking(TEST_AMENITY_ID, TEST_BOOKING_ID);
 
     // then
     assertTrue(bookingDeleted);
-    verify(bookingItemRepository).findByAmenityBookingItemId(TEST_BOOKING_ID);
-    verify(bookingItemRepository).delete(testBookingItem);
+    verify(bookingItemRepository).deleteByAmenityBookingItemIdAndAmenityId(TEST_BOOKING_ID,
+        TEST_AMENITY_ID);
+    verify(amenityOccupancyService).removeBookings(Collections.singletonList(booking));
   }
 
   /**
-   * verifies that a booking with the given amenity ID and booking ID does not exist
-   * in the repository before deleting it using the `bookingSDJpaService`.
+   * verifies that deleting a booking which does not exist, or which belongs to a
+   * different amenity, deletes nothing and reports failure.
    */
   @Test
   void deleteBookingNotExists() {
     // given
-    given(bookingItemRepository.findByAmenityBookingItemId(TEST_BOOKING_ID))
+    given(bookingItemRepository.findByAmenityBookingItemIdAndAmenityId(TEST_BOOKING_ID,
+        TEST_AMENITY_ID))
         .willReturn(Optional.empty());
 
     // when
@@ -80,45 +165,100 @@ public class BookingSDJpaServiceTest {
 
     // then
     assertFalse(bookingDeleted);
-    verify(bookingItemRepository).findByAmenityBookingItemId(TEST_BOOKING_ID);
-    verify(bookingItemRepository, never()).delete(any());
+    verify(bookingItemRepository, never()).deleteByAmenityBookingItemIdAndAmenityId(anyString(),
+        anyString());
+    verifyNoInteractions(amenityOccupancyService);
   }
 
   /**
-   * tests whether deleting a booking with an amenity ID that does not exist in the
-   * database throws an exception and the correct amenity is not updated.
+   * verifies that a booking deleted concurrently between reading and deleting it is
+   * not subtracted from the occupancy rollups a second time.
    */
   @Test
-  void deleteBookingAmenityNotExists() {
+  void deleteBookingDeletedConcurrently() {
     // given
-    AmenityBookingItem testBookingItem = getTestBookingItem();
+    given(bookingItemRepository.findByAmenityBookingItemIdAndAmenityId(TEST_BOOKING_ID,
+        TEST_AMENITY_ID))
+        .willReturn(Optional.of(getTestBooking(TEST_BOOKING_ID)));
+    given(bookingItemRepository.deleteByAmenityBookingItemIdAndAmenityId(TEST_BOOKING_ID,
+        TEST_AMENITY_ID))
+        .willReturn(0);
 
-    given(bookingItemRepository.findByAmenityBookingItemId(TEST_BOOKING_ID))
-        .willReturn(Optional.of(testBookingItem));
-    testBookingItem.setAmenity(TestUtils.AmenityHelpers
-        .getTestAmenity(TEST_AMENITY_ID_2, TEST_AMENITY_DESCRIPTION));
     // when
     boolean bookingDeleted = bookingSDJpaService.deleteBooking(TEST_AMENITY_ID, TEST_BOOKING_ID);
 
     // then
     assertFalse(bookingDeleted);
-    assertNotEquals(TEST_AMENITY_ID, testBookingItem.getAmenity().getAmenityId());
-    verify(bookingItemRepository).findByAmenityBookingItemId(TEST_BOOKING_ID);
-    verify(bookingItemRepository, never()).delete(any());
+    verifyNoInteractions(amenityOccupancyService);
   }
 
   /**
-   * generates a new instance of `AmenityBookingItem`. It sets the `amenityBookingItemId`
-   * field to a predefined value (`TEST_BOOKING_ID`).
-   * 
-   * @returns a `AmenityBookingItem` object with a unique identifier.
-   * 
-   * 	- `AmenityBookingItemId`: This is an identifier for the booking item, which is
-   * set to `TEST_BOOKING_ID`.
-   * 	- Other attributes: The function does not return any other attributes or properties.
+   * cancels all bookings of an amenity within a period, returns their count and
+   * subtracts them from the occupancy rollups.
    */
-  private AmenityBookingItem getTestBookingItem() {
+  @Test
+  void cancelAmenityBookings() {
+    // given
+    AmenityBookingItem firstBooking = getTestBooking("first-booking-id");
+    firstBooking.setId(1L);
+    AmenityBookingItem secondBooking = getTestBooking("second-booking-id");
+    secondBooking.setId(2L);
+    List<AmenityBookingItem> bookings = Arrays.asList(firstBooking, secondBooking);
+    given(bookingItemRepository.findAllByAmenityIdInPeriod(TEST_AMENITY_ID, TEST_START_DATE,
+        TEST_END_DATE))
+        .willReturn(bookings);
+    given(bookingItemRepository.deleteAllByIdIn(Arrays.asList(1L, 2L)))
+        .willReturn(2);
+
+    // when
+    int cancelledBookings =
+        bookingSDJpaService.cancelAmenityBookings(TEST_AMENITY_ID, TEST_START_DATE, TEST_END_DATE);
+
+    // then
+    assertEquals(2, cancelledBookings);
+    verify(bookingItemRepository).deleteAllByIdIn(Arrays.asList(1L, 2L));
+    verify(amenityOccupancyService).removeBookings(bookings);
+  }
+
+  /**
+   * verifies that cancelling a period without bookings deletes nothing.
+   */
+  @Test
+  void cancelAmenityBookingsNoneInPeriod() {
+    // given
+    given(bookingItemRepository.findAllByAmenityIdInPeriod(TEST_AMENITY_ID, TEST_START_DATE,
+        TEST_END_DATE))
+        .willReturn(Collections.emptyList());
+
+    // when
+    int cancelledBookings =
+        bookingSDJpaService.cancelAmenityBookings(TEST_AMENITY_ID, TEST_START_DATE, TEST_END_DATE);
+
+    // then
+    assertEquals(0, cancelledBookings);
+    verify(bookingItemRepository, never()).deleteAllByIdIn(any());
+    verifyNoInteractions(amenityOccupancyService);
+  }
+
+  /**
+   * verifies that an empty or reversed period does not touch the repository.
+   */
+  @Test
+  void cancelAmenityBookingsInvalidPeriod() {
+    // when
+    int cancelledBookings =
+        bookingSDJpaService.cancelAmenityBookings(TEST_AMENITY_ID, TEST_END_DATE, TEST_START_DATE);
+
+    // then
+    assertEquals(0, cancelledBookings);
+    verifyNoInteractions(bookingItemRepository);
+  }
+
+  private AmenityBookingItem getTestBooking(String bookingId) {
     return new AmenityBookingItem()
-        .withAmenityBookingItemId(TEST_BOOKING_ID);
+        .withAmenityBookingItemId(bookingId)
+        .withAmenity(new Amenity().withAmenityId(TEST_AMENITY_ID))
+        .withBookingStartDate(TEST_START_DATE)
+        .withBookingEndDate(TEST_END_DATE);
   }
 }
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.unit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myhome.repositories.CommunitySnapshotRepository;
+import com.myhome.repositories.projections.AdminSnapshot;
+import com.myhome.repositories.projections.AmenitySnapshot;
+import com.myhome.repositories.projections.CommunitySnapshot;
+import com.myhome.repositories.projections.HouseSnapshot;
+import com.myhome.repositories.projections.MemberSnapshot;
+import com.myhome.repositories.projections.PaymentSnapshot;
+import com.myhome.services.exports.CommunitySnapshotFormat;
+import com.myhome.services.springdatajpa.CommunityExportSDJpaService;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class CommunityExportSDJpaServiceTest {
+
+  private static final String COMMUNITY_ID = "test-community-id";
+  private static final String HOUSE_ID = "test-house-id";
+  private static final String MEMBER_ID = "test-member-id";
+  private static final String ADMIN_ID = "test-admin-id";
+
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+  @Mock
+  private CommunitySnapshotRepository communitySnapshotRepository;
+
+  private CommunityExportSDJpaService communityExportSDJpaService;
+  private AtomicInteger closedStreams;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.initMocks(this);
+    communityExportSDJpaService = new CommunityExportSDJpaService(communitySnapshotRepository,
+        objectMapper, mock(PlatformTransactionManager.class));
+    closedStreams = new AtomicInteger();
+  }
+
+  @Test
+  void exportCommunityAsNdjson() throws Exception {
+    // given
+    givenCommunitySnapshot();
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    // when
+    boolean exported = communityExportSDJpaService.exportCommunity(COMMUNITY_ID,
+        CommunitySnapshotFormat.NDJSON, output);
+
+    // then
+    assertTrue(exported);
+    String[] lines = new String(output.toByteArray(), StandardCharsets.UTF_8).split("\n");
+    assertEquals(7, lines.length);
+    assertEquals("community", objectMapper.readTree(lines[0]).get("type").asText());
+    assertEquals(COMMUNITY_ID, objectMapper.readTree(lines[0]).get("communityId").asText());
+    assertEquals("house", objectMapper.readTree(lines[1]).get("type").asText());
+    assertEquals("house", objectMapper.readTree(lines[2]).get("type").asText());
+    JsonNode member = objectMapper.readTree(lines[3]);
+    assertEquals("member", member.get("type").asText());
+    assertEquals(HOUSE_ID, member.get("houseId").asText());
+    assertEquals("amenity", objectMapper.readTree(lines[4]).get("type").asText());
+    assertEquals("admin", objectMapper.readTree(lines[5]).get("type").asText());
+    JsonNode payment = objectMapper.readTree(lines[6]);
+    assertEquals("payment", payment.get("type").asText());
+    assertEquals("2020-10-10", payment.get("dueDate").asText());
+    assertEquals(MEMBER_ID, payment.get("memberId").asText());
+    assertEquals(5, closedStreams.get());
+  }
+
+  @Test
+  void exportCommunityAsJson() throws Exception {
+    // given
+    givenCommunitySnapshot();
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    // when
+    boolean exported = communityExportSDJpaService.exportCommunity(COMMUNITY_ID,
+        CommunitySnapshotFormat.JSON, output);
+
+    // then
+    assertTrue(exported);
+    JsonNode snapshot = objectMapper.readTree(output.toByteArray());
+    assertEquals(COMMUNITY_ID, snapshot.get("community").get("communityId").asText());
+    assertEquals(2, snapshot.get("houses").size());
+    assertEquals(1, snapshot.get("members").size());
+    assertEquals(1, snapshot.get("amenities").size());
+    assertEquals(ADMIN_ID, snapshot.get("admins").get(0).get("userId").asText());
+    assertEquals(1, snapshot.get("payments").size());
+    assertEquals(5, closedStreams.get());
+  }
+
+  @Test
+  void exportCommunityNotExists() throws Exception {
+    // given
+    given(communitySnapshotRepository.findCommunity(COMMUNITY_ID)).willReturn(Optional.empty());
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    // when
+    boolean exported = communityExportSDJpaService.exportCommunity(COMMUNITY_ID,
+        CommunitySnapshotFormat.JSON, output);
+
+    // then
+    assertFalse(exported);
+    assertEquals(0, output.size());
+    verify(communitySnapshotRepository, never()).streamHouses(COMMUNITY_ID);
+  }
+
+  private void givenCommunitySnapshot() {
+    given(communitySnapshotRepository.findCommunity(COMMUNITY_ID))
+        .willReturn(Optional.of(
+            new CommunitySnapshot(COMMUNITY_ID, "Test Community", "Wonderland")));
+    given(communitySnapshotRepository.streamHouses(COMMUNITY_ID)).willReturn(tracked(
+        new HouseSnapshot(HOUSE_ID, "Test House"),
+        new HouseSnapshot("test-other-house-id", "Test Other House")));
+    given(communitySnapshotRepository.streamMembers(COMMUNITY_ID)).willReturn(tracked(
+        new MemberSnapshot(MEMBER_ID, "Test Member", HOUSE_ID)));
+    given(communitySnapshotRepository.streamAmenities(COMMUNITY_ID)).willReturn(tracked(
+        new AmenitySnapshot("test-amenity-id", "Test Amenity", "Pool", BigDecimal.TEN, null)));
+    given(communitySnapshotRepository.streamAdmins(COMMUNITY_ID)).willReturn(tracked(
+        new AdminSnapshot(ADMIN_ID, "Test Admin", "testadmin@myhome.com")));
+    given(communitySnapshotRepository.streamPayments(COMMUNITY_ID)).willReturn(tracked(
+        new PaymentSnapshot("test-payment-id", BigDecimal.ONE, "Rent", "Monthly rent", true,
+            LocalDate.of(2020, 10, 10), ADMIN_ID, MEMBER_ID)));
+  }
+
+  @SafeVarargs
+  private final <T> Stream<T> tracked(T... records) {
+    return Stream.of(records).onClose(closedStreams::incrementAndGet);
+  }
+}
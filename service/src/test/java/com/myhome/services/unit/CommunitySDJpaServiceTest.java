@@ -41,8 +41,11 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.AlternativeJdkIdGenerator;
+import org.springframework.util.IdGenerator;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -81,6 +84,8 @@ public class CommunitySDJpaServiceTest {
   private CommunityHouseRepository communityHouseRepository;
   @Mock
   private HouseService houseService;
+  @Spy
+  private IdGenerator idGenerator = new AlternativeJdkIdGenerator();
 
   @InjectMocks
   private CommunitySDJpaService communitySDJpaService;
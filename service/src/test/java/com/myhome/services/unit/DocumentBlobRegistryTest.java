@@ -0,0 +1,201 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.unit;
+
+import com.myhome.domain.DocumentBlob;
+import com.myhome.repositories.DocumentBlobRepository;
+import com.myhome.services.blobs.BlobStore;
+import com.myhome.services.blobs.DocumentBlobRegistry;
+import com.myhome.services.blobs.StoredBlob;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class DocumentBlobRegistryTest {
+
+  private static final String CONTENT_HASH =
+      "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+  private static final String REFERENCED_CONTENT_HASH =
+      "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+  private static final int COLLECTION_BATCH_SIZE = 10;
+
+  @Mock
+  private DocumentBlobRepository documentBlobRepository;
+
+  @Mock
+  private BlobStore blobStore;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private DocumentBlobRegistry documentBlobRegistry;
+
+  @BeforeEach
+  private void init() {
+    MockitoAnnotations.initMocks(this);
+    documentBlobRegistry = new DocumentBlobRegistry(documentBlobRepository, blobStore,
+        new TransactionTemplate(transactionManager), Duration.ofHours(1),
+        COLLECTION_BATCH_SIZE);
+  }
+
+  @Test
+  void registerSavesNewContentAsOrphaned() throws IOException {
+    // given
+    given(blobStore.exists(CONTENT_HASH)).willReturn(true);
+
+    // when
+    documentBlobRegistry.register(new StoredBlob(CONTENT_HASH, 42));
+
+    // then
+    ArgumentCaptor<DocumentBlob> documentBlob = ArgumentCaptor.forClass(DocumentBlob.class);
+    verify(documentBlobRepository).save(documentBlob.capture());
+    assertEquals(CONTENT_HASH, documentBlob.getValue().getContentHash());
+    assertEquals(42, documentBlob.getValue().getContentLength());
+    assertEquals(0, documentBlob.getValue().getReferenceCount());
+    assertNotNull(documentBlob.getValue().getOrphanedSince());
+  }
+
+  @Test
+  void registerRestartsGracePeriodOfOrphanedContent() throws IOException {
+    // given
+    given(documentBlobRepository.touchOrphaned(eq(CONTENT_HASH), any())).willReturn(1);
+    given(blobStore.exists(CONTENT_HASH)).willReturn(true);
+
+    // when
+    documentBlobRegistry.register(new StoredBlob(CONTENT_HASH, 42));
+
+    // then
+    verify(documentBlobRepository, never()).save(any());
+  }
+
+  @Test
+  void registerFailsIfContentWasCollected() {
+    // given
+    given(documentBlobRepository.existsByContentHash(CONTENT_HASH)).willReturn(true);
+    given(blobStore.exists(CONTENT_HASH)).willReturn(false);
+
+    // when and then
+    assertThrows(IOException.class,
+        () -> documentBlobRegistry.register(new StoredBlob(CONTENT_HASH, 42)));
+  }
+
+  @Test
+  void removeReferencesMarksContentWithoutReferencesOrphaned() {
+    // when
+    documentBlobRegistry.removeReferences(Collections.singleton(CONTENT_HASH));
+
+    // then
+    verify(documentBlobRepository).removeReferences(Collections.singleton(CONTENT_HASH));
+    verify(documentBlobRepository).markOrphaned(eq(Collections.singleton(CONTENT_HASH)), any());
+  }
+
+  @Test
+  void collectDeletesOnlyContentWhichIsStillOrphaned() throws IOException {
+    // given
+    given(documentBlobRepository.findOrphanedContentHashes(any(), any()))
+        .willReturn(Arrays.asList(CONTENT_HASH, REFERENCED_CONTENT_HASH));
+    given(documentBlobRepository.deleteOrphaned(eq(CONTENT_HASH), any())).willReturn(1);
+    given(documentBlobRepository.deleteOrphaned(eq(REFERENCED_CONTENT_HASH), any()))
+        .willReturn(0);
+    given(blobStore.delete(CONTENT_HASH)).willReturn(true);
+
+    // when
+    int collected = documentBlobRegistry.collectOrphanedBlobs();
+
+    // then
+    assertEquals(1, collected);
+    verify(blobStore).delete(CONTENT_HASH);
+    verify(blobStore, never()).delete(REFERENCED_CONTENT_HASH);
+  }
+
+  @Test
+  void collectDeletesContentBeforeDeletedRegistrationCommits() throws IOException {
+    // given
+    given(documentBlobRepository.findOrphanedContentHashes(any(), any()))
+        .willReturn(Collections.singletonList(CONTENT_HASH));
+    given(documentBlobRepository.deleteOrphaned(eq(CONTENT_HASH), any())).willReturn(1);
+    given(blobStore.delete(CONTENT_HASH)).willReturn(true);
+
+    // when
+    documentBlobRegistry.collectOrphanedBlobs();
+
+    // then
+    InOrder order = inOrder(documentBlobRepository, blobStore, transactionManager);
+    order.verify(documentBlobRepository).deleteOrphaned(eq(CONTENT_HASH), any());
+    order.verify(blobStore).delete(CONTENT_HASH);
+    order.verify(transactionManager).commit(any());
+  }
+
+  @Test
+  void collectKeepsRegistrationIfContentCannotBeDeleted() throws IOException {
+    // given
+    given(documentBlobRepository.findOrphanedContentHashes(any(), any()))
+        .willReturn(Collections.singletonList(CONTENT_HASH));
+    given(documentBlobRepository.deleteOrphaned(eq(CONTENT_HASH), any())).willReturn(1);
+    given(blobStore.delete(CONTENT_HASH)).willThrow(new IOException("busy"));
+
+    // when
+    int collected = documentBlobRegistry.collectOrphanedBlobs();
+
+    // then
+    assertEquals(0, collected);
+    verify(transactionManager).rollback(any());
+    verify(transactionManager, never()).commit(any());
+  }
+
+  @Test
+  void collectStopsAtBatchOfUndeletableContent() throws IOException {
+    // given
+    List<String> batch = new ArrayList<>();
+    for (int i = 0; i < COLLECTION_BATCH_SIZE; i++) {
+      batch.add(String.format("%064d", i));
+    }
+    given(documentBlobRepository.findOrphanedContentHashes(any(), any())).willReturn(batch);
+    given(documentBlobRepository.deleteOrphaned(any(), any())).willReturn(1);
+    given(blobStore.delete(any())).willThrow(new IOException("read-only file system"));
+
+    // when
+    int collected = documentBlobRegistry.collectOrphanedBlobs();
+
+    // then
+    assertEquals(0, collected);
+    verify(documentBlobRepository).findOrphanedContentHashes(any(), any());
+    verify(blobStore, times(COLLECTION_BATCH_SIZE)).delete(any());
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.unit;
+
+import com.myhome.services.images.DocumentImageTranscoder;
+import com.myhome.services.images.TranscodedImage;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DocumentImageTranscoderTest {
+
+  private static final int MAX_DIMENSION = 500;
+  private static final long MAX_BYTES = 64 * 1024;
+
+  private final DocumentImageTranscoder documentImageTranscoder =
+      new DocumentImageTranscoder(MAX_DIMENSION, 0.1f, 0.9f, MAX_BYTES);
+
+  @Test
+  void transcodeDownscalesLargeImage() throws IOException {
+    // given
+    byte[] source = encode(new BufferedImage(2400, 1200, BufferedImage.TYPE_INT_RGB), "png");
+
+    // when
+    Optional<TranscodedImage> transcoded = documentImageTranscoder.transcode(stream(source));
+
+    // then
+    assertTrue(transcoded.isPresent());
+    BufferedImage image = ImageIO.read(stream(transcoded.get().getContent()));
+    assertEquals(480, image.getWidth());
+    assertEquals(240, image.getHeight());
+  }
+
+  @Test
+  void transcodeKeepsResolutionOfSmallImage() throws IOException {
+    // given
+    byte[] source = encode(new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB), "jpg");
+
+    // when
+    Optional<TranscodedImage> transcoded = documentImageTranscoder.transcode(stream(source));
+
+    // then
+    assertTrue(transcoded.isPresent());
+    BufferedImage image = ImageIO.read(stream(transcoded.get().getContent()));
+    assertEquals(300, image.getWidth());
+    assertEquals(200, image.getHeight());
+  }
+
+  @Test
+  void transcodeLowersQualityToFitBudget() throws IOException {
+    // given
+    byte[] source = encode(noise(MAX_DIMENSION, MAX_DIMENSION), "png");
+
+    // when
+    Optional<TranscodedImage> transcoded = documentImageTranscoder.transcode(stream(source));
+
+    // then
+    assertTrue(transcoded.isPresent());
+    assertTrue(transcoded.get().getContent().length <= MAX_BYTES);
+  }
+
+  @Test
+  void transcodeRejectsImageNotFittingBudget() throws IOException {
+    // given
+    DocumentImageTranscoder tinyBudgetTranscoder =
+        new DocumentImageTranscoder(MAX_DIMENSION, 0.1f, 0.9f, 1024);
+    byte[] source = encode(noise(MAX_DIMENSION, MAX_DIMENSION), "png");
+
+    // when
+    Optional<TranscodedImage> transcoded = tinyBudgetTranscoder.transcode(stream(source));
+
+    // then
+    assertFalse(transcoded.isPresent());
+  }
+
+  @Test
+  void transcodeFlattensTransparentImage() throws IOException {
+    // given
+    byte[] source = encode(new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB), "png");
+
+    // when
+    Optional<TranscodedImage> transcoded = documentImageTranscoder.transcode(stream(source));
+
+    // then
+    assertTrue(transcoded.isPresent());
+    assertEquals(100, ImageIO.read(stream(transcoded.get().getContent())).getWidth());
+  }
+
+  @Test
+  void transcodeScalesThumbnailsToRequestedDimensions() throws IOException {
+    // given
+    byte[] source = encode(new BufferedImage(2400, 1200, BufferedImage.TYPE_INT_RGB), "png");
+
+    // when
+    Optional<TranscodedImage> transcoded =
+        documentImageTranscoder.transcode(stream(source), 200, 50, 1000);
+
+    // then
+    assertTrue(transcoded.isPresent());
+    List<byte[]> thumbnails = transcoded.get().getThumbnails();
+    assertEquals(3, thumbnails.size());
+    BufferedImage mediumThumbnail = ImageIO.read(stream(thumbnails.get(0)));
+    assertEquals(200, mediumThumbnail.getWidth());
+    assertEquals(100, mediumThumbnail.getHeight());
+    BufferedImage smallThumbnail = ImageIO.read(stream(thumbnails.get(1)));
+    assertEquals(50, smallThumbnail.getWidth());
+    assertEquals(25, smallThumbnail.getHeight());
+    BufferedImage largeThumbnail = ImageIO.read(stream(thumbnails.get(2)));
+    assertEquals(480, largeThumbnail.getWidth());
+    assertEquals(240, largeThumbnail.getHeight());
+  }
+
+  @Test
+  void transcodeRejectsContentWhichIsNoImage() throws IOException {
+    // when
+    Optional<TranscodedImage> transcoded =
+        documentImageTranscoder.transcode(stream("no image".getBytes()));
+
+    // then
+    assertFalse(transcoded.isPresent());
+  }
+
+  private static BufferedImage noise(int width, int height) {
+    Random random = new Random(42);
+    BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        image.setRGB(x, y, random.nextInt(0x1000000));
+      }
+    }
+    return image;
+  }
+
+  private static byte[] encode(BufferedImage image, String format) throws IOException {
+    try (ByteArrayOutputStream output = new ByteArrayOutputStream()) {
+      ImageIO.write(image, format, output);
+      return output.toByteArray();
+    }
+  }
+
+  private static ByteArrayInputStream stream(byte[] content) {
+    return new ByteArrayInputStream(content);
+  }
+}
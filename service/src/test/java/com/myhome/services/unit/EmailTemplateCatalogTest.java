@@ -0,0 +1,179 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.unit;
+
+import com.myhome.configuration.properties.mail.EmailTemplateLocalizationProperties;
+import com.myhome.configuration.properties.mail.EmailTemplateProperties;
+import com.myhome.configuration.properties.mail.MailTemplatesNames;
+import com.myhome.services.mail.EmailTemplateCatalog;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class EmailTemplateCatalogTest {
+
+  private static final Locale RUSSIAN = new Locale("ru");
+
+  @Mock
+  private ITemplateEngine emailTemplateEngine;
+
+  @Mock
+  private ResourceBundleMessageSource messageSource;
+
+  private EmailTemplateProperties templateProperties;
+
+  private EmailTemplateLocalizationProperties localizationProperties;
+
+  /**
+   * initializes the mocks and properties supporting English and Russian, with template
+   * caching enabled. Subjects are resolved to their key and locale.
+   */
+  @BeforeEach
+  private void init() {
+    MockitoAnnotations.initMocks(this);
+    templateProperties = new EmailTemplateProperties();
+    templateProperties.setCache(true);
+    localizationProperties = new EmailTemplateLocalizationProperties();
+    localizationProperties.setLocales(Arrays.asList(Locale.ENGLISH, RUSSIAN));
+    given(messageSource.getMessage(anyString(), isNull(), anyString(), any(Locale.class)))
+        .willAnswer(invocation -> invocation.getArgument(0) + "@" + invocation.getArgument(3));
+  }
+
+  private EmailTemplateCatalog createCatalog() {
+    return new EmailTemplateCatalog(emailTemplateEngine, messageSource, templateProperties,
+        localizationProperties);
+  }
+
+  /**
+   * verifies that the subjects of a locale are looked up once while templates are
+   * cached, and that requested locales are mapped to the supported locale of their
+   * language, or to the first supported locale.
+   */
+  @Test
+  void getSubjectCachesSubjectsPerSupportedLocale() {
+    // given
+    EmailTemplateCatalog emailTemplateCatalog = createCatalog();
+    String subjectKey = MailTemplatesNames.PASSWORD_RESET.subjectKey;
+    // when
+    String englishSubject =
+        emailTemplateCatalog.getSubject(MailTemplatesNames.PASSWORD_RESET, Locale.US);
+    String defaultSubject =
+        emailTemplateCatalog.getSubject(MailTemplatesNames.PASSWORD_RESET, Locale.GERMAN);
+    String russianSubject =
+        emailTemplateCatalog.getSubject(MailTemplatesNames.PASSWORD_RESET, new Locale("ru", "RU"));
+
+    // then
+    assertEquals(subjectKey + "@en", englishSubject);
+    assertEquals(subjectKey + "@en", defaultSubject);
+    assertEquals(subjectKey + "@ru", russianSubject);
+    verify(messageSource, times(1))
+        .getMessage(eq(subjectKey), isNull(), anyString(), eq(Locale.ENGLISH));
+    verify(messageSource, times(1))
+        .getMessage(eq(subjectKey), isNull(), anyString(), eq(RUSSIAN));
+  }
+
+  /**
+   * verifies that subjects are looked up on every mail while templates are not cached,
+   * so edited bundles are picked up.
+   */
+  @Test
+  void getSubjectWithoutCache() {
+    // given
+    templateProperties.setCache(false);
+    EmailTemplateCatalog emailTemplateCatalog = createCatalog();
+    String subjectKey = MailTemplatesNames.ACCOUNT_CREATED.subjectKey;
+    // when
+    emailTemplateCatalog.getSubject(MailTemplatesNames.ACCOUNT_CREATED, Locale.ENGLISH);
+    emailTemplateCatalog.getSubject(MailTemplatesNames.ACCOUNT_CREATED, Locale.ENGLISH);
+
+    // then
+    verify(messageSource, times(2))
+        .getMessage(eq(subjectKey), isNull(), anyString(), eq(Locale.ENGLISH));
+  }
+
+  /**
+   * verifies that templates are rendered in the supported locale of the request.
+   */
+  @Test
+  void renderUsesSupportedLocale() {
+    // given
+    EmailTemplateCatalog emailTemplateCatalog = createCatalog();
+    given(emailTemplateEngine.process(eq(MailTemplatesNames.ACCOUNT_CONFIRMED.filename),
+        any(Context.class)))
+        .willReturn("HTML");
+    // when
+    String htmlBody = emailTemplateCatalog.render(MailTemplatesNames.ACCOUNT_CONFIRMED,
+        new Locale("ru", "RU"), Collections.singletonMap("username", "test-name"));
+
+    // then
+    assertEquals("HTML", htmlBody);
+    ArgumentCaptor<Context> context = ArgumentCaptor.forClass(Context.class);
+    verify(emailTemplateEngine).process(eq(MailTemplatesNames.ACCOUNT_CONFIRMED.filename),
+        context.capture());
+    assertEquals(RUSSIAN, context.getValue().getLocale());
+    assertEquals("test-name", context.getValue().getVariable("username"));
+  }
+
+  /**
+   * verifies that preloading renders every template for every supported locale.
+   */
+  @Test
+  void preloadTemplatesRendersEveryTemplateAndLocale() {
+    // given
+    templateProperties.setPreload(true);
+    EmailTemplateCatalog emailTemplateCatalog = createCatalog();
+    // when
+    emailTemplateCatalog.preloadTemplates();
+
+    // then
+    for (MailTemplatesNames template : MailTemplatesNames.values()) {
+      verify(emailTemplateEngine, times(2)).process(eq(template.filename), any(Context.class));
+    }
+  }
+
+  /**
+   * verifies that nothing is rendered at startup unless preloading is enabled.
+   */
+  @Test
+  void preloadTemplatesDisabled() {
+    // given
+    EmailTemplateCatalog emailTemplateCatalog = createCatalog();
+    // when
+    emailTemplateCatalog.preloadTemplates();
+
+    // then
+    verify(emailTemplateEngine, never()).process(anyString(), any(Context.class));
+  }
+}
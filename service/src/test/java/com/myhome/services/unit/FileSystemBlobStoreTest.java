@@ -0,0 +1,152 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.unit;
+
+import com.myhome.services.blobs.BlobResource;
+import com.myhome.services.blobs.FileSystemBlobStore;
+import com.myhome.services.blobs.StoredBlob;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.StreamUtils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileSystemBlobStoreTest {
+
+  private static final byte[] CONTENT = "hello".getBytes(StandardCharsets.UTF_8);
+  private static final String CONTENT_HASH =
+      "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+  @TempDir
+  Path root;
+
+  private FileSystemBlobStore blobStore;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    blobStore = new FileSystemBlobStore(root);
+  }
+
+  @Test
+  void storeAddressesContentByHash() throws IOException {
+    // when
+    StoredBlob storedBlob = blobStore.store(channelOf(CONTENT));
+
+    // then
+    assertEquals(CONTENT_HASH, storedBlob.getContentHash());
+    assertEquals(CONTENT.length, storedBlob.getContentLength());
+    assertTrue(blobStore.exists(CONTENT_HASH));
+    assertTrue(Files.exists(root.resolve("2c").resolve(CONTENT_HASH)));
+    try (InputStream content = Channels.newInputStream(blobStore.open(CONTENT_HASH))) {
+      assertArrayEquals(CONTENT, StreamUtils.copyToByteArray(content));
+    }
+  }
+
+  @Test
+  void storeKeepsSingleCopyOfSameContent() throws IOException {
+    // when
+    StoredBlob first = blobStore.store(channelOf(CONTENT));
+    StoredBlob second = blobStore.store(channelOf(CONTENT));
+
+    // then
+    assertEquals(first, second);
+    try (Stream<Path> blobs = Files.list(root.resolve("2c"))) {
+      assertEquals(1, blobs.count());
+    }
+    try (Stream<Path> uploads = Files.list(root.resolve("uploads"))) {
+      assertEquals(0, uploads.count());
+    }
+  }
+
+  @Test
+  void storeContentLargerThanBuffer() throws IOException {
+    // given
+    byte[] content = new byte[200 * 1024 + 7];
+    for (int i = 0; i < content.length; i++) {
+      content[i] = (byte) i;
+    }
+
+    // when
+    StoredBlob storedBlob = blobStore.store(channelOf(content));
+
+    // then
+    assertEquals(content.length, storedBlob.getContentLength());
+    try (InputStream stored =
+        Channels.newInputStream(blobStore.open(storedBlob.getContentHash()))) {
+      assertArrayEquals(content, StreamUtils.copyToByteArray(stored));
+    }
+  }
+
+  @Test
+  void deleteRemovesContent() throws IOException {
+    // given
+    blobStore.store(channelOf(CONTENT));
+
+    // when
+    boolean deleted = blobStore.delete(CONTENT_HASH);
+
+    // then
+    assertTrue(deleted);
+    assertFalse(blobStore.exists(CONTENT_HASH));
+    assertFalse(blobStore.delete(CONTENT_HASH));
+    assertThrows(NoSuchFileException.class, () -> blobStore.open(CONTENT_HASH));
+  }
+
+  @Test
+  void resourceSkipsToRequestedOffset() throws IOException {
+    // given
+    StoredBlob storedBlob = blobStore.store(channelOf(CONTENT));
+    BlobResource resource = new BlobResource(blobStore, storedBlob.getContentHash(),
+        storedBlob.getContentLength(), "document.jpg");
+
+    // when
+    try (InputStream content = resource.getInputStream()) {
+      long skipped = content.skip(3);
+
+      // then
+      assertEquals(3, skipped);
+      assertArrayEquals("lo".getBytes(StandardCharsets.UTF_8),
+          StreamUtils.copyToByteArray(content));
+      assertEquals(0, content.skip(10));
+    }
+  }
+
+  @Test
+  void rejectsInvalidHash() {
+    assertThrows(IllegalArgumentException.class, () -> blobStore.open("../../etc/passwd"));
+    assertThrows(IllegalArgumentException.class, () -> blobStore.exists(null));
+  }
+
+  private static ReadableByteChannel channelOf(byte[] content) {
+    return Channels.newChannel(new ByteArrayInputStream(content));
+  }
+}
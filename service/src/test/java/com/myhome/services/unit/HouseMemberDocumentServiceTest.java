@@ -17,42 +17,72 @@
 package com.myhome.services.unit;
 
 import helpers.TestUtils;
+import com.myhome.domain.DocumentSize;
+import com.myhome.domain.DocumentUploadStatus;
 import com.myhome.domain.HouseMember;
 import com.myhome.domain.HouseMemberDocument;
+import com.myhome.domain.HouseMemberDocumentUpload;
 import com.myhome.repositories.HouseMemberDocumentRepository;
+import com.myhome.repositories.HouseMemberDocumentUploadRepository;
 import com.myhome.repositories.HouseMemberRepository;
+import com.myhome.services.blobs.BlobStore;
+import com.myhome.services.blobs.DocumentBlobRegistry;
+import com.myhome.services.blobs.StoredBlob;
+import com.myhome.services.images.DocumentImageTranscoder;
 import com.myhome.services.springdatajpa.HouseMemberDocumentSDJpaService;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
-import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.AlternativeJdkIdGenerator;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
-import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 public class HouseMemberDocumentServiceTest {
 
   private static final String MEMBER_ID = "test-member-id";
   private static final String MEMBER_NAME = "test-member-name";
+  private static final String TEST_CONTENT_HASH =
+      "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+  private static final String NEW_CONTENT_HASH =
+      "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+  private static final String STAGED_CONTENT_HASH =
+      "60303ae22b998861bce3b28f33eec1be758a213c86c93c076dbe9f558c11c752";
   private static final HouseMemberDocument MEMBER_DOCUMENT =
-      new HouseMemberDocument("test-file-name", new byte[0]);
-  private static final int COMPRESSION_BORDER_SIZE_KB = 99;
+      new HouseMemberDocument("test-file-name", TEST_CONTENT_HASH, 0, MediaType.IMAGE_JPEG_VALUE);
+  private static final int MAX_IMAGE_DIMENSION = 2048;
   private static final int MAX_FILE_SIZE_KB = 1;
-  private static final long COMPRESSED_IMAGE_QUALITY = (long) 0.99;
+  private static final int COMPACTION_BATCH_SIZE = 2;
 
   @Mock
   private HouseMemberRepository houseMemberRepository;
@@ -60,22 +90,59 @@ public class HouseMemberDocumentServiceTest {
   @Mock
   private HouseMemberDocumentRepository houseMemberDocumentRepository;
 
-  @InjectMocks
+  @Mock
+  private HouseMemberDocumentUploadRepository houseMemberDocumentUploadRepository;
+
+  @Mock
+  private BlobStore blobStore;
+
+  @Mock
+  private DocumentBlobRegistry documentBlobRegistry;
+
   private HouseMemberDocumentSDJpaService houseMemberDocumentService;
 
+  private HouseMemberDocumentUpload savedUpload;
+
+  private byte[] stagedContent;
+
   /**
-   * initializes fields for House Member Document Service using MockitoAnnotations and
-   * ReflectionTestUtils, setting values for compression border size, maximum file size,
-   * and compressed image quality.
+   * initializes the House Member Document Service with a transcoder allowing documents
+   * of at most `MAX_FILE_SIZE_KB` at any quality. Uploads are processed on the calling
+   * thread, and the blob store keeps the first stored content as the staged upload.
    */
   @BeforeEach
-  private void init() {
+  private void init() throws IOException {
     MockitoAnnotations.initMocks(this);
-    ReflectionTestUtils.setField(houseMemberDocumentService, "compressionBorderSizeKBytes",
-        COMPRESSION_BORDER_SIZE_KB);
-    ReflectionTestUtils.setField(houseMemberDocumentService, "maxFileSizeKBytes", MAX_FILE_SIZE_KB);
-    ReflectionTestUtils.setField(houseMemberDocumentService, "compressedImageQuality",
-        COMPRESSED_IMAGE_QUALITY);
+    houseMemberDocumentService = createService(Runnable::run);
+    savedUpload = null;
+    stagedContent = null;
+    given(houseMemberDocumentUploadRepository.save(any())).willAnswer(invocation -> {
+      savedUpload = invocation.getArgument(0);
+      return savedUpload;
+    });
+    given(houseMemberDocumentUploadRepository.findByUploadId(any()))
+        .willAnswer(invocation -> Optional.ofNullable(savedUpload));
+    given(blobStore.store(any())).willAnswer(invocation -> {
+      byte[] content = StreamUtils.copyToByteArray(
+          Channels.newInputStream(invocation.<ReadableByteChannel>getArgument(0)));
+      if (stagedContent == null) {
+        stagedContent = content;
+        return new StoredBlob(STAGED_CONTENT_HASH, content.length);
+      }
+      return new StoredBlob(NEW_CONTENT_HASH, content.length);
+    });
+    given(blobStore.open(STAGED_CONTENT_HASH))
+        .willAnswer(invocation -> Channels.newChannel(new ByteArrayInputStream(stagedContent)));
+  }
+
+  private HouseMemberDocumentSDJpaService createService(TaskExecutor executor) {
+    DocumentImageTranscoder documentImageTranscoder = new DocumentImageTranscoder(
+        MAX_IMAGE_DIMENSION, 0, 1, DataSize.ofKilobytes(MAX_FILE_SIZE_KB).toBytes());
+    return new HouseMemberDocumentSDJpaService(houseMemberRepository,
+        houseMemberDocumentRepository, houseMemberDocumentUploadRepository, blobStore,
+        documentBlobRegistry, documentImageTranscoder, new AlternativeJdkIdGenerator(),
+        new TransactionTemplate(mock(PlatformTransactionManager.class)), executor,
+        Runnable::run, COMPACTION_BATCH_SIZE);
   }
 
   /**
@@ -143,7 +210,7 @@ public class HouseMemberDocumentServiceTest {
    * when the member ID is passed as a parameter.
    */
   @Test
-  void deleteMemberDocumentSuccess() {
+  void deleteMemberDocumentSuccess() throws IOException {
     // given
     HouseMember testMember = new HouseMember(MEMBER_ID, MEMBER_DOCUMENT, MEMBER_NAME, null);
     given(houseMemberRepository.findByMemberId(MEMBER_ID))
@@ -156,6 +223,8 @@ public class HouseMemberDocumentServiceTest {
     assertNull(testMember.getHouseMemberDocument());
     verify(houseMemberRepository).findByMemberId(MEMBER_ID);
     verify(houseMemberRepository).save(testMember);
+    verify(documentBlobRegistry).removeReferences(Collections.singleton(TEST_CONTENT_HASH));
+    verify(blobStore, never()).delete(any());
   }
 
   /**
@@ -196,33 +265,43 @@ public class HouseMemberDocumentServiceTest {
   }
 
   /**
-   * updates an existing member's document in the database by saving a new file and
-   * replacing the old one. It verifies that the updated document is present in the
-   * repository and matches the expected value.
+   * updates an existing member's document by processing the uploaded file and replacing
+   * the content of the old document in place. It verifies that the upload completed, the
+   * document row is kept with the new content and the references move from the old
+   * content and the staged upload to the new content.
    */
   @Test
   void updateHouseMemberDocumentSuccess() throws IOException {
     // given
     byte[] imageBytes = TestUtils.General.getImageAsByteArray(10, 10);
     MockMultipartFile newDocumentFile = new MockMultipartFile("new-test-file-name", imageBytes);
-    HouseMemberDocument savedDocument =
-        new HouseMemberDocument(String.format("member_%s_document.jpg", MEMBER_ID), imageBytes);
-    HouseMember testMember = new HouseMember(MEMBER_ID, MEMBER_DOCUMENT, MEMBER_NAME, null);
+    HouseMemberDocument currentDocument =
+        new HouseMemberDocument(String.format("member_%s_document.jpg", MEMBER_ID),
+            TEST_CONTENT_HASH, 0, MediaType.IMAGE_JPEG_VALUE);
+    HouseMember testMember = new HouseMember(MEMBER_ID, currentDocument, MEMBER_NAME, null);
 
     given(houseMemberRepository.findByMemberId(MEMBER_ID))
         .willReturn(Optional.of(testMember));
-    given(houseMemberDocumentRepository.save(savedDocument))
-        .willReturn(savedDocument);
+    given(houseMemberDocumentRepository.save(any()))
+        .willAnswer(invocation -> invocation.getArgument(0));
     // when
-    Optional<HouseMemberDocument> houseMemberDocument =
+    Optional<HouseMemberDocumentUpload> houseMemberDocumentUpload =
         houseMemberDocumentService.updateHouseMemberDocument(newDocumentFile, MEMBER_ID);
 
     // then
-    assertTrue(houseMemberDocument.isPresent());
-    assertEquals(testMember.getHouseMemberDocument(), houseMemberDocument.get());
+    assertTrue(houseMemberDocumentUpload.isPresent());
+    assertEquals(DocumentUploadStatus.COMPLETED, houseMemberDocumentUpload.get().getStatus());
+    assertSame(currentDocument, testMember.getHouseMemberDocument());
+    assertSavedDocument(currentDocument);
     verify(houseMemberRepository).findByMemberId(MEMBER_ID);
-    verify(houseMemberDocumentRepository).save(savedDocument);
-    verify(houseMemberRepository).save(testMember);
+    verify(houseMemberDocumentRepository).save(currentDocument);
+    verify(houseMemberRepository, never()).save(any());
+    verify(blobStore, times(4)).store(any());
+    verify(documentBlobRegistry).addReferences(Collections.singleton(NEW_CONTENT_HASH));
+    verify(documentBlobRegistry).removeReferences(Collections.singleton(TEST_CONTENT_HASH));
+    verify(documentBlobRegistry)
+        .removeReferences(Collections.singleton(STAGED_CONTENT_HASH));
+    verify(blobStore, never()).delete(any());
   }
 
   /**
@@ -239,20 +318,21 @@ public class HouseMemberDocumentServiceTest {
         .willReturn(Optional.empty());
 
     // when
-    Optional<HouseMemberDocument> houseMemberDocument =
+    Optional<HouseMemberDocumentUpload> houseMemberDocumentUpload =
         houseMemberDocumentService.updateHouseMemberDocument(newDocumentFile, MEMBER_ID);
 
     // then
-    assertFalse(houseMemberDocument.isPresent());
+    assertFalse(houseMemberDocumentUpload.isPresent());
     verify(houseMemberRepository).findByMemberId(MEMBER_ID);
+    verify(blobStore, never()).store(any());
     verify(houseMemberDocumentRepository, never()).save(any());
     verify(houseMemberRepository, never()).save(any());
   }
 
   /**
-   * updates a House Member Document with an image file that is too large for storage,
-   * throwing an IOException if encountered. It retrieves the existing House Member
-   * document and compares it to the updated document after save.
+   * updates a House Member Document with an image file that is too large for storage
+   * even after compression. It verifies that the upload failed, the existing document
+   * is kept and the staged upload is released.
    */
   @Test
   void updateHouseMemberDocumentTooLargeFile() throws IOException {
@@ -260,56 +340,53 @@ public class HouseMemberDocumentServiceTest {
     byte[] imageBytes = TestUtils.General.getImageAsByteArray(1000, 1000);
     MockMultipartFile tooLargeDocumentFile =
         new MockMultipartFile("new-test-file-name", imageBytes);
-    HouseMemberDocument savedDocument =
-        new HouseMemberDocument(String.format("member_%s_document.jpg", MEMBER_ID), imageBytes);
     HouseMember testMember = new HouseMember(MEMBER_ID, MEMBER_DOCUMENT, MEMBER_NAME, null);
 
     given(houseMemberRepository.findByMemberId(MEMBER_ID))
         .willReturn(Optional.of(testMember));
-    given(houseMemberDocumentRepository.save(savedDocument))
-        .willReturn(savedDocument);
     // when
-    Optional<HouseMemberDocument> houseMemberDocument =
+    Optional<HouseMemberDocumentUpload> houseMemberDocumentUpload =
         houseMemberDocumentService.updateHouseMemberDocument(tooLargeDocumentFile, MEMBER_ID);
 
     // then
-    assertFalse(houseMemberDocument.isPresent());
+    assertTrue(houseMemberDocumentUpload.isPresent());
+    assertEquals(DocumentUploadStatus.FAILED, houseMemberDocumentUpload.get().getStatus());
     assertEquals(testMember.getHouseMemberDocument(), MEMBER_DOCUMENT);
     verify(houseMemberRepository).findByMemberId(MEMBER_ID);
     verify(houseMemberDocumentRepository, never()).save(any());
     verify(houseMemberRepository, never()).save(any());
+    verify(blobStore, times(1)).store(any());
+    verify(documentBlobRegistry)
+        .removeReferences(Collections.singleton(STAGED_CONTENT_HASH));
   }
 
   /**
-   * creates a new HouseMemberDocument for a given member ID, using a mock file and
-   * repository mockups to test the functionality of the `houseMemberDocumentService`.
-   * It verifies that the created document has a different filename than the existing
-   * document for the same member, and saves both the new document and the original
-   * member data in the repository.
+   * creates a new HouseMemberDocument for a member without a document, using a mock file
+   * and repository mockups to test the functionality of the `houseMemberDocumentService`.
+   * It verifies that the created document gets the filename of the member, and saves
+   * both the new document and the member data in the repository.
    */
   @Test
   void createHouseMemberDocumentSuccess() throws IOException {
     // given
     byte[] imageBytes = TestUtils.General.getImageAsByteArray(10, 10);
-    HouseMemberDocument savedDocument =
-        new HouseMemberDocument(String.format("member_%s_document.jpg", MEMBER_ID), imageBytes);
     MockMultipartFile newDocumentFile = new MockMultipartFile("new-test-file-name", imageBytes);
-    HouseMember testMember = new HouseMember(MEMBER_ID, MEMBER_DOCUMENT, MEMBER_NAME, null);
+    HouseMember testMember = new HouseMember(MEMBER_ID, null, MEMBER_NAME, null);
 
     given(houseMemberRepository.findByMemberId(MEMBER_ID))
         .willReturn(Optional.of(testMember));
-    given(houseMemberDocumentRepository.save(savedDocument))
-        .willReturn(savedDocument);
+    given(houseMemberDocumentRepository.save(any()))
+        .willAnswer(invocation -> invocation.getArgument(0));
     // when
-    Optional<HouseMemberDocument> houseMemberDocument =
+    Optional<HouseMemberDocumentUpload> houseMemberDocumentUpload =
         houseMemberDocumentService.createHouseMemberDocument(newDocumentFile, MEMBER_ID);
 
     // then
-    assertTrue(houseMemberDocument.isPresent());
-    assertNotEquals(testMember.getHouseMemberDocument().getDocumentFilename(),
-        MEMBER_DOCUMENT.getDocumentFilename());
+    assertTrue(houseMemberDocumentUpload.isPresent());
+    assertEquals(DocumentUploadStatus.COMPLETED, houseMemberDocumentUpload.get().getStatus());
+    assertSavedDocument(testMember.getHouseMemberDocument());
     verify(houseMemberRepository).findByMemberId(MEMBER_ID);
-    verify(houseMemberDocumentRepository).save(savedDocument);
+    verify(houseMemberDocumentRepository).save(testMember.getHouseMemberDocument());
     verify(houseMemberRepository).save(testMember);
   }
 
@@ -326,11 +403,11 @@ public class HouseMemberDocumentServiceTest {
     given(houseMemberRepository.findByMemberId(MEMBER_ID))
         .willReturn(Optional.empty());
     // when
-    Optional<HouseMemberDocument> houseMemberDocument =
+    Optional<HouseMemberDocumentUpload> houseMemberDocumentUpload =
         houseMemberDocumentService.createHouseMemberDocument(newDocumentFile, MEMBER_ID);
 
     // then
-    assertFalse(houseMemberDocument.isPresent());
+    assertFalse(houseMemberDocumentUpload.isPresent());
     verify(houseMemberRepository).findByMemberId(MEMBER_ID);
     verify(houseMemberDocumentRepository, never()).save(any());
     verify(houseMemberRepository, never()).save(any());
@@ -338,8 +415,8 @@ public class HouseMemberDocumentServiceTest {
 
   /**
    * tests the creation of a House Member Document with an image file that is too large
-   * for storage. It verifies that the method returns an Optional empty value and the
-   * member's original document is unchanged.
+   * for storage. It verifies that the upload failed and the member's original document
+   * is unchanged.
    */
   @Test
   void createHouseMemberDocumentTooLargeFile() throws IOException {
@@ -352,14 +429,233 @@ public class HouseMemberDocumentServiceTest {
     given(houseMemberRepository.findByMemberId(MEMBER_ID))
         .willReturn(Optional.of(testMember));
     // when
-    Optional<HouseMemberDocument> houseMemberDocument =
+    Optional<HouseMemberDocumentUpload> houseMemberDocumentUpload =
         houseMemberDocumentService.createHouseMemberDocument(tooLargeDocumentFile, MEMBER_ID);
 
     // then
-    assertFalse(houseMemberDocument.isPresent());
+    assertTrue(houseMemberDocumentUpload.isPresent());
+    assertEquals(DocumentUploadStatus.FAILED, houseMemberDocumentUpload.get().getStatus());
     assertEquals(testMember.getHouseMemberDocument(), MEMBER_DOCUMENT);
     verify(houseMemberRepository).findByMemberId(MEMBER_ID);
     verify(houseMemberDocumentRepository, never()).save(any());
     verify(houseMemberRepository, never()).save(any());
   }
+
+  /**
+   * verifies that an upload which is no image fails without touching the document of
+   * the member.
+   */
+  @Test
+  void createHouseMemberDocumentNotAnImage() {
+    // given
+    MockMultipartFile textFile = new MockMultipartFile("new-test-file-name", new byte[] {1, 2});
+    HouseMember testMember = new HouseMember(MEMBER_ID, MEMBER_DOCUMENT, MEMBER_NAME, null);
+
+    given(houseMemberRepository.findByMemberId(MEMBER_ID))
+        .willReturn(Optional.of(testMember));
+    // when
+    Optional<HouseMemberDocumentUpload> houseMemberDocumentUpload =
+        houseMemberDocumentService.createHouseMemberDocument(textFile, MEMBER_ID);
+
+    // then
+    assertTrue(houseMemberDocumentUpload.isPresent());
+    assertEquals(DocumentUploadStatus.FAILED, houseMemberDocumentUpload.get().getStatus());
+    assertEquals(MEMBER_DOCUMENT, testMember.getHouseMemberDocument());
+    verify(houseMemberRepository, never()).save(any());
+  }
+
+  /**
+   * verifies that an upload arriving while all processing workers are busy is failed,
+   * its staged content released, and the rejection passed on to the caller.
+   */
+  @Test
+  void createHouseMemberDocumentRejectedWhenBusy() throws IOException {
+    // given
+    houseMemberDocumentService = createService(task -> {
+      throw new TaskRejectedException("busy");
+    });
+    byte[] imageBytes = TestUtils.General.getImageAsByteArray(10, 10);
+    MockMultipartFile newDocumentFile = new MockMultipartFile("new-test-file-name", imageBytes);
+    HouseMember testMember = new HouseMember(MEMBER_ID, MEMBER_DOCUMENT, MEMBER_NAME, null);
+
+    given(houseMemberRepository.findByMemberId(MEMBER_ID))
+        .willReturn(Optional.of(testMember));
+    // when
+    assertThrows(TaskRejectedException.class,
+        () -> houseMemberDocumentService.createHouseMemberDocument(newDocumentFile, MEMBER_ID));
+
+    // then
+    assertEquals(DocumentUploadStatus.FAILED, savedUpload.getStatus());
+    verify(documentBlobRegistry)
+        .removeReferences(Collections.singleton(STAGED_CONTENT_HASH));
+    verify(houseMemberRepository, never()).save(any());
+  }
+
+  /**
+   * verifies that a batch returns the upload of every document in the order of the
+   * documents, an empty result for a member which does not exist, and fails uploads
+   * which cannot be queued without throwing.
+   */
+  @Test
+  void createHouseMemberDocumentsInBatch() throws IOException {
+    // given
+    houseMemberDocumentService = createService(task -> {
+      throw new TaskRejectedException("busy");
+    });
+    byte[] imageBytes = TestUtils.General.getImageAsByteArray(10, 10);
+    MockMultipartFile firstDocumentFile = new MockMultipartFile("first-file-name", imageBytes);
+    MockMultipartFile secondDocumentFile = new MockMultipartFile("second-file-name", imageBytes);
+    HouseMember testMember = new HouseMember(MEMBER_ID, MEMBER_DOCUMENT, MEMBER_NAME, null);
+
+    given(houseMemberRepository.findByMemberId(MEMBER_ID))
+        .willReturn(Optional.of(testMember));
+    given(houseMemberRepository.findByMemberId("missing-member-id"))
+        .willReturn(Optional.empty());
+    // when
+    List<Optional<HouseMemberDocumentUpload>> uploads =
+        houseMemberDocumentService.createHouseMemberDocuments(
+            Arrays.asList(MEMBER_ID, "missing-member-id"),
+            Arrays.asList(firstDocumentFile, secondDocumentFile));
+
+    // then
+    assertEquals(2, uploads.size());
+    assertTrue(uploads.get(0).isPresent());
+    assertEquals(DocumentUploadStatus.FAILED, uploads.get(0).get().getStatus());
+    assertFalse(uploads.get(1).isPresent());
+    verify(blobStore, times(1)).store(any());
+    verify(houseMemberRepository, never()).save(any());
+  }
+
+  /**
+   * verifies that a batch with a different number of member IDs and documents is
+   * rejected before any document is stored.
+   */
+  @Test
+  void createHouseMemberDocumentsMismatchedMemberIds() {
+    // given
+    MockMultipartFile documentFile = new MockMultipartFile("test-file-name", new byte[] {1});
+    // when
+    assertThrows(IllegalArgumentException.class,
+        () -> houseMemberDocumentService.createHouseMemberDocuments(
+            Arrays.asList(MEMBER_ID, MEMBER_ID), Collections.singletonList(documentFile)));
+
+    // then
+    verify(blobStore, never()).store(any());
+  }
+
+  /**
+   * verifies that content which was transcoded for another document before is not
+   * transcoded again, and the new document refers to the transcoded content.
+   */
+  @Test
+  void createHouseMemberDocumentReusesTranscodedContent() throws IOException {
+    // given
+    byte[] imageBytes = TestUtils.General.getImageAsByteArray(10, 10);
+    MockMultipartFile newDocumentFile = new MockMultipartFile("new-test-file-name", imageBytes);
+    HouseMemberDocument transcodedDocument = new HouseMemberDocument("other-file-name",
+        NEW_CONTENT_HASH, 1, MediaType.IMAGE_JPEG_VALUE);
+    transcodedDocument.setSourceContentHash(STAGED_CONTENT_HASH);
+    HouseMember testMember = new HouseMember(MEMBER_ID, null, MEMBER_NAME, null);
+
+    given(houseMemberRepository.findByMemberId(MEMBER_ID))
+        .willReturn(Optional.of(testMember));
+    given(houseMemberDocumentRepository.findFirstBySourceContentHash(STAGED_CONTENT_HASH))
+        .willReturn(Optional.of(transcodedDocument));
+    given(houseMemberDocumentRepository.save(any()))
+        .willAnswer(invocation -> invocation.getArgument(0));
+    // when
+    Optional<HouseMemberDocumentUpload> houseMemberDocumentUpload =
+        houseMemberDocumentService.createHouseMemberDocument(newDocumentFile, MEMBER_ID);
+
+    // then
+    assertTrue(houseMemberDocumentUpload.isPresent());
+    assertEquals(DocumentUploadStatus.COMPLETED, houseMemberDocumentUpload.get().getStatus());
+    assertSavedDocument(testMember.getHouseMemberDocument());
+    assertEquals(STAGED_CONTENT_HASH, testMember.getHouseMemberDocument().getSourceContentHash());
+    verify(blobStore, times(1)).store(any());
+    verify(documentBlobRegistry).addReferences(Collections.singleton(NEW_CONTENT_HASH));
+    verify(documentBlobRegistry)
+        .removeReferences(Collections.singleton(STAGED_CONTENT_HASH));
+  }
+
+  /**
+   * verifies that uploading the content of the current document again completes the
+   * upload without replacing the document.
+   */
+  @Test
+  void updateHouseMemberDocumentKeepsDocumentOfSameContent() throws IOException {
+    // given
+    byte[] imageBytes = TestUtils.General.getImageAsByteArray(10, 10);
+    MockMultipartFile newDocumentFile = new MockMultipartFile("new-test-file-name", imageBytes);
+    HouseMemberDocument currentDocument = new HouseMemberDocument("test-file-name",
+        NEW_CONTENT_HASH, 1, MediaType.IMAGE_JPEG_VALUE);
+    currentDocument.setSourceContentHash(STAGED_CONTENT_HASH);
+    HouseMember testMember = new HouseMember(MEMBER_ID, currentDocument, MEMBER_NAME, null);
+
+    given(houseMemberRepository.findByMemberId(MEMBER_ID))
+        .willReturn(Optional.of(testMember));
+    given(houseMemberDocumentRepository.findFirstBySourceContentHash(STAGED_CONTENT_HASH))
+        .willReturn(Optional.of(currentDocument));
+    // when
+    Optional<HouseMemberDocumentUpload> houseMemberDocumentUpload =
+        houseMemberDocumentService.updateHouseMemberDocument(newDocumentFile, MEMBER_ID);
+
+    // then
+    assertTrue(houseMemberDocumentUpload.isPresent());
+    assertEquals(DocumentUploadStatus.COMPLETED, houseMemberDocumentUpload.get().getStatus());
+    assertEquals(currentDocument, testMember.getHouseMemberDocument());
+    verify(houseMemberDocumentRepository, never()).save(any());
+    verify(houseMemberRepository, never()).save(any());
+    verify(blobStore, times(1)).store(any());
+    verify(documentBlobRegistry)
+        .removeReferences(Collections.singleton(STAGED_CONTENT_HASH));
+  }
+
+  /**
+   * verifies that documents no member refers to are deleted batch by batch and their
+   * references to their content are removed.
+   */
+  @Test
+  void compactOrphanedDocumentsDeletesInBatches() {
+    // given
+    HouseMemberDocument firstDocument = new HouseMemberDocument("first-file-name",
+        TEST_CONTENT_HASH, 0, MediaType.IMAGE_JPEG_VALUE);
+    HouseMemberDocument secondDocument = new HouseMemberDocument("second-file-name",
+        NEW_CONTENT_HASH, 0, MediaType.IMAGE_JPEG_VALUE);
+    HouseMemberDocument thirdDocument = new HouseMemberDocument("third-file-name",
+        NEW_CONTENT_HASH, 0, MediaType.IMAGE_JPEG_VALUE);
+    given(houseMemberDocumentRepository.findOrphanedDocumentIds(any()))
+        .willReturn(Arrays.asList(1L, 2L), Collections.singletonList(3L));
+    given(houseMemberDocumentRepository.findAllById(Arrays.asList(1L, 2L)))
+        .willReturn(Arrays.asList(firstDocument, secondDocument));
+    given(houseMemberDocumentRepository.findAllById(Collections.singletonList(3L)))
+        .willReturn(Collections.singletonList(thirdDocument));
+    // when
+    int compacted = houseMemberDocumentService.compactOrphanedDocuments();
+
+    // then
+    assertEquals(3, compacted);
+    verify(houseMemberDocumentRepository)
+        .deleteInBatch(Arrays.asList(firstDocument, secondDocument));
+    verify(houseMemberDocumentRepository)
+        .deleteInBatch(Collections.singletonList(thirdDocument));
+    verify(documentBlobRegistry).removeReferences(Collections.singleton(TEST_CONTENT_HASH));
+    verify(documentBlobRegistry, times(2))
+        .removeReferences(Collections.singleton(NEW_CONTENT_HASH));
+  }
+
+  /**
+   * asserts that a processed document was saved under its generated filename with its
+   * transcoded content and a thumbnail in every size.
+   */
+  private static void assertSavedDocument(HouseMemberDocument document) {
+    assertEquals(String.format("member_%s_document.jpg", MEMBER_ID),
+        document.getDocumentFilename());
+    assertEquals(MediaType.IMAGE_JPEG_VALUE, document.getContentType());
+    for (DocumentSize size : DocumentSize.values()) {
+      assertEquals(NEW_CONTENT_HASH, document.getContent(size).getContentHash());
+    }
+    assertNotNull(document.getMediumThumbnail());
+    assertNotNull(document.getSmallThumbnail());
+  }
 }
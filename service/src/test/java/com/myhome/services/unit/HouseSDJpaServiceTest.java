@@ -22,8 +22,11 @@ import com.myhome.domain.HouseMember;
 import com.myhome.repositories.CommunityHouseRepository;
 import com.myhome.repositories.HouseMemberDocumentRepository;
 import com.myhome.repositories.HouseMemberRepository;
+import com.myhome.repositories.projections.HouseMemberSummary;
 import com.myhome.services.springdatajpa.HouseSDJpaService;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -32,10 +35,13 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.util.AlternativeJdkIdGenerator;
+import org.springframework.util.IdGenerator;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -63,6 +69,8 @@ class HouseSDJpaServiceTest {
   private HouseMemberDocumentRepository houseMemberDocumentRepository;
   @Mock
   private CommunityHouseRepository communityHouseRepository;
+  @Spy
+  private IdGenerator idGenerator = new AlternativeJdkIdGenerator();
   @InjectMocks
   private HouseSDJpaService houseSDJpaService;
 
@@ -248,4 +256,27 @@ class HouseSDJpaServiceTest {
     verify(communityHouseRepository, never()).save(communityHouse);
     verifyNoInteractions(houseMemberRepository);
   }
+  /**
+   * verifies that the members of a house are listed from their summaries, without
+   * loading the member entities.
+   */
+  @Test
+  void getHouseMembersById() {
+    // given
+    Pageable pageable = PageRequest.of(0, TEST_HOUSE_MEMBERS_COUNT);
+    List<HouseMemberSummary> houseMembers =
+        Collections.singletonList(new HouseMemberSummary(MEMBER_ID, "test-member-name"));
+    given(houseMemberRepository.findSummariesByHouseId(HOUSE_ID, pageable))
+        .willReturn(houseMembers);
+
+    // when
+    Optional<List<HouseMemberSummary>> resultMembers =
+        houseSDJpaService.getHouseMembersById(HOUSE_ID, pageable);
+
+    // then
+    assertTrue(resultMembers.isPresent());
+    assertEquals(houseMembers, resultMembers.get());
+    verify(houseMemberRepository).findSummariesByHouseId(HOUSE_ID, pageable);
+    verifyNoInteractions(communityHouseRepository);
+  }
 }
\ No newline at end of file
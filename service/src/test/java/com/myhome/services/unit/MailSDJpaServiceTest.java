@@ -1,32 +1,32 @@
 package com.myhome.services.unit;
 
-import com.myhome.configuration.properties.mail.MailProperties;
+import com.myhome.configuration.properties.mail.MailTemplatesNames;
+import com.myhome.domain.OutboundMail;
+import com.myhome.domain.OutboundMailStatus;
 import com.myhome.domain.SecurityToken;
 import com.myhome.domain.User;
+import com.myhome.repositories.OutboundMailRepository;
+import com.myhome.services.mail.EmailTemplateCatalog;
 import com.myhome.services.springdatajpa.MailSDJpaService;
-import helpers.TestUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.context.support.ResourceBundleMessageSource;
-import org.springframework.mail.MailSendException;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
-import org.thymeleaf.ITemplateEngine;
-import org.thymeleaf.context.Context;
 
-import javax.mail.Session;
-import javax.mail.internet.MimeMessage;
-
-import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
 
 /**
  * TODO
@@ -34,22 +34,18 @@ import static org.mockito.Mockito.doThrow;
 class MailSDJpaServiceTest {
 
   @Mock
-  private JavaMailSender mailSender;
-  @Mock
-  private ITemplateEngine emailTemplateEngine;
+  private OutboundMailRepository outboundMailRepository;
   @Mock
-  private ResourceBundleMessageSource messageSource;
+  private EmailTemplateCatalog emailTemplateCatalog;
   private MockHttpServletRequest mockRequest;
 
   private MailSDJpaService mailSDJpaService;
 
-  private MailProperties mailProperties = TestUtils.MailPropertiesHelper.getTestMailProperties();
-
   /**
    * initializes various objects and sets up the RequestContextHolder with a mock
    * HttpServletRequest object, allowing for easier testing of servlets. It also creates
-   * an instance of the `MailSDJpaService` class, which is responsible for sending
-   * emails using JPA and other dependencies.
+   * an instance of the `MailSDJpaService` class, which is responsible for queueing
+   * emails in the outbox.
    */
   @BeforeEach
   private void init() {
@@ -60,97 +56,108 @@ class MailSDJpaServiceTest {
     ServletRequestAttributes attrs = new ServletRequestAttributes(mockRequest);
     RequestContextHolder.setRequestAttributes(attrs);
 
-    mailSDJpaService = new MailSDJpaService(emailTemplateEngine, mailSender, messageSource, mailProperties);
+    mailSDJpaService = new MailSDJpaService(emailTemplateCatalog, outboundMailRepository);
   }
 
   /**
-   * tests the mail sender's ability to send a password recover code email in case of
-   * an exception occurred during the sending process.
+   * tests that a rendered email is queued in the outbox, due right away, instead of
+   * being sent while the request waits.
    */
   @Test
-  void sendPasswordRecoverCodeMailException() {
+  void sendPasswordRecoverCodeQueuesMail() {
     // given
-    MimeMessage mimeMessage = new MimeMessage((Session)null);
     User user = getTestUser();
-    given(emailTemplateEngine.process(eq(""), any(Context.class)))
+    given(emailTemplateCatalog.render(eq(MailTemplatesNames.PASSWORD_RESET), any(), any()))
         .willReturn("HTML");
-    given(mailSender.createMimeMessage())
-        .willReturn(mimeMessage);
-    doThrow(MailSendException.class).when(mailSender).send(mimeMessage);
+    given(emailTemplateCatalog.getSubject(eq(MailTemplatesNames.PASSWORD_RESET), any()))
+        .willReturn("Password recover");
 
     // when
     boolean mailSent = mailSDJpaService.sendPasswordRecoverCode(user, "test-token");
 
     // then
-    assertFalse(mailSent);
+    assertTrue(mailSent);
+    ArgumentCaptor<OutboundMail> queuedMail = ArgumentCaptor.forClass(OutboundMail.class);
+    verify(outboundMailRepository).save(queuedMail.capture());
+    assertEquals("test-email", queuedMail.getValue().getRecipient());
+    assertEquals("Password recover", queuedMail.getValue().getSubject());
+    assertEquals("HTML", queuedMail.getValue().getHtmlBody());
+    assertEquals(OutboundMailStatus.PENDING, queuedMail.getValue().getStatus());
+    assertNotNull(queuedMail.getValue().getNextAttemptAt());
   }
 
   /**
-   * tests whether an exception is thrown when sending a password change notification
-   * email using the `mailSender` service.
+   * tests that a failure to queue a password recover code email in the outbox fails the
+   * caller, whose transaction cannot commit anymore.
    */
   @Test
-  void sendPasswordSuccessfullyChangedMailException() {
+  void sendPasswordRecoverCodeQueueException() {
     // given
-    MimeMessage mimeMessage = new MimeMessage((Session)null);
     User user = getTestUser();
-    given(emailTemplateEngine.process(eq(""), any(Context.class)))
+    given(emailTemplateCatalog.render(any(), any(), any()))
         .willReturn("HTML");
-    given(mailSender.createMimeMessage())
-        .willReturn(mimeMessage);
-    doThrow(MailSendException.class).when(mailSender).send(mimeMessage);
-
-    // when
-    boolean mailSent = mailSDJpaService.sendPasswordSuccessfullyChanged(user);
+    given(outboundMailRepository.save(any()))
+        .willThrow(new DataAccessResourceFailureException("outbox unavailable"));
 
-    // then
-    assertFalse(mailSent);
+    // when and then
+    assertThrows(DataAccessException.class,
+        () -> mailSDJpaService.sendPasswordRecoverCode(user, "test-token"));
   }
 
   /**
-   * tests the failure of sending an account confirmed email through the mail sender
-   * service by throwing a MailSendException when creating the mime message.
+   * tests that a failure to queue a password change notification email in the outbox
+   * fails the caller.
    */
   @Test
-  void sendEmailConfirmedMailException() {
+  void sendPasswordSuccessfullyChangedQueueException() {
     // given
-    MimeMessage mimeMessage = new MimeMessage((Session)null);
     User user = getTestUser();
-    given(emailTemplateEngine.process(eq(""), any(Context.class)))
+    given(emailTemplateCatalog.render(any(), any(), any()))
         .willReturn("HTML");
-    given(mailSender.createMimeMessage())
-        .willReturn(mimeMessage);
-    doThrow(MailSendException.class).when(mailSender).send(mimeMessage);
+    given(outboundMailRepository.save(any()))
+        .willThrow(new DataAccessResourceFailureException("outbox unavailable"));
 
-    // when
-    boolean mailSent = mailSDJpaService.sendAccountConfirmed(user);
+    // when and then
+    assertThrows(DataAccessException.class,
+        () -> mailSDJpaService.sendPasswordSuccessfullyChanged(user));
+  }
 
-    // then
-    assertFalse(mailSent);
+  /**
+   * tests that a DataAccessException thrown by the outbox while an account confirmed
+   * email is queued is passed on to the caller.
+   */
+  @Test
+  void sendEmailConfirmedQueueException() {
+    // given
+    User user = getTestUser();
+    given(emailTemplateCatalog.render(any(), any(), any()))
+        .willReturn("HTML");
+    given(outboundMailRepository.save(any()))
+        .willThrow(new DataAccessResourceFailureException("outbox unavailable"));
+
+    // when and then
+    assertThrows(DataAccessException.class,
+        () -> mailSDJpaService.sendAccountConfirmed(user));
   }
 
   /**
-   * tests whether the `mailSender` service throws a `MailSendException` when sending
-   * an email with an invalid token.
+   * tests that a failure to queue an account created email in the outbox fails the
+   * caller.
    */
   @Test
-  void sendEmailCreatedMailException() {
+  void sendEmailCreatedQueueException() {
     // given
     SecurityToken token = new SecurityToken();
     token.setToken("token");
-    MimeMessage mimeMessage = new MimeMessage((Session)null);
     User user = getTestUser();
-    given(emailTemplateEngine.process(eq(""), any(Context.class)))
+    given(emailTemplateCatalog.render(any(), any(), any()))
         .willReturn("HTML");
-    given(mailSender.createMimeMessage())
-        .willReturn(mimeMessage);
-    doThrow(MailSendException.class).when(mailSender).send(mimeMessage);
-
-    // when
-    boolean mailSent = mailSDJpaService.sendAccountCreated(user, token);
+    given(outboundMailRepository.save(any()))
+        .willThrow(new DataAccessResourceFailureException("outbox unavailable"));
 
-    // then
-    assertFalse(mailSent);
+    // when and then
+    assertThrows(DataAccessException.class,
+        () -> mailSDJpaService.sendAccountCreated(user, token));
   }
 
   /**
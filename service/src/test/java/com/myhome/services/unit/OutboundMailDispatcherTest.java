@@ -0,0 +1,199 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.unit;
+
+import com.myhome.configuration.properties.mail.MailProperties;
+import com.myhome.domain.OutboundMail;
+import com.myhome.domain.OutboundMailStatus;
+import com.myhome.repositories.OutboundMailRepository;
+import com.myhome.services.mail.OutboundMailDispatcher;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class OutboundMailDispatcherTest {
+
+  private static final int BATCH_SIZE = 10;
+  private static final int MAX_ATTEMPTS = 3;
+  private static final Duration CLAIM_TIMEOUT = Duration.ofMinutes(10);
+  private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(30);
+  private static final Duration MAX_BACKOFF = Duration.ofMinutes(1);
+
+  @Mock
+  private OutboundMailRepository outboundMailRepository;
+
+  @Mock
+  private JavaMailSender mailSender;
+
+  private List<MimeMessage> createdMessages;
+
+  /**
+   * initializes the mocks and records every message created by the mail sender, so
+   * tests can fail the sending of single messages. Every mail is claimed successfully
+   * unless a test says otherwise.
+   */
+  @BeforeEach
+  private void init() {
+    MockitoAnnotations.initMocks(this);
+    createdMessages = new ArrayList<>();
+    given(mailSender.createMimeMessage()).willAnswer(invocation -> {
+      MimeMessage message = new MimeMessage((Session) null);
+      createdMessages.add(message);
+      return message;
+    });
+    given(outboundMailRepository.save(any(OutboundMail.class)))
+        .willAnswer(invocation -> invocation.getArgument(0));
+  }
+
+  private OutboundMailDispatcher createDispatcher(int workers) {
+    MailProperties mailProperties = new MailProperties();
+    mailProperties.setUsername("outbox@myhome.test");
+    return new OutboundMailDispatcher(outboundMailRepository, mailSender, mailProperties,
+        Runnable::run, BATCH_SIZE, workers, CLAIM_TIMEOUT, MAX_ATTEMPTS, INITIAL_BACKOFF,
+        MAX_BACKOFF);
+  }
+
+  /**
+   * verifies that due mails are split among the workers, every worker sending its share
+   * in a single call, and that sent mails are deleted from the outbox.
+   */
+  @Test
+  void dispatchDueMailsSendsSharesAndDeletesSentMails() {
+    // given
+    List<OutboundMail> dueMails = Arrays.asList(getTestMail(0), getTestMail(0), getTestMail(0));
+    given(outboundMailRepository.findDueMails(eq(OutboundMailStatus.PENDING), any(), any()))
+        .willReturn(dueMails);
+    // when
+    int sent = createDispatcher(2).dispatchDueMails();
+
+    // then
+    assertEquals(3, sent);
+    verify(mailSender, times(2)).send(any(MimeMessage[].class));
+    verify(outboundMailRepository).deleteInBatch(dueMails);
+  }
+
+  /**
+   * verifies that a mail rejected by the mail server is kept and retried after the
+   * initial backoff, while the other mails of its share are deleted as sent.
+   */
+  @Test
+  void dispatchDueMailsReschedulesFailedMail() {
+    // given
+    OutboundMail failedMail = getTestMail(0);
+    OutboundMail sentMail = getTestMail(0);
+    given(outboundMailRepository.findDueMails(eq(OutboundMailStatus.PENDING), any(), any()))
+        .willReturn(Arrays.asList(failedMail, sentMail));
+    willAnswer(invocation -> {
+      throw new MailSendException(Collections.<Object, Exception>singletonMap(
+          createdMessages.get(0), new MessagingException("mailbox busy")));
+    }).given(mailSender).send(any(MimeMessage[].class));
+    LocalDateTime before = LocalDateTime.now();
+    // when
+    int sent = createDispatcher(1).dispatchDueMails();
+
+    // then
+    assertEquals(1, sent);
+    assertEquals(OutboundMailStatus.PENDING, failedMail.getStatus());
+    assertEquals(1, failedMail.getAttempts());
+    assertEquals("mailbox busy", failedMail.getLastError());
+    assertTrue(!failedMail.getNextAttemptAt().isBefore(before.plus(INITIAL_BACKOFF)));
+    verify(outboundMailRepository).deleteInBatch(Collections.singletonList(sentMail));
+    verify(outboundMailRepository).saveAll(Collections.singleton(failedMail));
+  }
+
+  /**
+   * verifies that a mail failing its last attempt is kept as dead and not retried.
+   */
+  @Test
+  void dispatchDueMailsGivesUpAfterLastAttempt() {
+    // given
+    OutboundMail failedMail = getTestMail(MAX_ATTEMPTS - 1);
+    given(outboundMailRepository.findDueMails(eq(OutboundMailStatus.PENDING), any(), any()))
+        .willReturn(Collections.singletonList(failedMail));
+    doThrow(new MailSendException("Mail server connection failed"))
+        .when(mailSender).send(any(MimeMessage[].class));
+    // when
+    int sent = createDispatcher(1).dispatchDueMails();
+
+    // then
+    assertEquals(0, sent);
+    assertEquals(OutboundMailStatus.DEAD, failedMail.getStatus());
+    assertEquals(MAX_ATTEMPTS, failedMail.getAttempts());
+    verify(outboundMailRepository).saveAll(Collections.singleton(failedMail));
+  }
+
+  /**
+   * verifies that due mails are postponed by the claim timeout before they are sent, and
+   * that a mail claimed by another instance first is neither sent nor deleted.
+   */
+  @Test
+  void dispatchDueMailsSkipsMailClaimedByAnotherInstance() {
+    // given
+    OutboundMail claimedMail = getTestMail(0);
+    OutboundMail takenMail = getTestMail(0);
+    given(outboundMailRepository.findDueMails(eq(OutboundMailStatus.PENDING), any(), any()))
+        .willReturn(Arrays.asList(claimedMail, takenMail));
+    given(outboundMailRepository.save(takenMail))
+        .willThrow(new ObjectOptimisticLockingFailureException(OutboundMail.class, 2L));
+    LocalDateTime before = LocalDateTime.now();
+    // when
+    int sent = createDispatcher(1).dispatchDueMails();
+
+    // then
+    assertEquals(1, sent);
+    assertEquals(1, createdMessages.size());
+    assertTrue(!claimedMail.getNextAttemptAt().isBefore(before.plus(CLAIM_TIMEOUT)));
+    verify(outboundMailRepository).deleteInBatch(Collections.singletonList(claimedMail));
+    verify(outboundMailRepository, never()).deleteInBatch(Arrays.asList(claimedMail, takenMail));
+  }
+
+  private OutboundMail getTestMail(int attempts) {
+    LocalDateTime now = LocalDateTime.now();
+    return new OutboundMail()
+        .withRecipient("member@myhome.test")
+        .withSubject("test-subject")
+        .withHtmlBody("<p>test</p>")
+        .withStatus(OutboundMailStatus.PENDING)
+        .withAttempts(attempts)
+        .withNextAttemptAt(now)
+        .withCreatedAt(now);
+  }
+}
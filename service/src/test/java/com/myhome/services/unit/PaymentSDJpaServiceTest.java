@@ -27,10 +27,13 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.util.AlternativeJdkIdGenerator;
+import org.springframework.util.IdGenerator;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -62,6 +65,8 @@ class PaymentSDJpaServiceTest {
   private PaymentMapper paymentMapper;
   @Mock
   private HouseMemberRepository houseMemberRepository;
+  @Spy
+  private IdGenerator idGenerator = new AlternativeJdkIdGenerator();
   @Captor
   ArgumentCaptor<Example> exampleCaptor;
 
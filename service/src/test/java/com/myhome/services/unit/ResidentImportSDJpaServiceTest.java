@@ -0,0 +1,307 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.myhome.services.unit;
+
+import com.myhome.domain.Community;
+import com.myhome.domain.CommunityHouse;
+import com.myhome.domain.HouseMember;
+import com.myhome.domain.ResidentImport;
+import com.myhome.domain.ResidentImportStatus;
+import com.myhome.repositories.CommunityHouseRepository;
+import com.myhome.repositories.CommunityRepository;
+import com.myhome.repositories.HouseMemberRepository;
+import com.myhome.repositories.ResidentImportRepository;
+import com.myhome.services.imports.ResidentRecordFormat;
+import com.myhome.services.springdatajpa.ResidentImportSDJpaService;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.AlternativeJdkIdGenerator;
+import org.springframework.util.IdGenerator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ResidentImportSDJpaServiceTest {
+
+  private static final String COMMUNITY_ID = "test-community-id";
+  private static final String IMPORT_ID = "test-import-id";
+  private static final int CHUNK_SIZE = 2;
+
+  @Mock
+  private ResidentImportRepository residentImportRepository;
+  @Mock
+  private CommunityRepository communityRepository;
+  @Mock
+  private CommunityHouseRepository communityHouseRepository;
+  @Mock
+  private HouseMemberRepository houseMemberRepository;
+  @Spy
+  private IdGenerator idGenerator = new AlternativeJdkIdGenerator();
+
+  private ResidentImportSDJpaService residentImportSDJpaService;
+  private Community community;
+  private List<CommunityHouse> savedHouses;
+  private List<HouseMember> savedMembers;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.initMocks(this);
+    residentImportSDJpaService = new ResidentImportSDJpaService(residentImportRepository,
+        communityRepository, communityHouseRepository, houseMemberRepository, idGenerator,
+        new TransactionTemplate(mock(PlatformTransactionManager.class)), CHUNK_SIZE);
+
+    community = new Community().withCommunityId(COMMUNITY_ID);
+    community.setId(1L);
+    savedHouses = new ArrayList<>();
+    savedMembers = new ArrayList<>();
+    given(communityHouseRepository.save(any(CommunityHouse.class))).willAnswer(invocation -> {
+      CommunityHouse house = invocation.getArgument(0);
+      house.setId((long) savedHouses.size() + 1);
+      savedHouses.add(house);
+      return house;
+    });
+    given(communityHouseRepository.findAllByCommunity_IdAndNameIn(anyLong(), anyCollection()))
+        .willAnswer(invocation -> {
+          Collection<String> names = invocation.getArgument(1);
+          return savedHouses.stream()
+              .filter(house -> names.contains(house.getName()))
+              .collect(Collectors.toList());
+        });
+    given(houseMemberRepository.save(any(HouseMember.class))).willAnswer(invocation -> {
+      HouseMember member = invocation.getArgument(0);
+      member.setId((long) savedMembers.size() + 1);
+      savedMembers.add(member);
+      return member;
+    });
+  }
+
+  @Test
+  void startImportStoresRecordsInChunks() {
+    // given
+    InputStreamSource residents = csv("houseName,memberName",
+        "House A,Member 1",
+        "House A,Member 2",
+        "House B,",
+        "House C,Member 3",
+        "House A,Member 4");
+    given(communityRepository.findByCommunityId(COMMUNITY_ID)).willReturn(Optional.of(community));
+    givenSavedImportIsTracked();
+
+    // when
+    Optional<ResidentImport> residentImport =
+        residentImportSDJpaService.startImport(COMMUNITY_ID, ResidentRecordFormat.CSV, residents);
+
+    // then
+    assertTrue(residentImport.isPresent());
+    assertEquals(ResidentImportStatus.COMPLETED, residentImport.get().getStatus());
+    assertEquals(5, residentImport.get().getProcessedRecords());
+    assertEquals(3, residentImport.get().getCreatedHouses());
+    assertEquals(4, residentImport.get().getCreatedMembers());
+    assertNull(residentImport.get().getFailureReason());
+    assertEquals(4, savedMembers.stream()
+        .filter(member -> member.getCommunityHouse().getName().equals("House A")
+            || member.getCommunityHouse().getName().equals("House C"))
+        .count());
+    assertTrue(savedHouses.stream().allMatch(house -> house.getCommunity() == community));
+    verify(communityHouseRepository, times(2)).addHousesToTheirCommunity(anyCollection());
+    verify(houseMemberRepository, times(3)).addMembersToTheirHouse(anyCollection());
+  }
+
+  @Test
+  void startImportReadsNdjson() {
+    // given
+    InputStreamSource residents = source(
+        "{\"houseName\":\"House A\",\"memberName\":\"Member 1\"}\n"
+            + "{\"houseName\":\"House B\",\"memberName\":\"Member 2\",\"note\":\"ignored\"}\n");
+    given(communityRepository.findByCommunityId(COMMUNITY_ID)).willReturn(Optional.of(community));
+    givenSavedImportIsTracked();
+
+    // when
+    Optional<ResidentImport> residentImport = residentImportSDJpaService.startImport(
+        COMMUNITY_ID, ResidentRecordFormat.NDJSON, residents);
+
+    // then
+    assertTrue(residentImport.isPresent());
+    assertEquals(ResidentImportStatus.COMPLETED, residentImport.get().getStatus());
+    assertEquals(2, residentImport.get().getProcessedRecords());
+    assertEquals(2, residentImport.get().getCreatedHouses());
+    assertEquals(2, residentImport.get().getCreatedMembers());
+  }
+
+  @Test
+  void startImportCommunityNotExists() {
+    // given
+    given(communityRepository.findByCommunityId(COMMUNITY_ID)).willReturn(Optional.empty());
+
+    // when
+    Optional<ResidentImport> residentImport = residentImportSDJpaService.startImport(
+        COMMUNITY_ID, ResidentRecordFormat.CSV, csv("houseName,memberName", "House A,"));
+
+    // then
+    assertFalse(residentImport.isPresent());
+    verify(residentImportRepository, never()).save(any());
+    verify(communityHouseRepository, never()).save(any());
+  }
+
+  @Test
+  void startImportFailsOnRecordWithoutHouseName() {
+    // given
+    InputStreamSource residents = csv("houseName,memberName",
+        "House A,Member 1",
+        "House B,Member 2",
+        "House C,Member 3",
+        ",Member 4");
+    given(communityRepository.findByCommunityId(COMMUNITY_ID)).willReturn(Optional.of(community));
+    givenSavedImportIsTracked();
+
+    // when
+    Optional<ResidentImport> residentImport =
+        residentImportSDJpaService.startImport(COMMUNITY_ID, ResidentRecordFormat.CSV, residents);
+
+    // then
+    assertTrue(residentImport.isPresent());
+    assertEquals(ResidentImportStatus.FAILED, residentImport.get().getStatus());
+    assertEquals(2, residentImport.get().getProcessedRecords());
+    assertEquals("Record 4 has no house name", residentImport.get().getFailureReason());
+    assertEquals(2, savedHouses.size());
+  }
+
+  @Test
+  void resumeImportSkipsStoredRecords() {
+    // given
+    ResidentImport failedImport = failedImport(2);
+    given(residentImportRepository.findByImportIdAndCommunity_CommunityId(IMPORT_ID,
+        COMMUNITY_ID)).willReturn(Optional.of(failedImport));
+    given(residentImportRepository.findByImportId(IMPORT_ID))
+        .willReturn(Optional.of(failedImport));
+    InputStreamSource residents = csv("houseName,memberName",
+        "House A,Member 1",
+        "House B,Member 2",
+        "House C,Member 3");
+
+    // when
+    Optional<ResidentImport> residentImport = residentImportSDJpaService.resumeImport(
+        COMMUNITY_ID, IMPORT_ID, ResidentRecordFormat.CSV, residents);
+
+    // then
+    assertTrue(residentImport.isPresent());
+    assertEquals(ResidentImportStatus.COMPLETED, residentImport.get().getStatus());
+    assertEquals(3, residentImport.get().getProcessedRecords());
+    assertEquals(3, residentImport.get().getCreatedHouses());
+    assertEquals(3, residentImport.get().getCreatedMembers());
+    assertNull(residentImport.get().getFailureReason());
+    assertEquals(1, savedHouses.size());
+    assertEquals("House C", savedHouses.get(0).getName());
+  }
+
+  @Test
+  void resumeImportCompleted() {
+    // given
+    ResidentImport completedImport = failedImport(3).withStatus(ResidentImportStatus.COMPLETED);
+    given(residentImportRepository.findByImportIdAndCommunity_CommunityId(IMPORT_ID,
+        COMMUNITY_ID)).willReturn(Optional.of(completedImport));
+    InputStreamSource residents = mock(InputStreamSource.class);
+
+    // when
+    Optional<ResidentImport> residentImport = residentImportSDJpaService.resumeImport(
+        COMMUNITY_ID, IMPORT_ID, ResidentRecordFormat.CSV, residents);
+
+    // then
+    assertTrue(residentImport.isPresent());
+    assertSame(completedImport, residentImport.get());
+    verify(residentImportRepository, never()).findByImportId(IMPORT_ID);
+    verify(communityHouseRepository, never()).save(any());
+  }
+
+  @Test
+  void resumeImportNotExists() {
+    // given
+    given(residentImportRepository.findByImportIdAndCommunity_CommunityId(IMPORT_ID,
+        COMMUNITY_ID)).willReturn(Optional.empty());
+
+    // when
+    Optional<ResidentImport> residentImport = residentImportSDJpaService.resumeImport(
+        COMMUNITY_ID, IMPORT_ID, ResidentRecordFormat.CSV, csv("houseName,memberName"));
+
+    // then
+    assertFalse(residentImport.isPresent());
+    verify(residentImportRepository, never()).findByImportId(IMPORT_ID);
+  }
+
+  private void givenSavedImportIsTracked() {
+    List<ResidentImport> savedImports = new ArrayList<>();
+    given(residentImportRepository.save(any(ResidentImport.class))).willAnswer(invocation -> {
+      savedImports.add(invocation.getArgument(0));
+      return invocation.getArgument(0);
+    });
+    given(residentImportRepository.findByImportId(any())).willAnswer(invocation ->
+        savedImports.stream()
+            .filter(residentImport -> residentImport.getImportId()
+                .equals(invocation.getArgument(0)))
+            .findFirst());
+  }
+
+  private ResidentImport failedImport(long processedRecords) {
+    CommunityHouse houseA = new CommunityHouse().withName("House A").withCommunity(community);
+    houseA.setId(101L);
+    CommunityHouse houseB = new CommunityHouse().withName("House B").withCommunity(community);
+    houseB.setId(102L);
+    given(communityHouseRepository.findAllByCommunity_IdAndNameIn(anyLong(), anyCollection()))
+        .willReturn(Arrays.asList(houseA, houseB));
+    return new ResidentImport()
+        .withImportId(IMPORT_ID)
+        .withCommunity(community)
+        .withStatus(ResidentImportStatus.FAILED)
+        .withProcessedRecords(processedRecords)
+        .withCreatedHouses(2)
+        .withCreatedMembers(2)
+        .withFailureReason("Connection reset");
+  }
+
+  private static InputStreamSource csv(String... lines) {
+    return source(String.join("\n", lines) + "\n");
+  }
+
+  private static InputStreamSource source(String content) {
+    return new ByteArrayResource(content.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -27,6 +27,9 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import org.mockito.Spy;
+import org.springframework.util.AlternativeJdkIdGenerator;
+import org.springframework.util.IdGenerator;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -62,6 +65,8 @@ class UserSDJpaServiceTest {
   private MailSDJpaService mailService;
   @Mock
   private SecurityTokenRepository securityTokenRepository;
+  @Spy
+  private IdGenerator idGenerator = new AlternativeJdkIdGenerator();
   @InjectMocks
   private UserSDJpaService userService;
 
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020 Prathab Murugan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helpers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * minimal SMTP server on a free local port standing in for a mail server in tests. It
+ * accepts every message, rejects recipients whose address starts with `rejected`, and
+ * records the sessions it served and the recipients it delivered to.
+ */
+public class LocalSmtpServer implements AutoCloseable {
+
+  public static final String REJECTED_PREFIX = "rejected";
+
+  private final ServerSocket serverSocket;
+  private final Thread acceptor;
+  private final AtomicInteger sessions = new AtomicInteger();
+  private final List<String> deliveredRecipients = new CopyOnWriteArrayList<>();
+
+  public LocalSmtpServer() throws IOException {
+    serverSocket = new ServerSocket(0);
+    acceptor = new Thread(this::acceptSessions, "local-smtp");
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  public int getSessions() {
+    return sessions.get();
+  }
+
+  public List<String> getDeliveredRecipients() {
+    return deliveredRecipients;
+  }
+
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+  }
+
+  private void acceptSessions() {
+    while (!serverSocket.isClosed()) {
+      try (Socket socket = serverSocket.accept()) {
+        sessions.incrementAndGet();
+        serve(socket);
+      } catch (IOException e) {
+        // closed by the test, or the client went away
+      }
+    }
+  }
+
+  private void serve(Socket socket) throws IOException {
+    BufferedReader in = new BufferedReader(
+        new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+    OutputStream out = socket.getOutputStream();
+    List<String> recipients = new CopyOnWriteArrayList<>();
+    reply(out, "220 localhost ESMTP");
+    String line;
+    while ((line = in.readLine()) != null) {
+      String command = line.toUpperCase(Locale.ROOT);
+      if (command.startsWith("EHLO") || command.startsWith("HELO")) {
+        reply(out, "250 localhost");
+      } else if (command.startsWith("MAIL FROM")) {
+        recipients.clear();
+        reply(out, "250 OK");
+      } else if (command.startsWith("RCPT TO")) {
+        String recipient = line.substring(line.indexOf('<') + 1, line.lastIndexOf('>'));
+        if (recipient.startsWith(REJECTED_PREFIX)) {
+          reply(out, "550 No such user");
+        } else {
+          recipients.add(recipient);
+          reply(out, "250 OK");
+        }
+      } else if (command.equals("DATA")) {
+        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+        while ((line = in.readLine()) != null && !line.equals(".")) {
+          // message content is not kept
+        }
+        deliveredRecipients.addAll(recipients);
+        recipients.clear();
+        reply(out, "250 OK");
+      } else if (command.equals("RSET")) {
+        recipients.clear();
+        reply(out, "250 OK");
+      } else if (command.equals("NOOP")) {
+        reply(out, "250 OK");
+      } else if (command.equals("QUIT")) {
+        reply(out, "221 Bye");
+        return;
+      } else {
+        reply(out, "502 Command not implemented");
+      }
+    }
+  }
+
+  private static void reply(OutputStream out, String reply) throws IOException {
+    out.write((reply + "\r\n").getBytes(StandardCharsets.US_ASCII));
+    out.flush();
+  }
+}